@@ -3,11 +3,18 @@ package zemeckis;
 import static org.realityforge.braincheck.Guards.*;
 
 import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 import org.jetbrains.annotations.TestOnly;
 import org.jspecify.annotations.Nullable;
+import org.realityforge.braincheck.BrainCheckConfig;
 
 /**
  * Base executor which other executors can extend.
+ * The task queue is owned by the thread that activates the executor and must only be accessed on that thread.
+ * Tasks are queued from another thread via {@link #submitFromAnyThread(String, Runnable)}, which hands the tasks
+ * to the owning thread through a thread-safe inbox.
  */
 abstract class AbstractExecutor implements VirtualProcessorUnit.Executor {
     /**
@@ -15,37 +22,275 @@ abstract class AbstractExecutor implements VirtualProcessorUnit.Executor {
      */
     private static final int INITIAL_QUEUE_SIZE = 100;
     /**
-     * A queue containing tasks that have been scheduled but are not yet executing.
+     * A queue containing tasks that have been scheduled but are not yet executing, with a lane for each priority.
      */
-    private final CircularBuffer<TaskEntry> _taskQueue;
+    private final TaskLanes _taskQueue;
+    /**
+     * Tasks submitted from any thread that have yet to be moved onto the task queue.
+     */
+    private final Inbox _inbox = new Inbox();
 
     private VirtualProcessorUnit.@Nullable Context _context;
+    /**
+     * The maximum number of tasks retained in the task queue while the page is hidden, or 0 if the task queue
+     * is not bounded while the page is hidden.
+     */
+    private int _hiddenQueueCapacity;
+    /**
+     * The maximum number of tasks in the task queue, or 0 if the task queue is not bounded.
+     */
+    private int _queueCapacity;
+    /**
+     * The action taken when a task is queued and the task queue is at capacity.
+     */
+    private QueueOverflowPolicy _overflowPolicy = QueueOverflowPolicy.REJECT;
+    /**
+     * The size of the task queue at which the high-water mark handler is invoked, or 0 if there is no high-water mark.
+     */
+    private int _highWaterMark;
+
+    @Nullable
+    private QueueHighWaterMarkHandler _highWaterMarkHandler;
+    /**
+     * True if the task queue reached the high-water mark and has not since drained to half the high-water mark.
+     */
+    private boolean _aboveHighWaterMark;
 
     AbstractExecutor() {
-        _taskQueue = new CircularBuffer<>(INITIAL_QUEUE_SIZE);
+        _taskQueue = new TaskLanes(INITIAL_QUEUE_SIZE);
     }
 
     final int getQueueSize() {
-        return getTaskQueue().size();
+        return _taskQueue.size();
+    }
+
+    @Override
+    public final Cancelable queue(@Nullable final String name, final Runnable task) {
+        return queue(name, task, TaskPriority.NORMAL);
     }
 
     @Override
     @SuppressWarnings("Varifier")
-    public final synchronized Cancelable queue(@Nullable final String name, final Runnable task) {
+    public final Cancelable queue(@Nullable final String name, final Runnable task, final TaskPriority priority) {
+        final TaskEntry entry = newTaskEntry(name, task);
+        final boolean queued;
+        QueueHighWaterMarkHandler highWaterMarkHandler = null;
+        int highWaterMarkQueueSize = 0;
         final boolean needsActivation = 0 == getQueueSize();
         ensureNotQueued(name, task);
-        final TaskEntry entry = new TaskEntry(name, task, null);
-        _taskQueue.add(entry);
-        if (needsActivation) {
-            scheduleForActivation();
+        if (_aboveHighWaterMark && getQueueSize() <= _highWaterMark / 2) {
+            // The task queue drained since the high-water mark was reached so report the next time it is reached
+            _aboveHighWaterMark = false;
+        }
+        final QueueOverflowPolicy overflowPolicy = _overflowPolicy;
+        final boolean atCapacity = 0 != _queueCapacity && getQueueSize() >= _queueCapacity;
+        if (atCapacity) {
+            recordQueueOverflow();
+            if (QueueOverflowPolicy.REJECT == overflowPolicy) {
+                throw new IllegalStateException(rejectedMessage(name));
+            } else if (QueueOverflowPolicy.DROP_OLDEST == overflowPolicy) {
+                dropOldestTasks(_queueCapacity - 1);
+            }
+        }
+        queued = !atCapacity || QueueOverflowPolicy.DROP_OLDEST == overflowPolicy;
+        if (queued) {
+            _taskQueue.add(entry, priority);
+            recordTaskQueued(entry);
+            if (0 != _hiddenQueueCapacity && PageVisibility.isHidden()) {
+                dropOldestTasks(_hiddenQueueCapacity);
+            }
+            if (0 != _highWaterMark && !_aboveHighWaterMark && getQueueSize() >= _highWaterMark) {
+                _aboveHighWaterMark = true;
+                highWaterMarkHandler = _highWaterMarkHandler;
+                highWaterMarkQueueSize = getQueueSize();
+            }
+            if (needsActivation) {
+                scheduleForActivation();
+            }
+        }
+        // User code is invoked once the task queue is consistent as it may queue or cancel tasks
+        if (!queued) {
+            if (QueueOverflowPolicy.DROP_NEWEST == overflowPolicy) {
+                entry.cancel();
+            } else {
+                runOnCaller(entry);
+            }
+        } else if (null != highWaterMarkHandler) {
+            final VirtualProcessorUnit virtualProcessorUnit = virtualProcessorUnit();
+            if (null != virtualProcessorUnit) {
+                highWaterMarkHandler.onHighWaterMark(virtualProcessorUnit, highWaterMarkQueueSize);
+            }
         }
         return entry;
     }
 
+    private String rejectedMessage(@Nullable final String name) {
+        return Zemeckis.areNamesEnabled() && BrainCheckConfig.verboseErrorMessages()
+                ? "Unable to queue task named '" + name + "' as the task queue of VirtualProcessorUnit "
+                        + virtualProcessorUnit() + " is at capacity"
+                : "Unable to queue task as the task queue of the VirtualProcessorUnit is at capacity";
+    }
+
+    /**
+     * Run a task that overflowed the task queue on the calling thread.
+     * The task runs within an activation of the VirtualProcessorUnit so that it observes the VirtualProcessorUnit
+     * as the current VirtualProcessorUnit and errors are reported in the same way as for queued tasks. If the
+     * caller is a task of another VirtualProcessorUnit then that VirtualProcessorUnit is suspended while the
+     * task runs.
+     *
+     * @param entry the task.
+     */
+    private void runOnCaller(final TaskEntry entry) {
+        final VirtualProcessorUnit current = VirtualProcessorUnitsHolder.currentVpu();
+        if (null == current) {
+            context().activate(() -> executeTask(entry));
+        } else if (current == virtualProcessorUnit()) {
+            executeTask(entry);
+        } else {
+            VirtualProcessorUnitsHolder.activateWithin(
+                    Objects.requireNonNull(virtualProcessorUnit()), () -> executeTask(entry));
+        }
+    }
+
+    /**
+     * Specify the maximum number of tasks in the task queue and the action taken when a task is queued and
+     * the task queue is at capacity. The capacity applies to tasks queued via {@link #queue(String, Runnable)}.
+     * Tasks queued via {@link #queueNext(String, Runnable)} continue work that is already running and tasks
+     * submitted from another thread can not be rejected, so neither is subject to the capacity.
+     *
+     * @param capacity the maximum number of tasks, or 0 if the task queue is not bounded.
+     * @param policy   the action taken when the task queue is at capacity.
+     */
+    @Override
+    public final void setQueueCapacity(final int capacity, final QueueOverflowPolicy policy) {
+        _queueCapacity = capacity;
+        _overflowPolicy = Objects.requireNonNull(policy);
+    }
+
+    @Override
+    public final void setQueueHighWaterMark(
+            final int highWaterMark, @Nullable final QueueHighWaterMarkHandler handler) {
+        _highWaterMark = highWaterMark;
+        _highWaterMarkHandler = handler;
+        _aboveHighWaterMark = false;
+    }
+
+    private void recordQueueOverflow() {
+        if (Zemeckis.areMetricsEnabled()) {
+            final VirtualProcessorUnit virtualProcessorUnit = virtualProcessorUnit();
+            if (null != virtualProcessorUnit) {
+                virtualProcessorUnit.onQueueOverflow();
+            }
+        }
+    }
+
+    /**
+     * Specify the maximum number of tasks retained in the task queue while the page is hidden.
+     * This is used by executors that are not activated while the page is hidden, such as those activated by
+     * animation frames, so that the task queue does not grow without bound. When a task is queued while the page
+     * is hidden and the task queue is full, the oldest tasks are canceled.
+     *
+     * @param hiddenQueueCapacity the maximum number of tasks, or 0 if the task queue is not bounded.
+     */
+    final void setHiddenQueueCapacity(final int hiddenQueueCapacity) {
+        _hiddenQueueCapacity = hiddenQueueCapacity;
+    }
+
+    /**
+     * Cancel the oldest tasks in the task queue until it contains no more than the specified number of tasks.
+     * Tasks in the lowest priority lane that contains tasks are canceled first.
+     *
+     * @param capacity the number of tasks to retain.
+     */
+    private void dropOldestTasks(final int capacity) {
+        while (getQueueSize() > capacity) {
+            Objects.requireNonNull(_taskQueue.popOldest()).cancel();
+        }
+    }
+
     @Override
     public final void queueNext(@Nullable final String name, final Runnable task) {
         ensureNotQueued(name, task);
-        _taskQueue.addFirst(new TaskEntry(name, task, null));
+        final TaskEntry entry = newTaskEntry(name, task);
+        _taskQueue.addFirst(entry);
+        recordTaskQueued(entry);
+    }
+
+    @GwtIncompatible
+    @Override
+    @SuppressWarnings("Varifier")
+    public final void submitFromAnyThread(@Nullable final String name, final Runnable task) {
+        if (_inbox.add(newTaskEntry(name, task))) {
+            scheduleInboxDrain();
+        }
+    }
+
+    /**
+     * Move all the tasks in the inbox onto the task queue and mark the executor as ready for activation if the
+     * task queue was empty. This must be invoked on the thread that owns the task queue.
+     *
+     * @return the number of tasks moved onto the task queue.
+     */
+    @GwtIncompatible
+    final int drainInbox() {
+        _inbox.startDrain();
+        final boolean needsActivation = 0 == getQueueSize();
+        int count = 0;
+        TaskEntry entry;
+        while (null != (entry = _inbox.poll())) {
+            _taskQueue.add(entry, TaskPriority.NORMAL);
+            recordTaskQueued(entry);
+            count++;
+        }
+        if (needsActivation && 0 != count) {
+            scheduleForActivation();
+        }
+        return count;
+    }
+
+    /**
+     * Arrange for {@link #drainInbox()} to be invoked on the thread that activates the executor.
+     * This is invoked on the submitting thread by the first task submitted after the inbox was last drained.
+     * The inbox must not be drained on the submitting thread as the drain schedules the activation of the
+     * executor, which is not thread-safe. Executors owned by an event loop override this method to wake the
+     * loop and drain the inbox on the loop thread. Other executors do not support tasks submitted from another
+     * thread.
+     */
+    @GwtIncompatible
+    void scheduleInboxDrain() {
+        if (Zemeckis.shouldCheckInvariants()) {
+            fail(() -> "Zemeckis-0035: Attempting to submit a task to VirtualProcessorUnit " + virtualProcessorUnit()
+                    + " from any thread but the VirtualProcessorUnit is not owned by a thread that can drain "
+                    + "the submitted tasks.");
+        }
+    }
+
+    @GwtIncompatible
+    final int getInboxSize() {
+        return _inbox.size();
+    }
+
+    private TaskEntry newTaskEntry(@Nullable final String name, final Runnable task) {
+        return new TaskEntry(name, task, null, Zemeckis.isTaskInstrumentationEnabled() ? virtualProcessorUnit() : null);
+    }
+
+    private void recordTaskQueued(final TaskEntry entry) {
+        if (Zemeckis.isTaskInstrumentationEnabled()) {
+            final VirtualProcessorUnit virtualProcessorUnit = virtualProcessorUnit();
+            if (null != virtualProcessorUnit) {
+                virtualProcessorUnit.onTaskQueued(entry, getQueueSize());
+            }
+        }
+    }
+
+    /**
+     * Return the VirtualProcessorUnit that the executor is associated with.
+     *
+     * @return the VirtualProcessorUnit or null if the executor has not been initialized by a VirtualProcessorUnit.
+     */
+    @Nullable
+    final VirtualProcessorUnit virtualProcessorUnit() {
+        return null != _context ? _context.virtualProcessorUnit() : null;
     }
 
     private void ensureNotQueued(@Nullable final String name, final Runnable task) {
@@ -56,16 +301,48 @@ abstract class AbstractExecutor implements VirtualProcessorUnit.Executor {
         }
     }
 
+    /**
+     * Return the lane of the task queue that contains tasks with the {@link TaskPriority#NORMAL} priority.
+     *
+     * @return the lane of the task queue.
+     */
     final CircularBuffer<TaskEntry> getTaskQueue() {
-        return _taskQueue;
+        return _taskQueue.normal();
+    }
+
+    /**
+     * Return the tasks in the task queue, from the highest priority lane to the lowest priority lane.
+     *
+     * @return the tasks in the task queue.
+     */
+    final Stream<TaskEntry> streamTasks() {
+        return _taskQueue.stream();
+    }
+
+    final void clearTasks() {
+        _taskQueue.clear();
     }
 
     final void executeNextTask() {
-        final TaskEntry task = Objects.requireNonNull(_taskQueue.pop());
+        executeTask(Objects.requireNonNull(_taskQueue.pop()));
+    }
+
+    private void executeTask(final TaskEntry task) {
+        final Object execution = JfrEvents.taskExecutionStarted();
         try {
             task.execute();
         } catch (final Throwable t) {
+            if (Zemeckis.areMetricsEnabled()) {
+                final VirtualProcessorUnit virtualProcessorUnit = virtualProcessorUnit();
+                if (null != virtualProcessorUnit) {
+                    virtualProcessorUnit.onTaskFailed();
+                }
+            }
             Zemeckis.reportUncaughtError(t);
+        } finally {
+            if (null != execution) {
+                JfrEvents.taskExecutionCompleted(execution, virtualProcessorUnit(), task.getName());
+            }
         }
     }
 
@@ -77,8 +354,13 @@ abstract class AbstractExecutor implements VirtualProcessorUnit.Executor {
     @TestOnly
     @Override
     public void reset() {
-        _taskQueue.clear();
-        _taskQueue.truncate(INITIAL_QUEUE_SIZE);
+        _inbox.clear();
+        _taskQueue.reset();
+        _queueCapacity = 0;
+        _overflowPolicy = QueueOverflowPolicy.REJECT;
+        _highWaterMark = 0;
+        _highWaterMarkHandler = null;
+        _aboveHighWaterMark = false;
     }
 
     final VirtualProcessorUnit.Context context() {
@@ -91,4 +373,55 @@ abstract class AbstractExecutor implements VirtualProcessorUnit.Executor {
      * This typically means scheduling Executor to call activate on the correct VPU.
      */
     abstract void scheduleForActivation();
+
+    private static final class Inbox extends AbstractInbox {
+        @GwtIncompatible
+        private final ConcurrentLinkedQueue<TaskEntry> _entries = new ConcurrentLinkedQueue<>();
+        /**
+         * True if a drain of the inbox has been scheduled and the drain has not yet started.
+         */
+        @GwtIncompatible
+        private final AtomicBoolean _drainScheduled = new AtomicBoolean();
+
+        /**
+         * Add the entry to the inbox.
+         *
+         * @param entry the entry.
+         * @return true if the caller must schedule a drain of the inbox, false if a drain is already scheduled.
+         */
+        @GwtIncompatible
+        boolean add(final TaskEntry entry) {
+            _entries.add(entry);
+            // The drain clears the flag before it empties the inbox so an entry added while a drain is
+            // scheduled is either moved by that drain or schedules another drain
+            return _drainScheduled.compareAndSet(false, true);
+        }
+
+        @GwtIncompatible
+        void startDrain() {
+            _drainScheduled.set(false);
+        }
+
+        @GwtIncompatible
+        @Nullable
+        TaskEntry poll() {
+            return _entries.poll();
+        }
+
+        @GwtIncompatible
+        int size() {
+            return _entries.size();
+        }
+
+        @GwtIncompatible
+        @Override
+        void clear() {
+            _entries.clear();
+            _drainScheduled.set(false);
+        }
+    }
+
+    private abstract static class AbstractInbox {
+        void clear() {}
+    }
 }
@@ -0,0 +1,100 @@
+package zemeckis;
+
+import grim.annotations.OmitType;
+
+/**
+ * Selects between two candidate backends based on the latency measured each time a backend is used.
+ * The selector maintains an exponentially weighted moving average of the latency of each backend and selects
+ * the backend with the lowest average. The selector only switches backends when the alternative is faster by
+ * more than {@link #SWITCH_THRESHOLD} so that noise in the measurements does not cause it to alternate between
+ * backends. As the latency of a backend is only measured when it is used, the alternative backend is selected
+ * every {@link #PROBE_INTERVAL} selections so that the selector notices when the alternative improves, such as
+ * when a throttled tab returns to the foreground.
+ */
+@OmitType(unless = "zemeckis.use_adaptive_scheduling_backends")
+final class AdaptiveBackendSelector {
+    /**
+     * The index of the first candidate backend.
+     */
+    static final int PRIMARY = 0;
+    /**
+     * The index of the second candidate backend.
+     */
+    static final int SECONDARY = 1;
+    /**
+     * The number of selections between probes of the backend that is not the current backend.
+     */
+    static final int PROBE_INTERVAL = 32;
+    /**
+     * The weight given to the latest measurement when updating the moving average.
+     */
+    static final double SMOOTHING_FACTOR = 0.25D;
+    /**
+     * The fraction of the latency of the current backend that the alternative must be below before it is selected.
+     */
+    static final double SWITCH_THRESHOLD = 0.8D;
+
+    private final double[] _averageLatency = new double[] {-1, -1};
+    private int _current;
+    private int _selections;
+
+    /**
+     * Create the selector.
+     *
+     * @param initial the backend selected before any latency has been measured.
+     */
+    AdaptiveBackendSelector(final int initial) {
+        _current = initial;
+    }
+
+    /**
+     * Return the backend to use for the next task.
+     *
+     * @return the index of the backend.
+     */
+    int select() {
+        _selections++;
+        return 0 == _selections % PROBE_INTERVAL ? other(_current) : _current;
+    }
+
+    /**
+     * Return the backend that is currently preferred.
+     *
+     * @return the index of the backend.
+     */
+    int getCurrent() {
+        return _current;
+    }
+
+    /**
+     * Return the moving average of the latency measured for a backend.
+     *
+     * @param backend the index of the backend.
+     * @return the average latency in milliseconds or -1 if no latency has been measured for the backend.
+     */
+    double getAverageLatency(final int backend) {
+        return _averageLatency[backend];
+    }
+
+    /**
+     * Record the latency measured when the backend was used and select the backend to prefer.
+     *
+     * @param backend the index of the backend.
+     * @param latency the latency in milliseconds. Negative values are recorded as 0.
+     */
+    void record(final int backend, final double latency) {
+        final double value = Math.max(0, latency);
+        final double average = _averageLatency[backend];
+        _averageLatency[backend] = average < 0 ? value : average + SMOOTHING_FACTOR * (value - average);
+
+        final double currentLatency = _averageLatency[_current];
+        final double otherLatency = _averageLatency[other(_current)];
+        if (otherLatency >= 0 && currentLatency >= 0 && otherLatency < currentLatency * SWITCH_THRESHOLD) {
+            _current = other(_current);
+        }
+    }
+
+    private static int other(final int backend) {
+        return PRIMARY == backend ? SECONDARY : PRIMARY;
+    }
+}
@@ -4,11 +4,17 @@ import grim.annotations.OmitType;
 
 /**
  * Run tasks in next AnimationFrame.
+ * The timestamp passed to the animation frame callback is used as the time of the activation. Animation frames
+ * are not delivered while the page is hidden so the task queue is bounded while the page is hidden.
  */
 @OmitType(when = "zemeckis.use_test_scheduler")
 final class AnimationFrameExecutor extends RoundBasedExecutor {
+    AnimationFrameExecutor() {
+        setHiddenQueueCapacity(VirtualProcessorUnitsHolder.ANIMATION_FRAME_HIDDEN_QUEUE_CAPACITY);
+    }
+
     @Override
     void scheduleForActivation() {
-        JsRuntime.requestAnimationFrame(v -> activate());
+        JsRuntime.requestAnimationFrame(this::activate);
     }
 }
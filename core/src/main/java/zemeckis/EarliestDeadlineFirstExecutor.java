@@ -0,0 +1,324 @@
+package zemeckis;
+
+import static org.realityforge.braincheck.Guards.*;
+
+import grim.annotations.OmitSymbol;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import org.jetbrains.annotations.TestOnly;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An executor that runs the task with the earliest deadline first.
+ * Tasks are held in a heap keyed on the absolute deadline of the task and tasks with the same deadline run in
+ * the order that they were queued. Tasks queued without a deadline run after all the tasks with a deadline.
+ * When a task starts to run after its deadline, the missed deadline is reported to the metrics and the spy.
+ *
+ * <p>The executor is activated either in a macro task, dispatched in the same way as the "macro" task
+ * VirtualProcessorUnit, or in an idle period. An activation in a macro task runs as many tasks as were queued
+ * when the activation started, so that a task that continually re-queues itself can not monopolize the event
+ * loop. An activation in an idle period runs tasks until the idle period ends.</p>
+ */
+@SuppressWarnings("Varifier")
+final class EarliestDeadlineFirstExecutor implements VirtualProcessorUnit.Executor {
+    /**
+     * The minimum time remaining in an idle period required to run a task.
+     */
+    private static final double MIN_TASK_TIME = 1;
+    /**
+     * True if the executor is activated in idle periods, false if it is activated in macro tasks.
+     */
+    private final boolean _activateWhenIdle;
+
+    private final PriorityQueue<DeadlineTask> _taskQueue = new PriorityQueue<>(DeadlineTask::compare);
+    /**
+     * The sequence number assigned to the next task so tasks with the same deadline run in the order queued.
+     */
+    private int _nextSequence;
+    /**
+     * True if an activation has been scheduled and has not yet completed.
+     */
+    private boolean _activationScheduled;
+    /**
+     * The size of the task queue at which the high-water mark handler is invoked, or 0 if there is no high-water mark.
+     */
+    private int _highWaterMark;
+
+    @Nullable
+    private QueueHighWaterMarkHandler _highWaterMarkHandler;
+    /**
+     * True if the task queue reached the high-water mark and has not since drained to half the high-water mark.
+     */
+    private boolean _aboveHighWaterMark;
+    /**
+     * The dispatcher used to activate the executor in a macro task when the test scheduler is not enabled.
+     */
+    @OmitSymbol(when = "zemeckis.use_test_scheduler")
+    @Nullable
+    private final MacroTaskDispatcher _dispatcher;
+
+    private VirtualProcessorUnit.@Nullable Context _context;
+
+    EarliestDeadlineFirstExecutor(final boolean activateWhenIdle) {
+        _activateWhenIdle = activateWhenIdle;
+        _dispatcher = activateWhenIdle || ZemeckisConfig.useTestScheduler()
+                ? null
+                : new MacroTaskDispatcher("EarliestDeadlineFirstExecutor", this::activateInMacroTask);
+    }
+
+    @Override
+    public void init(final VirtualProcessorUnit.Context context) {
+        _context = Objects.requireNonNull(context);
+    }
+
+    @TestOnly
+    @Override
+    public synchronized void reset() {
+        _taskQueue.clear();
+        _nextSequence = 0;
+        _activationScheduled = false;
+        _highWaterMark = 0;
+        _highWaterMarkHandler = null;
+        _aboveHighWaterMark = false;
+    }
+
+    /**
+     * Queue a task without a deadline.
+     * The task runs after all the tasks that have a deadline.
+     */
+    @Override
+    public Cancelable queue(@Nullable final String name, final Runnable task) {
+        return queueWithDeadline(name, task, Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Queue a task without a deadline.
+     * The priority is ignored as the order of tasks is determined by their deadlines.
+     */
+    @Override
+    public Cancelable queue(@Nullable final String name, final Runnable task, final TaskPriority priority) {
+        return queue(name, task);
+    }
+
+    @Override
+    public Cancelable queueWithDeadline(@Nullable final String name, final Runnable task, final double deadline) {
+        return enqueue(name, task, deadline, true);
+    }
+
+    @Override
+    public void queueNext(@Nullable final String name, final Runnable task) {
+        enqueue(name, task, Double.NEGATIVE_INFINITY, false);
+    }
+
+    @GwtIncompatible
+    @Override
+    public void submitFromAnyThread(@Nullable final String name, final Runnable task) {
+        queue(name, task);
+    }
+
+    /**
+     * The task queue is ordered by deadline, so it is not bounded.
+     */
+    @Override
+    public void setQueueCapacity(final int capacity, final QueueOverflowPolicy policy) {
+        if (Zemeckis.shouldCheckInvariants()) {
+            fail(() -> "Zemeckis-0034: VirtualProcessorUnit " + virtualProcessorUnit() + " was created by "
+                    + "VirtualProcessorUnit.createEarliestDeadlineFirstVpu(...) and does not support a bounded "
+                    + "task queue.");
+        }
+    }
+
+    @Override
+    public synchronized void setQueueHighWaterMark(
+            final int highWaterMark, @Nullable final QueueHighWaterMarkHandler handler) {
+        _highWaterMark = highWaterMark;
+        _highWaterMarkHandler = handler;
+        _aboveHighWaterMark = false;
+    }
+
+    /**
+     * Run the queued tasks in a macro task activation.
+     * If an activation has already been scheduled then the tasks run in that activation instead.
+     */
+    @Override
+    public void activate() {
+        synchronized (this) {
+            if (_activationScheduled) {
+                return;
+            }
+            _activationScheduled = true;
+        }
+        activateInMacroTask();
+    }
+
+    synchronized int getQueueSize() {
+        return _taskQueue.size();
+    }
+
+    private TaskEntry enqueue(
+            @Nullable final String name, final Runnable task, final double deadline, final boolean scheduleActivation) {
+        final TaskEntry entry = new TaskEntry(
+                name, task, null, Zemeckis.isTaskInstrumentationEnabled() ? virtualProcessorUnit() : null);
+        QueueHighWaterMarkHandler highWaterMarkHandler = null;
+        int highWaterMarkQueueSize = 0;
+        synchronized (this) {
+            ensureNotQueued(name, task);
+            if (_aboveHighWaterMark && _taskQueue.size() <= _highWaterMark / 2) {
+                // The task queue drained since the high-water mark was reached so report the next time it is reached
+                _aboveHighWaterMark = false;
+            }
+            _taskQueue.add(new DeadlineTask(entry, deadline, _nextSequence++));
+            if (Zemeckis.isTaskInstrumentationEnabled()) {
+                final VirtualProcessorUnit virtualProcessorUnit = virtualProcessorUnit();
+                if (null != virtualProcessorUnit) {
+                    virtualProcessorUnit.onTaskQueued(entry, _taskQueue.size());
+                }
+            }
+            if (0 != _highWaterMark && !_aboveHighWaterMark && _taskQueue.size() >= _highWaterMark) {
+                _aboveHighWaterMark = true;
+                highWaterMarkHandler = _highWaterMarkHandler;
+                highWaterMarkQueueSize = _taskQueue.size();
+            }
+            if (scheduleActivation && !_activationScheduled) {
+                scheduleForActivation();
+            }
+        }
+        // The handler is invoked after the lock is released so that it may queue tasks from any thread
+        if (null != highWaterMarkHandler) {
+            final VirtualProcessorUnit virtualProcessorUnit = virtualProcessorUnit();
+            if (null != virtualProcessorUnit) {
+                highWaterMarkHandler.onHighWaterMark(virtualProcessorUnit, highWaterMarkQueueSize);
+            }
+        }
+        return entry;
+    }
+
+    private void scheduleForActivation() {
+        _activationScheduled = true;
+        if (!_activateWhenIdle) {
+            if (ZemeckisConfig.useTestScheduler()) {
+                VirtualProcessorUnitsHolder.scheduleTestActivation(
+                        null, "EarliestDeadlineFirstExecutor", this::activateInMacroTask);
+            } else {
+                dispatcher().schedule();
+            }
+        } else if (ZemeckisConfig.useTestScheduler()) {
+            TemporalScheduler.testScheduler()
+                    .requestIdleCallback(deadline -> context().activate(() -> executeTasks(deadline)));
+        } else {
+            JsRuntime.requestIdleCallback(deadline -> context().activate(() -> executeTasks(deadline::timeRemaining)));
+        }
+    }
+
+    /**
+     * Run the tasks of an activation that has been scheduled in a macro task.
+     */
+    private void activateInMacroTask() {
+        context().activate(() -> executeTasks(null));
+    }
+
+    /**
+     * Run tasks in order of their deadline.
+     * If the activation is in a macro task then the tasks run are limited to the number of tasks queued when
+     * the activation started, otherwise tasks run until the idle period ends.
+     *
+     * @param function the function that returns the time remaining in the idle period or null if the activation
+     *                 is in a macro task.
+     */
+    private void executeTasks(final DeadlineBasedExecutor.@Nullable DeadlineFunction function) {
+        final Object activation = JfrEvents.vpuActivationStarted();
+        int tasksRun = 0;
+        int remaining = null == function ? getQueueSize() : Integer.MAX_VALUE;
+        DeadlineTask task;
+        while (remaining-- > 0
+                && (null == function || function.getTimeRemaining() >= MIN_TASK_TIME)
+                && null != (task = poll())) {
+            executeTask(task);
+            tasksRun++;
+        }
+        if (null != activation) {
+            JfrEvents.vpuActivationCompleted(activation, virtualProcessorUnit(), 1, tasksRun);
+        }
+        synchronized (this) {
+            _activationScheduled = false;
+            if (!_taskQueue.isEmpty()) {
+                scheduleForActivation();
+            }
+        }
+    }
+
+    @Nullable
+    private synchronized DeadlineTask poll() {
+        return _taskQueue.poll();
+    }
+
+    private void executeTask(final DeadlineTask task) {
+        final TaskEntry entry = task._entry;
+        if (Zemeckis.isTaskInstrumentationEnabled() && Double.isFinite(task._deadline) && null != entry.getTask()) {
+            final double lateness = TemporalScheduler.highResolutionTime() - task._deadline;
+            final VirtualProcessorUnit virtualProcessorUnit = virtualProcessorUnit();
+            if (lateness > 0 && null != virtualProcessorUnit) {
+                virtualProcessorUnit.onDeadlineMissed(entry, task._deadline, lateness);
+            }
+        }
+        final Object execution = JfrEvents.taskExecutionStarted();
+        try {
+            entry.execute();
+        } catch (final Throwable t) {
+            if (Zemeckis.areMetricsEnabled()) {
+                final VirtualProcessorUnit virtualProcessorUnit = virtualProcessorUnit();
+                if (null != virtualProcessorUnit) {
+                    virtualProcessorUnit.onTaskFailed();
+                }
+            }
+            Zemeckis.reportUncaughtError(t);
+        } finally {
+            if (null != execution) {
+                JfrEvents.taskExecutionCompleted(execution, virtualProcessorUnit(), entry.getName());
+            }
+        }
+    }
+
+    @OmitSymbol(when = "zemeckis.use_test_scheduler")
+    private MacroTaskDispatcher dispatcher() {
+        return Objects.requireNonNull(_dispatcher);
+    }
+
+    private VirtualProcessorUnit.Context context() {
+        return Objects.requireNonNull(_context);
+    }
+
+    @Nullable
+    private VirtualProcessorUnit virtualProcessorUnit() {
+        return null != _context ? _context.virtualProcessorUnit() : null;
+    }
+
+    private void ensureNotQueued(@Nullable final String name, final Runnable task) {
+        if (Zemeckis.shouldCheckInvariants()) {
+            invariant(
+                    () -> _taskQueue.stream().noneMatch(t -> t._entry.getTask() == task),
+                    () -> "Zemeckis-0001: Attempting to queue task named '" + name + "' when task is already queued.");
+        }
+    }
+
+    /**
+     * A task and the deadline by which it should start.
+     */
+    private static final class DeadlineTask {
+        private final TaskEntry _entry;
+        private final double _deadline;
+        private final int _sequence;
+
+        DeadlineTask(final TaskEntry entry, final double deadline, final int sequence) {
+            _entry = entry;
+            _deadline = deadline;
+            _sequence = sequence;
+        }
+
+        static int compare(final DeadlineTask a, final DeadlineTask b) {
+            final int result = Double.compare(a._deadline, b._deadline);
+            // The difference of the sequence numbers remains correct if the sequence wraps around
+            return 0 != result ? result : a._sequence - b._sequence;
+        }
+    }
+}
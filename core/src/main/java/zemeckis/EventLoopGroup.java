@@ -0,0 +1,145 @@
+package zemeckis;
+
+import static org.realityforge.braincheck.Guards.*;
+
+import java.util.Objects;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A group of independent event loops, or shards, that run tasks on the JVM.
+ *
+ * <p>Each shard owns a thread and has its own "macro", "micro" and "onIdle" VirtualProcessorUnits and its own
+ * scheduler. Tasks are routed to a shard using an affinity key. Tasks submitted with the same affinity key run
+ * on the same shard in the order that they were submitted and never run concurrently with each other, while
+ * tasks with different affinity keys may run concurrently on separate shards. Tasks running on a shard that use
+ * the {@link Zemeckis} API to schedule further tasks or timers, schedule them on the same shard.</p>
+ *
+ * <p>The {@link WaitStrategy} determines how a shard waits for tasks when it is idle. This trades the latency
+ * of waking the shard when a task is submitted against the CPU consumed while the shard is idle.</p>
+ */
+@GwtIncompatible
+@SuppressWarnings("Varifier")
+public final class EventLoopGroup {
+    private final EventLoopShard[] _shards;
+
+    /**
+     * The strategy used by a shard to wait for tasks when it is idle.
+     */
+    public enum WaitStrategy {
+        /**
+         * Park the shard thread until a task is submitted or a timer is due.
+         * This consumes no CPU while idle but a submission must pay the cost of unparking the thread.
+         */
+        BLOCKING,
+        /**
+         * Spin for a short period, then yield the thread for a short period and then park the shard thread.
+         * This avoids the cost of unparking the thread when tasks are submitted in quick succession.
+         */
+        SPIN_YIELD_PARK,
+        /**
+         * Spin continuously while idle. This has the lowest latency but consumes an entire core per shard.
+         */
+        BUSY_SPIN
+    }
+
+    /**
+     * Create and start the event loops using the {@link WaitStrategy#BLOCKING} wait strategy.
+     *
+     * @param shardCount the number of shards. Must be a value greater than 0.
+     */
+    public EventLoopGroup(final int shardCount) {
+        this(shardCount, WaitStrategy.BLOCKING);
+    }
+
+    /**
+     * Create and start the event loops.
+     *
+     * @param shardCount   the number of shards. Must be a value greater than 0.
+     * @param waitStrategy the strategy used by shards to wait for tasks when idle.
+     */
+    public EventLoopGroup(final int shardCount, final WaitStrategy waitStrategy) {
+        if (Zemeckis.shouldCheckApiInvariants()) {
+            apiInvariant(
+                    () -> shardCount > 0,
+                    () -> "Zemeckis-0014: EventLoopGroup created with a non-positive shard count. "
+                            + "Actual value passed is " + shardCount);
+        }
+        _shards = new EventLoopShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            _shards[i] = new EventLoopShard(i, waitStrategy);
+        }
+        for (final EventLoopShard shard : _shards) {
+            shard.start();
+        }
+    }
+
+    /**
+     * Return the number of shards in the group.
+     *
+     * @return the number of shards in the group.
+     */
+    public int getShardCount() {
+        return _shards.length;
+    }
+
+    /**
+     * Queue the task to run as a "macro" task on the shard selected by the affinity key.
+     * This method may be invoked from any thread.
+     *
+     * @param affinityKey the key used to select the shard.
+     * @param task        the task.
+     */
+    public void submit(final Object affinityKey, final Runnable task) {
+        submit(null, affinityKey, task);
+    }
+
+    /**
+     * Queue the task to run as a "macro" task on the shard selected by the affinity key.
+     * This method may be invoked from any thread.
+     *
+     * @param name        A human consumable name for the task. It may be non-null if {@link Zemeckis#areNamesEnabled()} returns true and <code>null</code> otherwise.
+     * @param affinityKey the key used to select the shard.
+     * @param task        the task.
+     */
+    public void submit(@Nullable final String name, final Object affinityKey, final Runnable task) {
+        final EventLoopShard shard = _shards[shardIndex(affinityKey)];
+        if (Zemeckis.shouldCheckApiInvariants()) {
+            apiInvariant(
+                    () -> !shard.isShutdown(),
+                    () -> "Zemeckis-0015: EventLoopGroup.submit(...) invoked for the task named '" + name
+                            + "' after the EventLoopGroup was shut down");
+        }
+        shard.submit(name, task);
+    }
+
+    /**
+     * Stop the event loops and wait for the shard threads to terminate.
+     * Tasks that have not started executing are discarded.
+     *
+     * @throws InterruptedException if the current thread is interrupted while waiting for the shards to terminate.
+     */
+    public void shutdown() throws InterruptedException {
+        for (final EventLoopShard shard : _shards) {
+            shard.shutdown();
+        }
+        for (final EventLoopShard shard : _shards) {
+            shard.awaitTermination();
+        }
+    }
+
+    /**
+     * Return the index of the shard that the affinity key routes to.
+     *
+     * @param affinityKey the key used to select the shard.
+     * @return the index of the shard.
+     */
+    int shardIndex(final Object affinityKey) {
+        final int hash = Objects.requireNonNull(affinityKey).hashCode();
+        // Spread the high bits so that keys with poorly distributed hash codes still cover all shards
+        return Math.floorMod(hash ^ (hash >>> 16), _shards.length);
+    }
+
+    EventLoopShard getShard(final int index) {
+        return _shards[index];
+    }
+}
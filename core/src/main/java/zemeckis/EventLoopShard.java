@@ -0,0 +1,311 @@
+package zemeckis;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A single threaded event loop that owns a {@link SchedulerContext}.
+ * The loop thread binds the context so that tasks scheduled via the {@link Zemeckis} API from within the loop
+ * are queued on the VirtualProcessorUnits of the shard and timers are scheduled on the {@link TimingWheel} of
+ * the shard. Other threads may only interact with the shard by submitting tasks to its VirtualProcessorUnits via
+ * {@link Zemeckis#submitFromAnyThread(VirtualProcessorUnit, String, Runnable)}. The first submission after the
+ * inbox of an executor was last drained hands the executor to the loop thread, which moves the whole inbox onto
+ * the queue of the executor in one operation.
+ *
+ * <p>The shard has no render phase so tasks queued on the "animationFrame" and "afterFrame" VirtualProcessorUnits
+ * run in the same manner as "macro" tasks. Tasks queued on the "onIdle" VirtualProcessorUnit only run when there
+ * are no other tasks ready to run and are passed a deadline that ends the idle period before the next timer is
+ * due or as soon as another task is submitted or becomes ready.</p>
+ */
+@GwtIncompatible
+@SuppressWarnings("Varifier")
+final class EventLoopShard implements Runnable {
+    /**
+     * The maximum duration of an idle period in milliseconds. This matches the maximum deadline that browsers
+     * pass to idle callbacks.
+     */
+    static final double MAX_IDLE_PERIOD = 50;
+    /**
+     * The number of times the {@link EventLoopGroup.WaitStrategy#SPIN_YIELD_PARK} strategy spins before yielding.
+     */
+    private static final int SPIN_ITERATIONS = 100;
+    /**
+     * The number of times the {@link EventLoopGroup.WaitStrategy#SPIN_YIELD_PARK} strategy yields before parking.
+     */
+    private static final int YIELD_ITERATIONS = 10;
+
+    private final TemporalScheduler.TimingWheelSchedulerImpl _scheduler =
+            new TemporalScheduler.TimingWheelSchedulerImpl();
+    /**
+     * Executors with tasks submitted from other threads in their inbox. Executors are added from any thread.
+     */
+    private final ConcurrentLinkedQueue<AbstractExecutor> _pendingInboxes = new ConcurrentLinkedQueue<>();
+    /**
+     * Executors that have tasks queued and are waiting to be activated. Only accessed from the loop thread.
+     */
+    private final ArrayDeque<ShardExecutor> _readyExecutors = new ArrayDeque<>();
+
+    private final OnIdleShardExecutor _onIdleExecutor = new OnIdleShardExecutor();
+    private final SchedulerContext _context;
+    private final EventLoopGroup.WaitStrategy _waitStrategy;
+    private final Thread _thread;
+    /**
+     * The number of times a submission has unparked the loop thread.
+     */
+    private final AtomicInteger _wakeUpCount = new AtomicInteger();
+
+    private volatile boolean _shutdown;
+    /**
+     * True while the loop thread is parked or about to park.
+     * Submissions only unpark the loop thread when this is true.
+     */
+    private volatile boolean _parked;
+    /**
+     * True if the "onIdle" executor has tasks queued. Only accessed from the loop thread.
+     */
+    private boolean _idlePending;
+
+    EventLoopShard(final int index, final EventLoopGroup.WaitStrategy waitStrategy) {
+        _waitStrategy = Objects.requireNonNull(waitStrategy);
+        _context = new SchedulerContext(
+                _scheduler,
+                createVpu(index, "Macro", new ShardExecutor()),
+                createVpu(index, "Micro", new ShardExecutor()),
+                createVpu(index, "AnimationFrame", new ShardExecutor()),
+                createVpu(index, "AfterFrame", new ShardExecutor()),
+                createVpu(index, "OnIdle", _onIdleExecutor));
+        _thread = new Thread(this, "zemeckis-shard-" + index);
+        _thread.setDaemon(true);
+    }
+
+    private static VirtualProcessorUnit createVpu(
+            final int index, final String name, final VirtualProcessorUnit.Executor executor) {
+        return new VirtualProcessorUnit(Zemeckis.areNamesEnabled() ? "Shard" + index + "." + name : null, executor);
+    }
+
+    SchedulerContext getContext() {
+        return _context;
+    }
+
+    Thread getThread() {
+        return _thread;
+    }
+
+    EventLoopGroup.WaitStrategy getWaitStrategy() {
+        return _waitStrategy;
+    }
+
+    boolean isParked() {
+        return _parked;
+    }
+
+    int getWakeUpCount() {
+        return _wakeUpCount.get();
+    }
+
+    void start() {
+        _thread.start();
+    }
+
+    /**
+     * Queue the task as a "macro" task of the shard. This method may be invoked from any thread.
+     *
+     * @param name A human consumable name for the task. It may be non-null if {@link Zemeckis#areNamesEnabled()} returns true and <code>null</code> otherwise.
+     * @param task the task.
+     */
+    void submit(@Nullable final String name, final Runnable task) {
+        Zemeckis.submitFromAnyThread(_context.macroTaskVpu(), name, task);
+    }
+
+    /**
+     * Hand the executor to the loop thread so that the loop drains the inbox of the executor.
+     * This is invoked from the submitting thread.
+     *
+     * @param executor the executor.
+     */
+    private void scheduleInboxDrain(final AbstractExecutor executor) {
+        _pendingInboxes.add(executor);
+        // The loop thread checks for pending inboxes after publishing that it is parking, so a submission that
+        // observes that the loop is not parked is guaranteed to be seen by the loop
+        if (_parked) {
+            _wakeUpCount.incrementAndGet();
+            LockSupport.unpark(_thread);
+        }
+    }
+
+    boolean isShutdown() {
+        return _shutdown;
+    }
+
+    /**
+     * Request that the loop terminate. Tasks that have not started are discarded.
+     */
+    void shutdown() {
+        _shutdown = true;
+        LockSupport.unpark(_thread);
+    }
+
+    /**
+     * Wait for the loop thread to terminate.
+     *
+     * @throws InterruptedException if the current thread is interrupted while waiting.
+     */
+    void awaitTermination() throws InterruptedException {
+        _thread.join();
+    }
+
+    @Override
+    public void run() {
+        SchedulerContext.bind(_context);
+        try {
+            int idleIterations = 0;
+            while (!_shutdown) {
+                if (runReadyTasks()) {
+                    idleIterations = 0;
+                } else {
+                    waitForTasks(idleIterations);
+                    idleIterations = Math.min(idleIterations + 1, SPIN_ITERATIONS + YIELD_ITERATIONS);
+                }
+            }
+        } finally {
+            _scheduler.shutdown();
+            _pendingInboxes.clear();
+            SchedulerContext.bind(null);
+        }
+    }
+
+    /**
+     * Run the tasks that are ready to run.
+     * This drains the pending inboxes, fires timers that are due and activates the executors with queued tasks.
+     * The "onIdle" executor is only activated if no other work was performed.
+     *
+     * @return true if any work was performed, false otherwise.
+     */
+    private boolean runReadyTasks() {
+        boolean performedWork = drainPendingInboxes();
+        if (0 != _scheduler.advance()) {
+            performedWork = true;
+        }
+        ShardExecutor executor;
+        while (null != (executor = _readyExecutors.poll())) {
+            executor.activate();
+            performedWork = true;
+        }
+        if (!performedWork && _idlePending) {
+            _idlePending = false;
+            _onIdleExecutor.activateUntilDeadline();
+            performedWork = true;
+        }
+        return performedWork;
+    }
+
+    private boolean drainPendingInboxes() {
+        boolean drained = false;
+        AbstractExecutor executor;
+        while (null != (executor = _pendingInboxes.poll())) {
+            if (0 != executor.drainInbox()) {
+                drained = true;
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Return the time remaining in the current idle period in milliseconds.
+     * The idle period ends when a task is submitted to the shard, when an executor has tasks ready to run or
+     * when the next timer is due, and never lasts longer than {@link #MAX_IDLE_PERIOD}.
+     *
+     * @return the time remaining in the current idle period.
+     */
+    double idleTimeRemaining() {
+        if (!_pendingInboxes.isEmpty() || !_readyExecutors.isEmpty()) {
+            return 0;
+        } else {
+            final long nextDueTime = _scheduler.nextDueTime();
+            return Long.MAX_VALUE == nextDueTime
+                    ? MAX_IDLE_PERIOD
+                    : Math.max(0, Math.min(MAX_IDLE_PERIOD, nextDueTime - _scheduler.currentTime()));
+        }
+    }
+
+    /**
+     * Wait for a task to be submitted or the next timer to become due using the wait strategy of the shard.
+     *
+     * @param idleIterations the number of consecutive times the loop has waited without performing work.
+     */
+    private void waitForTasks(final int idleIterations) {
+        if (EventLoopGroup.WaitStrategy.BUSY_SPIN == _waitStrategy) {
+            Thread.onSpinWait();
+        } else if (EventLoopGroup.WaitStrategy.SPIN_YIELD_PARK == _waitStrategy && idleIterations < SPIN_ITERATIONS) {
+            Thread.onSpinWait();
+        } else if (EventLoopGroup.WaitStrategy.SPIN_YIELD_PARK == _waitStrategy
+                && idleIterations < SPIN_ITERATIONS + YIELD_ITERATIONS) {
+            Thread.yield();
+        } else {
+            park();
+        }
+    }
+
+    /**
+     * Park the loop thread until a task is submitted or the next timer is due.
+     */
+    private void park() {
+        _parked = true;
+        try {
+            if (_pendingInboxes.isEmpty() && !_shutdown) {
+                final long nextDueTime = _scheduler.nextDueTime();
+                if (Long.MAX_VALUE == nextDueTime) {
+                    LockSupport.park(this);
+                } else {
+                    final long delay = nextDueTime - _scheduler.currentTime();
+                    if (delay > 0) {
+                        LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(delay));
+                    }
+                }
+            }
+        } finally {
+            _parked = false;
+        }
+    }
+
+    /**
+     * The executor for VirtualProcessorUnits within the shard.
+     * The executor is only ever activated on the loop thread.
+     */
+    private final class ShardExecutor extends RoundBasedExecutor {
+        @Override
+        void scheduleForActivation() {
+            _readyExecutors.add(this);
+        }
+
+        @Override
+        void scheduleInboxDrain() {
+            EventLoopShard.this.scheduleInboxDrain(this);
+        }
+    }
+
+    /**
+     * The executor for the "onIdle" VirtualProcessorUnit within the shard.
+     * The executor runs tasks until the idle period computed by {@link #idleTimeRemaining()} ends.
+     */
+    private final class OnIdleShardExecutor extends DeadlineBasedExecutor {
+        @Override
+        void scheduleForActivation() {
+            _idlePending = true;
+        }
+
+        @Override
+        void scheduleInboxDrain() {
+            EventLoopShard.this.scheduleInboxDrain(this);
+        }
+
+        void activateUntilDeadline() {
+            context().activate(() -> executeTasks(EventLoopShard.this::idleTimeRemaining));
+        }
+    }
+}
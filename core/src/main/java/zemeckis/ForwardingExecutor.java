@@ -0,0 +1,116 @@
+package zemeckis;
+
+import java.util.Objects;
+import org.jetbrains.annotations.TestOnly;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An executor for the JVM that forwards tasks to a VirtualProcessorUnit owned by another thread.
+ * Tasks are handed to the target via {@link VirtualProcessorUnit.Executor#submitFromAnyThread(String, Runnable)}
+ * so that they are queued by the thread that owns the target. This allows code that runs on another thread,
+ * such as the tasks of a VirtualProcessorUnit created by {@link VirtualProcessorUnit#createVirtualThreadVpu(String)},
+ * to use the {@link Zemeckis} API without touching the scheduler of the owning thread.
+ *
+ * <p>Tasks run in the order that they were forwarded, irrespective of their priority, and the executor is never
+ * activated as the tasks run in activations of the target.</p>
+ */
+@GwtIncompatible
+@SuppressWarnings("Varifier")
+final class ForwardingExecutor implements VirtualProcessorUnit.Executor {
+    private final VirtualProcessorUnit _target;
+
+    ForwardingExecutor(final VirtualProcessorUnit target) {
+        _target = Objects.requireNonNull(target);
+    }
+
+    @Override
+    public void init(final VirtualProcessorUnit.Context context) {}
+
+    @TestOnly
+    @Override
+    public void reset() {}
+
+    @Override
+    public Cancelable queue(@Nullable final String name, final Runnable task) {
+        final ForwardedTask forwardedTask = new ForwardedTask(task);
+        _target.getExecutor().submitFromAnyThread(name, forwardedTask);
+        return forwardedTask;
+    }
+
+    @Override
+    public Cancelable queue(@Nullable final String name, final Runnable task, final TaskPriority priority) {
+        return queue(name, task);
+    }
+
+    /**
+     * Queue the task.
+     * The task runs after the tasks already forwarded as the target is owned by another thread.
+     */
+    @Override
+    public void queueNext(@Nullable final String name, final Runnable task) {
+        queue(name, task);
+    }
+
+    /**
+     * Specify the capacity of the task queue of the target.
+     * The capacity is applied on the thread that owns the target, after the tasks already forwarded are queued.
+     */
+    @Override
+    public void setQueueCapacity(final int capacity, final QueueOverflowPolicy policy) {
+        final VirtualProcessorUnit.Executor executor = _target.getExecutor();
+        executor.submitFromAnyThread(
+                Zemeckis.areNamesEnabled() ? "SetQueueCapacity" : null,
+                () -> executor.setQueueCapacity(capacity, policy));
+    }
+
+    /**
+     * Specify the high-water mark of the task queue of the target.
+     * The high-water mark is applied on the thread that owns the target, after the tasks already forwarded are
+     * queued.
+     */
+    @Override
+    public void setQueueHighWaterMark(final int highWaterMark, @Nullable final QueueHighWaterMarkHandler handler) {
+        final VirtualProcessorUnit.Executor executor = _target.getExecutor();
+        executor.submitFromAnyThread(
+                Zemeckis.areNamesEnabled() ? "SetQueueHighWaterMark" : null,
+                () -> executor.setQueueHighWaterMark(highWaterMark, handler));
+    }
+
+    @Override
+    public void submitFromAnyThread(@Nullable final String name, final Runnable task) {
+        _target.getExecutor().submitFromAnyThread(name, task);
+    }
+
+    @Override
+    public void activate() {}
+
+    /**
+     * A task that has been handed to another thread.
+     * The task may be canceled from any thread and is skipped if it is canceled before it runs.
+     */
+    static final class ForwardedTask implements Runnable, Cancelable {
+        private final Runnable _task;
+
+        private volatile boolean _canceled;
+
+        ForwardedTask(final Runnable task) {
+            _task = Objects.requireNonNull(task);
+        }
+
+        boolean isCanceled() {
+            return _canceled;
+        }
+
+        @Override
+        public void run() {
+            if (!_canceled) {
+                _task.run();
+            }
+        }
+
+        @Override
+        public void cancel() {
+            _canceled = true;
+        }
+    }
+}
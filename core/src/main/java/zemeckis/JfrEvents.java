@@ -0,0 +1,285 @@
+package zemeckis;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Emits JDK Flight Recorder events that describe the activity of the scheduler on the JVM.
+ * The events are only emitted when they are enabled in a recording, so that the events can be left in place
+ * during continuous profiling and only cost a check of whether the event is enabled otherwise. No events are
+ * emitted when the scheduler is compiled to javascript.
+ */
+@SuppressWarnings("Varifier")
+final class JfrEvents {
+    private static final Recorder c_recorder = new Recorder();
+
+    private JfrEvents() {}
+
+    /**
+     * Start timing the execution of a task.
+     *
+     * @return the event to pass to {@link #taskExecutionCompleted(Object, VirtualProcessorUnit, String)} or null if
+     * the event is not enabled.
+     */
+    @Nullable
+    static Object taskExecutionStarted() {
+        return c_recorder.taskExecutionStarted();
+    }
+
+    /**
+     * Emit the event recording the execution of a task.
+     *
+     * @param event                the event returned from {@link #taskExecutionStarted()}.
+     * @param virtualProcessorUnit the VirtualProcessorUnit that ran the task, if any.
+     * @param taskName             the name of the task or null if {@link Zemeckis#areNamesEnabled()} returns false.
+     */
+    static void taskExecutionCompleted(
+            final Object event,
+            @Nullable final VirtualProcessorUnit virtualProcessorUnit,
+            @Nullable final String taskName) {
+        c_recorder.taskExecutionCompleted(event, virtualProcessorUnit, taskName);
+    }
+
+    /**
+     * Start timing the activation of a VirtualProcessorUnit.
+     *
+     * @return the event to pass to {@link #vpuActivationCompleted(Object, VirtualProcessorUnit, int, int)} or null
+     * if the event is not enabled.
+     */
+    @Nullable
+    static Object vpuActivationStarted() {
+        return c_recorder.vpuActivationStarted();
+    }
+
+    /**
+     * Emit the event recording the activation of a VirtualProcessorUnit.
+     *
+     * @param event                the event returned from {@link #vpuActivationStarted()}.
+     * @param virtualProcessorUnit the VirtualProcessorUnit that was activated, if any.
+     * @param rounds               the number of rounds run during the activation.
+     * @param tasksRun             the number of tasks run during the activation.
+     */
+    static void vpuActivationCompleted(
+            final Object event,
+            @Nullable final VirtualProcessorUnit virtualProcessorUnit,
+            final int rounds,
+            final int tasksRun) {
+        c_recorder.vpuActivationCompleted(event, virtualProcessorUnit, rounds, tasksRun);
+    }
+
+    /**
+     * Return the task to schedule for a timer.
+     * If the timer event is enabled when the timer is scheduled then the returned task emits an event each time
+     * the timer fires that records the requested delay and the actual delay, otherwise the task is returned as is.
+     *
+     * @param name     the name of the timer or null if {@link Zemeckis#areNamesEnabled()} returns false.
+     * @param delay    the delay, or period if the timer is periodic, in milliseconds.
+     * @param periodic true if the timer is periodic.
+     * @param task     the task invoked when the timer fires.
+     * @return the task to schedule.
+     */
+    static Runnable timerTask(
+            @Nullable final String name, final int delay, final boolean periodic, final Runnable task) {
+        return c_recorder.timerTask(name, delay, periodic, task);
+    }
+
+    private static String describe(@Nullable final VirtualProcessorUnit virtualProcessorUnit) {
+        return null != virtualProcessorUnit ? virtualProcessorUnit.toString() : "";
+    }
+
+    /**
+     * The JVM implementation that emits Flight Recorder events.
+     */
+    private static final class Recorder extends AbstractRecorder {
+        @GwtIncompatible
+        @Nullable
+        @Override
+        Object taskExecutionStarted() {
+            final TaskExecutionEvent event = new TaskExecutionEvent();
+            if (event.isEnabled()) {
+                event.begin();
+                return event;
+            } else {
+                return null;
+            }
+        }
+
+        @GwtIncompatible
+        @Override
+        void taskExecutionCompleted(
+                final Object event,
+                @Nullable final VirtualProcessorUnit virtualProcessorUnit,
+                @Nullable final String taskName) {
+            final TaskExecutionEvent e = (TaskExecutionEvent) event;
+            e.end();
+            if (e.shouldCommit()) {
+                e.virtualProcessorUnit = describe(virtualProcessorUnit);
+                e.task = taskName;
+                e.commit();
+            }
+        }
+
+        @GwtIncompatible
+        @Nullable
+        @Override
+        Object vpuActivationStarted() {
+            final VpuActivationEvent event = new VpuActivationEvent();
+            if (event.isEnabled()) {
+                event.begin();
+                return event;
+            } else {
+                return null;
+            }
+        }
+
+        @GwtIncompatible
+        @Override
+        void vpuActivationCompleted(
+                final Object event,
+                @Nullable final VirtualProcessorUnit virtualProcessorUnit,
+                final int rounds,
+                final int tasksRun) {
+            final VpuActivationEvent e = (VpuActivationEvent) event;
+            e.end();
+            if (e.shouldCommit()) {
+                e.virtualProcessorUnit = describe(virtualProcessorUnit);
+                e.rounds = rounds;
+                e.tasksRun = tasksRun;
+                e.commit();
+            }
+        }
+
+        @GwtIncompatible
+        @Override
+        Runnable timerTask(@Nullable final String name, final int delay, final boolean periodic, final Runnable task) {
+            return new TimerEvent().isEnabled() ? new TimedTask(name, delay, periodic, task) : task;
+        }
+    }
+
+    /**
+     * The implementation used when compiled to javascript that emits no events.
+     */
+    private abstract static class AbstractRecorder {
+        @Nullable
+        Object taskExecutionStarted() {
+            return null;
+        }
+
+        void taskExecutionCompleted(
+                final Object event,
+                @Nullable final VirtualProcessorUnit virtualProcessorUnit,
+                @Nullable final String taskName) {}
+
+        @Nullable
+        Object vpuActivationStarted() {
+            return null;
+        }
+
+        void vpuActivationCompleted(
+                final Object event,
+                @Nullable final VirtualProcessorUnit virtualProcessorUnit,
+                final int rounds,
+                final int tasksRun) {}
+
+        Runnable timerTask(@Nullable final String name, final int delay, final boolean periodic, final Runnable task) {
+            return task;
+        }
+    }
+
+    /**
+     * A task that emits a {@link TimerEvent} each time the timer fires.
+     */
+    @GwtIncompatible
+    private static final class TimedTask implements Runnable {
+        @Nullable
+        private final String _name;
+
+        private final int _delay;
+        private final boolean _periodic;
+        private final Runnable _task;
+        /**
+         * The time at which the timer was scheduled or, for a periodic timer, last fired.
+         */
+        private double _scheduledAt;
+
+        TimedTask(@Nullable final String name, final int delay, final boolean periodic, final Runnable task) {
+            _name = name;
+            _delay = delay;
+            _periodic = periodic;
+            _task = task;
+            _scheduledAt = TemporalScheduler.highResolutionTime();
+        }
+
+        @Override
+        public void run() {
+            final double now = TemporalScheduler.highResolutionTime();
+            final TimerEvent event = new TimerEvent();
+            if (event.shouldCommit()) {
+                event.timer = _name;
+                event.periodic = _periodic;
+                event.requestedDelay = _delay;
+                event.actualDelay = (long) ((now - _scheduledAt) * 1_000_000D);
+                event.commit();
+            }
+            _scheduledAt = now;
+            _task.run();
+        }
+    }
+
+    @GwtIncompatible
+    @Name("zemeckis.TaskExecution")
+    @Label("Zemeckis Task Execution")
+    @Category("Zemeckis")
+    @Description("A task run by a VirtualProcessorUnit")
+    static final class TaskExecutionEvent extends Event {
+        @Label("Virtual Processor Unit")
+        String virtualProcessorUnit = "";
+
+        @Label("Task")
+        @Nullable
+        String task;
+    }
+
+    @GwtIncompatible
+    @Name("zemeckis.VpuActivation")
+    @Label("Zemeckis VPU Activation")
+    @Category("Zemeckis")
+    @Description("An activation of a VirtualProcessorUnit that runs tasks in rounds")
+    static final class VpuActivationEvent extends Event {
+        @Label("Virtual Processor Unit")
+        String virtualProcessorUnit = "";
+
+        @Label("Rounds")
+        int rounds;
+
+        @Label("Tasks Run")
+        int tasksRun;
+    }
+
+    @GwtIncompatible
+    @Name("zemeckis.Timer")
+    @Label("Zemeckis Timer")
+    @Category("Zemeckis")
+    @Description("A delayed or periodic timer firing")
+    static final class TimerEvent extends Event {
+        @Label("Timer")
+        @Nullable
+        String timer;
+
+        @Label("Periodic")
+        boolean periodic;
+
+        @Label("Requested Delay")
+        @Timespan(Timespan.MILLISECONDS)
+        long requestedDelay;
+
+        @Label("Actual Delay")
+        @Timespan(Timespan.NANOSECONDS)
+        long actualDelay;
+    }
+}
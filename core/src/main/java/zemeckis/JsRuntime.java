@@ -19,9 +19,27 @@ final class JsRuntime {
     @JsMethod(namespace = JsPackage.GLOBAL, name = "clearTimeout")
     static native void clearTimeout(int id);
 
+    @JsMethod(namespace = JsPackage.GLOBAL, name = "document.addEventListener")
+    static native void addDocumentEventListener(String type, EventListener listener);
+
+    @JsProperty(namespace = JsPackage.GLOBAL, name = "document.hidden")
+    static native boolean isDocumentHidden();
+
     @JsMethod(namespace = JsPackage.GLOBAL, name = "console.log")
     static native void log(Object message);
 
+    @JsMethod(namespace = JsPackage.GLOBAL, name = "performance.clearMarks")
+    static native void performanceClearMarks(String name);
+
+    @JsMethod(namespace = JsPackage.GLOBAL, name = "performance.mark")
+    static native void performanceMark(String name);
+
+    @JsMethod(namespace = JsPackage.GLOBAL, name = "performance.measure")
+    static native void performanceMeasure(String name, String startMark);
+
+    @JsMethod(namespace = JsPackage.GLOBAL, name = "performance.now")
+    static native double performanceNow();
+
     @JsMethod(namespace = JsPackage.GLOBAL, name = "requestAnimationFrame")
     static native int requestAnimationFrame(AnimationFrameCallback callback);
 
@@ -51,6 +69,12 @@ final class JsRuntime {
         Blob(final String[] blobParts) {}
     }
 
+    @FunctionalInterface
+    @JsFunction
+    interface EventListener {
+        void onInvoke(@Nullable Object event);
+    }
+
     @JsType(isNative = true, namespace = JsPackage.GLOBAL, name = "IdleDeadline")
     static final class IdleDeadline {
         native double timeRemaining();
@@ -0,0 +1,119 @@
+package zemeckis;
+
+import grim.annotations.OmitType;
+import java.util.Arrays;
+
+/**
+ * A fixed size histogram of durations measured in microseconds.
+ * The histogram uses log-linear buckets in the style of HdrHistogram. Values less than
+ * {@link #LINEAR_BUCKET_COUNT} each have a bucket of their own and every subsequent power of two range is split
+ * into {@link #SUB_BUCKET_COUNT} buckets of equal width, so that the value reported for a bucket is never more than
+ * 1/{@link #SUB_BUCKET_COUNT} larger than the values recorded in the bucket. The counts are held in a primitive
+ * array that is allocated when the histogram is created so recording a value never allocates.
+ */
+@OmitType(unless = "zemeckis.enable_metrics")
+final class LatencyHistogram {
+    /**
+     * The number of bits used to select the sub-bucket within a power of two range.
+     */
+    private static final int SUB_BUCKET_BITS = 4;
+    /**
+     * The number of buckets within each power of two range.
+     */
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    /**
+     * The number of values that are recorded exactly.
+     */
+    static final int LINEAR_BUCKET_COUNT = SUB_BUCKET_COUNT << 1;
+    /**
+     * The number of power of two ranges above the linear range required to hold any positive int.
+     */
+    private static final int RANGE_COUNT = Integer.SIZE - 1 - (SUB_BUCKET_BITS + 1);
+    /**
+     * The total number of buckets.
+     */
+    static final int BUCKET_COUNT = LINEAR_BUCKET_COUNT + RANGE_COUNT * SUB_BUCKET_COUNT;
+
+    private final int[] _counts = new int[BUCKET_COUNT];
+    private int _totalCount;
+    private int _maxValue;
+
+    /**
+     * Record a duration. Negative durations are recorded as 0.
+     *
+     * @param value the duration in microseconds.
+     */
+    void record(final int value) {
+        final int v = Math.max(0, value);
+        _counts[bucketIndex(v)]++;
+        _totalCount++;
+        if (v > _maxValue) {
+            _maxValue = v;
+        }
+    }
+
+    int getTotalCount() {
+        return _totalCount;
+    }
+
+    int getMaxValue() {
+        return _maxValue;
+    }
+
+    /**
+     * Return the value at or below which the specified percentage of the recorded values fall.
+     * The value returned is the largest value that would be recorded in the same bucket as the percentile value,
+     * capped at the largest value recorded.
+     *
+     * @param percentile the percentile in the range 0 to 100.
+     * @return the value at the percentile or 0 if no values have been recorded.
+     */
+    int getValueAtPercentile(final double percentile) {
+        if (0 == _totalCount) {
+            return 0;
+        }
+        final int target = Math.max(1, (int) Math.ceil(percentile / 100D * _totalCount));
+        int count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            count += _counts[i];
+            if (count >= target) {
+                return Math.min(highestEquivalentValue(i), _maxValue);
+            }
+        }
+        return _maxValue;
+    }
+
+    void reset() {
+        Arrays.fill(_counts, 0);
+        _totalCount = 0;
+        _maxValue = 0;
+    }
+
+    LatencyStatistics snapshot() {
+        return new LatencyStatistics(_totalCount, getValueAtPercentile(50), getValueAtPercentile(99), _maxValue);
+    }
+
+    static int bucketIndex(final int value) {
+        if (value < LINEAR_BUCKET_COUNT) {
+            return value;
+        } else {
+            // The index of the highest set bit is at least SUB_BUCKET_BITS + 1
+            final int magnitude = Integer.SIZE - 1 - Integer.numberOfLeadingZeros(value);
+            final int shift = magnitude - SUB_BUCKET_BITS;
+            final int subBucket = (value >>> shift) - SUB_BUCKET_COUNT;
+            return LINEAR_BUCKET_COUNT + (magnitude - SUB_BUCKET_BITS - 1) * SUB_BUCKET_COUNT + subBucket;
+        }
+    }
+
+    static int highestEquivalentValue(final int index) {
+        if (index < LINEAR_BUCKET_COUNT) {
+            return index;
+        } else {
+            final int offset = index - LINEAR_BUCKET_COUNT;
+            final int shift = offset / SUB_BUCKET_COUNT + 1;
+            final int subBucket = SUB_BUCKET_COUNT + offset % SUB_BUCKET_COUNT;
+            final long highest = (((long) subBucket + 1) << shift) - 1;
+            return (int) Math.min(Integer.MAX_VALUE, highest);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package zemeckis;
+
+import grim.annotations.OmitType;
+
+/**
+ * A summary of the durations recorded in a latency histogram of a {@link VirtualProcessorUnit}.
+ * Durations are measured in microseconds using the clock of the scheduler. Percentiles are reported with a
+ * relative error of at most 1/16 while the maximum is exact.
+ *
+ * @see VirtualProcessorUnitMetrics#getQueueWaitTime()
+ * @see VirtualProcessorUnitMetrics#getExecutionTime()
+ */
+@OmitType(unless = "zemeckis.enable_metrics")
+public final class LatencyStatistics {
+    private final int _count;
+    private final int _p50;
+    private final int _p99;
+    private final int _max;
+
+    LatencyStatistics(final int count, final int p50, final int p99, final int max) {
+        _count = count;
+        _p50 = p50;
+        _p99 = p99;
+        _max = max;
+    }
+
+    /**
+     * Return the number of durations recorded.
+     *
+     * @return the number of durations recorded.
+     */
+    public int getCount() {
+        return _count;
+    }
+
+    /**
+     * Return the median duration in microseconds.
+     *
+     * @return the median duration in microseconds or 0 if no durations were recorded.
+     */
+    public int getP50() {
+        return _p50;
+    }
+
+    /**
+     * Return the 99th percentile duration in microseconds.
+     *
+     * @return the 99th percentile duration in microseconds or 0 if no durations were recorded.
+     */
+    public int getP99() {
+        return _p99;
+    }
+
+    /**
+     * Return the longest duration in microseconds.
+     *
+     * @return the longest duration in microseconds or 0 if no durations were recorded.
+     */
+    public int getMax() {
+        return _max;
+    }
+
+    @Override
+    public String toString() {
+        return "LatencyStatistics[count=" + _count + ", p50=" + _p50 + "us, p99=" + _p99 + "us, max=" + _max + "us]";
+    }
+}
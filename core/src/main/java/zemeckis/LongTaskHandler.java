@@ -0,0 +1,34 @@
+package zemeckis;
+
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Interface defining handler invoked when a task or an activation of a {@link VirtualProcessorUnit} runs for
+ * at least the long task threshold. The handler allows an application to identify the tasks that block the
+ * thread for long enough to delay rendering or input handling.
+ *
+ * @see Zemeckis#addLongTaskHandler(LongTaskHandler)
+ * @see Zemeckis#setLongTaskThreshold(int)
+ */
+@FunctionalInterface
+public interface LongTaskHandler {
+    /**
+     * The default long task threshold in milliseconds.
+     */
+    int DEFAULT_THRESHOLD = 50;
+
+    /**
+     * Callback invoked when a task or an activation of a {@link VirtualProcessorUnit} runs for at least the long
+     * task threshold. An activation that runs a long task is also reported if the activation as a whole exceeds
+     * the threshold.
+     *
+     * @param taskName             the name of the task or null if {@link Zemeckis#areNamesEnabled()} returns false
+     *                             or the long task is an activation.
+     * @param virtualProcessorUnit the VirtualProcessorUnit that ran the task or that was activated.
+     * @param duration             the time in milliseconds that the task or the activation took to run.
+     * @param activation           true if the long task is an activation of the VirtualProcessorUnit, false if it
+     *                             is a single task.
+     */
+    void onLongTask(
+            @Nullable String taskName, VirtualProcessorUnit virtualProcessorUnit, double duration, boolean activation);
+}
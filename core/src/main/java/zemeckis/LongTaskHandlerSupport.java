@@ -0,0 +1,129 @@
+package zemeckis;
+
+import static org.realityforge.braincheck.Guards.*;
+
+import grim.annotations.OmitType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import org.jetbrains.annotations.TestOnly;
+import org.jspecify.annotations.Nullable;
+import org.realityforge.braincheck.BrainCheckConfig;
+
+/**
+ * Class supporting the propagation of long tasks to multiple long task handlers.
+ * Long tasks are reported on the thread that ran the task, so a handler may be invoked concurrently from
+ * several threads. Handlers may be added and removed from any thread, including from within a handler.
+ */
+@OmitType(unless = "zemeckis.enable_long_task_handlers")
+final class LongTaskHandlerSupport {
+    private static LongTaskHandlerSupport c_instance = new LongTaskHandlerSupport();
+    /**
+     * The list of handlers to call when a long task is detected.
+     * The list is never modified. It is replaced when a handler is added or removed so that the handlers can be
+     * invoked from any thread, and a handler can add or remove handlers, without the iteration being disturbed.
+     */
+    private volatile List<LongTaskHandler> _longTaskHandlers = Collections.emptyList();
+    /**
+     * The duration in milliseconds at or above which a task or an activation is reported.
+     */
+    private volatile int _threshold = LongTaskHandler.DEFAULT_THRESHOLD;
+
+    static LongTaskHandlerSupport get() {
+        if (Zemeckis.shouldCheckInvariants()) {
+            invariant(
+                    Zemeckis::areLongTaskHandlersEnabled,
+                    () -> "Zemeckis-0025: LongTaskHandlerSupport.get() invoked when"
+                            + " Zemeckis.areLongTaskHandlersEnabled() returns false.");
+        }
+        return c_instance;
+    }
+
+    @TestOnly
+    static void reset() {
+        c_instance = new LongTaskHandlerSupport();
+    }
+
+    private LongTaskHandlerSupport() {}
+
+    /**
+     * Add long task handler to the list of long task handlers called.
+     * The handler should not already be in the list.
+     *
+     * @param handler the long task handler.
+     */
+    synchronized void addLongTaskHandler(final LongTaskHandler handler) {
+        if (Zemeckis.shouldCheckApiInvariants()) {
+            apiInvariant(
+                    () -> !_longTaskHandlers.contains(handler),
+                    () -> "Zemeckis-0026: Attempting to add handler " + handler + " that is already in "
+                            + "the list of long task handlers.");
+        }
+        final List<LongTaskHandler> handlers = new ArrayList<>(_longTaskHandlers);
+        handlers.add(Objects.requireNonNull(handler));
+        _longTaskHandlers = handlers;
+    }
+
+    /**
+     * Remove long task handler from list of existing long task handlers.
+     * The handler should already be in the list.
+     *
+     * @param handler the long task handler.
+     */
+    synchronized void removeLongTaskHandler(final LongTaskHandler handler) {
+        if (Zemeckis.shouldCheckApiInvariants()) {
+            apiInvariant(
+                    () -> _longTaskHandlers.contains(handler),
+                    () -> "Zemeckis-0027: Attempting to remove handler " + handler + " that is not in "
+                            + "the list of long task handlers.");
+        }
+        final List<LongTaskHandler> handlers = new ArrayList<>(_longTaskHandlers);
+        handlers.remove(Objects.requireNonNull(handler));
+        _longTaskHandlers = handlers;
+    }
+
+    int getThreshold() {
+        return _threshold;
+    }
+
+    void setThreshold(final int threshold) {
+        if (Zemeckis.shouldCheckApiInvariants()) {
+            apiInvariant(
+                    () -> threshold > 0,
+                    () -> "Zemeckis-0028: Attempting to set the long task threshold to " + threshold
+                            + " but the threshold must be greater than 0.");
+        }
+        _threshold = threshold;
+    }
+
+    /**
+     * Report the task or activation to the long task handlers if the duration is at or above the threshold.
+     *
+     * @param taskName             the name of the task or null if the long task is an activation.
+     * @param virtualProcessorUnit the VirtualProcessorUnit that ran the task or that was activated.
+     * @param duration             the time in milliseconds that the task or the activation took to run.
+     * @param activation           true if the duration is of an activation, false if it is of a single task.
+     */
+    void reportIfLongTask(
+            @Nullable final String taskName,
+            final VirtualProcessorUnit virtualProcessorUnit,
+            final double duration,
+            final boolean activation) {
+        if (duration >= _threshold) {
+            for (final LongTaskHandler handler : _longTaskHandlers) {
+                try {
+                    handler.onLongTask(taskName, virtualProcessorUnit, duration, activation);
+                } catch (final Throwable error) {
+                    if (Zemeckis.areNamesEnabled() && BrainCheckConfig.verboseErrorMessages()) {
+                        final String message = ZemeckisUtil.safeGetString(() -> "Exception when notifying long task "
+                                + "handler '" + handler + "' of long task in " + virtualProcessorUnit + ".");
+                        ZemeckisLogger.log(message, error);
+                    } else {
+                        ZemeckisLogger.log("Error triggered when invoking LongTaskHandler.onLongTask()", error);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package zemeckis;
+
+import grim.annotations.OmitSymbol;
+import grim.annotations.OmitType;
+import java.util.Objects;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Dispatch an activation in the next MacroTask.
+ * The activation is dispatched by posting a message to a MessageChannel or by scheduling a timer with a 0 delay.
+ * If {@link Zemeckis#useAdaptiveSchedulingBackends()} returns true then the dispatch latency of both is measured
+ * and the faster one is used.
+ */
+@OmitType(when = "zemeckis.use_test_scheduler")
+final class MacroTaskDispatcher {
+    private static final int MESSAGE_CHANNEL = AdaptiveBackendSelector.PRIMARY;
+    private static final int SET_TIMEOUT = AdaptiveBackendSelector.SECONDARY;
+    /**
+     * The name of the timer used when the activation is dispatched by a timer.
+     */
+    @OmitSymbol(unless = "zemeckis.enable_names")
+    @Nullable
+    private final String _name;
+    /**
+     * The activation that is dispatched.
+     */
+    private final Runnable _activation;
+
+    private final JsRuntime.@Nullable MessageChannel _channel =
+            Zemeckis.useMessageChannelToScheduleTasks() ? new JsRuntime.MessageChannel() : null;
+
+    @OmitSymbol(unless = "zemeckis.use_adaptive_scheduling_backends")
+    @Nullable
+    private final AdaptiveBackendSelector _selector =
+            Zemeckis.useAdaptiveSchedulingBackends() ? new AdaptiveBackendSelector(MESSAGE_CHANNEL) : null;
+    /**
+     * The time at which the activation was last requested, used to measure the dispatch latency.
+     */
+    private double _activationRequestedAt;
+
+    MacroTaskDispatcher(@Nullable final String name, final Runnable activation) {
+        _name = Zemeckis.areNamesEnabled() ? name : null;
+        _activation = Objects.requireNonNull(activation);
+        if (Zemeckis.useMessageChannelToScheduleTasks()) {
+            channel().port1().setOnmessage(m -> dispatch(MESSAGE_CHANNEL));
+        }
+    }
+
+    /**
+     * Request that the activation is dispatched in the next MacroTask.
+     */
+    void schedule() {
+        if (Zemeckis.areMetricsEnabled() || Zemeckis.useAdaptiveSchedulingBackends()) {
+            _activationRequestedAt = TemporalScheduler.highResolutionTime();
+        }
+        final int backend = Zemeckis.useAdaptiveSchedulingBackends()
+                ? selector().select()
+                : Zemeckis.useMessageChannelToScheduleTasks() ? MESSAGE_CHANNEL : SET_TIMEOUT;
+        if (MESSAGE_CHANNEL == backend) {
+            channel().port2().postMessage(null);
+        } else {
+            TemporalScheduler.delayedTask(_name, () -> dispatch(SET_TIMEOUT), 0);
+        }
+    }
+
+    private void dispatch(final int backend) {
+        if (Zemeckis.areMetricsEnabled() || Zemeckis.useAdaptiveSchedulingBackends()) {
+            final double latency = TemporalScheduler.highResolutionTime() - _activationRequestedAt;
+            if (Zemeckis.useAdaptiveSchedulingBackends()) {
+                selector().record(backend, latency);
+            }
+            if (Zemeckis.areMetricsEnabled()) {
+                TimerLatencyMonitor.dispatched(
+                        MESSAGE_CHANNEL == backend
+                                ? TimerLatencyMonitor.MESSAGE_CHANNEL
+                                : TimerLatencyMonitor.SET_TIMEOUT,
+                        latency);
+            }
+        }
+        _activation.run();
+    }
+
+    private JsRuntime.MessageChannel channel() {
+        return Objects.requireNonNull(_channel);
+    }
+
+    @OmitSymbol(unless = "zemeckis.use_adaptive_scheduling_backends")
+    private AdaptiveBackendSelector selector() {
+        return Objects.requireNonNull(_selector);
+    }
+}
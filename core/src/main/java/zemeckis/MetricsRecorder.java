@@ -0,0 +1,140 @@
+package zemeckis;
+
+import grim.annotations.OmitType;
+
+/**
+ * The counters and latency histograms that record the activity of a single {@link VirtualProcessorUnit}.
+ * The counters are only updated if {@link Zemeckis#areMetricsEnabled()} returns true. The methods that update
+ * state are synchronized as tasks may be queued on some VirtualProcessorUnits from any thread on the JVM.
+ */
+@OmitType(unless = "zemeckis.enable_metrics")
+final class MetricsRecorder {
+    private int _tasksQueued;
+    private int _tasksExecuted;
+    private int _tasksCanceled;
+    private int _tasksFailed;
+    private int _queueHighWaterMark;
+    private int _queueOverflows;
+    private int _activations;
+    private int _rounds;
+    private int _maxRoundsPerActivation;
+    private int _runawayEvents;
+    private int _deadlinesMissed;
+    /**
+     * The time between a task being queued and the task starting to run.
+     */
+    private final LatencyHistogram _queueWaitTime = new LatencyHistogram();
+    /**
+     * The time that tasks took to run.
+     */
+    private final LatencyHistogram _executionTime = new LatencyHistogram();
+
+    /**
+     * Record that a task was added to the task queue.
+     *
+     * @param queueSize the size of the task queue after the task was added.
+     */
+    synchronized void taskQueued(final int queueSize) {
+        _tasksQueued++;
+        if (queueSize > _queueHighWaterMark) {
+            _queueHighWaterMark = queueSize;
+        }
+    }
+
+    /**
+     * Record that a task started to run.
+     *
+     * @param queueWaitTime the time in milliseconds between the task being queued and starting to run.
+     */
+    synchronized void taskStarted(final double queueWaitTime) {
+        _queueWaitTime.record(toMicroseconds(queueWaitTime));
+    }
+
+    /**
+     * Record that a task finished running.
+     * The task is only counted as executed if it completed without throwing an exception.
+     *
+     * @param executionTime the time in milliseconds that the task took to run.
+     * @param completed     true if the task completed without throwing an exception.
+     */
+    synchronized void taskFinished(final double executionTime, final boolean completed) {
+        _executionTime.record(toMicroseconds(executionTime));
+        if (completed) {
+            _tasksExecuted++;
+        }
+    }
+
+    private static int toMicroseconds(final double milliseconds) {
+        return (int) (milliseconds * 1000D);
+    }
+
+    synchronized void taskCanceled() {
+        _tasksCanceled++;
+    }
+
+    synchronized void queueOverflowed() {
+        _queueOverflows++;
+    }
+
+    synchronized void taskFailed() {
+        _tasksFailed++;
+    }
+
+    synchronized void activated() {
+        _activations++;
+    }
+
+    /**
+     * Record the number of rounds that an executor ran within a single activation.
+     *
+     * @param rounds the number of rounds.
+     */
+    synchronized void roundsCompleted(final int rounds) {
+        _rounds += rounds;
+        if (rounds > _maxRoundsPerActivation) {
+            _maxRoundsPerActivation = rounds;
+        }
+    }
+
+    synchronized void runawayDetected() {
+        _runawayEvents++;
+    }
+
+    synchronized void deadlineMissed() {
+        _deadlinesMissed++;
+    }
+
+    synchronized VirtualProcessorUnitMetrics snapshot(final VirtualProcessorUnit virtualProcessorUnit) {
+        return new VirtualProcessorUnitMetrics(
+                virtualProcessorUnit,
+                _tasksQueued,
+                _tasksExecuted,
+                _tasksCanceled,
+                _tasksFailed,
+                _queueHighWaterMark,
+                _queueOverflows,
+                _activations,
+                _rounds,
+                _maxRoundsPerActivation,
+                _runawayEvents,
+                _deadlinesMissed,
+                _queueWaitTime.snapshot(),
+                _executionTime.snapshot());
+    }
+
+    synchronized void reset() {
+        _tasksQueued = 0;
+        _tasksExecuted = 0;
+        _tasksCanceled = 0;
+        _tasksFailed = 0;
+        _queueHighWaterMark = 0;
+        _queueOverflows = 0;
+        _activations = 0;
+        _rounds = 0;
+        _maxRoundsPerActivation = 0;
+        _runawayEvents = 0;
+        _deadlinesMissed = 0;
+        _queueWaitTime.reset();
+        _executionTime.reset();
+    }
+}
@@ -0,0 +1,97 @@
+package zemeckis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import org.jetbrains.annotations.TestOnly;
+
+/**
+ * Tracks whether the page is hidden, such as when the tab is in the background or the window is minimized.
+ * In the browser the state is read from <code>document.hidden</code> and listeners are notified when the
+ * <code>visibilitychange</code> event is dispatched. On the JVM the page is always visible unless the state is
+ * changed via {@link ZemeckisTestUtil#setPageHidden(boolean)}.
+ */
+final class PageVisibility {
+    private static PageVisibility c_instance = new PageVisibility();
+    /**
+     * The listeners to call when the visibility of the page changes.
+     */
+    private final List<Runnable> _listeners = new ArrayList<>();
+
+    private final Monitor _monitor = new Monitor();
+    private boolean _hidden;
+
+    private PageVisibility() {
+        _hidden = _monitor.isHidden();
+        _monitor.install(this::onVisibilityChange);
+    }
+
+    static boolean isHidden() {
+        return c_instance._hidden;
+    }
+
+    /**
+     * Add a listener that is called when the visibility of the page changes.
+     *
+     * @param listener the listener.
+     */
+    static void addListener(final Runnable listener) {
+        c_instance._listeners.add(Objects.requireNonNull(listener));
+    }
+
+    static void removeListener(final Runnable listener) {
+        c_instance._listeners.remove(listener);
+    }
+
+    @TestOnly
+    static void setHidden(final boolean hidden) {
+        c_instance.setHiddenState(hidden);
+    }
+
+    @TestOnly
+    static void reset() {
+        c_instance = new PageVisibility();
+    }
+
+    private void onVisibilityChange() {
+        setHiddenState(_monitor.isHidden());
+    }
+
+    private void setHiddenState(final boolean hidden) {
+        if (hidden != _hidden) {
+            _hidden = hidden;
+            // Copy the listeners as a listener may remove itself or add other listeners
+            for (final Runnable listener : new ArrayList<>(_listeners)) {
+                listener.run();
+            }
+        }
+    }
+
+    /**
+     * The JVM implementation where the page is always visible.
+     */
+    private static final class Monitor extends AbstractMonitor {
+        @GwtIncompatible
+        @Override
+        boolean isHidden() {
+            return false;
+        }
+
+        @GwtIncompatible
+        @Override
+        void install(final Runnable listener) {}
+    }
+
+    /**
+     * The implementation that reads the visibility of the document in the browser.
+     */
+    private abstract static class AbstractMonitor {
+        boolean isHidden() {
+            return JsRuntime.isDocumentHidden();
+        }
+
+        void install(final Runnable listener) {
+            JsRuntime.addDocumentEventListener("visibilitychange", e -> listener.run());
+        }
+    }
+}
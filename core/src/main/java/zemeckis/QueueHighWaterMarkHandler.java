@@ -0,0 +1,20 @@
+package zemeckis;
+
+/**
+ * Interface defining handler invoked when the task queue of a {@link VirtualProcessorUnit} grows to the
+ * high-water mark. The handler allows an application to shed load, such as by pausing a producer, before the
+ * task queue reaches capacity or consumes an unbounded amount of memory.
+ *
+ * @see VirtualProcessorUnit#setQueueHighWaterMark(int, QueueHighWaterMarkHandler)
+ */
+@FunctionalInterface
+public interface QueueHighWaterMarkHandler {
+    /**
+     * Callback invoked when a task is queued and the size of the task queue reaches the high-water mark.
+     * The handler is not invoked again until the task queue has drained to half the high-water mark.
+     *
+     * @param virtualProcessorUnit the VirtualProcessorUnit whose task queue reached the high-water mark.
+     * @param queueSize            the size of the task queue.
+     */
+    void onHighWaterMark(VirtualProcessorUnit virtualProcessorUnit, int queueSize);
+}
@@ -0,0 +1,28 @@
+package zemeckis;
+
+/**
+ * The action taken when a task is queued on a {@link VirtualProcessorUnit} whose task queue is at capacity.
+ *
+ * @see VirtualProcessorUnit#setQueueCapacity(int, QueueOverflowPolicy)
+ */
+public enum QueueOverflowPolicy {
+    /**
+     * The task is not queued and an {@link IllegalStateException} is thrown to the caller.
+     */
+    REJECT,
+    /**
+     * The oldest task in the task queue is canceled to make room for the task.
+     */
+    DROP_OLDEST,
+    /**
+     * The task is canceled and is not queued. The task queue is left unchanged.
+     */
+    DROP_NEWEST,
+    /**
+     * The task is not queued and is run immediately by the caller instead. This slows the producer down to the
+     * rate at which it can run the tasks itself. The task runs within an activation of the VirtualProcessorUnit
+     * and, if the caller is a task of another VirtualProcessorUnit, that VirtualProcessorUnit is suspended while
+     * the task runs.
+     */
+    CALLER_RUNS
+}
@@ -30,6 +30,10 @@ abstract class RoundBasedExecutor extends AbstractExecutor {
      * The number of tasks left in the current round.
      */
     private int _remainingTasksInCurrentRound;
+    /**
+     * The number of rounds run in the most recent activation.
+     */
+    private int _completedRounds;
 
     RoundBasedExecutor() {
         this(DEFAULT_MAX_ROUNDS);
@@ -44,15 +48,31 @@ abstract class RoundBasedExecutor extends AbstractExecutor {
         context().activate(this::executeTasks);
     }
 
+    /**
+     * Activate the executor at the specified time.
+     *
+     * @param activationTime the time of the activation in milliseconds.
+     * @see VirtualProcessorUnit.Context#activate(VirtualProcessorUnit.ActivationFn, double)
+     */
+    final void activate(final double activationTime) {
+        context().activate(this::executeTasks, activationTime);
+    }
+
     /**
      * Run tasks until complete or runaway tasks detected.
      */
     @VisibleForTesting
     void executeTasks() {
+        final Object activation = JfrEvents.vpuActivationStarted();
+        int tasksRun = 0;
         while (true) {
             if (!runNextTask()) {
                 break;
             }
+            tasksRun++;
+        }
+        if (null != activation) {
+            JfrEvents.vpuActivationCompleted(activation, virtualProcessorUnit(), _completedRounds, tasksRun);
         }
     }
 
@@ -73,11 +93,13 @@ abstract class RoundBasedExecutor extends AbstractExecutor {
         // If we have reached the last task in this round then
         // determine if we need any more rounds and if we do ensure
         if (0 == _remainingTasksInCurrentRound) {
-            final int pendingTasksCount = getTaskQueue().size();
+            final int pendingTasksCount = getQueueSize();
             if (0 == pendingTasksCount) {
+                recordRoundsCompleted();
                 _currentRound = 0;
                 return false;
             } else if (_currentRound + 1 > _maxRounds) {
+                recordRoundsCompleted();
                 _currentRound = 0;
                 onRunawayTasksDetected();
                 return false;
@@ -101,6 +123,16 @@ abstract class RoundBasedExecutor extends AbstractExecutor {
         return true;
     }
 
+    private void recordRoundsCompleted() {
+        _completedRounds = _currentRound;
+        if (Zemeckis.areMetricsEnabled()) {
+            final VirtualProcessorUnit virtualProcessorUnit = virtualProcessorUnit();
+            if (null != virtualProcessorUnit) {
+                virtualProcessorUnit.onRoundsCompleted(_currentRound);
+            }
+        }
+    }
+
     /**
      * Called when runaway tasks detected.
      * Depending on configuration will optionally purge the pending
@@ -109,11 +141,18 @@ abstract class RoundBasedExecutor extends AbstractExecutor {
     @VisibleForTesting
     void onRunawayTasksDetected() {
         final List<String> taskNames = Zemeckis.shouldCheckInvariants() && BrainCheckConfig.verboseErrorMessages()
-                ? getTaskQueue().stream().map(Object::toString).collect(Collectors.toList())
+                ? streamTasks().map(Object::toString).collect(Collectors.toList())
                 : null;
 
+        if (Zemeckis.isTaskInstrumentationEnabled()) {
+            final VirtualProcessorUnit virtualProcessorUnit = virtualProcessorUnit();
+            if (null != virtualProcessorUnit) {
+                virtualProcessorUnit.onRunawayDetected(_maxRounds, getQueueSize());
+            }
+        }
+
         if (Zemeckis.purgeTasksWhenRunawayDetected()) {
-            getTaskQueue().clear();
+            clearTasks();
         }
 
         if (Zemeckis.shouldCheckInvariants()) {
@@ -0,0 +1,190 @@
+package zemeckis;
+
+import grim.annotations.OmitSymbol;
+import java.util.Objects;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The scheduler and the VirtualProcessorUnits that tasks are scheduled onto.
+ *
+ * <p>Zemeckis schedules tasks onto a single global set of VirtualProcessorUnits and a single
+ * {@link TemporalScheduler} unless a context has been bound to the current thread. Contexts can only be
+ * bound to threads on the JVM and binding a context is a no-op in the browser. Each context tracks the
+ * VirtualProcessorUnit that is currently activated within the context so that independent contexts may
+ * activate their VirtualProcessorUnits concurrently on separate threads.</p>
+ */
+final class SchedulerContext {
+    private static final ContextBinding BINDING = new ContextBinding();
+    private final TemporalScheduler.AbstractScheduler _scheduler;
+    private final VirtualProcessorUnit _macroTaskVpu;
+    private final VirtualProcessorUnit _microTaskVpu;
+    private final VirtualProcessorUnit _animationFrameVpu;
+    private final VirtualProcessorUnit _afterFrameVpu;
+    private final VirtualProcessorUnit _onIdleVpu;
+
+    @Nullable
+    private VirtualProcessorUnit _currentVpu;
+    /**
+     * Id of the next task created within the context that is not explicitly named.
+     */
+    @OmitSymbol(unless = "zemeckis.enable_names")
+    private int _nextTaskId;
+
+    SchedulerContext(
+            final TemporalScheduler.AbstractScheduler scheduler,
+            final VirtualProcessorUnit macroTaskVpu,
+            final VirtualProcessorUnit microTaskVpu,
+            final VirtualProcessorUnit animationFrameVpu,
+            final VirtualProcessorUnit afterFrameVpu,
+            final VirtualProcessorUnit onIdleVpu) {
+        _scheduler = Objects.requireNonNull(scheduler);
+        _macroTaskVpu = Objects.requireNonNull(macroTaskVpu);
+        _microTaskVpu = Objects.requireNonNull(microTaskVpu);
+        _animationFrameVpu = Objects.requireNonNull(animationFrameVpu);
+        _afterFrameVpu = Objects.requireNonNull(afterFrameVpu);
+        _onIdleVpu = Objects.requireNonNull(onIdleVpu);
+    }
+
+    /**
+     * Return the context bound to the current thread, if any.
+     *
+     * @return the context bound to the current thread, or null if the global context should be used.
+     */
+    @Nullable
+    static SchedulerContext current() {
+        return BINDING.current();
+    }
+
+    /**
+     * Create a context for another thread that forwards tasks and timers to the scheduler and
+     * VirtualProcessorUnits in effect on the current thread. The scheduler and the VirtualProcessorUnits of the
+     * current thread are only ever touched by the thread that owns them, so code that runs on another thread
+     * while the returned context is bound may use the {@link Zemeckis} API without racing with the owning thread.
+     * The returned context tracks the current VirtualProcessorUnit independently of the context it was
+     * captured from, which allows a VirtualProcessorUnit to be activated on another thread without contending
+     * with activations on the current thread.
+     *
+     * @return the new context.
+     */
+    @GwtIncompatible
+    static SchedulerContext captureForwarding() {
+        final VirtualProcessorUnit macroTaskVpu = VirtualProcessorUnitsHolder.macroTaskVpu();
+        return new SchedulerContext(
+                new TemporalScheduler.ForwardingSchedulerImpl(TemporalScheduler.scheduler(), macroTaskVpu),
+                forwardingVpu(macroTaskVpu),
+                forwardingVpu(VirtualProcessorUnitsHolder.microTaskVpu()),
+                forwardingVpu(VirtualProcessorUnitsHolder.animationFrameVpu()),
+                forwardingVpu(VirtualProcessorUnitsHolder.afterFrameVpu()),
+                forwardingVpu(VirtualProcessorUnitsHolder.onIdleVpu()));
+    }
+
+    @GwtIncompatible
+    private static VirtualProcessorUnit forwardingVpu(final VirtualProcessorUnit target) {
+        return new VirtualProcessorUnit(
+                Zemeckis.areNamesEnabled() ? target.getName() : null, new ForwardingExecutor(target));
+    }
+
+    /**
+     * Create a context with its own deterministic test scheduler, its own VirtualProcessorUnits and its own
+     * task id sequence. Tasks scheduled while the context is bound to a thread never interact with the global
+     * state or with other isolated contexts, so tests that bind separate contexts can run in parallel.
+     *
+     * @return the new context.
+     */
+    @GwtIncompatible
+    @OmitSymbol(unless = "zemeckis.use_test_scheduler")
+    @SuppressWarnings("Varifier")
+    static SchedulerContext createIsolated() {
+        final TemporalScheduler.TestSchedulerImpl scheduler = new TemporalScheduler.TestSchedulerImpl();
+        return new SchedulerContext(
+                scheduler,
+                VirtualProcessorUnitsHolder.createTestVpu(
+                        "Macro", new VirtualProcessorUnitsHolder.TestTaskExecutor(scheduler)),
+                VirtualProcessorUnitsHolder.createTestVpu(
+                        "Micro", new VirtualProcessorUnitsHolder.TestTaskExecutor(scheduler)),
+                VirtualProcessorUnitsHolder.createTestVpu(
+                        "AnimationFrame", new VirtualProcessorUnitsHolder.TestAnimationFrameExecutor(scheduler)),
+                VirtualProcessorUnitsHolder.createTestVpu(
+                        "AfterFrame", new VirtualProcessorUnitsHolder.TestAfterFrameExecutor(scheduler)),
+                VirtualProcessorUnitsHolder.createTestVpu(
+                        "OnIdle", new VirtualProcessorUnitsHolder.TestOnIdleExecutor(scheduler)));
+    }
+
+    /**
+     * Bind the context to the current thread.
+     *
+     * @param context the context or null to clear the binding.
+     */
+    static void bind(@Nullable final SchedulerContext context) {
+        BINDING.bind(context);
+    }
+
+    TemporalScheduler.AbstractScheduler getScheduler() {
+        return _scheduler;
+    }
+
+    VirtualProcessorUnit macroTaskVpu() {
+        return _macroTaskVpu;
+    }
+
+    VirtualProcessorUnit microTaskVpu() {
+        return _microTaskVpu;
+    }
+
+    VirtualProcessorUnit animationFrameVpu() {
+        return _animationFrameVpu;
+    }
+
+    VirtualProcessorUnit afterFrameVpu() {
+        return _afterFrameVpu;
+    }
+
+    VirtualProcessorUnit onIdleVpu() {
+        return _onIdleVpu;
+    }
+
+    @Nullable
+    VirtualProcessorUnit getCurrentVpu() {
+        return _currentVpu;
+    }
+
+    void setCurrentVpu(@Nullable final VirtualProcessorUnit currentVpu) {
+        _currentVpu = currentVpu;
+    }
+
+    @OmitSymbol(unless = "zemeckis.enable_names")
+    int nextTaskId() {
+        return _nextTaskId++;
+    }
+
+    private static final class ContextBinding extends AbstractContextBinding {
+        @GwtIncompatible
+        private final ThreadLocal<SchedulerContext> _context = new ThreadLocal<>();
+
+        @GwtIncompatible
+        @Nullable
+        @Override
+        SchedulerContext current() {
+            return _context.get();
+        }
+
+        @GwtIncompatible
+        @Override
+        void bind(@Nullable final SchedulerContext context) {
+            if (null == context) {
+                _context.remove();
+            } else {
+                _context.set(context);
+            }
+        }
+    }
+
+    private abstract static class AbstractContextBinding {
+        @Nullable
+        SchedulerContext current() {
+            return null;
+        }
+
+        void bind(@Nullable final SchedulerContext context) {}
+    }
+}
@@ -0,0 +1,17 @@
+package zemeckis;
+
+/**
+ * Interface for handling spy events emitted by the scheduler.
+ *
+ * @see ZemeckisSpy
+ */
+@FunctionalInterface
+public interface SpyEventHandler {
+    /**
+     * Report an event emitted by the scheduler.
+     * The event is one of the event types nested in {@link ZemeckisSpy}.
+     *
+     * @param event the event that occurred.
+     */
+    void onSpyEvent(Object event);
+}
@@ -20,6 +20,18 @@ final class TaskEntry implements Cancelable {
 
     @Nullable
     private Cancelable _cancelAction;
+    /**
+     * The VirtualProcessorUnit that the task is queued on. This is only retained if
+     * {@link Zemeckis#isTaskInstrumentationEnabled()} returns true so that the activity of the task can be reported.
+     */
+    @Nullable
+    private final VirtualProcessorUnit _virtualProcessorUnit;
+    /**
+     * The time at which the task was queued, as returned by {@link TemporalScheduler#highResolutionTime()}.
+     * This is only recorded if the task is queued on a VirtualProcessorUnit and metrics are enabled.
+     */
+    @OmitSymbol(unless = "zemeckis.enable_metrics")
+    private final double _queuedAt;
 
     /**
      * Create a task entry.
@@ -29,6 +41,22 @@ final class TaskEntry implements Cancelable {
      * @param cancelAction the code to call to cancel pending task side-effects.
      */
     TaskEntry(@Nullable final String name, final Runnable task, @Nullable final Cancelable cancelAction) {
+        this(name, task, cancelAction, null);
+    }
+
+    /**
+     * Create a task entry.
+     *
+     * @param name                 A human consumable name for the task. It should be non-null if {@link Zemeckis#areNamesEnabled()} returns true and <tt>null</tt> otherwise.
+     * @param task                 the task.
+     * @param cancelAction         the code to call to cancel pending task side-effects.
+     * @param virtualProcessorUnit the VirtualProcessorUnit that the task is queued on, if any.
+     */
+    TaskEntry(
+            @Nullable final String name,
+            final Runnable task,
+            @Nullable final Cancelable cancelAction,
+            @Nullable final VirtualProcessorUnit virtualProcessorUnit) {
         if (Zemeckis.shouldCheckApiInvariants()) {
             apiInvariant(
                     () -> Zemeckis.areNamesEnabled() || null == name,
@@ -37,6 +65,25 @@ final class TaskEntry implements Cancelable {
         _name = Zemeckis.areNamesEnabled() ? Objects.requireNonNull(name) : null;
         _task = Objects.requireNonNull(task);
         _cancelAction = cancelAction;
+        _virtualProcessorUnit = Zemeckis.isTaskInstrumentationEnabled() ? virtualProcessorUnit : null;
+        _queuedAt = Zemeckis.areMetricsEnabled() && null != virtualProcessorUnit
+                ? TemporalScheduler.highResolutionTime()
+                : 0;
+    }
+
+    /**
+     * Return the name of the task.
+     *
+     * @return the name of the task or null if {@link Zemeckis#areNamesEnabled()} returns false.
+     */
+    @Nullable
+    String getName() {
+        return Zemeckis.areNamesEnabled() ? _name : null;
+    }
+
+    @OmitSymbol(unless = "zemeckis.enable_metrics")
+    double getQueuedAt() {
+        return _queuedAt;
     }
 
     @Nullable
@@ -51,7 +98,11 @@ final class TaskEntry implements Cancelable {
 
     void execute() {
         if (null != _task) {
-            _task.run();
+            if (Zemeckis.isTaskInstrumentationEnabled() && null != _virtualProcessorUnit) {
+                _virtualProcessorUnit.executeTask(this, _task);
+            } else {
+                _task.run();
+            }
             _task = null;
             _cancelAction = null;
         }
@@ -63,6 +114,9 @@ final class TaskEntry implements Cancelable {
             _cancelAction.cancel();
             _cancelAction = null;
         }
+        if (Zemeckis.isTaskInstrumentationEnabled() && null != _task && null != _virtualProcessorUnit) {
+            _virtualProcessorUnit.onTaskCanceled(this);
+        }
         _task = null;
     }
 
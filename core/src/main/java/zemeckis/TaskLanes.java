@@ -0,0 +1,178 @@
+package zemeckis;
+
+import java.util.Objects;
+import java.util.stream.Stream;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * The task queue of an executor that contains a lane for each {@link TaskPriority}.
+ * Tasks are selected from the lanes using a smooth weighted round-robin. Each time a task is selected, every lane
+ * that contains tasks earns credit equal to its weight, the lane with the most credit is selected and the
+ * selected lane is charged the total weight of the lanes that contain tasks. When every lane contains tasks the
+ * lanes are selected in proportion to their weights, so a backlog of higher priority tasks delays lower
+ * priority tasks but never starves them.
+ */
+final class TaskLanes {
+    /**
+     * The weight of each lane, indexed by the ordinal of the {@link TaskPriority}.
+     */
+    private static final int[] WEIGHTS = new int[] {6, 3, 1};
+
+    private static final int USER_BLOCKING = TaskPriority.USER_BLOCKING.ordinal();
+    private static final int NORMAL = TaskPriority.NORMAL.ordinal();
+    private static final int BACKGROUND = TaskPriority.BACKGROUND.ordinal();
+    /**
+     * The lanes indexed by the ordinal of the {@link TaskPriority}.
+     * Lanes other than the {@link TaskPriority#NORMAL} lane are created when the first task is added to them.
+     */
+    private final CircularBuffer<TaskEntry>[] _lanes;
+    /**
+     * The credit that each lane has earned in the weighted round-robin.
+     */
+    private final int[] _credits = new int[WEIGHTS.length];
+
+    private final int _initialLaneSize;
+    /**
+     * The number of tasks at the start of the {@link TaskPriority#NORMAL} lane that were added via
+     * {@link #addFirst(TaskEntry)} and are selected before any other task.
+     */
+    private int _firstCount;
+
+    @SuppressWarnings("unchecked")
+    TaskLanes(final int initialLaneSize) {
+        _initialLaneSize = initialLaneSize;
+        _lanes = (CircularBuffer<TaskEntry>[]) new CircularBuffer<?>[WEIGHTS.length];
+        _lanes[NORMAL] = new CircularBuffer<>(initialLaneSize);
+    }
+
+    /**
+     * Return the lane that contains tasks with the {@link TaskPriority#NORMAL} priority.
+     *
+     * @return the lane.
+     */
+    CircularBuffer<TaskEntry> normal() {
+        return Objects.requireNonNull(_lanes[NORMAL]);
+    }
+
+    int size() {
+        int size = 0;
+        for (final CircularBuffer<TaskEntry> lane : _lanes) {
+            if (null != lane) {
+                size += lane.size();
+            }
+        }
+        return size;
+    }
+
+    void add(final TaskEntry entry, final TaskPriority priority) {
+        final int index = priority.ordinal();
+        CircularBuffer<TaskEntry> lane = _lanes[index];
+        if (null == lane) {
+            lane = new CircularBuffer<>(_initialLaneSize);
+            _lanes[index] = lane;
+        }
+        lane.add(entry);
+    }
+
+    /**
+     * Add the task so that it is selected before any task that is already queued.
+     *
+     * @param entry the task.
+     */
+    void addFirst(final TaskEntry entry) {
+        normal().addFirst(entry);
+        _firstCount++;
+    }
+
+    /**
+     * Remove and return the next task to run.
+     *
+     * @return the next task to run or null if there are no tasks.
+     */
+    @Nullable
+    TaskEntry pop() {
+        if (0 != _firstCount) {
+            _firstCount--;
+            return normal().pop();
+        } else if (isEmpty(USER_BLOCKING) && isEmpty(BACKGROUND)) {
+            // Avoid the round-robin when only the normal lane is in use, as is typical
+            _credits[NORMAL] = 0;
+            return normal().pop();
+        }
+        int totalWeight = 0;
+        int selected = -1;
+        for (int i = 0; i < _lanes.length; i++) {
+            if (isEmpty(i)) {
+                // Lanes do not accumulate credit while they are empty
+                _credits[i] = 0;
+            } else {
+                _credits[i] += WEIGHTS[i];
+                totalWeight += WEIGHTS[i];
+                if (-1 == selected || _credits[i] > _credits[selected]) {
+                    selected = i;
+                }
+            }
+        }
+        if (-1 == selected) {
+            return null;
+        } else {
+            _credits[selected] -= totalWeight;
+            return Objects.requireNonNull(_lanes[selected]).pop();
+        }
+    }
+
+    /**
+     * Remove and return the oldest task in the lowest priority lane that contains tasks.
+     * This is used to shed load so tasks with a lower priority are removed first.
+     *
+     * @return the task or null if there are no tasks.
+     */
+    @Nullable
+    TaskEntry popOldest() {
+        for (int i = _lanes.length - 1; i >= 0; i--) {
+            if (!isEmpty(i)) {
+                if (NORMAL == i && 0 != _firstCount) {
+                    _firstCount--;
+                }
+                return Objects.requireNonNull(_lanes[i]).pop();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Return the tasks in all the lanes, from the highest priority lane to the lowest priority lane.
+     *
+     * @return the tasks.
+     */
+    Stream<TaskEntry> stream() {
+        return Stream.of(_lanes).filter(Objects::nonNull).flatMap(CircularBuffer::stream);
+    }
+
+    void clear() {
+        for (final CircularBuffer<TaskEntry> lane : _lanes) {
+            if (null != lane) {
+                lane.clear();
+            }
+        }
+        for (int i = 0; i < _credits.length; i++) {
+            _credits[i] = 0;
+        }
+        _firstCount = 0;
+    }
+
+    /**
+     * Clear the lanes and release the storage allocated as the lanes grew.
+     */
+    void reset() {
+        clear();
+        normal().truncate(_initialLaneSize);
+        _lanes[USER_BLOCKING] = null;
+        _lanes[BACKGROUND] = null;
+    }
+
+    private boolean isEmpty(final int index) {
+        final CircularBuffer<TaskEntry> lane = _lanes[index];
+        return null == lane || lane.isEmpty();
+    }
+}
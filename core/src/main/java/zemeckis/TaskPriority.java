@@ -0,0 +1,24 @@
+package zemeckis;
+
+/**
+ * The priority of a task queued on a {@link VirtualProcessorUnit}.
+ * Each priority is queued in a separate lane of the task queue. When more than one lane contains tasks, the
+ * VirtualProcessorUnit selects tasks from the lanes in a weighted round-robin so that higher priority tasks run
+ * more often but lower priority tasks are never starved.
+ *
+ * @see VirtualProcessorUnit#queue(String, Runnable, TaskPriority)
+ */
+public enum TaskPriority {
+    /**
+     * The task responds to user input and the user is waiting for it to complete.
+     */
+    USER_BLOCKING,
+    /**
+     * The default priority for tasks.
+     */
+    NORMAL,
+    /**
+     * The task performs work that the user is not waiting on, such as prefetching or synchronizing state.
+     */
+    BACKGROUND
+}
@@ -4,10 +4,15 @@ import static org.realityforge.braincheck.Guards.*;
 
 import grim.annotations.OmitSymbol;
 import grim.annotations.OmitType;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.PriorityQueue;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import jsinterop.base.Any;
 import jsinterop.base.Js;
 import jsinterop.base.JsPropertyMap;
@@ -30,11 +35,51 @@ final class TemporalScheduler {
 
     /**
      * Return a value representing the "current time" of the scheduler.
+     * This is the value of {@link #nanoTime()} in whole milliseconds, truncated to an int.
      *
      * @return the "current time" of the scheduler.
      */
     static int now() {
-        return c_scheduler.now();
+        return scheduler().now();
+    }
+
+    /**
+     * Return the specified time in whole milliseconds, truncated to an int in the same way as narrowing a long.
+     * The value wraps after approximately 24.8 days rather than saturating at {@link Integer#MAX_VALUE}, as
+     * narrowing the double directly would, and the calculation is performed without 64-bit integer arithmetic.
+     *
+     * @param millis the time in milliseconds.
+     * @return the time in whole milliseconds, truncated to an int.
+     */
+    static int toWrappedMillis(final double millis) {
+        final double wrapped = (millis < 0 ? Math.ceil(millis) : Math.floor(millis)) % 4_294_967_296D;
+        if (wrapped >= 2_147_483_648D) {
+            return (int) (wrapped - 4_294_967_296D);
+        } else if (wrapped < -2_147_483_648D) {
+            return (int) (wrapped + 4_294_967_296D);
+        } else {
+            return (int) wrapped;
+        }
+    }
+
+    /**
+     * Return the value of the monotonic clock of the scheduler in nanoseconds.
+     * The value is only meaningful when compared to other values returned by this method.
+     *
+     * @return the value of the monotonic clock in nanoseconds.
+     */
+    static long nanoTime() {
+        return scheduler().nanoTime();
+    }
+
+    /**
+     * Return the "current time" of the scheduler in milliseconds with sub-millisecond precision where the
+     * platform supports it. The value is only meaningful when compared to other values returned by this method.
+     *
+     * @return the "current time" of the scheduler in milliseconds.
+     */
+    static double highResolutionTime() {
+        return scheduler().highResolutionTime();
     }
 
     /**
@@ -46,7 +91,7 @@ final class TemporalScheduler {
      * @return the {@link Cancelable} instance that can be used to cancel execution of the task.
      */
     static Cancelable delayedTask(@Nullable final String name, final Runnable task, final int delay) {
-        return c_scheduler.delayedTask(name, task, delay);
+        return scheduler().delayedTask(name, task, delay);
     }
 
     /**
@@ -58,7 +103,18 @@ final class TemporalScheduler {
      * @return the {@link Cancelable} instance that can be used to cancel execution of the task.
      */
     static Cancelable periodicTask(@Nullable final String name, final Runnable task, final int period) {
-        return c_scheduler.periodicTask(name, task, period);
+        return scheduler().periodicTask(name, task, period);
+    }
+
+    /**
+     * Return the scheduler of the {@link SchedulerContext} bound to the current thread, if any, else the global
+     * scheduler.
+     *
+     * @return the scheduler.
+     */
+    static AbstractScheduler scheduler() {
+        final SchedulerContext context = SchedulerContext.current();
+        return null != context ? context.getScheduler() : c_scheduler;
     }
 
     @TestOnly
@@ -79,68 +135,423 @@ final class TemporalScheduler {
         return testScheduler().pumpAll();
     }
 
+    @OmitSymbol(unless = "zemeckis.use_test_scheduler")
+    @TestOnly
+    static int advanceBy(final int duration) {
+        if (Zemeckis.shouldCheckApiInvariants()) {
+            apiInvariant(
+                    () -> duration >= 0,
+                    () -> "Zemeckis-0016: ZemeckisTestUtil.advanceBy(...) passed a negative duration. "
+                            + "Actual value passed is " + duration);
+        }
+        final TestSchedulerImpl scheduler = testScheduler();
+        return scheduler.advanceTo(scheduler.currentTime() + duration);
+    }
+
+    @OmitSymbol(unless = "zemeckis.use_test_scheduler")
+    @TestOnly
+    static int advanceTo(final int time) {
+        final TestSchedulerImpl scheduler = testScheduler();
+        if (Zemeckis.shouldCheckApiInvariants()) {
+            apiInvariant(
+                    () -> time >= scheduler.currentTime(),
+                    () -> "Zemeckis-0017: ZemeckisTestUtil.advanceTo(...) passed a time that is before the "
+                            + "current time. Actual value passed is " + time + " while the current time is "
+                            + scheduler.currentTime());
+        }
+        return scheduler.advanceTo(time);
+    }
+
+    @OmitSymbol(unless = "zemeckis.use_test_scheduler")
+    @TestOnly
+    static int runUntilIdle(final boolean excludePeriodic) {
+        return testScheduler().runUntilIdle(excludePeriodic);
+    }
+
     private static AbstractScheduler createScheduler() {
         return ZemeckisConfig.useTestScheduler() ? new TestSchedulerImpl() : new ProductionSchedulerImpl();
     }
 
     @OmitSymbol(unless = "zemeckis.use_test_scheduler")
-    private static TestSchedulerImpl testScheduler() {
-        if (!(c_scheduler instanceof TestSchedulerImpl)) {
+    @TestOnly
+    static void simulateWork(final int duration) {
+        if (Zemeckis.shouldCheckApiInvariants()) {
+            apiInvariant(
+                    () -> duration >= 0,
+                    () -> "Zemeckis-0018: ZemeckisTestUtil.simulateWork(...) passed a negative duration. "
+                            + "Actual value passed is " + duration);
+        }
+        testScheduler().simulateWork(duration);
+    }
+
+    @OmitSymbol(unless = "zemeckis.use_test_scheduler")
+    @TestOnly
+    static void setFrameInterval(final int frameInterval) {
+        if (Zemeckis.shouldCheckApiInvariants()) {
+            apiInvariant(
+                    () -> frameInterval > 0,
+                    () -> "Zemeckis-0019: ZemeckisTestUtil.setFrameInterval(...) passed a non-positive frame "
+                            + "interval. Actual value passed is " + frameInterval);
+        }
+        testScheduler().setFrameInterval(frameInterval);
+    }
+
+    @OmitSymbol(unless = "zemeckis.use_test_scheduler")
+    @TestOnly
+    static void setImmediateMode(final boolean immediateMode) {
+        testScheduler().setImmediateMode(immediateMode);
+    }
+
+    /**
+     * Run the activations requested in immediate mode, if the current scheduler is a test scheduler.
+     * This is invoked when an activation completes and no VirtualProcessorUnit remains activated.
+     */
+    @OmitSymbol(unless = "zemeckis.use_test_scheduler")
+    static void runImmediateActivations() {
+        final AbstractScheduler scheduler = scheduler();
+        if (scheduler instanceof TestSchedulerImpl) {
+            ((TestSchedulerImpl) scheduler).runImmediateActivations();
+        }
+    }
+
+    @OmitSymbol(unless = "zemeckis.use_test_scheduler")
+    static TestSchedulerImpl testScheduler() {
+        final AbstractScheduler scheduler = scheduler();
+        if (!(scheduler instanceof TestSchedulerImpl)) {
             throw new IllegalStateException("Test scheduler is not enabled");
         }
-        return (TestSchedulerImpl) c_scheduler;
+        return (TestSchedulerImpl) scheduler;
     }
 
+    /**
+     * A deterministic scheduler that runs tasks in virtual time when pumped.
+     *
+     * <p>The scheduler also models the rendering and idle phases of the browser event loop. Animation frame
+     * callbacks run together in a frame that starts on the next multiple of the frame interval, and idle
+     * callbacks run once no other task is due and are passed a deadline that ends when the next task or frame
+     * is due or after {@link #MAX_IDLE_PERIOD}, whichever is earlier. The clock only moves when tasks are pumped
+     * or when a task invokes {@link #simulateWork(int)} to model the time it takes to run.</p>
+     */
     @OmitType(unless = "zemeckis.use_test_scheduler")
-    private static final class TestSchedulerImpl extends AbstractScheduler {
+    static final class TestSchedulerImpl extends AbstractScheduler {
         private static final int MAX_PUMPED_TASKS = 10_000;
+        /**
+         * The default interval between frames. This models a display with a 60Hz refresh rate.
+         */
+        static final int DEFAULT_FRAME_INTERVAL = 16;
+        /**
+         * The maximum duration of an idle period. This matches the maximum deadline that browsers pass to idle
+         * callbacks.
+         */
+        static final int MAX_IDLE_PERIOD = 50;
 
         private final PriorityQueue<ScheduledTask> _tasks = new PriorityQueue<>();
 
         private long _now;
 
         private long _nextSequence;
+        /**
+         * The number of tasks that are not periodic and have neither run nor been canceled.
+         */
+        private int _pendingOneShotTasks;
+
+        private int _frameInterval = DEFAULT_FRAME_INTERVAL;
+        /**
+         * Callbacks to invoke in the next frame.
+         */
+        private List<Runnable> _frameCallbacks = new ArrayList<>();
+        /**
+         * Callbacks to invoke in the next idle period.
+         */
+        private List<Consumer<DeadlineBasedExecutor.DeadlineFunction>> _idleCallbacks = new ArrayList<>();
+
+        private boolean _frameScheduled;
+        /**
+         * The time at which the current or most recent frame started.
+         */
+        private double _frameTime;
+
+        private boolean _idlePeriodScheduled;
+        /**
+         * True if the "macro" and "micro" task VirtualProcessorUnits are activated synchronously rather than
+         * in a scheduled task.
+         */
+        private boolean _immediateMode;
+        /**
+         * Activations requested in immediate mode that are waiting for the current activation to complete.
+         */
+        private final ArrayDeque<Runnable> _immediateActivations = new ArrayDeque<>();
+
+        private boolean _runningImmediateActivations;
+        /**
+         * Actions requested from any thread that run on the thread that pumps the scheduler before the next
+         * task. Access is guarded by the lock of the list.
+         */
+        private final List<Runnable> _wakeUps = new ArrayList<>();
 
         @Override
         void shutdown() {
+            for (final ScheduledTask task : _tasks) {
+                task.markNotPending();
+            }
             _tasks.clear();
+            _pendingOneShotTasks = 0;
+            _frameCallbacks.clear();
+            _idleCallbacks.clear();
+            _frameScheduled = false;
+            _idlePeriodScheduled = false;
+            _immediateActivations.clear();
+            synchronized (_wakeUps) {
+                _wakeUps.clear();
+            }
         }
 
         @Override
-        int now() {
-            return (int) _now;
+        long nanoTime() {
+            return _now * 1_000_000L;
         }
 
         @Override
-        Cancelable doDelayedTask(@Nullable final String name, final Runnable task, final int delay) {
+        double highResolutionTime() {
+            return _now;
+        }
+
+        @Override
+        Cancelable doDelayedTask(
+                @Nullable final String name, final Runnable task, final int delay, final String backend) {
             return schedule(task, delay, 0);
         }
 
         @Override
-        Cancelable doPeriodicTask(@Nullable final String name, final Runnable task, final int period) {
+        Cancelable doPeriodicTask(
+                @Nullable final String name, final Runnable task, final int period, final String backend) {
             return schedule(task, period, period);
         }
 
+        long currentTime() {
+            return _now;
+        }
+
+        int getFrameInterval() {
+            return _frameInterval;
+        }
+
+        void setFrameInterval(final int frameInterval) {
+            _frameInterval = frameInterval;
+        }
+
+        boolean isImmediateMode() {
+            return _immediateMode;
+        }
+
+        void setImmediateMode(final boolean immediateMode) {
+            _immediateMode = immediateMode;
+        }
+
+        /**
+         * Run the activation synchronously if no VirtualProcessorUnit is activated, otherwise run it when the
+         * outermost activation completes. Activations run in the order that they were requested.
+         *
+         * @param activation the activation.
+         */
+        void requestImmediateActivation(final Runnable activation) {
+            _immediateActivations.add(Objects.requireNonNull(activation));
+            if (!Zemeckis.isVpuActivated()) {
+                runImmediateActivations();
+            }
+        }
+
+        void runImmediateActivations() {
+            // Activations run from this method complete by re-entering this method so only the outermost
+            // invocation drains the pending activations
+            if (!_runningImmediateActivations) {
+                _runningImmediateActivations = true;
+                try {
+                    Runnable activation;
+                    while (null != (activation = _immediateActivations.poll())) {
+                        activation.run();
+                    }
+                } finally {
+                    _runningImmediateActivations = false;
+                }
+            }
+        }
+
+        /**
+         * Run the action on the thread that pumps the scheduler before the next task is run.
+         * Unlike the other methods of the scheduler, this method may be invoked from any thread.
+         *
+         * @param action the action.
+         */
+        void wakeUp(final Runnable action) {
+            synchronized (_wakeUps) {
+                _wakeUps.add(Objects.requireNonNull(action));
+            }
+        }
+
+        private void runWakeUps() {
+            final List<Runnable> actions;
+            synchronized (_wakeUps) {
+                if (_wakeUps.isEmpty()) {
+                    return;
+                }
+                actions = new ArrayList<>(_wakeUps);
+                _wakeUps.clear();
+            }
+            for (final Runnable action : actions) {
+                action.run();
+            }
+        }
+
+        /**
+         * Advance the clock without running any tasks.
+         * This is used to model the time taken to run the current task.
+         *
+         * @param duration the duration.
+         */
+        void simulateWork(final int duration) {
+            _now += duration;
+        }
+
+        /**
+         * Invoke the callback in the next frame.
+         * Callbacks run in the order that they were requested and callbacks requested while a frame is running
+         * are deferred to the subsequent frame.
+         *
+         * @param callback the callback.
+         */
+        void requestAnimationFrame(final Runnable callback) {
+            _frameCallbacks.add(Objects.requireNonNull(callback));
+            if (!_frameScheduled) {
+                _frameScheduled = true;
+                final long nextFrameTime = (_now / _frameInterval + 1) * _frameInterval;
+                schedule(this::runFrame, (int) (nextFrameTime - _now), 0);
+            }
+        }
+
+        /**
+         * Return the time at which the current or most recent frame started.
+         *
+         * @return the time at which the frame started.
+         */
+        double getFrameTime() {
+            return _frameTime;
+        }
+
+        private void runFrame() {
+            _frameTime = _now;
+            final List<Runnable> callbacks = _frameCallbacks;
+            _frameCallbacks = new ArrayList<>();
+            _frameScheduled = false;
+            for (final Runnable callback : callbacks) {
+                callback.run();
+            }
+        }
+
+        /**
+         * Invoke the callback in the next idle period.
+         * The callback is passed a function that returns the time remaining in the idle period.
+         *
+         * @param callback the callback.
+         */
+        void requestIdleCallback(final Consumer<DeadlineBasedExecutor.DeadlineFunction> callback) {
+            _idleCallbacks.add(Objects.requireNonNull(callback));
+            scheduleIdlePeriod();
+        }
+
+        private void scheduleIdlePeriod() {
+            if (!_idlePeriodScheduled) {
+                _idlePeriodScheduled = true;
+                schedule(this::runIdlePeriod, 0, 0);
+            }
+        }
+
+        private void runIdlePeriod() {
+            _idlePeriodScheduled = false;
+            final ScheduledTask next = nextTask();
+            if (null != next && next.getDueTime() <= _now) {
+                // The event loop is not idle so wait until the tasks that are due have run
+                scheduleIdlePeriod();
+            } else {
+                final long deadline =
+                        null == next ? _now + MAX_IDLE_PERIOD : Math.min(_now + MAX_IDLE_PERIOD, next.getDueTime());
+                final List<Consumer<DeadlineBasedExecutor.DeadlineFunction>> callbacks = _idleCallbacks;
+                _idleCallbacks = new ArrayList<>();
+                for (final Consumer<DeadlineBasedExecutor.DeadlineFunction> callback : callbacks) {
+                    callback.accept(() -> Math.max(0, deadline - _now));
+                }
+            }
+        }
+
         private Cancelable schedule(final Runnable task, final int delay, final int period) {
-            final ScheduledTask scheduledTask = new ScheduledTask(task, _now + delay, _nextSequence++, period);
+            final ScheduledTask scheduledTask = new ScheduledTask(this, task, _now + delay, _nextSequence++, period);
+            if (!scheduledTask.isPeriodic()) {
+                _pendingOneShotTasks++;
+            }
             _tasks.add(scheduledTask);
             return scheduledTask;
         }
 
-        private boolean pumpNext() {
+        boolean pumpNext() {
+            runWakeUps();
             final ScheduledTask task = nextTask();
             if (null == task) {
                 return false;
             }
+            runTask(task);
+            return true;
+        }
+
+        /**
+         * Run the tasks that are due at or before the specified time in the order that they are due and then
+         * set the current time to the specified time.
+         *
+         * @param time the time to advance to.
+         * @return the number of tasks executed.
+         */
+        int advanceTo(final long time) {
+            int count = 0;
+            ScheduledTask task;
+            runWakeUps();
+            while (null != (task = nextTask()) && task.getDueTime() <= time) {
+                runTask(task);
+                count++;
+                runWakeUps();
+            }
+            _now = Math.max(_now, time);
+            return count;
+        }
 
+        /**
+         * Run tasks in the order that they are due until no tasks remain.
+         * If periodic tasks are excluded then tasks are run until only periodic tasks remain. Periodic tasks
+         * that are due before the last non-periodic task still run.
+         *
+         * @param excludePeriodic true to stop when only periodic tasks remain.
+         * @return the number of tasks executed.
+         */
+        int runUntilIdle(final boolean excludePeriodic) {
+            int count = 0;
+            while (count < MAX_PUMPED_TASKS && (!excludePeriodic || 0 != _pendingOneShotTasks) && pumpNext()) {
+                count++;
+            }
+            if (excludePeriodic ? 0 != _pendingOneShotTasks : null != nextTask()) {
+                throw new IllegalStateException(
+                        "Unable to run until idle as more than " + MAX_PUMPED_TASKS + " tasks were executed");
+            }
+            return count;
+        }
+
+        private void runTask(final ScheduledTask task) {
             _tasks.remove();
-            _now = task.getDueTime();
+            task.markNotPending();
+            // The clock may have passed the due time if a previous task simulated work
+            _now = Math.max(_now, task.getDueTime());
             task.execute();
             if (task.isPeriodic() && !task.isCanceled()) {
                 task.reschedule(_nextSequence++);
                 _tasks.add(task);
             }
-            return true;
         }
 
         private int pumpAll() {
@@ -168,24 +579,44 @@ final class TemporalScheduler {
 
     @OmitType(unless = "zemeckis.use_test_scheduler")
     private static final class ScheduledTask implements Cancelable, Comparable<ScheduledTask> {
+        private final TestSchedulerImpl _scheduler;
         private final Runnable _task;
         private final int _period;
         private long _dueTime;
         private long _sequence;
         private boolean _canceled;
+        /**
+         * True if the task is not periodic and has neither run nor been canceled.
+         */
+        private boolean _pending;
 
-        private ScheduledTask(final Runnable task, final long dueTime, final long sequence, final int period) {
+        private ScheduledTask(
+                final TestSchedulerImpl scheduler,
+                final Runnable task,
+                final long dueTime,
+                final long sequence,
+                final int period) {
+            _scheduler = Objects.requireNonNull(scheduler);
             _task = Objects.requireNonNull(task);
             _dueTime = dueTime;
             _sequence = sequence;
             _period = period;
+            _pending = 0 == period;
         }
 
         @Override
         public void cancel() {
+            markNotPending();
             _canceled = true;
         }
 
+        private void markNotPending() {
+            if (_pending) {
+                _pending = false;
+                _scheduler._pendingOneShotTasks--;
+            }
+        }
+
         @Override
         public int compareTo(final ScheduledTask other) {
             final int result = Long.compare(_dueTime, other._dueTime);
@@ -214,10 +645,39 @@ final class TemporalScheduler {
         }
     }
 
-    private abstract static class AbstractScheduler {
+    abstract static class AbstractScheduler {
         abstract void shutdown();
 
-        abstract int now();
+        /**
+         * Return the value of the monotonic clock of the scheduler in nanoseconds.
+         * The clock is not affected by adjustments to the wall clock and does not wrap within the lifetime of
+         * the process. The precision of the clock is limited by the platform and is typically in the order of
+         * microseconds in the browser.
+         *
+         * @return the value of the monotonic clock in nanoseconds.
+         */
+        abstract long nanoTime();
+
+        /**
+         * Return the value of the monotonic clock of the scheduler in milliseconds with sub-millisecond precision.
+         * This reads the same clock as {@link #nanoTime()} but avoids 64-bit arithmetic, which is emulated when
+         * compiled to javascript.
+         *
+         * @return the value of the monotonic clock in milliseconds.
+         */
+        abstract double highResolutionTime();
+
+        /**
+         * Return the value of the monotonic clock of the scheduler in whole milliseconds, truncated to an int.
+         * The value wraps after approximately 24.8 days so values should only be compared by subtraction.
+         * Schedulers that can read the clock in milliseconds directly should override this method to avoid
+         * deriving the value from {@link #nanoTime()}.
+         *
+         * @return the value of the monotonic clock in milliseconds, truncated to an int.
+         */
+        int now() {
+            return (int) (nanoTime() / 1_000_000L);
+        }
 
         final Cancelable delayedTask(@Nullable final String name, final Runnable task, final int delay) {
             if (Zemeckis.shouldCheckApiInvariants()) {
@@ -226,10 +686,14 @@ final class TemporalScheduler {
                         () -> "Zemeckis-0008: Zemeckis.delayedTask(...) named '" + name
                                 + "' passed a negative delay. Actual value passed is " + delay);
             }
-            return new TaskEntry(name, task, doDelayedTask(name, task, delay));
+            final String backend = selectTimerBackend();
+            final Runnable monitoredTask =
+                    Zemeckis.areMetricsEnabled() ? TimerLatencyMonitor.timerTask(backend, delay, false, task) : task;
+            final Runnable timerTask = JfrEvents.timerTask(name, delay, false, monitoredTask);
+            return new TaskEntry(name, task, doDelayedTask(name, timerTask, delay, backend));
         }
 
-        abstract Cancelable doDelayedTask(@Nullable String name, Runnable task, int delay);
+        abstract Cancelable doDelayedTask(@Nullable String name, Runnable task, int delay, String backend);
 
         final Cancelable periodicTask(@Nullable final String name, final Runnable task, final int period) {
             if (Zemeckis.shouldCheckApiInvariants()) {
@@ -239,10 +703,214 @@ final class TemporalScheduler {
                                 + "' passed a non-positive period. Actual value passed is " + period);
             }
 
-            return new TaskEntry(name, task, doPeriodicTask(name, task, period));
+            final String backend = selectTimerBackend();
+            final Runnable monitoredTask =
+                    Zemeckis.areMetricsEnabled() ? TimerLatencyMonitor.timerTask(backend, period, true, task) : task;
+            final Runnable timerTask = JfrEvents.timerTask(name, period, true, monitoredTask);
+            return new TaskEntry(name, task, doPeriodicTask(name, timerTask, period, backend));
+        }
+
+        abstract Cancelable doPeriodicTask(@Nullable String name, Runnable task, int period, String backend);
+
+        /**
+         * Select the backend that schedules the next timer.
+         * The name of the backend is used to group the lateness recorded for timers.
+         *
+         * @return the name of the backend that schedules the next timer.
+         */
+        String selectTimerBackend() {
+            return TimerLatencyMonitor.VIRTUAL;
+        }
+    }
+
+    /**
+     * A scheduler for the JVM that stores timers in a {@link TimingWheel}.
+     * Scheduling and canceling a timer are constant time operations regardless of the number of timers
+     * scheduled which suits processes that hold large numbers of timers that are typically canceled,
+     * such as request timeouts. The scheduler does not own a thread and timers only fire when the thread
+     * that owns the scheduler invokes {@link #advance()}.
+     */
+    @GwtIncompatible
+    static final class TimingWheelSchedulerImpl extends AbstractScheduler {
+        /**
+         * The default duration of a tick in milliseconds.
+         */
+        static final int DEFAULT_TICK_RESOLUTION = 1;
+        /**
+         * The default number of slots in each wheel.
+         */
+        static final int DEFAULT_WHEEL_SIZE = 256;
+
+        private final long _schedulerStart = System.nanoTime();
+        private final TimingWheel _wheel;
+
+        TimingWheelSchedulerImpl() {
+            this(DEFAULT_TICK_RESOLUTION, DEFAULT_WHEEL_SIZE);
+        }
+
+        /**
+         * Create the scheduler.
+         *
+         * @param tickResolution the duration of a tick in milliseconds. Timers fire at tick boundaries.
+         * @param wheelSize      the number of slots in each wheel. Must be a power of two greater than 1.
+         */
+        TimingWheelSchedulerImpl(final int tickResolution, final int wheelSize) {
+            _wheel = new TimingWheel(tickResolution, wheelSize);
+        }
+
+        @Override
+        void shutdown() {
+            _wheel.clear();
+        }
+
+        @Override
+        long nanoTime() {
+            return System.nanoTime() - _schedulerStart;
+        }
+
+        @Override
+        double highResolutionTime() {
+            return (System.nanoTime() - _schedulerStart) / 1_000_000D;
+        }
+
+        @Override
+        Cancelable doDelayedTask(
+                @Nullable final String name, final Runnable task, final int delay, final String backend) {
+            return _wheel.schedule(currentTime() + delay, task);
+        }
+
+        @Override
+        Cancelable doPeriodicTask(
+                @Nullable final String name, final Runnable task, final int period, final String backend) {
+            return _wheel.schedule(currentTime() + period, period, task);
+        }
+
+        /**
+         * Run all tasks that are due.
+         *
+         * @return the number of tasks run.
+         */
+        int advance() {
+            return advanceTo(currentTime());
+        }
+
+        /**
+         * Run all tasks that are due at or before the specified time.
+         * The time may be ahead of the clock of the scheduler, in which case tasks run early.
+         *
+         * @param time the time.
+         * @return the number of tasks run.
+         */
+        int advanceTo(final long time) {
+            return _wheel.advanceTo(time);
+        }
+
+        /**
+         * Return the earliest time at which {@link #advance()} may run a task.
+         *
+         * @return the earliest time at which a task may run, or {@link Long#MAX_VALUE} if no tasks are scheduled.
+         */
+        long nextDueTime() {
+            return _wheel.nextExpirationTime();
+        }
+
+        /**
+         * Return the number of timers scheduled.
+         *
+         * @return the number of timers scheduled.
+         */
+        int size() {
+            return _wheel.size();
+        }
+
+        /**
+         * Return the time in milliseconds since the scheduler was created.
+         *
+         * @return the time in milliseconds since the scheduler was created.
+         */
+        long currentTime() {
+            return (System.nanoTime() - _schedulerStart) / 1_000_000L;
         }
+    }
+
+    /**
+     * A scheduler for the JVM that forwards timers to a scheduler owned by another thread.
+     * Each timer is handed to the macro task VirtualProcessorUnit of the owning thread via
+     * {@link VirtualProcessorUnit.Executor#submitFromAnyThread(String, Runnable)} and is scheduled on the owning
+     * scheduler when that task runs, so the delay starts when the owning thread schedules the timer. The timer
+     * runs on the owning thread and may be canceled from any thread.
+     */
+    @GwtIncompatible
+    static final class ForwardingSchedulerImpl extends AbstractScheduler {
+        private final AbstractScheduler _target;
+        private final VirtualProcessorUnit _targetVpu;
+
+        ForwardingSchedulerImpl(final AbstractScheduler target, final VirtualProcessorUnit targetVpu) {
+            _target = Objects.requireNonNull(target);
+            _targetVpu = Objects.requireNonNull(targetVpu);
+        }
+
+        @Override
+        void shutdown() {}
+
+        @Override
+        long nanoTime() {
+            return _target.nanoTime();
+        }
+
+        @Override
+        double highResolutionTime() {
+            return _target.highResolutionTime();
+        }
+
+        @Override
+        Cancelable doDelayedTask(
+                @Nullable final String name, final Runnable task, final int delay, final String backend) {
+            return new ForwardedTimer(name, task, timerTask -> _target.doDelayedTask(name, timerTask, delay, backend));
+        }
+
+        @Override
+        Cancelable doPeriodicTask(
+                @Nullable final String name, final Runnable task, final int period, final String backend) {
+            return new ForwardedTimer(
+                    name, task, timerTask -> _target.doPeriodicTask(name, timerTask, period, backend));
+        }
+
+        private final class ForwardedTimer implements Cancelable {
+            @Nullable
+            private final String _name;
 
-        abstract Cancelable doPeriodicTask(@Nullable String name, Runnable task, int period);
+            private final ForwardingExecutor.ForwardedTask _task;
+            /**
+             * The timer scheduled on the owning scheduler. This is only accessed on the owning thread.
+             */
+            @Nullable
+            private Cancelable _timer;
+
+            ForwardedTimer(
+                    @Nullable final String name, final Runnable task, final Function<Runnable, Cancelable> scheduler) {
+                _name = name;
+                _task = new ForwardingExecutor.ForwardedTask(task);
+                _targetVpu.getExecutor().submitFromAnyThread(name, () -> {
+                    if (!_task.isCanceled()) {
+                        _timer = scheduler.apply(_task);
+                    }
+                });
+            }
+
+            @Override
+            public void cancel() {
+                if (!_task.isCanceled()) {
+                    _task.cancel();
+                    _targetVpu.getExecutor().submitFromAnyThread(_name, () -> {
+                        if (null != _timer) {
+                            _timer.cancel();
+                            _timer = null;
+                        }
+                    });
+                }
+            }
+        }
     }
 
     @OmitType(when = "zemeckis.use_test_scheduler")
@@ -315,7 +983,13 @@ final class TemporalScheduler {
                         : "  console.log(\"[Zemeckis-Worker] Timers After Action\","
                                 + " JSON.parse(JSON.stringify(timers)));\n")
                 + "};";
-        private final long _schedulerStart = System.currentTimeMillis();
+        private static final int WORKER = AdaptiveBackendSelector.PRIMARY;
+        private static final int SET_TIMEOUT = AdaptiveBackendSelector.SECONDARY;
+
+        @OmitSymbol(unless = "zemeckis.use_adaptive_scheduling_backends")
+        @Nullable
+        private final AdaptiveBackendSelector _selector =
+                Zemeckis.useAdaptiveSchedulingBackends() ? new AdaptiveBackendSelector(WORKER) : null;
 
         @OmitSymbol(unless = "zemeckis.use_worker_to_schedule_delayed_tasks")
         private final JsRuntime.@Nullable Worker _worker = ENABLE_WORKERS
@@ -337,10 +1011,6 @@ final class TemporalScheduler {
             }
         }
 
-        final long getSchedulerStart() {
-            return _schedulerStart;
-        }
-
         @Override
         void shutdown() {
             if (Zemeckis.useWorkerToScheduleDelayedTasks()) {
@@ -348,16 +1018,46 @@ final class TemporalScheduler {
             }
         }
 
+        /**
+         * Return the value of the clock truncated to an int without deriving it from {@link #nanoTime()}, as
+         * the 64-bit arithmetic of that method is emulated when compiled to javascript.
+         */
         @Override
         int now() {
-            return (int) (System.currentTimeMillis() - getSchedulerStart());
+            return toWrappedMillis(JsRuntime.performanceNow());
         }
 
         @Override
-        Cancelable doDelayedTask(@Nullable final String name, final Runnable task, final int delay) {
-            if (Zemeckis.useWorkerToScheduleDelayedTasks()) {
+        long nanoTime() {
+            return (long) (JsRuntime.performanceNow() * 1_000_000D);
+        }
+
+        @Override
+        double highResolutionTime() {
+            return JsRuntime.performanceNow();
+        }
+
+        @Override
+        String selectTimerBackend() {
+            if (Zemeckis.useAdaptiveSchedulingBackends()) {
+                return WORKER == selector().select() ? TimerLatencyMonitor.WORKER : TimerLatencyMonitor.SET_TIMEOUT;
+            } else {
+                return Zemeckis.useWorkerToScheduleDelayedTasks()
+                        ? TimerLatencyMonitor.WORKER
+                        : TimerLatencyMonitor.SET_TIMEOUT;
+            }
+        }
+
+        @Override
+        Cancelable doDelayedTask(
+                @Nullable final String name, final Runnable task, final int delay, final String backend) {
+            final boolean useWorker = TimerLatencyMonitor.WORKER.equals(backend);
+            final Runnable timerTask = Zemeckis.useAdaptiveSchedulingBackends()
+                    ? new MeasuredTask(selector(), useWorker ? WORKER : SET_TIMEOUT, delay, false, task)
+                    : task;
+            if (useWorker) {
                 final double id = _nextTimerId++;
-                workerTasks().put(id, task);
+                workerTasks().put(id, timerTask);
                 final JsPropertyMap<Object> message = msg(name, "+", "dt", id);
                 message.set("delay", delay);
                 if (LOG) {
@@ -372,16 +1072,21 @@ final class TemporalScheduler {
                     worker().postMessage(msg(name, "-", "dt", id));
                 };
             } else {
-                final int timeoutId = JsRuntime.setTimeout(task::run, delay);
+                final int timeoutId = JsRuntime.setTimeout(timerTask::run, delay);
                 return () -> JsRuntime.clearTimeout(timeoutId);
             }
         }
 
         @Override
-        Cancelable doPeriodicTask(@Nullable final String name, final Runnable task, final int period) {
-            if (Zemeckis.useWorkerToScheduleDelayedTasks()) {
+        Cancelable doPeriodicTask(
+                @Nullable final String name, final Runnable task, final int period, final String backend) {
+            final boolean useWorker = TimerLatencyMonitor.WORKER.equals(backend);
+            final Runnable timerTask = Zemeckis.useAdaptiveSchedulingBackends()
+                    ? new MeasuredTask(selector(), useWorker ? WORKER : SET_TIMEOUT, period, true, task)
+                    : task;
+            if (useWorker) {
                 final double id = _nextTimerId++;
-                workerTasks().put(id, task);
+                workerTasks().put(id, timerTask);
                 final JsPropertyMap<Object> message = msg(name, "+", "pt", id);
                 message.set("period", period);
                 if (LOG) {
@@ -396,7 +1101,7 @@ final class TemporalScheduler {
                     worker().postMessage(msg(name, "-", "pt", id));
                 };
             } else {
-                final int timeoutId = JsRuntime.setInterval(task::run, period);
+                final int timeoutId = JsRuntime.setInterval(timerTask::run, period);
                 return () -> JsRuntime.clearInterval(timeoutId);
             }
         }
@@ -449,5 +1154,48 @@ final class TemporalScheduler {
         private Map<Double, Runnable> workerTasks() {
             return Objects.requireNonNull(_workerTasks);
         }
+
+        @OmitSymbol(unless = "zemeckis.use_adaptive_scheduling_backends")
+        private AdaptiveBackendSelector selector() {
+            return Objects.requireNonNull(_selector);
+        }
+    }
+
+    /**
+     * A task that records how late the timer fired in an {@link AdaptiveBackendSelector}.
+     * The lateness of a periodic timer is measured from the previous time that the timer fired.
+     */
+    @OmitType(unless = "zemeckis.use_adaptive_scheduling_backends")
+    private static final class MeasuredTask implements Runnable {
+        private final AdaptiveBackendSelector _selector;
+        private final int _backend;
+        private final int _delay;
+        private final boolean _periodic;
+        private final Runnable _task;
+        private double _scheduledAt;
+
+        MeasuredTask(
+                final AdaptiveBackendSelector selector,
+                final int backend,
+                final int delay,
+                final boolean periodic,
+                final Runnable task) {
+            _selector = selector;
+            _backend = backend;
+            _delay = delay;
+            _periodic = periodic;
+            _task = task;
+            _scheduledAt = TemporalScheduler.highResolutionTime();
+        }
+
+        @Override
+        public void run() {
+            final double now = TemporalScheduler.highResolutionTime();
+            _selector.record(_backend, now - _scheduledAt - _delay);
+            if (_periodic) {
+                _scheduledAt = now;
+            }
+            _task.run();
+        }
     }
 }
@@ -0,0 +1,62 @@
+package zemeckis;
+
+import grim.annotations.OmitType;
+import java.util.Objects;
+
+/**
+ * A snapshot of the timer lateness and dispatch latency recorded for a backend that schedules timers or dispatches
+ * activations. The backends are "setTimeout", "worker" and "MessageChannel" in the browser and "virtual" when the
+ * test scheduler is in use.
+ *
+ * @see Zemeckis#timerMetrics()
+ */
+@OmitType(unless = "zemeckis.enable_metrics")
+public final class TimerBackendMetrics {
+    private final String _backend;
+    private final LatencyStatistics _lateness;
+    private final LatencyStatistics _dispatchLatency;
+
+    TimerBackendMetrics(
+            final String backend, final LatencyStatistics lateness, final LatencyStatistics dispatchLatency) {
+        _backend = Objects.requireNonNull(backend);
+        _lateness = Objects.requireNonNull(lateness);
+        _dispatchLatency = Objects.requireNonNull(dispatchLatency);
+    }
+
+    /**
+     * Return the name of the backend that the metrics were recorded for.
+     *
+     * @return the name of the backend.
+     */
+    public String getBackend() {
+        return _backend;
+    }
+
+    /**
+     * Return the distribution of the time between a timer being due and the timer firing.
+     * The lateness is measured using the millisecond clock of the scheduler, and the lateness of a periodic timer
+     * is measured from the previous time that the timer fired.
+     *
+     * @return the distribution of the lateness of timers.
+     */
+    public LatencyStatistics getLateness() {
+        return _lateness;
+    }
+
+    /**
+     * Return the distribution of the time between requesting that the "macro" task VirtualProcessorUnit be
+     * activated and the activation starting. This is the time that the activation waited in the macro-task
+     * queue of the event loop.
+     *
+     * @return the distribution of the time activations waited to be dispatched.
+     */
+    public LatencyStatistics getDispatchLatency() {
+        return _dispatchLatency;
+    }
+
+    @Override
+    public String toString() {
+        return "TimerBackendMetrics[" + _backend + ": lateness=" + _lateness + ", dispatchLatency=" + _dispatchLatency
+                + "]";
+    }
+}
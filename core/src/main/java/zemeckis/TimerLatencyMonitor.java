@@ -0,0 +1,154 @@
+package zemeckis;
+
+import grim.annotations.OmitType;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.jetbrains.annotations.TestOnly;
+
+/**
+ * Records how late timers fire and how long activations wait in the macro-task queue for each backend.
+ * The lateness of a timer is the difference between the time at which it was due, as determined by the
+ * requested delay or period, and the time it actually fired as reported by {@link TemporalScheduler#now()}.
+ * The dispatch latency is the time between requesting that the "macro" task VirtualProcessorUnit be activated and
+ * the activation starting. Samples are only recorded if {@link Zemeckis#areMetricsEnabled()} returns true.
+ */
+@OmitType(unless = "zemeckis.enable_metrics")
+final class TimerLatencyMonitor {
+    /**
+     * The backend that schedules timers via the <code>setTimeout</code> and <code>setInterval</code> functions or
+     * that dispatches activations by scheduling a timer with a 0 delay.
+     */
+    static final String SET_TIMEOUT = "setTimeout";
+    /**
+     * The backend that schedules timers in a dedicated worker.
+     */
+    static final String WORKER = "worker";
+    /**
+     * The backend that dispatches activations by posting a message to a <code>MessageChannel</code>.
+     */
+    static final String MESSAGE_CHANNEL = "MessageChannel";
+    /**
+     * The backend used by the test scheduler and the timing wheel scheduler on the JVM.
+     */
+    static final String VIRTUAL = "virtual";
+
+    private static final TimerLatencyMonitor c_instance = new TimerLatencyMonitor();
+    /**
+     * The samples recorded for each backend, in the order that the backends were first used.
+     */
+    private final Map<String, BackendRecorder> _backends = new LinkedHashMap<>();
+
+    private TimerLatencyMonitor() {}
+
+    /**
+     * Return the task to schedule for a timer.
+     * If {@link Zemeckis#areMetricsEnabled()} returns true then the returned task records the lateness of the
+     * timer each time it fires, otherwise the task is returned as is.
+     *
+     * @param backend  the backend that schedules the timer.
+     * @param delay    the delay, or period if the timer is periodic, in milliseconds.
+     * @param periodic true if the timer is periodic.
+     * @param task     the task invoked when the timer fires.
+     * @return the task to schedule.
+     */
+    static Runnable timerTask(final String backend, final int delay, final boolean periodic, final Runnable task) {
+        return Zemeckis.areMetricsEnabled() ? new MonitoredTask(backend, delay, periodic, task) : task;
+    }
+
+    /**
+     * Record the time that an activation waited between being requested and starting.
+     *
+     * @param backend the backend used to dispatch the activation.
+     * @param latency the time in milliseconds between the activation being requested and starting.
+     */
+    static void dispatched(final String backend, final double latency) {
+        c_instance.recorder(backend).dispatched(latency);
+    }
+
+    /**
+     * Return a snapshot of the samples recorded for each backend, in the order that the backends were first used.
+     *
+     * @return a snapshot of the samples recorded for each backend.
+     */
+    static synchronized List<TimerBackendMetrics> snapshot() {
+        final List<TimerBackendMetrics> metrics = new ArrayList<>();
+        for (final Map.Entry<String, BackendRecorder> entry : c_instance._backends.entrySet()) {
+            metrics.add(entry.getValue().snapshot(entry.getKey()));
+        }
+        return metrics;
+    }
+
+    @TestOnly
+    static synchronized void reset() {
+        c_instance._backends.clear();
+    }
+
+    private BackendRecorder recorder(final String backend) {
+        synchronized (TimerLatencyMonitor.class) {
+            BackendRecorder recorder = _backends.get(backend);
+            if (null == recorder) {
+                recorder = new BackendRecorder();
+                _backends.put(backend, recorder);
+            }
+            return recorder;
+        }
+    }
+
+    /**
+     * The histograms that record the samples for a single backend.
+     */
+    private static final class BackendRecorder {
+        private final LatencyHistogram _lateness = new LatencyHistogram();
+        private final LatencyHistogram _dispatchLatency = new LatencyHistogram();
+
+        void fired(final int lateness) {
+            synchronized (TimerLatencyMonitor.class) {
+                _lateness.record(lateness * 1000);
+            }
+        }
+
+        void dispatched(final double latency) {
+            synchronized (TimerLatencyMonitor.class) {
+                _dispatchLatency.record((int) (latency * 1000D));
+            }
+        }
+
+        TimerBackendMetrics snapshot(final String backend) {
+            return new TimerBackendMetrics(backend, _lateness.snapshot(), _dispatchLatency.snapshot());
+        }
+    }
+
+    /**
+     * A task that records the lateness of the timer each time the timer fires.
+     */
+    private static final class MonitoredTask implements Runnable {
+        private final String _backend;
+        private final int _delay;
+        private final boolean _periodic;
+        private final Runnable _task;
+        /**
+         * The time at which the timer was scheduled or, for a periodic timer, last fired.
+         */
+        private int _scheduledAt;
+
+        MonitoredTask(final String backend, final int delay, final boolean periodic, final Runnable task) {
+            _backend = backend;
+            _delay = delay;
+            _periodic = periodic;
+            _task = task;
+            _scheduledAt = TemporalScheduler.now();
+        }
+
+        @Override
+        public void run() {
+            final int now = TemporalScheduler.now();
+            c_instance.recorder(_backend).fired(now - _scheduledAt - _delay);
+            if (_periodic) {
+                _scheduledAt = now;
+            }
+            _task.run();
+        }
+    }
+}
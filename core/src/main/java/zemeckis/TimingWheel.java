@@ -0,0 +1,353 @@
+package zemeckis;
+
+import java.util.Objects;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A hierarchical timing wheel that supports constant time scheduling and cancellation of timers.
+ *
+ * <p>Time is divided into ticks of a fixed resolution. The finest wheel has one slot per tick and each
+ * coarser wheel has one slot per revolution of the wheel below it. A timer is placed in the finest wheel
+ * whose span covers the timer's expiration and cascades into finer wheels as time advances. Coarser wheels
+ * are created on demand when a timer overflows the span of the existing wheels.</p>
+ *
+ * <p>The wheel is not thread-safe and must only be accessed by the thread that advances it.</p>
+ */
+@GwtIncompatible
+@SuppressWarnings("Varifier")
+final class TimingWheel {
+    /**
+     * The duration of a single tick.
+     */
+    private final long _tickResolution;
+    /**
+     * The number of bits used to index the slots in a wheel.
+     */
+    private final int _wheelBits;
+    /**
+     * The mask applied to a tick to determine the slot in the finest wheel.
+     */
+    private final int _wheelMask;
+    /**
+     * The wheels, finest first. Each slot is the sentinel of a circular doubly-linked list of timers.
+     */
+    private final Timer[][] _wheels;
+    /**
+     * The number of timers in each wheel.
+     */
+    private final int[] _wheelCounts;
+    /**
+     * The number of wheels created so far.
+     */
+    private int _wheelCount;
+    /**
+     * The last tick processed by the wheel.
+     */
+    private long _currentTick;
+    /**
+     * The number of timers scheduled.
+     */
+    private int _size;
+
+    /**
+     * Create a timing wheel.
+     *
+     * @param tickResolution the duration of a single tick. Must be a value greater than 0.
+     * @param wheelSize      the number of slots in each wheel. Must be a power of two greater than 1.
+     */
+    TimingWheel(final long tickResolution, final int wheelSize) {
+        assert tickResolution > 0;
+        assert wheelSize > 1 && 0 == (wheelSize & (wheelSize - 1));
+        _tickResolution = tickResolution;
+        _wheelBits = Integer.numberOfTrailingZeros(wheelSize);
+        _wheelMask = wheelSize - 1;
+        // Enough wheels to cover every tick that can be represented in a long
+        _wheels = new Timer[(Long.SIZE - 2) / _wheelBits + 1][];
+        _wheelCounts = new int[_wheels.length];
+        addWheel();
+    }
+
+    /**
+     * Return the duration of a single tick.
+     *
+     * @return the duration of a single tick.
+     */
+    long getTickResolution() {
+        return _tickResolution;
+    }
+
+    /**
+     * Return the number of timers scheduled.
+     *
+     * @return the number of timers scheduled.
+     */
+    int size() {
+        return _size;
+    }
+
+    /**
+     * Return the number of wheels created to hold the timers scheduled so far.
+     *
+     * @return the number of wheels.
+     */
+    int getWheelCount() {
+        return _wheelCount;
+    }
+
+    /**
+     * Schedule the task to run once the wheel has advanced to the specified time.
+     *
+     * @param time the time at or after which the task should run.
+     * @param task the task.
+     * @return the timer that can be used to cancel the task.
+     */
+    Timer schedule(final long time, final Runnable task) {
+        return schedule(time, 0, task);
+    }
+
+    /**
+     * Schedule the task to run once the wheel has advanced to the specified time and then every period after that.
+     *
+     * @param time   the time at or after which the task should first run.
+     * @param period the period between runs. A value of 0 indicates that the task runs once.
+     * @param task   the task.
+     * @return the timer that can be used to cancel the task.
+     */
+    Timer schedule(final long time, final long period, final Runnable task) {
+        assert period >= 0;
+        final Timer timer = new Timer(Objects.requireNonNull(task), period);
+        arm(timer, time);
+        _size++;
+        return timer;
+    }
+
+    /**
+     * Advance the wheel to the specified time, running every task that is due at or before the time.
+     * Tasks due in the same tick run in an unspecified order.
+     *
+     * @param time the time.
+     * @return the number of tasks run.
+     */
+    int advanceTo(final long time) {
+        final long targetTick = Math.floorDiv(time, _tickResolution);
+        int count = 0;
+        while (_currentTick < targetTick) {
+            final int wheel = firstOccupiedWheel();
+            if (wheel == _wheelCount) {
+                _currentTick = targetTick;
+            } else {
+                if (0 != wheel) {
+                    // Nothing fires or cascades until the first occupied wheel moves to its next slot, so skip ahead
+                    _currentTick = Math.min(targetTick - 1, _currentTick | (wheelSpan(wheel) - 1));
+                }
+                _currentTick++;
+                count += processTick();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Return the earliest time at which advancing the wheel may run a task or cascade timers.
+     * The value is a lower bound for the time at which the next task will run.
+     *
+     * @return the earliest time at which advancing the wheel may do work, or {@link Long#MAX_VALUE} if no timers
+     * are scheduled.
+     */
+    long nextExpirationTime() {
+        long tick = Long.MAX_VALUE;
+        if (0 != _wheelCounts[0]) {
+            final Timer[] slots = _wheels[0];
+            for (int offset = 1; offset <= _wheelMask + 1; offset++) {
+                final Timer sentinel = slots[(int) ((_currentTick + offset) & _wheelMask)];
+                if (sentinel._next != sentinel) {
+                    tick = _currentTick + offset;
+                    break;
+                }
+            }
+        }
+        for (int wheel = 1; wheel < _wheelCount; wheel++) {
+            if (0 != _wheelCounts[wheel]) {
+                // Timers cascade out of the coarser wheel when it moves to its next slot
+                tick = Math.min(tick, (_currentTick | (wheelSpan(wheel) - 1)) + 1);
+                break;
+            }
+        }
+        return Long.MAX_VALUE == tick ? Long.MAX_VALUE : tick * _tickResolution;
+    }
+
+    /**
+     * Remove all timers from the wheel.
+     */
+    void clear() {
+        for (int wheel = 0; wheel < _wheelCount; wheel++) {
+            for (final Timer sentinel : _wheels[wheel]) {
+                while (sentinel._next != sentinel) {
+                    final Timer timer = Objects.requireNonNull(sentinel._next);
+                    unlink(timer);
+                    timer._task = null;
+                }
+            }
+            _wheelCounts[wheel] = 0;
+        }
+        _size = 0;
+    }
+
+    private int processTick() {
+        final int index = (int) (_currentTick & _wheelMask);
+        if (0 == index) {
+            cascade(1);
+        }
+        final Timer sentinel = _wheels[0][index];
+        int count = 0;
+        while (sentinel._next != sentinel) {
+            final Timer timer = Objects.requireNonNull(sentinel._next);
+            unlink(timer);
+            count++;
+            timer.fire();
+        }
+        return count;
+    }
+
+    private void cascade(final int wheel) {
+        if (wheel < _wheelCount) {
+            final int index = (int) ((_currentTick >>> (_wheelBits * wheel)) & _wheelMask);
+            final Timer sentinel = _wheels[wheel][index];
+            while (sentinel._next != sentinel) {
+                final Timer timer = Objects.requireNonNull(sentinel._next);
+                unlink(timer);
+                link(timer);
+            }
+            if (0 == index) {
+                cascade(wheel + 1);
+            }
+        }
+    }
+
+    private int firstOccupiedWheel() {
+        int wheel = 0;
+        while (wheel < _wheelCount && 0 == _wheelCounts[wheel]) {
+            wheel++;
+        }
+        return wheel;
+    }
+
+    private long wheelSpan(final int wheel) {
+        return 1L << (_wheelBits * wheel);
+    }
+
+    private void arm(final Timer timer, final long time) {
+        timer._time = time;
+        // Round up so that the timer never fires before it is due and never into a tick already processed
+        timer._expirationTick = Math.max(_currentTick + 1, -Math.floorDiv(-time, _tickResolution));
+        link(timer);
+    }
+
+    private void link(final Timer timer) {
+        final long delta = timer._expirationTick - _currentTick;
+        final int wheel = delta <= _wheelMask ? 0 : (Long.SIZE - 1 - Long.numberOfLeadingZeros(delta)) / _wheelBits;
+        while (wheel >= _wheelCount) {
+            addWheel();
+        }
+        final int index = (int) ((timer._expirationTick >>> (_wheelBits * wheel)) & _wheelMask);
+        final Timer sentinel = _wheels[wheel][index];
+        final Timer last = Objects.requireNonNull(sentinel._prev);
+        timer._prev = last;
+        timer._next = sentinel;
+        last._next = timer;
+        sentinel._prev = timer;
+        timer._wheel = wheel;
+        _wheelCounts[wheel]++;
+    }
+
+    private void unlink(final Timer timer) {
+        final Timer prev = Objects.requireNonNull(timer._prev);
+        final Timer next = Objects.requireNonNull(timer._next);
+        prev._next = next;
+        next._prev = prev;
+        timer._prev = null;
+        timer._next = null;
+        _wheelCounts[timer._wheel]--;
+    }
+
+    private void addWheel() {
+        final Timer[] slots = new Timer[_wheelMask + 1];
+        for (int i = 0; i < slots.length; i++) {
+            final Timer sentinel = new Timer(null, 0);
+            sentinel._prev = sentinel;
+            sentinel._next = sentinel;
+            slots[i] = sentinel;
+        }
+        _wheels[_wheelCount++] = slots;
+    }
+
+    /**
+     * A timer scheduled in the wheel.
+     */
+    final class Timer implements Cancelable {
+        private final long _period;
+
+        @Nullable
+        private Runnable _task;
+
+        private long _time;
+        private long _expirationTick;
+        private int _wheel;
+
+        @Nullable
+        private Timer _prev;
+
+        @Nullable
+        private Timer _next;
+
+        private Timer(@Nullable final Runnable task, final long period) {
+            _task = task;
+            _period = period;
+        }
+
+        /**
+         * Return the time at or after which the timer is due to fire.
+         *
+         * @return the time at or after which the timer is due to fire.
+         */
+        long getTime() {
+            return _time;
+        }
+
+        /**
+         * Return true if the timer is scheduled to fire.
+         *
+         * @return true if the timer is scheduled to fire.
+         */
+        boolean isScheduled() {
+            return null != _task;
+        }
+
+        @Override
+        public void cancel() {
+            if (null != _task) {
+                _task = null;
+                if (null != _prev) {
+                    unlink(this);
+                }
+                _size--;
+            }
+        }
+
+        private void fire() {
+            final Runnable task = Objects.requireNonNull(_task);
+            if (0 == _period) {
+                _task = null;
+                _size--;
+            }
+            try {
+                task.run();
+            } catch (final Throwable t) {
+                Zemeckis.reportUncaughtError(t);
+            }
+            if (null != _task && null == _prev) {
+                arm(this, _time + _period);
+            }
+        }
+    }
+}
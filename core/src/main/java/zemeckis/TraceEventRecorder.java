@@ -0,0 +1,323 @@
+package zemeckis;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A spy event handler that records the activity of the scheduler so that it can be exported in the Chrome
+ * trace-event format and loaded into Perfetto or chrome://tracing. Activations of VirtualProcessorUnits and the
+ * execution of tasks are recorded as spans on a track per VirtualProcessorUnit, the number of queued tasks is
+ * recorded as a counter per VirtualProcessorUnit and timers are recorded as instant events on a separate track.
+ * Times are taken from the scheduler so a recording made using the test scheduler uses virtual time.
+ *
+ * <p>Events are recorded into a ring buffer that is allocated when the recorder is created. Once the buffer is
+ * full the oldest events are overwritten, which may leave spans in the export without a start.</p>
+ *
+ * <pre>{@code
+ * final TraceEventRecorder recorder = new TraceEventRecorder();
+ * Zemeckis.getSpy().addSpyEventHandler(recorder);
+ * ...
+ * Zemeckis.getSpy().removeSpyEventHandler(recorder);
+ * recorder.writeTo(writer);
+ * }</pre>
+ */
+@GwtIncompatible
+@SuppressWarnings("Varifier")
+public final class TraceEventRecorder implements SpyEventHandler {
+    /**
+     * The default number of events retained by the recorder.
+     */
+    public static final int DEFAULT_CAPACITY = 65536;
+
+    private static final char PHASE_BEGIN = 'B';
+    private static final char PHASE_END = 'E';
+    private static final char PHASE_INSTANT = 'i';
+    private static final char PHASE_COUNTER = 'C';
+    /**
+     * The track that timer events are recorded on. Each VirtualProcessorUnit is allocated a subsequent track.
+     */
+    private static final int TIMER_TRACK = 1;
+
+    private final int _capacity;
+    private final char[] _phases;
+    private final double[] _timestamps;
+    private final int[] _tracks;
+    private final String[] _categories;
+    private final String[] _names;
+    private final int[] _values;
+    /**
+     * The track allocated to each VirtualProcessorUnit observed by the recorder.
+     */
+    private final Map<VirtualProcessorUnit, Integer> _vpuTracks = new LinkedHashMap<>();
+    /**
+     * The number of tasks believed to be queued on each track.
+     * The value is set whenever a task is queued and adjusted as tasks start or are canceled.
+     */
+    private int[] _queueSizes = new int[8];
+    /**
+     * The index into the ring buffer where the next event will be recorded.
+     */
+    private int _next;
+    /**
+     * The number of events in the ring buffer.
+     */
+    private int _size;
+    /**
+     * The number of events overwritten since the recorder was created or last cleared.
+     */
+    private int _droppedEventCount;
+
+    /**
+     * Create a recorder that retains up to {@link #DEFAULT_CAPACITY} events.
+     */
+    public TraceEventRecorder() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Create a recorder that retains up to the specified number of events.
+     *
+     * @param capacity the maximum number of events retained. Must be greater than 0.
+     */
+    public TraceEventRecorder(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("TraceEventRecorder capacity must be greater than 0");
+        }
+        _capacity = capacity;
+        _phases = new char[capacity];
+        _timestamps = new double[capacity];
+        _tracks = new int[capacity];
+        _categories = new String[capacity];
+        _names = new String[capacity];
+        _values = new int[capacity];
+    }
+
+    @Override
+    public synchronized void onSpyEvent(final Object event) {
+        final double timestamp = TemporalScheduler.highResolutionTime();
+        if (event instanceof ZemeckisSpy.TaskQueuedEvent) {
+            final ZemeckisSpy.TaskQueuedEvent e = (ZemeckisSpy.TaskQueuedEvent) event;
+            recordQueueSize(timestamp, e.getVirtualProcessorUnit(), e.getQueueSize());
+        } else if (event instanceof ZemeckisSpy.TaskStartedEvent) {
+            final ZemeckisSpy.TaskStartedEvent e = (ZemeckisSpy.TaskStartedEvent) event;
+            final int track = track(e.getVirtualProcessorUnit());
+            recordQueueSize(timestamp, e.getVirtualProcessorUnit(), _queueSizes[track] - 1);
+            record(PHASE_BEGIN, timestamp, track, "task", taskName(e.getTaskName()), 0);
+        } else if (event instanceof ZemeckisSpy.TaskCompletedEvent) {
+            final ZemeckisSpy.TaskCompletedEvent e = (ZemeckisSpy.TaskCompletedEvent) event;
+            record(PHASE_END, timestamp, track(e.getVirtualProcessorUnit()), "task", taskName(e.getTaskName()), 0);
+        } else if (event instanceof ZemeckisSpy.TaskCanceledEvent) {
+            final ZemeckisSpy.TaskCanceledEvent e = (ZemeckisSpy.TaskCanceledEvent) event;
+            final int track = track(e.getVirtualProcessorUnit());
+            record(PHASE_INSTANT, timestamp, track, "task", "cancel:" + taskName(e.getTaskName()), 0);
+            recordQueueSize(timestamp, e.getVirtualProcessorUnit(), _queueSizes[track] - 1);
+        } else if (event instanceof ZemeckisSpy.DeadlineMissedEvent) {
+            final ZemeckisSpy.DeadlineMissedEvent e = (ZemeckisSpy.DeadlineMissedEvent) event;
+            final int track = track(e.getVirtualProcessorUnit());
+            record(PHASE_INSTANT, timestamp, track, "task", "missed:" + taskName(e.getTaskName()), (int)
+                    e.getLateness());
+        } else if (event instanceof ZemeckisSpy.VpuActivatedEvent) {
+            final VirtualProcessorUnit vpu = ((ZemeckisSpy.VpuActivatedEvent) event).getVirtualProcessorUnit();
+            final int track = track(vpu);
+            record(PHASE_BEGIN, timestamp, track, "activation", vpuName(vpu, track), 0);
+        } else if (event instanceof ZemeckisSpy.VpuDeactivatedEvent) {
+            final VirtualProcessorUnit vpu = ((ZemeckisSpy.VpuDeactivatedEvent) event).getVirtualProcessorUnit();
+            final int track = track(vpu);
+            record(PHASE_END, timestamp, track, "activation", vpuName(vpu, track), 0);
+        } else if (event instanceof ZemeckisSpy.RunawayDetectedEvent) {
+            final ZemeckisSpy.RunawayDetectedEvent e = (ZemeckisSpy.RunawayDetectedEvent) event;
+            final int track = track(e.getVirtualProcessorUnit());
+            record(PHASE_INSTANT, timestamp, track, "activation", "runaway", e.getQueueSize());
+            if (Zemeckis.purgeTasksWhenRunawayDetected()) {
+                recordQueueSize(timestamp, e.getVirtualProcessorUnit(), 0);
+            }
+        } else if (event instanceof ZemeckisSpy.TimerScheduledEvent) {
+            final ZemeckisSpy.TimerScheduledEvent e = (ZemeckisSpy.TimerScheduledEvent) event;
+            record(PHASE_INSTANT, timestamp, TIMER_TRACK, "timer", "schedule:" + timerName(e), e.getDelay());
+        } else if (event instanceof ZemeckisSpy.TimerFiredEvent) {
+            final ZemeckisSpy.TimerFiredEvent e = (ZemeckisSpy.TimerFiredEvent) event;
+            record(PHASE_INSTANT, timestamp, TIMER_TRACK, "timer", "fire:" + timerName(e), 0);
+        } else if (event instanceof ZemeckisSpy.TimerCanceledEvent) {
+            final ZemeckisSpy.TimerCanceledEvent e = (ZemeckisSpy.TimerCanceledEvent) event;
+            record(PHASE_INSTANT, timestamp, TIMER_TRACK, "timer", "cancel:" + timerName(e), 0);
+        }
+    }
+
+    /**
+     * Return the number of events retained by the recorder.
+     *
+     * @return the number of events retained by the recorder.
+     */
+    public synchronized int getEventCount() {
+        return _size;
+    }
+
+    /**
+     * Return the number of events that were overwritten as the ring buffer was full.
+     *
+     * @return the number of events overwritten.
+     */
+    public synchronized int getDroppedEventCount() {
+        return _droppedEventCount;
+    }
+
+    /**
+     * Discard all the events retained by the recorder.
+     */
+    public synchronized void clear() {
+        _next = 0;
+        _size = 0;
+        _droppedEventCount = 0;
+    }
+
+    /**
+     * Return the retained events in the Chrome trace-event JSON format.
+     *
+     * @return the retained events in the Chrome trace-event JSON format.
+     */
+    public String toJson() {
+        final StringBuilder sb = new StringBuilder();
+        try {
+            writeTo(sb);
+        } catch (final IOException e) {
+            // StringBuilder never throws IOException
+            throw new UncheckedIOException(e);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Write the retained events in the Chrome trace-event JSON format.
+     *
+     * @param out the destination.
+     * @throws IOException if an error occurs writing to the destination.
+     */
+    public synchronized void writeTo(final Appendable out) throws IOException {
+        out.append("{\"traceEvents\":[");
+        writeTrackName(out, TIMER_TRACK, "timers");
+        for (final Map.Entry<VirtualProcessorUnit, Integer> entry : _vpuTracks.entrySet()) {
+            final int track = entry.getValue();
+            out.append(',');
+            writeTrackName(out, track, vpuName(entry.getKey(), track));
+        }
+        final int start = _size < _capacity ? 0 : _next;
+        for (int i = 0; i < _size; i++) {
+            final int index = (start + i) % _capacity;
+            out.append(",\n");
+            writeEvent(out, index);
+        }
+        out.append("],\"displayTimeUnit\":\"ms\"}");
+    }
+
+    private void writeTrackName(final Appendable out, final int track, final String name) throws IOException {
+        out.append("\n{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":")
+                .append(Integer.toString(track))
+                .append(",\"args\":{\"name\":");
+        writeString(out, name);
+        out.append("}}");
+    }
+
+    private void writeEvent(final Appendable out, final int index) throws IOException {
+        final char phase = _phases[index];
+        out.append("{\"name\":");
+        writeString(out, _names[index]);
+        out.append(",\"cat\":\"")
+                .append(_categories[index])
+                .append("\",\"ph\":\"")
+                .append(phase);
+        out.append("\",\"ts\":").append(String.format(Locale.ROOT, "%.3f", _timestamps[index] * 1000D));
+        out.append(",\"pid\":1,\"tid\":").append(Integer.toString(_tracks[index]));
+        if (PHASE_COUNTER == phase) {
+            out.append(",\"args\":{\"size\":")
+                    .append(Integer.toString(_values[index]))
+                    .append('}');
+        } else if (PHASE_INSTANT == phase) {
+            out.append(",\"s\":\"t\"");
+            if (0 != _values[index]) {
+                final String arg = "timer".equals(_categories[index]) ? "delay" : "queueSize";
+                out.append(",\"args\":{\"")
+                        .append(arg)
+                        .append("\":")
+                        .append(Integer.toString(_values[index]))
+                        .append('}');
+            }
+        }
+        out.append('}');
+    }
+
+    private static void writeString(final Appendable out, final String value) throws IOException {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char ch = value.charAt(i);
+            if ('"' == ch || '\\' == ch) {
+                out.append('\\').append(ch);
+            } else if (ch < 0x20) {
+                out.append(String.format(Locale.ROOT, "\\u%04x", (int) ch));
+            } else {
+                out.append(ch);
+            }
+        }
+        out.append('"');
+    }
+
+    private void recordQueueSize(final double timestamp, final VirtualProcessorUnit vpu, final int queueSize) {
+        final int track = track(vpu);
+        final int size = Math.max(0, queueSize);
+        _queueSizes[track] = size;
+        record(PHASE_COUNTER, timestamp, track, "queue", "queue:" + vpuName(vpu, track), size);
+    }
+
+    private void record(
+            final char phase,
+            final double timestamp,
+            final int track,
+            final String category,
+            final String name,
+            final int value) {
+        _phases[_next] = phase;
+        _timestamps[_next] = timestamp;
+        _tracks[_next] = track;
+        _categories[_next] = category;
+        _names[_next] = name;
+        _values[_next] = value;
+        _next = (_next + 1) % _capacity;
+        if (_size < _capacity) {
+            _size++;
+        } else {
+            _droppedEventCount++;
+        }
+    }
+
+    private int track(final VirtualProcessorUnit vpu) {
+        final Integer track = _vpuTracks.get(vpu);
+        if (null != track) {
+            return track;
+        } else {
+            final int newTrack = TIMER_TRACK + 1 + _vpuTracks.size();
+            _vpuTracks.put(vpu, newTrack);
+            if (newTrack >= _queueSizes.length) {
+                final int[] queueSizes = new int[_queueSizes.length * 2];
+                System.arraycopy(_queueSizes, 0, queueSizes, 0, _queueSizes.length);
+                _queueSizes = queueSizes;
+            }
+            return newTrack;
+        }
+    }
+
+    private static String vpuName(final VirtualProcessorUnit vpu, final int track) {
+        return Zemeckis.areNamesEnabled() ? vpu.getName() : "vpu-" + track;
+    }
+
+    private static String taskName(@Nullable final String name) {
+        return null != name ? name : "task";
+    }
+
+    private static String timerName(final ZemeckisSpy.TimerEvent event) {
+        final String name = event.getName();
+        return null != name ? name : "timer";
+    }
+}
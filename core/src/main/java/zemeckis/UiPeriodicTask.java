@@ -0,0 +1,106 @@
+package zemeckis;
+
+import java.util.Objects;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * A periodic task that updates the user interface and is suspended while the page is hidden.
+ * When the page becomes visible again the task runs once in the next macro task if at least one period elapsed
+ * since it last ran, coalescing the runs missed while the page was hidden, and then resumes running periodically.
+ *
+ * @see Zemeckis#uiPeriodicTask(String, Runnable, int)
+ */
+final class UiPeriodicTask implements Cancelable {
+    @Nullable
+    private final String _name;
+
+    private final Runnable _task;
+    private final int _period;
+    private final Runnable _visibilityListener = this::onVisibilityChange;
+    /**
+     * The timer that runs the task periodically, or null if the task is suspended.
+     */
+    @Nullable
+    private Cancelable _timer;
+    /**
+     * The macro task that runs the task when the page becomes visible, or null if none is pending.
+     */
+    @Nullable
+    private Cancelable _catchUp;
+    /**
+     * The time at which the task last ran or, if it has not yet run, the time at which it was scheduled.
+     */
+    private double _lastRunAt;
+
+    private boolean _canceled;
+
+    UiPeriodicTask(@Nullable final String name, final Runnable task, final int period) {
+        _name = name;
+        _task = Objects.requireNonNull(task);
+        _period = period;
+        _lastRunAt = TemporalScheduler.highResolutionTime();
+        PageVisibility.addListener(_visibilityListener);
+        if (!PageVisibility.isHidden()) {
+            resume();
+        }
+    }
+
+    @Override
+    public void cancel() {
+        if (!_canceled) {
+            _canceled = true;
+            PageVisibility.removeListener(_visibilityListener);
+            suspend();
+        }
+    }
+
+    private void onVisibilityChange() {
+        if (PageVisibility.isHidden()) {
+            suspend();
+        } else {
+            if (TemporalScheduler.highResolutionTime() - _lastRunAt >= _period) {
+                _catchUp = Zemeckis.macroTask(_name, this::runCatchUp);
+            }
+            resume();
+        }
+    }
+
+    private void resume() {
+        _timer = Zemeckis.periodicTask(_name, this::runPeriodically, _period);
+    }
+
+    private void suspend() {
+        if (null != _timer) {
+            _timer.cancel();
+            _timer = null;
+        }
+        if (null != _catchUp) {
+            _catchUp.cancel();
+            _catchUp = null;
+        }
+    }
+
+    private void runCatchUp() {
+        _catchUp = null;
+        runTask();
+    }
+
+    private void runPeriodically() {
+        if (null != _catchUp) {
+            // The timer fired before the catch up run so the catch up run is redundant
+            _catchUp.cancel();
+            _catchUp = null;
+        }
+        runTask();
+    }
+
+    private void runTask() {
+        _lastRunAt = TemporalScheduler.highResolutionTime();
+        _task.run();
+    }
+
+    @Override
+    public String toString() {
+        return Zemeckis.areNamesEnabled() ? String.valueOf(_name) : super.toString();
+    }
+}
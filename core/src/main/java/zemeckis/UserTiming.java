@@ -0,0 +1,87 @@
+package zemeckis;
+
+import grim.annotations.OmitType;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Records activations of VirtualProcessorUnits and the execution of tasks as User Timing marks and measures.
+ * A mark is recorded when the activation or task starts and a measure spanning from the mark is recorded
+ * when it completes, so that the work appears as labelled spans in the performance panel of the browser.
+ * The marks are cleared once the measure has been recorded. Marks and measures are not recorded on the JVM.
+ */
+@OmitType(unless = "zemeckis.enable_user_timing")
+final class UserTiming {
+    private static final String PREFIX = "zemeckis:";
+    private static final String START_SUFFIX = ":start";
+    private static final Performance c_performance = new Performance();
+
+    private UserTiming() {}
+
+    static void activationStarted(final VirtualProcessorUnit virtualProcessorUnit) {
+        c_performance.mark(activationMeasureName(virtualProcessorUnit) + START_SUFFIX);
+    }
+
+    static void activationCompleted(final VirtualProcessorUnit virtualProcessorUnit) {
+        final String name = activationMeasureName(virtualProcessorUnit);
+        c_performance.measure(name, name + START_SUFFIX);
+    }
+
+    static void taskStarted(final VirtualProcessorUnit virtualProcessorUnit, @Nullable final String taskName) {
+        c_performance.mark(taskMeasureName(virtualProcessorUnit, taskName) + START_SUFFIX);
+    }
+
+    static void taskCompleted(final VirtualProcessorUnit virtualProcessorUnit, @Nullable final String taskName) {
+        final String name = taskMeasureName(virtualProcessorUnit, taskName);
+        c_performance.measure(name, name + START_SUFFIX);
+    }
+
+    /**
+     * Return the name of the measure recorded for an activation of the VirtualProcessorUnit.
+     *
+     * @param virtualProcessorUnit the VirtualProcessorUnit.
+     * @return the name of the measure.
+     */
+    static String activationMeasureName(final VirtualProcessorUnit virtualProcessorUnit) {
+        return PREFIX + (Zemeckis.areNamesEnabled() ? virtualProcessorUnit.getName() : "activation");
+    }
+
+    /**
+     * Return the name of the measure recorded for the execution of a task.
+     *
+     * @param virtualProcessorUnit the VirtualProcessorUnit that runs the task.
+     * @param taskName             the name of the task or null if {@link Zemeckis#areNamesEnabled()} returns false.
+     * @return the name of the measure.
+     */
+    static String taskMeasureName(final VirtualProcessorUnit virtualProcessorUnit, @Nullable final String taskName) {
+        return Zemeckis.areNamesEnabled() && null != taskName
+                ? PREFIX + virtualProcessorUnit.getName() + ":" + taskName
+                : PREFIX + "task";
+    }
+
+    /**
+     * The JVM implementation that ignores marks and measures.
+     */
+    private static final class Performance extends AbstractPerformance {
+        @GwtIncompatible
+        @Override
+        void mark(final String name) {}
+
+        @GwtIncompatible
+        @Override
+        void measure(final String name, final String startMark) {}
+    }
+
+    /**
+     * The implementation that records marks and measures via the performance API of the browser.
+     */
+    private abstract static class AbstractPerformance {
+        void mark(final String name) {
+            JsRuntime.performanceMark(name);
+        }
+
+        void measure(final String name, final String startMark) {
+            JsRuntime.performanceMeasure(name, startMark);
+            JsRuntime.performanceClearMarks(startMark);
+        }
+    }
+}
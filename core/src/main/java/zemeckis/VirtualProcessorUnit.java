@@ -24,6 +24,18 @@ public final class VirtualProcessorUnit {
      * The executor responsible for selecting and invoking tasks.
      */
     private final Executor _executor;
+    /**
+     * The counters that record the activity of the VirtualProcessorUnit. It should be non-null if
+     * {@link Zemeckis#areMetricsEnabled()} returns true and <tt>null</tt> otherwise.
+     */
+    @OmitSymbol(unless = "zemeckis.enable_metrics")
+    @Nullable
+    private final MetricsRecorder _metrics;
+    /**
+     * The time of the current activation, or NaN if the time has not been requested during the current activation.
+     * The time is read from the clock at most once per activation.
+     */
+    private double _activationTime = Double.NaN;
 
     /**
      * Create the processor unit.
@@ -39,7 +51,65 @@ public final class VirtualProcessorUnit {
         }
         _name = Zemeckis.areNamesEnabled() ? Objects.requireNonNull(name) : null;
         _executor = Objects.requireNonNull(executor);
-        _executor.init(activationFn -> VirtualProcessorUnitsHolder.activate(this, activationFn));
+        _metrics = Zemeckis.areMetricsEnabled() ? new MetricsRecorder() : null;
+        _executor.init(new VirtualProcessorUnitContext());
+    }
+
+    /**
+     * Create a VirtualProcessorUnit for the JVM that drains each activation on a virtual thread.
+     * A task that blocks only parks the virtual thread of this VirtualProcessorUnit while the carrier threads
+     * continue to run the tasks of other VirtualProcessorUnits. Tasks queued on the VirtualProcessorUnit still
+     * run one at a time in the order they were queued. If the JVM does not support virtual threads then the
+     * activations are drained on a pool of platform threads. Tasks and timers scheduled via the {@link Zemeckis}
+     * API from a task of the VirtualProcessorUnit are handed to the thread that created the VirtualProcessorUnit.
+     *
+     * @param name A human consumable name for the VirtualProcessorUnit. It should be non-null if {@link Zemeckis#areNamesEnabled()} returns true and <code>null</code> otherwise.
+     * @return the new VirtualProcessorUnit.
+     */
+    @GwtIncompatible
+    public static VirtualProcessorUnit createVirtualThreadVpu(@Nullable final String name) {
+        return createVirtualThreadVpu(name, VirtualThreadExecutor.defaultCarrier());
+    }
+
+    /**
+     * Create a VirtualProcessorUnit for the JVM that drains each activation on a thread supplied by the carrier.
+     * Tasks queued on the VirtualProcessorUnit run one at a time in the order they were queued.
+     *
+     * @param name    A human consumable name for the VirtualProcessorUnit. It should be non-null if {@link Zemeckis#areNamesEnabled()} returns true and <code>null</code> otherwise.
+     * @param carrier the executor used to run each activation of the VirtualProcessorUnit.
+     * @return the new VirtualProcessorUnit.
+     */
+    @GwtIncompatible
+    public static VirtualProcessorUnit createVirtualThreadVpu(
+            @Nullable final String name, final java.util.concurrent.Executor carrier) {
+        return new VirtualProcessorUnit(name, new VirtualThreadExecutor(carrier));
+    }
+
+    /**
+     * Create a VirtualProcessorUnit that runs the task with the earliest deadline first.
+     * The VirtualProcessorUnit is activated in a macro task, dispatched by a timer with a 0 delay, and each
+     * activation runs as many tasks as were queued when the activation started. Tasks are queued with a deadline
+     * via {@link #queueWithDeadline(String, Runnable, double)} and a task that starts after its deadline is
+     * reported to the metrics and the spy.
+     *
+     * @param name A human consumable name for the VirtualProcessorUnit. It should be non-null if {@link Zemeckis#areNamesEnabled()} returns true and <code>null</code> otherwise.
+     * @return the new VirtualProcessorUnit.
+     */
+    public static VirtualProcessorUnit createEarliestDeadlineFirstVpu(@Nullable final String name) {
+        return new VirtualProcessorUnit(name, new EarliestDeadlineFirstExecutor(false));
+    }
+
+    /**
+     * Create a VirtualProcessorUnit that runs the task with the earliest deadline first in idle periods.
+     * This is identical to {@link #createEarliestDeadlineFirstVpu(String)} except that the VirtualProcessorUnit
+     * is activated in idle periods, as for the "onIdle" VirtualProcessorUnit, and each activation runs tasks until
+     * the idle period ends.
+     *
+     * @param name A human consumable name for the VirtualProcessorUnit. It should be non-null if {@link Zemeckis#areNamesEnabled()} returns true and <code>null</code> otherwise.
+     * @return the new VirtualProcessorUnit.
+     */
+    public static VirtualProcessorUnit createIdleEarliestDeadlineFirstVpu(@Nullable final String name) {
+        return new VirtualProcessorUnit(name, new EarliestDeadlineFirstExecutor(true));
     }
 
     /**
@@ -62,7 +132,9 @@ public final class VirtualProcessorUnit {
 
     /**
      * Queue task for execution and enable the executor for activation if necessary.
-     * The task must not be already queued.
+     * The task must not be already queued. This method must be invoked on the thread that owns the
+     * VirtualProcessorUnit unless it was created by {@link #createVirtualThreadVpu(String)}. Tasks are queued
+     * from other threads via {@link Zemeckis#submitFromAnyThread(VirtualProcessorUnit, Runnable)}.
      *
      * @param name A human consumable name for the task. It should be non-null if {@link Zemeckis#areNamesEnabled()} returns true and <code>null</code> otherwise.
      * @param task the task.
@@ -72,10 +144,297 @@ public final class VirtualProcessorUnit {
         return getExecutor().queue(name, task);
     }
 
+    /**
+     * Queue task for execution with the specified priority and enable the executor for activation if necessary.
+     * The task must not be already queued. Tasks are run in the order they were queued within a priority, and
+     * higher priority tasks run more often than lower priority tasks without starving them. This method must be
+     * invoked on the thread that owns the VirtualProcessorUnit, as described by {@link #queue(String, Runnable)}.
+     *
+     * @param name     A human consumable name for the task. It should be non-null if {@link Zemeckis#areNamesEnabled()} returns true and <code>null</code> otherwise.
+     * @param task     the task.
+     * @param priority the priority of the task.
+     * @return the {@link Cancelable} instance that can be used to cancel execution of the task.
+     */
+    public Cancelable queue(@Nullable final String name, final Runnable task, final TaskPriority priority) {
+        return getExecutor().queue(name, task, priority);
+    }
+
+    /**
+     * Queue task for execution with the specified deadline and enable the executor for activation if necessary.
+     * The task must not be already queued. The deadline only determines the order in which tasks run if the
+     * VirtualProcessorUnit was created by {@link #createEarliestDeadlineFirstVpu(String)} or
+     * {@link #createIdleEarliestDeadlineFirstVpu(String)}, otherwise the deadline is ignored.
+     *
+     * @param name     A human consumable name for the task. It should be non-null if {@link Zemeckis#areNamesEnabled()} returns true and <code>null</code> otherwise.
+     * @param task     the task.
+     * @param deadline the time by which the task should start, in milliseconds, on the same clock as
+     *                 {@link Zemeckis#activationTime()}.
+     * @return the {@link Cancelable} instance that can be used to cancel execution of the task.
+     */
+    public Cancelable queueWithDeadline(@Nullable final String name, final Runnable task, final double deadline) {
+        return getExecutor().queueWithDeadline(name, task, deadline);
+    }
+
+    /**
+     * Specify the maximum number of tasks in the task queue and the action taken when a task is queued and the
+     * task queue is at capacity. This protects the application from a producer that queues tasks faster than
+     * they can be run, which would otherwise grow the task queue until memory is exhausted. The capacity does
+     * not apply to tasks submitted from another thread.
+     *
+     * @param capacity the maximum number of tasks in the task queue, or 0 if the task queue is not bounded.
+     * @param policy   the action taken when a task is queued and the task queue is at capacity.
+     */
+    public void setQueueCapacity(final int capacity, final QueueOverflowPolicy policy) {
+        if (Zemeckis.shouldCheckApiInvariants()) {
+            apiInvariant(
+                    () -> capacity >= 0,
+                    () -> "Zemeckis-0031: Attempting to set the queue capacity of VirtualProcessorUnit " + this + " to "
+                            + capacity + " but the capacity must not be negative.");
+        }
+        getExecutor().setQueueCapacity(capacity, policy);
+    }
+
+    /**
+     * Specify the size of the task queue at which the handler is invoked.
+     * The handler is invoked when a task is queued and the task queue reaches the high-water mark, and is not
+     * invoked again until the task queue has drained to half the high-water mark. This allows the application
+     * to shed load gracefully before the task queue reaches capacity.
+     *
+     * @param highWaterMark the size of the task queue at which the handler is invoked, or 0 to remove the
+     *                      high-water mark.
+     * @param handler       the handler invoked when the task queue reaches the high-water mark.
+     */
+    public void setQueueHighWaterMark(final int highWaterMark, @Nullable final QueueHighWaterMarkHandler handler) {
+        if (Zemeckis.shouldCheckApiInvariants()) {
+            apiInvariant(
+                    () -> highWaterMark >= 0,
+                    () -> "Zemeckis-0032: Attempting to set the queue high-water mark of VirtualProcessorUnit " + this
+                            + " to " + highWaterMark + " but the high-water mark must not be negative.");
+        }
+        getExecutor().setQueueHighWaterMark(highWaterMark, handler);
+    }
+
+    /**
+     * Return a snapshot of the metrics recorded for the VirtualProcessorUnit.
+     * This method should NOT be invoked unless {@link Zemeckis#areMetricsEnabled()} returns true and will throw an
+     * exception if invariant checking is enabled.
+     *
+     * @return a snapshot of the metrics recorded for the VirtualProcessorUnit.
+     */
+    @OmitSymbol(unless = "zemeckis.enable_metrics")
+    public VirtualProcessorUnitMetrics getMetrics() {
+        if (Zemeckis.shouldCheckApiInvariants()) {
+            apiInvariant(
+                    Zemeckis::areMetricsEnabled,
+                    () -> "Zemeckis-0020: VirtualProcessorUnit.getMetrics() invoked when Zemeckis.areMetricsEnabled() "
+                            + "is false");
+        }
+        return Objects.requireNonNull(_metrics).snapshot(this);
+    }
+
+    @OmitSymbol(unless = "zemeckis.enable_metrics")
+    @Nullable
+    MetricsRecorder metrics() {
+        return _metrics;
+    }
+
+    @OmitSymbol(unless = "zemeckis.enable_metrics")
+    void resetMetrics() {
+        if (Zemeckis.areMetricsEnabled() && null != _metrics) {
+            _metrics.reset();
+        }
+    }
+
+    /**
+     * Report that a task was added to the task queue.
+     * This should only be invoked if {@link Zemeckis#isTaskInstrumentationEnabled()} returns true.
+     *
+     * @param entry     the task.
+     * @param queueSize the size of the task queue after the task was added.
+     */
+    void onTaskQueued(final TaskEntry entry, final int queueSize) {
+        if (Zemeckis.areMetricsEnabled() && null != _metrics) {
+            _metrics.taskQueued(queueSize);
+        }
+        if (Zemeckis.areSpiesEnabled() && ZemeckisSpy.get().willPropagateSpyEvents()) {
+            ZemeckisSpy.get().reportSpyEvent(new ZemeckisSpy.TaskQueuedEvent(this, entry.getName(), queueSize));
+        }
+    }
+
+    /**
+     * Run the task and report the activity of the task.
+     * This should only be invoked if {@link Zemeckis#isTaskInstrumentationEnabled()} returns true.
+     *
+     * @param entry the entry for the task.
+     * @param task  the task.
+     */
+    void executeTask(final TaskEntry entry, final Runnable task) {
+        final double startedAt = TemporalScheduler.highResolutionTime();
+        final boolean propagateSpyEvents =
+                Zemeckis.areSpiesEnabled() && ZemeckisSpy.get().willPropagateSpyEvents();
+        if (Zemeckis.areMetricsEnabled() && null != _metrics) {
+            _metrics.taskStarted(startedAt - entry.getQueuedAt());
+        }
+        if (propagateSpyEvents) {
+            ZemeckisSpy.get().reportSpyEvent(new ZemeckisSpy.TaskStartedEvent(this, entry.getName()));
+        }
+        if (Zemeckis.isUserTimingEnabled()) {
+            UserTiming.taskStarted(this, entry.getName());
+        }
+        Throwable error = null;
+        try {
+            task.run();
+        } catch (final Throwable t) {
+            error = t;
+            throw t;
+        } finally {
+            final double duration = TemporalScheduler.highResolutionTime() - startedAt;
+            if (Zemeckis.isUserTimingEnabled()) {
+                UserTiming.taskCompleted(this, entry.getName());
+            }
+            if (Zemeckis.areMetricsEnabled() && null != _metrics) {
+                _metrics.taskFinished(duration, null == error);
+            }
+            if (propagateSpyEvents) {
+                ZemeckisSpy.get()
+                        .reportSpyEvent(new ZemeckisSpy.TaskCompletedEvent(this, entry.getName(), duration, error));
+            }
+            if (Zemeckis.areLongTaskHandlersEnabled()) {
+                LongTaskHandlerSupport.get().reportIfLongTask(entry.getName(), this, duration, false);
+            }
+        }
+    }
+
+    /**
+     * Report that a task was canceled before it ran.
+     * This should only be invoked if {@link Zemeckis#isTaskInstrumentationEnabled()} returns true.
+     *
+     * @param entry the task.
+     */
+    void onTaskCanceled(final TaskEntry entry) {
+        if (Zemeckis.areMetricsEnabled() && null != _metrics) {
+            _metrics.taskCanceled();
+        }
+        if (Zemeckis.areSpiesEnabled() && ZemeckisSpy.get().willPropagateSpyEvents()) {
+            ZemeckisSpy.get().reportSpyEvent(new ZemeckisSpy.TaskCanceledEvent(this, entry.getName()));
+        }
+    }
+
+    @OmitSymbol(unless = "zemeckis.enable_metrics")
+    void onQueueOverflow() {
+        if (Zemeckis.areMetricsEnabled() && null != _metrics) {
+            _metrics.queueOverflowed();
+        }
+    }
+
+    /**
+     * Report that a task started to run after its deadline.
+     * This should only be invoked if {@link Zemeckis#isTaskInstrumentationEnabled()} returns true.
+     *
+     * @param entry    the task.
+     * @param deadline the time by which the task should have started.
+     * @param lateness the time in milliseconds between the deadline and the task starting.
+     */
+    void onDeadlineMissed(final TaskEntry entry, final double deadline, final double lateness) {
+        if (Zemeckis.areMetricsEnabled() && null != _metrics) {
+            _metrics.deadlineMissed();
+        }
+        if (Zemeckis.areSpiesEnabled() && ZemeckisSpy.get().willPropagateSpyEvents()) {
+            ZemeckisSpy.get()
+                    .reportSpyEvent(new ZemeckisSpy.DeadlineMissedEvent(this, entry.getName(), deadline, lateness));
+        }
+    }
+
+    @OmitSymbol(unless = "zemeckis.enable_metrics")
+    void onTaskFailed() {
+        if (Zemeckis.areMetricsEnabled() && null != _metrics) {
+            _metrics.taskFailed();
+        }
+    }
+
+    /**
+     * Report that the VirtualProcessorUnit was activated.
+     * This should only be invoked if {@link Zemeckis#isTaskInstrumentationEnabled()} returns true.
+     *
+     * @return the time at which the VirtualProcessorUnit was activated.
+     */
+    double onActivated() {
+        if (Zemeckis.areMetricsEnabled() && null != _metrics) {
+            _metrics.activated();
+        }
+        if (Zemeckis.areSpiesEnabled() && ZemeckisSpy.get().willPropagateSpyEvents()) {
+            ZemeckisSpy.get().reportSpyEvent(new ZemeckisSpy.VpuActivatedEvent(this));
+        }
+        if (Zemeckis.isUserTimingEnabled()) {
+            UserTiming.activationStarted(this);
+        }
+        return TemporalScheduler.highResolutionTime();
+    }
+
+    /**
+     * Report that the activation of the VirtualProcessorUnit completed.
+     * This should only be invoked if {@link Zemeckis#isTaskInstrumentationEnabled()} returns true.
+     *
+     * @param activatedAt the time at which the VirtualProcessorUnit was activated.
+     */
+    void onDeactivated(final double activatedAt) {
+        final double duration = TemporalScheduler.highResolutionTime() - activatedAt;
+        if (Zemeckis.isUserTimingEnabled()) {
+            UserTiming.activationCompleted(this);
+        }
+        if (Zemeckis.areSpiesEnabled() && ZemeckisSpy.get().willPropagateSpyEvents()) {
+            ZemeckisSpy.get().reportSpyEvent(new ZemeckisSpy.VpuDeactivatedEvent(this, duration));
+        }
+        if (Zemeckis.areLongTaskHandlersEnabled()) {
+            LongTaskHandlerSupport.get().reportIfLongTask(null, this, duration, true);
+        }
+    }
+
+    @OmitSymbol(unless = "zemeckis.enable_metrics")
+    void onRoundsCompleted(final int rounds) {
+        if (Zemeckis.areMetricsEnabled() && null != _metrics) {
+            _metrics.roundsCompleted(rounds);
+        }
+    }
+
+    /**
+     * Report that runaway tasks were detected.
+     * This should only be invoked if {@link Zemeckis#isTaskInstrumentationEnabled()} returns true.
+     *
+     * @param maxRounds the maximum number of rounds that the executor runs in one activation.
+     * @param queueSize the size of the task queue when the runaway tasks were detected.
+     */
+    void onRunawayDetected(final int maxRounds, final int queueSize) {
+        if (Zemeckis.areMetricsEnabled() && null != _metrics) {
+            _metrics.runawayDetected();
+        }
+        if (Zemeckis.areSpiesEnabled() && ZemeckisSpy.get().willPropagateSpyEvents()) {
+            ZemeckisSpy.get().reportSpyEvent(new ZemeckisSpy.RunawayDetectedEvent(this, maxRounds, queueSize));
+        }
+    }
+
     Executor getExecutor() {
         return _executor;
     }
 
+    /**
+     * Return the time of the current activation.
+     * The clock is read the first time this method is invoked within an activation, unless the time was supplied
+     * when the VirtualProcessorUnit was activated, and the same time is returned for the rest of the activation.
+     *
+     * @return the time of the current activation, in milliseconds.
+     */
+    double getActivationTime() {
+        if (Double.isNaN(_activationTime)) {
+            _activationTime = TemporalScheduler.highResolutionTime();
+        }
+        return _activationTime;
+    }
+
+    void setActivationTime(final double activationTime) {
+        _activationTime = activationTime;
+    }
+
     @OmitSymbol(unless = "zemeckis.enable_names")
     @Override
     public String toString() {
@@ -114,6 +473,30 @@ public final class VirtualProcessorUnit {
          */
         Cancelable queue(@Nullable String name, Runnable task);
 
+        /**
+         * Queue task for execution with the specified priority and enable the executor for activation if necessary.
+         * The task must not be already queued.
+         *
+         * @param name     A human consumable name for the task. It should be non-null if {@link Zemeckis#areNamesEnabled()} returns true and <tt>null</tt> otherwise.
+         * @param task     the task.
+         * @param priority the priority of the task.
+         * @return the {@link Cancelable} instance that can be used to cancel execution of the task.
+         */
+        Cancelable queue(@Nullable String name, Runnable task, TaskPriority priority);
+
+        /**
+         * Queue task for execution with the specified deadline and enable the executor for activation if necessary.
+         * The task must not be already queued. Executors that do not order tasks by deadline ignore the deadline.
+         *
+         * @param name     A human consumable name for the task. It should be non-null if {@link Zemeckis#areNamesEnabled()} returns true and <tt>null</tt> otherwise.
+         * @param task     the task.
+         * @param deadline the time by which the task should start, in milliseconds.
+         * @return the {@link Cancelable} instance that can be used to cancel execution of the task.
+         */
+        default Cancelable queueWithDeadline(@Nullable final String name, final Runnable task, final double deadline) {
+            return queue(name, task);
+        }
+
         /**
          * Queue task for execution next. The executor is not activated. The task must not be already queued.
          *
@@ -121,6 +504,32 @@ public final class VirtualProcessorUnit {
          */
         void queueNext(@Nullable final String name, Runnable task);
 
+        /**
+         * Specify the maximum number of tasks in the task queue and the action taken when it is at capacity.
+         *
+         * @param capacity the maximum number of tasks, or 0 if the task queue is not bounded.
+         * @param policy   the action taken when a task is queued and the task queue is at capacity.
+         */
+        void setQueueCapacity(int capacity, QueueOverflowPolicy policy);
+
+        /**
+         * Specify the size of the task queue at which the handler is invoked.
+         *
+         * @param highWaterMark the size of the task queue at which the handler is invoked, or 0 if there is no
+         *                      high-water mark.
+         * @param handler       the handler invoked when the task queue reaches the high-water mark.
+         */
+        void setQueueHighWaterMark(int highWaterMark, @Nullable QueueHighWaterMarkHandler handler);
+
+        /**
+         * Queue task for execution from any thread and enable the executor for activation if necessary.
+         *
+         * @param name A human consumable name for the task. It should be non-null if {@link Zemeckis#areNamesEnabled()} returns true and <tt>null</tt> otherwise.
+         * @param task the task.
+         */
+        @GwtIncompatible
+        void submitFromAnyThread(@Nullable String name, Runnable task);
+
         /**
          * Activate the executor.
          */
@@ -150,5 +559,46 @@ public final class VirtualProcessorUnit {
          * @param activationFn the function passed to process tasks.
          */
         void activate(ActivationFn activationFn);
+
+        /**
+         * Activate the associated {@link VirtualProcessorUnit} at the specified time.
+         * This is identical to {@link #activate(ActivationFn)} except that tasks that request the time of the
+         * activation see the specified time, such as the timestamp passed to an animation frame callback.
+         *
+         * @param activationFn   the function passed to process tasks.
+         * @param activationTime the time of the activation in milliseconds.
+         */
+        default void activate(final ActivationFn activationFn, final double activationTime) {
+            activate(activationFn);
+        }
+
+        /**
+         * Return the associated {@link VirtualProcessorUnit}.
+         * The executor uses the {@link VirtualProcessorUnit} to report the activity that is observed when
+         * {@link Zemeckis#isTaskInstrumentationEnabled()} returns true.
+         *
+         * @return the associated {@link VirtualProcessorUnit} or null if the context is not associated with one.
+         */
+        @Nullable
+        default VirtualProcessorUnit virtualProcessorUnit() {
+            return null;
+        }
+    }
+
+    private final class VirtualProcessorUnitContext implements Context {
+        @Override
+        public void activate(final ActivationFn activationFn) {
+            VirtualProcessorUnitsHolder.activate(VirtualProcessorUnit.this, activationFn);
+        }
+
+        @Override
+        public void activate(final ActivationFn activationFn, final double activationTime) {
+            VirtualProcessorUnitsHolder.activate(VirtualProcessorUnit.this, activationFn, activationTime);
+        }
+
+        @Override
+        public VirtualProcessorUnit virtualProcessorUnit() {
+            return VirtualProcessorUnit.this;
+        }
     }
 }
@@ -0,0 +1,214 @@
+package zemeckis;
+
+import grim.annotations.OmitType;
+import java.util.Objects;
+
+/**
+ * A snapshot of the counters recorded for a {@link VirtualProcessorUnit}.
+ * The counters accumulate from the time that the VirtualProcessorUnit was created.
+ *
+ * @see Zemeckis#metrics()
+ * @see VirtualProcessorUnit#getMetrics()
+ */
+@OmitType(unless = "zemeckis.enable_metrics")
+public final class VirtualProcessorUnitMetrics {
+    private final VirtualProcessorUnit _virtualProcessorUnit;
+    private final int _tasksQueued;
+    private final int _tasksExecuted;
+    private final int _tasksCanceled;
+    private final int _tasksFailed;
+    private final int _queueHighWaterMark;
+    private final int _queueOverflows;
+    private final int _activations;
+    private final int _rounds;
+    private final int _maxRoundsPerActivation;
+    private final int _runawayEvents;
+    private final int _deadlinesMissed;
+    private final LatencyStatistics _queueWaitTime;
+    private final LatencyStatistics _executionTime;
+
+    VirtualProcessorUnitMetrics(
+            final VirtualProcessorUnit virtualProcessorUnit,
+            final int tasksQueued,
+            final int tasksExecuted,
+            final int tasksCanceled,
+            final int tasksFailed,
+            final int queueHighWaterMark,
+            final int queueOverflows,
+            final int activations,
+            final int rounds,
+            final int maxRoundsPerActivation,
+            final int runawayEvents,
+            final int deadlinesMissed,
+            final LatencyStatistics queueWaitTime,
+            final LatencyStatistics executionTime) {
+        _virtualProcessorUnit = Objects.requireNonNull(virtualProcessorUnit);
+        _tasksQueued = tasksQueued;
+        _tasksExecuted = tasksExecuted;
+        _tasksCanceled = tasksCanceled;
+        _tasksFailed = tasksFailed;
+        _queueHighWaterMark = queueHighWaterMark;
+        _queueOverflows = queueOverflows;
+        _activations = activations;
+        _rounds = rounds;
+        _maxRoundsPerActivation = maxRoundsPerActivation;
+        _runawayEvents = runawayEvents;
+        _deadlinesMissed = deadlinesMissed;
+        _queueWaitTime = Objects.requireNonNull(queueWaitTime);
+        _executionTime = Objects.requireNonNull(executionTime);
+    }
+
+    /**
+     * Return the VirtualProcessorUnit that the metrics were recorded for.
+     *
+     * @return the VirtualProcessorUnit.
+     */
+    public VirtualProcessorUnit getVirtualProcessorUnit() {
+        return _virtualProcessorUnit;
+    }
+
+    /**
+     * Return the number of tasks added to the task queue of the VirtualProcessorUnit.
+     *
+     * @return the number of tasks queued.
+     */
+    public int getTasksQueued() {
+        return _tasksQueued;
+    }
+
+    /**
+     * Return the number of tasks that ran to completion without throwing an exception.
+     *
+     * @return the number of tasks executed.
+     */
+    public int getTasksExecuted() {
+        return _tasksExecuted;
+    }
+
+    /**
+     * Return the number of tasks canceled before they ran.
+     *
+     * @return the number of tasks canceled.
+     */
+    public int getTasksCanceled() {
+        return _tasksCanceled;
+    }
+
+    /**
+     * Return the number of tasks that threw an exception.
+     *
+     * @return the number of tasks failed.
+     */
+    public int getTasksFailed() {
+        return _tasksFailed;
+    }
+
+    /**
+     * Return the largest number of tasks that were in the task queue at one time.
+     *
+     * @return the high-water mark of the task queue.
+     */
+    public int getQueueHighWaterMark() {
+        return _queueHighWaterMark;
+    }
+
+    /**
+     * Return the number of tasks queued when the task queue was at capacity.
+     * Each of these tasks was rejected, dropped, run by the caller or caused the oldest task to be dropped,
+     * depending upon the {@link QueueOverflowPolicy} of the VirtualProcessorUnit.
+     *
+     * @return the number of tasks queued when the task queue was at capacity.
+     * @see VirtualProcessorUnit#setQueueCapacity(int, QueueOverflowPolicy)
+     */
+    public int getQueueOverflows() {
+        return _queueOverflows;
+    }
+
+    /**
+     * Return the number of times that the VirtualProcessorUnit was activated.
+     *
+     * @return the number of activations.
+     */
+    public int getActivations() {
+        return _activations;
+    }
+
+    /**
+     * Return the total number of rounds run by the VirtualProcessorUnit.
+     * Only VirtualProcessorUnits that run tasks in rounds, such as the "macro" and "micro" task
+     * VirtualProcessorUnits, record rounds.
+     *
+     * @return the total number of rounds.
+     */
+    public int getRounds() {
+        return _rounds;
+    }
+
+    /**
+     * Return the largest number of rounds run within a single activation.
+     *
+     * @return the largest number of rounds run within a single activation.
+     */
+    public int getMaxRoundsPerActivation() {
+        return _maxRoundsPerActivation;
+    }
+
+    /**
+     * Return the average number of rounds run per activation.
+     *
+     * @return the average number of rounds run per activation, or 0 if the VirtualProcessorUnit has not been activated.
+     */
+    public double getAverageRoundsPerActivation() {
+        return 0 == _activations ? 0 : ((double) _rounds) / _activations;
+    }
+
+    /**
+     * Return the number of times that runaway tasks were detected.
+     *
+     * @return the number of runaway events.
+     */
+    public int getRunawayEvents() {
+        return _runawayEvents;
+    }
+
+    /**
+     * Return the number of tasks that started to run after their deadline.
+     * Only VirtualProcessorUnits that run the task with the earliest deadline first record missed deadlines.
+     *
+     * @return the number of missed deadlines.
+     * @see VirtualProcessorUnit#queueWithDeadline(String, Runnable, double)
+     */
+    public int getDeadlinesMissed() {
+        return _deadlinesMissed;
+    }
+
+    /**
+     * Return the distribution of the time between a task being queued and the task starting to run.
+     * Tasks submitted from another thread are considered queued when they are submitted.
+     *
+     * @return the distribution of the time tasks waited in the queue.
+     */
+    public LatencyStatistics getQueueWaitTime() {
+        return _queueWaitTime;
+    }
+
+    /**
+     * Return the distribution of the time that tasks took to run, including tasks that threw an exception.
+     *
+     * @return the distribution of the time tasks took to run.
+     */
+    public LatencyStatistics getExecutionTime() {
+        return _executionTime;
+    }
+
+    @Override
+    public String toString() {
+        return "VirtualProcessorUnitMetrics[" + _virtualProcessorUnit + ": queued=" + _tasksQueued + ", executed="
+                + _tasksExecuted + ", canceled=" + _tasksCanceled + ", failed=" + _tasksFailed
+                + ", queueHighWaterMark=" + _queueHighWaterMark + ", queueOverflows=" + _queueOverflows
+                + ", activations=" + _activations + ", rounds="
+                + _rounds + ", maxRoundsPerActivation=" + _maxRoundsPerActivation + ", runawayEvents="
+                + _runawayEvents + ", deadlinesMissed=" + _deadlinesMissed + ", queueWaitTime=" + _queueWaitTime
+                + ", executionTime=" + _executionTime + "]";
+    }
+}
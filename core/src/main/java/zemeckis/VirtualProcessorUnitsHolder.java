@@ -2,6 +2,7 @@ package zemeckis;
 
 import static org.realityforge.braincheck.Guards.*;
 
+import grim.annotations.OmitSymbol;
 import grim.annotations.OmitType;
 import java.util.Objects;
 import org.jetbrains.annotations.TestOnly;
@@ -17,23 +18,28 @@ final class VirtualProcessorUnitsHolder {
     private VirtualProcessorUnitsHolder() {}
 
     static VirtualProcessorUnit macroTaskVpu() {
-        return MacroTaskVPU.VPU;
+        final SchedulerContext context = SchedulerContext.current();
+        return null != context ? context.macroTaskVpu() : MacroTaskVPU.VPU;
     }
 
     static VirtualProcessorUnit microTaskVpu() {
-        return MicroTaskVPU.VPU;
+        final SchedulerContext context = SchedulerContext.current();
+        return null != context ? context.microTaskVpu() : MicroTaskVPU.VPU;
     }
 
     static VirtualProcessorUnit animationFrameVpu() {
-        return AnimationFrameVPU.VPU;
+        final SchedulerContext context = SchedulerContext.current();
+        return null != context ? context.animationFrameVpu() : AnimationFrameVPU.VPU;
     }
 
     static VirtualProcessorUnit afterFrameVpu() {
-        return AfterFrameVPU.VPU;
+        final SchedulerContext context = SchedulerContext.current();
+        return null != context ? context.afterFrameVpu() : AfterFrameVPU.VPU;
     }
 
     static VirtualProcessorUnit onIdleVpu() {
-        return OnIdleVPU.VPU;
+        final SchedulerContext context = SchedulerContext.current();
+        return null != context ? context.onIdleVpu() : OnIdleVPU.VPU;
     }
 
     /**
@@ -51,25 +57,90 @@ final class VirtualProcessorUnitsHolder {
      *
      * @return true if there is a current VPU activated.
      */
-    static synchronized boolean isVpuActivated() {
-        return CurrentVPU.isVpuActivated();
+    static boolean isVpuActivated() {
+        if (null != SchedulerContext.current()) {
+            return CurrentVPU.isVpuActivated();
+        } else {
+            synchronized (VirtualProcessorUnitsHolder.class) {
+                return CurrentVPU.isVpuActivated();
+            }
+        }
     }
 
     /**
      * Activate the VirtualProcessorUnit.
      * This involves setting current unit, invoking the activation function and clearing the current unit.
      * It is an error to invoke this method if there is already a current unit.
+     * Activations in a {@link SchedulerContext} bound to the current thread do not contend with activations
+     * in other contexts.
      *
      * @param processorUnit the VirtualProcessorUnit.
      * @param activationFn  the activation function.
      * @see VirtualProcessorUnit.Context#activate(VirtualProcessorUnit.ActivationFn)
      */
-    static synchronized void activate(
+    static void activate(
+            final VirtualProcessorUnit processorUnit, final VirtualProcessorUnit.ActivationFn activationFn) {
+        activate(processorUnit, activationFn, Double.NaN);
+    }
+
+    /**
+     * Activate the VirtualProcessorUnit at the specified time.
+     *
+     * @param processorUnit  the VirtualProcessorUnit.
+     * @param activationFn   the activation function.
+     * @param activationTime the time of the activation or NaN if the clock should be read when the time is requested.
+     * @see VirtualProcessorUnit.Context#activate(VirtualProcessorUnit.ActivationFn, double)
+     */
+    static void activate(
+            final VirtualProcessorUnit processorUnit,
+            final VirtualProcessorUnit.ActivationFn activationFn,
+            final double activationTime) {
+        if (null != SchedulerContext.current()) {
+            doActivate(processorUnit, activationFn, activationTime);
+        } else {
+            synchronized (VirtualProcessorUnitsHolder.class) {
+                doActivate(processorUnit, activationFn, activationTime);
+            }
+        }
+        if (ZemeckisConfig.useTestScheduler()) {
+            TemporalScheduler.runImmediateActivations();
+        }
+    }
+
+    /**
+     * Activate the VirtualProcessorUnit from within the activation of another VirtualProcessorUnit.
+     * The VirtualProcessorUnit that is activated is suspended for the duration of the activation and becomes the
+     * current VirtualProcessorUnit again once the activation completes. This is used to run a task synchronously
+     * on behalf of a task of another VirtualProcessorUnit.
+     *
+     * @param processorUnit the VirtualProcessorUnit.
+     * @param activationFn  the activation function.
+     */
+    static void activateWithin(
             final VirtualProcessorUnit processorUnit, final VirtualProcessorUnit.ActivationFn activationFn) {
+        final VirtualProcessorUnit current = Objects.requireNonNull(currentVpu());
+        // The lock, if required, is already held by the thread as it is running the activation of the current unit
+        CurrentVPU.deactivate(current);
+        try {
+            doActivate(processorUnit, activationFn, Double.NaN);
+        } finally {
+            CurrentVPU.activate(current);
+        }
+    }
+
+    private static void doActivate(
+            final VirtualProcessorUnit processorUnit,
+            final VirtualProcessorUnit.ActivationFn activationFn,
+            final double activationTime) {
         CurrentVPU.activate(processorUnit);
+        processorUnit.setActivationTime(activationTime);
+        final double activatedAt = Zemeckis.isTaskInstrumentationEnabled() ? processorUnit.onActivated() : 0;
         try {
             activationFn.invoke();
         } finally {
+            if (Zemeckis.isTaskInstrumentationEnabled()) {
+                processorUnit.onDeactivated(activatedAt);
+            }
             CurrentVPU.deactivate(processorUnit);
         }
     }
@@ -77,13 +148,28 @@ final class VirtualProcessorUnitsHolder {
     @TestOnly
     static synchronized void reset() {
         CurrentVPU.c_current = null;
-        macroTaskVpu().getExecutor().reset();
-        microTaskVpu().getExecutor().reset();
-        animationFrameVpu().getExecutor().reset();
-        afterFrameVpu().getExecutor().reset();
-        onIdleVpu().getExecutor().reset();
+        reset(macroTaskVpu());
+        reset(microTaskVpu());
+        reset(animationFrameVpu());
+        reset(afterFrameVpu());
+        reset(onIdleVpu());
+    }
+
+    @TestOnly
+    private static void reset(final VirtualProcessorUnit processorUnit) {
+        processorUnit.getExecutor().reset();
+        if (Zemeckis.areMetricsEnabled()) {
+            processorUnit.resetMetrics();
+        }
     }
 
+    /**
+     * The maximum number of tasks retained by the "animationFrame" VirtualProcessorUnit while the page is hidden.
+     * Animation frames are not delivered while the page is hidden so without a bound the task queue would grow
+     * for as long as the page remains hidden.
+     */
+    static final int ANIMATION_FRAME_HIDDEN_QUEUE_CAPACITY = 100;
+
     private static final class MacroTaskVPU {
         private MacroTaskVPU() {}
 
@@ -105,7 +191,7 @@ final class VirtualProcessorUnitsHolder {
 
         private static final VirtualProcessorUnit VPU = new VirtualProcessorUnit(
                 Zemeckis.areNamesEnabled() ? "AnimationFrame" : null,
-                ZemeckisConfig.useTestScheduler() ? new TestTaskExecutor() : new AnimationFrameExecutor());
+                ZemeckisConfig.useTestScheduler() ? new TestAnimationFrameExecutor() : new AnimationFrameExecutor());
     }
 
     private static final class AfterFrameVPU {
@@ -113,7 +199,7 @@ final class VirtualProcessorUnitsHolder {
 
         private static final VirtualProcessorUnit VPU = new VirtualProcessorUnit(
                 Zemeckis.areNamesEnabled() ? "AfterFrame" : null,
-                ZemeckisConfig.useTestScheduler() ? new TestTaskExecutor() : new AfterFrameExecutor());
+                ZemeckisConfig.useTestScheduler() ? new TestAfterFrameExecutor() : new AfterFrameExecutor());
     }
 
     private static final class OnIdleVPU {
@@ -121,19 +207,183 @@ final class VirtualProcessorUnitsHolder {
 
         private static final VirtualProcessorUnit VPU = new VirtualProcessorUnit(
                 Zemeckis.areNamesEnabled() ? "OnIdle" : null,
-                ZemeckisConfig.useTestScheduler() ? new TestTaskExecutor() : new OnIdleExecutor());
+                ZemeckisConfig.useTestScheduler() ? new TestOnIdleExecutor() : new OnIdleExecutor());
+    }
+
+    /**
+     * Create a VirtualProcessorUnit for a context with its own deterministic test scheduler.
+     *
+     * @param name     A human consumable name for the VirtualProcessorUnit. It is ignored if {@link Zemeckis#areNamesEnabled()} returns false.
+     * @param executor the executor that is activated by the test scheduler of the context.
+     * @return the new VirtualProcessorUnit.
+     */
+    @GwtIncompatible
+    @OmitSymbol(unless = "zemeckis.use_test_scheduler")
+    static VirtualProcessorUnit createTestVpu(final String name, final VirtualProcessorUnit.Executor executor) {
+        return new VirtualProcessorUnit(Zemeckis.areNamesEnabled() ? name : null, executor);
+    }
+
+    /**
+     * Return the specified scheduler or, if null, the test scheduler in effect on the current thread.
+     *
+     * @param scheduler the scheduler or null.
+     * @return the test scheduler.
+     */
+    @OmitSymbol(unless = "zemeckis.use_test_scheduler")
+    private static TemporalScheduler.TestSchedulerImpl testScheduler(
+            final TemporalScheduler.@Nullable TestSchedulerImpl scheduler) {
+        return null != scheduler ? scheduler : TemporalScheduler.testScheduler();
+    }
+
+    /**
+     * Schedule an activation in the same way as a macro task when the test scheduler is enabled.
+     * The activation runs in a task scheduled with no delay or, if the test scheduler is in immediate mode,
+     * synchronously once no VirtualProcessorUnit is activated.
+     *
+     * @param scheduler  the scheduler or null to use the scheduler in effect on the current thread.
+     * @param name       the name of the task that runs the activation.
+     * @param activation the activation.
+     */
+    @OmitSymbol(unless = "zemeckis.use_test_scheduler")
+    static void scheduleTestActivation(
+            final TemporalScheduler.@Nullable TestSchedulerImpl scheduler,
+            final String name,
+            final Runnable activation) {
+        final TemporalScheduler.TestSchedulerImpl testScheduler = testScheduler(scheduler);
+        if (testScheduler.isImmediateMode()) {
+            testScheduler.requestImmediateActivation(activation);
+        } else {
+            testScheduler.delayedTask(Zemeckis.areNamesEnabled() ? name : null, activation, 0);
+        }
+    }
+
+    /**
+     * Executor used for the "macro" and "micro" task VirtualProcessorUnits when the test scheduler is enabled.
+     * The executor is activated in a task scheduled with no delay or, if the test scheduler is in immediate mode,
+     * synchronously once no VirtualProcessorUnit is activated.
+     */
+    @OmitType(unless = "zemeckis.use_test_scheduler")
+    static final class TestTaskExecutor extends RoundBasedExecutor {
+        /**
+         * The scheduler that activates the executor or null to use the scheduler in effect when activation is
+         * scheduled.
+         */
+        private final TemporalScheduler.@Nullable TestSchedulerImpl _scheduler;
+
+        TestTaskExecutor() {
+            this(null);
+        }
+
+        TestTaskExecutor(final TemporalScheduler.@Nullable TestSchedulerImpl scheduler) {
+            _scheduler = scheduler;
+        }
+
+        @GwtIncompatible
+        @Override
+        void scheduleInboxDrain() {
+            testScheduler(_scheduler).wakeUp(this::drainInbox);
+        }
+
+        @Override
+        void scheduleForActivation() {
+            scheduleTestActivation(_scheduler, "TestTaskExecutor", this::activate);
+        }
     }
 
+    /**
+     * Executor used for the "animationFrame" VirtualProcessorUnit when the test scheduler is enabled.
+     * The executor is activated at the start of the next frame simulated by the test scheduler.
+     */
     @OmitType(unless = "zemeckis.use_test_scheduler")
-    private static final class TestTaskExecutor extends RoundBasedExecutor {
+    static final class TestAnimationFrameExecutor extends RoundBasedExecutor {
+        private final TemporalScheduler.@Nullable TestSchedulerImpl _scheduler;
+
+        TestAnimationFrameExecutor() {
+            this(null);
+        }
+
+        TestAnimationFrameExecutor(final TemporalScheduler.@Nullable TestSchedulerImpl scheduler) {
+            _scheduler = scheduler;
+            setHiddenQueueCapacity(ANIMATION_FRAME_HIDDEN_QUEUE_CAPACITY);
+        }
+
+        @GwtIncompatible
+        @Override
+        void scheduleInboxDrain() {
+            testScheduler(_scheduler).wakeUp(this::drainInbox);
+        }
+
         @Override
         void scheduleForActivation() {
-            TemporalScheduler.delayedTask(Zemeckis.areNamesEnabled() ? "TestTaskExecutor" : null, this::activate, 0);
+            final TemporalScheduler.TestSchedulerImpl scheduler = testScheduler(_scheduler);
+            scheduler.requestAnimationFrame(() -> activate(scheduler.getFrameTime()));
         }
     }
 
     /**
-     * A utility class that contains reference to singleton VPU that is currently active.
+     * Executor used for the "afterFrame" VirtualProcessorUnit when the test scheduler is enabled.
+     * The executor is activated in a task scheduled from the next frame, mirroring the {@link AfterFrameExecutor}
+     * which posts a message from an animation frame callback.
+     */
+    @OmitType(unless = "zemeckis.use_test_scheduler")
+    static final class TestAfterFrameExecutor extends RoundBasedExecutor {
+        private final TemporalScheduler.@Nullable TestSchedulerImpl _scheduler;
+
+        TestAfterFrameExecutor() {
+            this(null);
+        }
+
+        TestAfterFrameExecutor(final TemporalScheduler.@Nullable TestSchedulerImpl scheduler) {
+            _scheduler = scheduler;
+        }
+
+        @GwtIncompatible
+        @Override
+        void scheduleInboxDrain() {
+            testScheduler(_scheduler).wakeUp(this::drainInbox);
+        }
+
+        @Override
+        void scheduleForActivation() {
+            final TemporalScheduler.TestSchedulerImpl scheduler = testScheduler(_scheduler);
+            scheduler.requestAnimationFrame(() -> scheduler.delayedTask(
+                    Zemeckis.areNamesEnabled() ? "TestAfterFrameExecutor" : null, this::activate, 0));
+        }
+    }
+
+    /**
+     * Executor used for the "onIdle" VirtualProcessorUnit when the test scheduler is enabled.
+     * The executor is activated in the next idle period simulated by the test scheduler and runs tasks until
+     * the deadline of the idle period is reached.
+     */
+    @OmitType(unless = "zemeckis.use_test_scheduler")
+    static final class TestOnIdleExecutor extends DeadlineBasedExecutor {
+        private final TemporalScheduler.@Nullable TestSchedulerImpl _scheduler;
+
+        TestOnIdleExecutor() {
+            this(null);
+        }
+
+        TestOnIdleExecutor(final TemporalScheduler.@Nullable TestSchedulerImpl scheduler) {
+            _scheduler = scheduler;
+        }
+
+        @GwtIncompatible
+        @Override
+        void scheduleInboxDrain() {
+            testScheduler(_scheduler).wakeUp(this::drainInbox);
+        }
+
+        @Override
+        void scheduleForActivation() {
+            testScheduler(_scheduler).requestIdleCallback(deadline -> context().activate(() -> executeTasks(deadline)));
+        }
+    }
+
+    /**
+     * A utility class that contains reference to the VPU that is currently active.
+     * The reference is held by the {@link SchedulerContext} bound to the current thread, if any, otherwise
+     * it is held in a singleton.
      */
     @VisibleForTesting
     static final class CurrentVPU {
@@ -149,7 +399,17 @@ final class VirtualProcessorUnitsHolder {
          */
         @Nullable
         private static VirtualProcessorUnit current() {
-            return c_current;
+            final SchedulerContext context = SchedulerContext.current();
+            return null != context ? context.getCurrentVpu() : c_current;
+        }
+
+        private static void setCurrent(@Nullable final VirtualProcessorUnit processorUnit) {
+            final SchedulerContext context = SchedulerContext.current();
+            if (null != context) {
+                context.setCurrentVpu(processorUnit);
+            } else {
+                c_current = processorUnit;
+            }
         }
 
         /**
@@ -158,7 +418,7 @@ final class VirtualProcessorUnitsHolder {
          * @return true if there is a current VPU activated.
          */
         private static boolean isVpuActivated() {
-            return null != c_current;
+            return null != current();
         }
 
         /**
@@ -172,11 +432,11 @@ final class VirtualProcessorUnitsHolder {
             Objects.requireNonNull(processorUnit);
             if (Zemeckis.shouldCheckInvariants()) {
                 invariant(
-                        () -> null == c_current,
+                        () -> null == current(),
                         () -> "Zemeckis-0004: Attempting to activate VirtualProcessorUnit named '" + processorUnit
-                                + "' but an existing VirtualProcessorUnit named '" + c_current + "' is activated");
+                                + "' but an existing VirtualProcessorUnit named '" + current() + "' is activated");
             }
-            c_current = processorUnit;
+            setCurrent(processorUnit);
         }
 
         /**
@@ -190,11 +450,11 @@ final class VirtualProcessorUnitsHolder {
             Objects.requireNonNull(processorUnit);
             if (Zemeckis.shouldCheckInvariants()) {
                 invariant(
-                        () -> processorUnit == c_current,
+                        () -> processorUnit == current(),
                         () -> "Zemeckis-0005: Attempting to deactivate VirtualProcessorUnit named '" + processorUnit
                                 + "' but no VirtualProcessorUnit is activated");
             }
-            c_current = null;
+            setCurrent(null);
         }
     }
 }
@@ -0,0 +1,272 @@
+package zemeckis;
+
+import static org.realityforge.braincheck.Guards.*;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.jetbrains.annotations.TestOnly;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * An executor for the JVM that drains each activation of the VirtualProcessorUnit on a thread supplied by a
+ * carrier {@link java.util.concurrent.Executor}. By default the carrier starts a virtual thread per activation
+ * so a task that blocks only parks its own virtual thread and the carrier threads continue to run tasks of
+ * other VirtualProcessorUnits. The runtime falls back to a pool of platform threads if virtual threads are not
+ * supported by the JVM.
+ *
+ * <p>At most one activation is in flight at any time, so tasks queued on the VirtualProcessorUnit run one at a
+ * time in the order that they were queued. Tasks may be queued from any thread. Each activation runs the tasks
+ * that were queued when the activation started and then yields the carrier thread, re-scheduling itself if
+ * more tasks have been queued.</p>
+ */
+@GwtIncompatible
+@SuppressWarnings("Varifier")
+final class VirtualThreadExecutor implements VirtualProcessorUnit.Executor {
+    /**
+     * The carrier used to run activations.
+     */
+    private final java.util.concurrent.Executor _carrier;
+    /**
+     * A context that forwards to the scheduler and VirtualProcessorUnits in effect when the executor was created.
+     * The context is bound to the thread that drains the queue so that tasks that use the {@link Zemeckis} API
+     * schedule work in the same place as the code that created the VirtualProcessorUnit. The work is handed to
+     * the thread that owns that scheduler rather than scheduled directly, as the scheduler is not thread-safe.
+     */
+    private final SchedulerContext _schedulerContext;
+
+    private final ConcurrentLinkedDeque<TaskEntry> _taskQueue = new ConcurrentLinkedDeque<>();
+    /**
+     * True if an activation has been handed to the carrier and has not yet completed.
+     */
+    private final AtomicBoolean _activationScheduled = new AtomicBoolean();
+    /**
+     * The size of the task queue at which the high-water mark handler is invoked, or 0 if there is no high-water mark.
+     */
+    private volatile int _highWaterMark;
+
+    @Nullable
+    private volatile QueueHighWaterMarkHandler _highWaterMarkHandler;
+    /**
+     * True if the task queue reached the high-water mark and has not since drained to half the high-water mark.
+     */
+    private final AtomicBoolean _aboveHighWaterMark = new AtomicBoolean();
+
+    private VirtualProcessorUnit.@Nullable Context _context;
+
+    VirtualThreadExecutor(final java.util.concurrent.Executor carrier) {
+        _carrier = Objects.requireNonNull(carrier);
+        _schedulerContext = SchedulerContext.captureForwarding();
+    }
+
+    /**
+     * Return the carrier that starts a virtual thread per activation, or a pool of platform threads
+     * if virtual threads are not supported by the JVM.
+     *
+     * @return the default carrier.
+     */
+    static java.util.concurrent.Executor defaultCarrier() {
+        return DefaultCarrierHolder.CARRIER;
+    }
+
+    @Override
+    public void init(final VirtualProcessorUnit.Context context) {
+        _context = Objects.requireNonNull(context);
+    }
+
+    @TestOnly
+    @Override
+    public void reset() {
+        _taskQueue.clear();
+        _highWaterMark = 0;
+        _highWaterMarkHandler = null;
+        _aboveHighWaterMark.set(false);
+    }
+
+    @Override
+    public Cancelable queue(@Nullable final String name, final Runnable task) {
+        ensureNotQueued(name, task);
+        final TaskEntry entry = newTaskEntry(name, task);
+        _taskQueue.add(entry);
+        recordTaskQueued(entry);
+        checkHighWaterMark();
+        activate();
+        return entry;
+    }
+
+    /**
+     * Queue the task.
+     * The priority is ignored as tasks queued on the VirtualProcessorUnit run in the order they were queued.
+     */
+    @Override
+    public Cancelable queue(@Nullable final String name, final Runnable task, final TaskPriority priority) {
+        return queue(name, task);
+    }
+
+    @Override
+    public void queueNext(@Nullable final String name, final Runnable task) {
+        ensureNotQueued(name, task);
+        final TaskEntry entry = newTaskEntry(name, task);
+        _taskQueue.addFirst(entry);
+        recordTaskQueued(entry);
+    }
+
+    /**
+     * The task queue may be appended to from any thread, so it is not bounded.
+     */
+    @Override
+    public void setQueueCapacity(final int capacity, final QueueOverflowPolicy policy) {
+        if (Zemeckis.shouldCheckInvariants()) {
+            fail(() -> "Zemeckis-0033: VirtualProcessorUnit " + virtualProcessorUnit() + " was created by "
+                    + "VirtualProcessorUnit.createVirtualThreadVpu(...) and does not support a bounded task queue.");
+        }
+    }
+
+    @Override
+    public void setQueueHighWaterMark(final int highWaterMark, @Nullable final QueueHighWaterMarkHandler handler) {
+        _highWaterMarkHandler = handler;
+        _highWaterMark = highWaterMark;
+        _aboveHighWaterMark.set(false);
+    }
+
+    private void checkHighWaterMark() {
+        final int highWaterMark = _highWaterMark;
+        if (0 != highWaterMark) {
+            // The size of a concurrent queue is computed by traversing the queue so only compute it when required
+            final int queueSize = _taskQueue.size();
+            if (queueSize - 1 <= highWaterMark / 2) {
+                // The task queue drained since the high-water mark was reached so report the next time it is reached
+                _aboveHighWaterMark.set(false);
+            }
+            if (queueSize >= highWaterMark && _aboveHighWaterMark.compareAndSet(false, true)) {
+                final QueueHighWaterMarkHandler handler = _highWaterMarkHandler;
+                final VirtualProcessorUnit virtualProcessorUnit = virtualProcessorUnit();
+                if (null != handler && null != virtualProcessorUnit) {
+                    handler.onHighWaterMark(virtualProcessorUnit, queueSize);
+                }
+            }
+        }
+    }
+
+    /**
+     * Queue the task from any thread.
+     * The task queue is already a concurrent queue and only the first task queued while no activation is in
+     * flight schedules an activation so this is equivalent to {@link #queue(String, Runnable)}.
+     */
+    @Override
+    public void submitFromAnyThread(@Nullable final String name, final Runnable task) {
+        queue(name, task);
+    }
+
+    /**
+     * Schedule an activation on the carrier unless an activation is already in flight.
+     */
+    @Override
+    public void activate() {
+        if (_activationScheduled.compareAndSet(false, true)) {
+            _carrier.execute(this::drain);
+        }
+    }
+
+    int getQueueSize() {
+        return _taskQueue.size();
+    }
+
+    private TaskEntry newTaskEntry(@Nullable final String name, final Runnable task) {
+        return new TaskEntry(name, task, null, Zemeckis.isTaskInstrumentationEnabled() ? virtualProcessorUnit() : null);
+    }
+
+    private void recordTaskQueued(final TaskEntry entry) {
+        if (Zemeckis.isTaskInstrumentationEnabled()) {
+            final VirtualProcessorUnit virtualProcessorUnit = virtualProcessorUnit();
+            if (null != virtualProcessorUnit) {
+                virtualProcessorUnit.onTaskQueued(entry, _taskQueue.size());
+            }
+        }
+    }
+
+    @Nullable
+    private VirtualProcessorUnit virtualProcessorUnit() {
+        return null != _context ? _context.virtualProcessorUnit() : null;
+    }
+
+    private void ensureNotQueued(@Nullable final String name, final Runnable task) {
+        if (Zemeckis.shouldCheckInvariants()) {
+            invariant(
+                    () -> _taskQueue.stream().noneMatch(taskEntry -> taskEntry.getTask() == task),
+                    () -> "Zemeckis-0001: Attempting to queue task named '" + name + "' when task is already queued.");
+        }
+    }
+
+    private void drain() {
+        final SchedulerContext previous = SchedulerContext.current();
+        SchedulerContext.bind(_schedulerContext);
+        try {
+            Objects.requireNonNull(_context).activate(this::executeTasks);
+        } finally {
+            SchedulerContext.bind(previous);
+            _activationScheduled.set(false);
+        }
+        if (!_taskQueue.isEmpty()) {
+            activate();
+        }
+    }
+
+    /**
+     * Run the tasks that were queued when the activation started.
+     * Tasks queued while the activation is running are left for the next activation so that a task that
+     * continually re-queues itself can not monopolize the carrier thread.
+     */
+    private void executeTasks() {
+        final Object activation = JfrEvents.vpuActivationStarted();
+        int tasksRun = 0;
+        int remaining = _taskQueue.size();
+        TaskEntry entry;
+        while (remaining-- > 0 && null != (entry = _taskQueue.poll())) {
+            final Object execution = JfrEvents.taskExecutionStarted();
+            try {
+                entry.execute();
+            } catch (final Throwable t) {
+                if (Zemeckis.areMetricsEnabled()) {
+                    final VirtualProcessorUnit virtualProcessorUnit = virtualProcessorUnit();
+                    if (null != virtualProcessorUnit) {
+                        virtualProcessorUnit.onTaskFailed();
+                    }
+                }
+                Zemeckis.reportUncaughtError(t);
+            } finally {
+                if (null != execution) {
+                    JfrEvents.taskExecutionCompleted(execution, virtualProcessorUnit(), entry.getName());
+                }
+            }
+            tasksRun++;
+        }
+        if (null != activation) {
+            // Each activation runs a single round of the tasks queued when the activation started
+            JfrEvents.vpuActivationCompleted(activation, virtualProcessorUnit(), 1, tasksRun);
+        }
+    }
+
+    private static final class DefaultCarrierHolder {
+        private DefaultCarrierHolder() {}
+
+        private static final java.util.concurrent.Executor CARRIER = createCarrier();
+
+        private static java.util.concurrent.Executor createCarrier() {
+            try {
+                // Virtual threads are only available from Java 21 so locate the factory reflectively
+                return (ExecutorService) Executors.class
+                        .getMethod("newVirtualThreadPerTaskExecutor")
+                        .invoke(null);
+            } catch (final ReflectiveOperationException e) {
+                return Executors.newCachedThreadPool(task -> {
+                    final Thread thread = new Thread(task, "zemeckis-carrier");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+    }
+}
@@ -5,6 +5,8 @@ import static org.realityforge.braincheck.Guards.*;
 import grim.annotations.OmitClinit;
 import grim.annotations.OmitSymbol;
 import grim.annotations.OmitType;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 import org.jetbrains.annotations.TestOnly;
 import org.jetbrains.annotations.VisibleForTesting;
@@ -42,6 +44,56 @@ public final class Zemeckis {
         return ZemeckisConfig.areNamesEnabled();
     }
 
+    /**
+     * Return true if the activity of each {@link VirtualProcessorUnit} is recorded.
+     *
+     * @return true if the activity of each {@link VirtualProcessorUnit} is recorded, false otherwise.
+     * @see #metrics()
+     */
+    public static boolean areMetricsEnabled() {
+        return ZemeckisConfig.areMetricsEnabled();
+    }
+
+    /**
+     * Return true if spies are enabled.
+     *
+     * @return true if spies are enabled, false otherwise.
+     * @see #getSpy()
+     */
+    public static boolean areSpiesEnabled() {
+        return ZemeckisConfig.areSpiesEnabled();
+    }
+
+    /**
+     * Return true if long task handlers are enabled.
+     *
+     * @return true if long task handlers are enabled, false otherwise.
+     * @see #addLongTaskHandler(LongTaskHandler)
+     */
+    public static boolean areLongTaskHandlersEnabled() {
+        return ZemeckisConfig.areLongTaskHandlersEnabled();
+    }
+
+    /**
+     * Return true if activations and tasks are recorded as User Timing marks and measures.
+     * The marks and measures are only recorded in the browser and appear in the performance panel of the
+     * browser developer tools.
+     *
+     * @return true if activations and tasks are recorded as User Timing marks and measures, false otherwise.
+     */
+    public static boolean isUserTimingEnabled() {
+        return ZemeckisConfig.isUserTimingEnabled();
+    }
+
+    /**
+     * Return true if the execution of tasks is observed by metrics, spies, long task handlers or User Timing.
+     *
+     * @return true if the execution of tasks is observed.
+     */
+    static boolean isTaskInstrumentationEnabled() {
+        return areMetricsEnabled() || areSpiesEnabled() || areLongTaskHandlersEnabled() || isUserTimingEnabled();
+    }
+
     /**
      * Return true if uncaught error handlers are enabled.
      *
@@ -70,6 +122,22 @@ public final class Zemeckis {
         return !ZemeckisConfig.useTestScheduler() && ZemeckisConfig.useWorkerToScheduleDelayedTasks();
     }
 
+    /**
+     * Return true if the backends used to dispatch tasks in the next macro task and to schedule delayed tasks are
+     * selected at runtime. When enabled, the latency of each candidate backend is measured as it is used and
+     * the backend with the lowest latency is preferred, so that delayed tasks move to the worker when timers on the
+     * main thread are throttled. The message channel and the worker are used before any latency has been
+     * measured. The backends are only selected at runtime if {@link #useMessageChannelToScheduleTasks()} and
+     * {@link #useWorkerToScheduleDelayedTasks()} also return true, as otherwise there is no alternative to select.
+     *
+     * @return true if the backends used to schedule tasks are selected at runtime, false otherwise.
+     */
+    public static boolean useAdaptiveSchedulingBackends() {
+        return useMessageChannelToScheduleTasks()
+                && useWorkerToScheduleDelayedTasks()
+                && ZemeckisConfig.useAdaptiveSchedulingBackends();
+    }
+
     /**
      * Return true if interactions with workers for scheduling delayed tasks should be logged.
      * This is primarily useful when debugging problems with the library and is not expected to be widely used.
@@ -107,6 +175,60 @@ public final class Zemeckis {
         return ZemeckisConfig.purgeTasksWhenRunawayDetected();
     }
 
+    /**
+     * Return a snapshot of the metrics recorded for the "macro", "micro", "animationFrame", "afterFrame" and
+     * "onIdle" VirtualProcessorUnits, in that order. The metrics of other VirtualProcessorUnits can be retrieved via
+     * {@link VirtualProcessorUnit#getMetrics()}. This method should NOT be invoked unless
+     * {@link #areMetricsEnabled()} returns true and will throw an exception if invariant checking is enabled.
+     *
+     * @return a snapshot of the metrics recorded for the VirtualProcessorUnits.
+     */
+    @OmitSymbol(unless = "zemeckis.enable_metrics")
+    public static List<VirtualProcessorUnitMetrics> metrics() {
+        if (shouldCheckApiInvariants()) {
+            apiInvariant(
+                    Zemeckis::areMetricsEnabled,
+                    () -> "Zemeckis-0021: Zemeckis.metrics() invoked when Zemeckis.areMetricsEnabled() is false");
+        }
+        return Arrays.asList(
+                macroTaskVpu().getMetrics(),
+                microTaskVpu().getMetrics(),
+                animationFrameVpu().getMetrics(),
+                afterFrameVpu().getMetrics(),
+                onIdleVpu().getMetrics());
+    }
+
+    /**
+     * Return a snapshot of the lateness of timers and the dispatch latency of the "macro" task VirtualProcessorUnit
+     * recorded for each backend, in the order that the backends were first used. This can be used to compare the
+     * accuracy of timers scheduled via <code>setTimeout</code> with those scheduled in a worker. This method should
+     * NOT be invoked unless {@link #areMetricsEnabled()} returns true and will throw an exception if invariant
+     * checking is enabled.
+     *
+     * @return a snapshot of the metrics recorded for each backend.
+     */
+    @OmitSymbol(unless = "zemeckis.enable_metrics")
+    public static List<TimerBackendMetrics> timerMetrics() {
+        if (shouldCheckApiInvariants()) {
+            apiInvariant(
+                    Zemeckis::areMetricsEnabled,
+                    () -> "Zemeckis-0029: Zemeckis.timerMetrics() invoked when Zemeckis.areMetricsEnabled() is false");
+        }
+        return TimerLatencyMonitor.snapshot();
+    }
+
+    /**
+     * Return the spy that propagates events describing the activity of the scheduler.
+     * This method should NOT be invoked unless {@link #areSpiesEnabled()} returns true and will throw an
+     * exception if invariant checking is enabled.
+     *
+     * @return the spy.
+     */
+    @OmitSymbol(unless = "zemeckis.enable_spies")
+    public static ZemeckisSpy getSpy() {
+        return ZemeckisSpy.get();
+    }
+
     /**
      * Add error handler to the list of error handlers called.
      * The handler should not already be in the list. This method should NOT be called if
@@ -129,6 +251,55 @@ public final class Zemeckis {
         UncaughtErrorHandlerSupport.get().removeUncaughtErrorHandler(handler);
     }
 
+    /**
+     * Add long task handler to the list of long task handlers called.
+     * The handler should not already be in the list. This method should NOT be called if
+     * {@link #areLongTaskHandlersEnabled()} returns false. Handlers may be added and removed from any thread and
+     * are invoked on the thread that ran the long task, so a handler may be invoked concurrently from several
+     * threads.
+     *
+     * @param handler the long task handler.
+     */
+    @OmitSymbol(unless = "zemeckis.enable_long_task_handlers")
+    public static void addLongTaskHandler(final LongTaskHandler handler) {
+        LongTaskHandlerSupport.get().addLongTaskHandler(handler);
+    }
+
+    /**
+     * Remove long task handler from list of existing long task handlers.
+     * The handler should already be in the list. This method should NOT be called if
+     * {@link #areLongTaskHandlersEnabled()} returns false.
+     *
+     * @param handler the long task handler.
+     */
+    @OmitSymbol(unless = "zemeckis.enable_long_task_handlers")
+    public static void removeLongTaskHandler(final LongTaskHandler handler) {
+        LongTaskHandlerSupport.get().removeLongTaskHandler(handler);
+    }
+
+    /**
+     * Return the duration in milliseconds at or above which a task or an activation is reported to the long
+     * task handlers. This method should NOT be called if {@link #areLongTaskHandlersEnabled()} returns false.
+     *
+     * @return the long task threshold in milliseconds.
+     */
+    @OmitSymbol(unless = "zemeckis.enable_long_task_handlers")
+    public static int getLongTaskThreshold() {
+        return LongTaskHandlerSupport.get().getThreshold();
+    }
+
+    /**
+     * Specify the duration in milliseconds at or above which a task or an activation is reported to the long
+     * task handlers. The threshold defaults to {@link LongTaskHandler#DEFAULT_THRESHOLD} and must be greater
+     * than 0. This method should NOT be called if {@link #areLongTaskHandlersEnabled()} returns false.
+     *
+     * @param threshold the long task threshold in milliseconds.
+     */
+    @OmitSymbol(unless = "zemeckis.enable_long_task_handlers")
+    public static void setLongTaskThreshold(final int threshold) {
+        LongTaskHandlerSupport.get().setThreshold(threshold);
+    }
+
     /**
      * Report an uncaught error in stream.
      *
@@ -141,7 +312,10 @@ public final class Zemeckis {
     }
 
     /**
-     * Return a value representing the "current time" of the scheduler.
+     * Return a value representing the "current time" of the scheduler in milliseconds.
+     * The value is derived from {@link #nanoTime()} and is truncated to an int so it wraps after approximately
+     * 24.8 days. Code that runs for longer than this, or that needs sub-millisecond precision, should use
+     * {@link #nanoTime()}.
      *
      * @return the "current time" of the scheduler.
      */
@@ -149,6 +323,54 @@ public final class Zemeckis {
         return TemporalScheduler.now();
     }
 
+    /**
+     * Return the value of the monotonic clock of the scheduler in nanoseconds.
+     * The clock is backed by <code>performance.now()</code> in the browser and <code>System.nanoTime()</code> on
+     * the JVM, so it is not affected by adjustments to the wall clock. The precision of the clock is limited by the
+     * platform and browsers typically reduce it to between 5 microseconds and 1 millisecond. The value is only
+     * meaningful when compared to other values returned by this method.
+     *
+     * @return the value of the monotonic clock in nanoseconds.
+     */
+    public static long nanoTime() {
+        return TemporalScheduler.nanoTime();
+    }
+
+    /**
+     * Return the time of the current activation of a VirtualProcessorUnit.
+     * The clock is read the first time that the time is requested within an activation and every task run within
+     * the activation then sees the same time, so tasks that need a consistent view of time should use this method
+     * rather than repeatedly reading the clock. Within an activation of the "animationFrame" VirtualProcessorUnit
+     * this returns the same value as {@link #frameTime()}. If no VirtualProcessorUnit is activated then the current
+     * time is returned. The time is measured in milliseconds and is only meaningful when compared to other values
+     * returned by this method or {@link #frameTime()}.
+     *
+     * @return the time of the current activation, in milliseconds.
+     */
+    public static double activationTime() {
+        final VirtualProcessorUnit current = VirtualProcessorUnitsHolder.currentVpu();
+        return null != current ? current.getActivationTime() : TemporalScheduler.highResolutionTime();
+    }
+
+    /**
+     * Return the timestamp of the current animation frame.
+     * This is the timestamp passed to the <code>requestAnimationFrame</code> callback so that every task in the
+     * frame sees the same time. This method should NOT be invoked outside of an activation of the
+     * "animationFrame" VirtualProcessorUnit and will throw an exception if invariant checking is enabled.
+     *
+     * @return the timestamp of the current animation frame, in milliseconds.
+     * @see #activationTime()
+     */
+    public static double frameTime() {
+        if (shouldCheckApiInvariants()) {
+            apiInvariant(
+                    () -> animationFrameVpu() == VirtualProcessorUnitsHolder.currentVpu(),
+                    () -> "Zemeckis-0030: Zemeckis.frameTime() invoked outside of an activation of the "
+                            + "animationFrame VirtualProcessorUnit");
+        }
+        return animationFrameVpu().getActivationTime();
+    }
+
     /**
      * Schedules the execution of the given task after a specified delay.
      *
@@ -170,7 +392,9 @@ public final class Zemeckis {
      */
     public static Cancelable delayedTask(@Nullable final String name, final Runnable task, final int delay) {
         final String actualName = generateName("DelayedTask", name);
-        return TemporalScheduler.delayedTask(actualName, () -> becomeMacroTask(actualName, task), delay);
+        final Cancelable cancelable =
+                TemporalScheduler.delayedTask(actualName, () -> onTimerFired(actualName, false, task), delay);
+        return areSpiesEnabled() ? onTimerScheduled(actualName, false, delay, cancelable) : cancelable;
     }
 
     /**
@@ -194,7 +418,48 @@ public final class Zemeckis {
      */
     public static Cancelable periodicTask(@Nullable final String name, final Runnable task, final int period) {
         final String actualName = generateName("PeriodicTask", name);
-        return TemporalScheduler.periodicTask(actualName, () -> becomeMacroTask(actualName, task), period);
+        final Cancelable cancelable =
+                TemporalScheduler.periodicTask(actualName, () -> onTimerFired(actualName, true, task), period);
+        return areSpiesEnabled() ? onTimerScheduled(actualName, true, period, cancelable) : cancelable;
+    }
+
+    /**
+     * Schedules the periodic execution of a task that updates the user interface.
+     * The task is suspended while the page is hidden, as updates to the user interface are not visible. When the
+     * page becomes visible again the task runs once in the next macro task if at least one period elapsed since it
+     * last ran, rather than once for every period missed, and then resumes running periodically.
+     *
+     * @param task   the task to execute.
+     * @param period the period after execution when the task should be re-executed. Must be a value greater than 0.
+     * @return the {@link Cancelable} instance that can be used to cancel execution of the task.
+     */
+    public static Cancelable uiPeriodicTask(final Runnable task, final int period) {
+        return uiPeriodicTask(null, task, period);
+    }
+
+    /**
+     * Schedules the periodic execution of a task that updates the user interface.
+     * The task is suspended while the page is hidden, as updates to the user interface are not visible. When the
+     * page becomes visible again the task runs once in the next macro task if at least one period elapsed since it
+     * last ran, rather than once for every period missed, and then resumes running periodically.
+     *
+     * @param name   A human consumable name for the task. It may be non-null if {@link Zemeckis#areNamesEnabled()} returns true and <code>null</code> otherwise.
+     * @param task   the task to execute.
+     * @param period the period after execution when the task should be re-executed. Must be a value greater than 0.
+     * @return the {@link Cancelable} instance that can be used to cancel execution of the task.
+     */
+    public static Cancelable uiPeriodicTask(@Nullable final String name, final Runnable task, final int period) {
+        return new UiPeriodicTask(generateName("UiPeriodicTask", name), task, period);
+    }
+
+    /**
+     * Return true if the page is hidden, such as when the tab is in the background.
+     * This is always false on the JVM unless changed via {@link ZemeckisTestUtil#setPageHidden(boolean)}.
+     *
+     * @return true if the page is hidden, false otherwise.
+     */
+    public static boolean isPageHidden() {
+        return PageVisibility.isHidden();
     }
 
     /**
@@ -241,6 +506,20 @@ public final class Zemeckis {
         return macroTaskVpu().queue(generateName("MacroTask", name), task);
     }
 
+    /**
+     * Queue the task with the specified priority to execute in the current or next "macro" task.
+     * Tasks with a higher priority, such as those that respond to user input, run ahead of a backlog of lower
+     * priority tasks without starving the lower priority tasks.
+     *
+     * @param name     A human consumable name for the task. It may be non-null if {@link Zemeckis#areNamesEnabled()} returns true and <code>null</code> otherwise.
+     * @param task     the task.
+     * @param priority the priority of the task.
+     * @return the {@link Cancelable} instance that can be used to cancel execution of the task.
+     */
+    public static Cancelable macroTask(@Nullable final String name, final Runnable task, final TaskPriority priority) {
+        return macroTaskVpu().queue(generateName("MacroTask", name), task, priority);
+    }
+
     /**
      * Return the "macro" task VirtualProcessorUnit.
      *
@@ -251,6 +530,41 @@ public final class Zemeckis {
         return VirtualProcessorUnitsHolder.macroTaskVpu();
     }
 
+    /**
+     * Invoked when a timer is scheduled via {@link #delayedTask(String, Runnable, int)} or
+     * {@link #periodicTask(String, Runnable, int)} to report the timer to the spy.
+     * This should only be invoked if {@link #areSpiesEnabled()} returns true.
+     *
+     * @param name       A human consumable name for the timer. It may be non-null if {@link Zemeckis#areNamesEnabled()} returns true and <code>null</code> otherwise.
+     * @param periodic   true if the timer is periodic.
+     * @param delay      the delay before the timer fires.
+     * @param cancelable the {@link Cancelable} returned by the scheduler.
+     * @return the {@link Cancelable} that also reports to the spy when the timer is canceled.
+     */
+    @OmitSymbol(unless = "zemeckis.enable_spies")
+    private static Cancelable onTimerScheduled(
+            @Nullable final String name, final boolean periodic, final int delay, final Cancelable cancelable) {
+        if (getSpy().willPropagateSpyEvents()) {
+            getSpy().reportSpyEvent(new ZemeckisSpy.TimerScheduledEvent(name, periodic, now(), delay));
+        }
+        return new SpiedTimer(name, periodic, cancelable);
+    }
+
+    /**
+     * Invoked when a timer scheduled via {@link #delayedTask(String, Runnable, int)} or
+     * {@link #periodicTask(String, Runnable, int)} fires to run the task as a macro task.
+     *
+     * @param name     A human consumable name for the timer. It may be non-null if {@link Zemeckis#areNamesEnabled()} returns true and <code>null</code> otherwise.
+     * @param periodic true if the timer is periodic.
+     * @param task     the task.
+     */
+    private static void onTimerFired(@Nullable final String name, final boolean periodic, final Runnable task) {
+        if (areSpiesEnabled() && getSpy().willPropagateSpyEvents()) {
+            getSpy().reportSpyEvent(new ZemeckisSpy.TimerFiredEvent(name, periodic, now()));
+        }
+        becomeMacroTask(name, task);
+    }
+
     /**
      * Run specified task now by queuing on the MacroTask queue and activating the MacroTask VirtualProcessorUnit.
      * This is used internally by the toolkit when the browser has triggered a macro task as a result of a callback
@@ -423,6 +737,40 @@ public final class Zemeckis {
         return VirtualProcessorUnitsHolder.onIdleVpu();
     }
 
+    /**
+     * Queue the task on the VirtualProcessorUnit from any thread.
+     * The task is pushed onto a concurrent inbox of the VirtualProcessorUnit without acquiring any locks. Only
+     * the first task submitted after the inbox was last drained schedules a drain, which wakes the event loop
+     * that owns the VirtualProcessorUnit if it is parked, and the drain moves every task in the inbox onto the
+     * queue of the VirtualProcessorUnit in a single operation. The task can not be canceled.
+     *
+     * @param vpu  the VirtualProcessorUnit.
+     * @param task the task.
+     */
+    @GwtIncompatible
+    public static void submitFromAnyThread(final VirtualProcessorUnit vpu, final Runnable task) {
+        submitFromAnyThread(vpu, null, task);
+    }
+
+    /**
+     * Queue the task on the VirtualProcessorUnit from any thread.
+     * The task is pushed onto a concurrent inbox of the VirtualProcessorUnit without acquiring any locks. Only
+     * the first task submitted after the inbox was last drained schedules a drain, which wakes the event loop
+     * that owns the VirtualProcessorUnit if it is parked, and the drain moves every task in the inbox onto the
+     * queue of the VirtualProcessorUnit in a single operation. The task can not be canceled. The drain never
+     * runs on the submitting thread, so the VirtualProcessorUnit must be owned by an {@link EventLoopGroup}, be
+     * created by {@link VirtualProcessorUnit#createVirtualThreadVpu(String)} or be driven by the test scheduler.
+     *
+     * @param vpu  the VirtualProcessorUnit.
+     * @param name A human consumable name for the task. It may be non-null if {@link Zemeckis#areNamesEnabled()} returns true and <code>null</code> otherwise.
+     * @param task the task.
+     */
+    @GwtIncompatible
+    public static void submitFromAnyThread(
+            final VirtualProcessorUnit vpu, @Nullable final String name, final Runnable task) {
+        vpu.getExecutor().submitFromAnyThread(generateName("SubmittedTask", name), Objects.requireNonNull(task));
+    }
+
     /**
      * Build name for task.
      * If {@link Zemeckis#areNamesEnabled()} returns false then this method will return null, otherwise the specified
@@ -435,7 +783,13 @@ public final class Zemeckis {
     @OmitSymbol(unless = "zemeckis.enable_names")
     @Nullable
     static String generateName(final String prefix, @Nullable final String name) {
-        return Zemeckis.areNamesEnabled() ? null != name ? name : prefix + "@" + IdContainer.c_nextTaskId++ : null;
+        return Zemeckis.areNamesEnabled() ? null != name ? name : prefix + "@" + nextTaskId() : null;
+    }
+
+    @OmitSymbol(unless = "zemeckis.enable_names")
+    private static int nextTaskId() {
+        final SchedulerContext context = SchedulerContext.current();
+        return null != context ? context.nextTaskId() : IdContainer.c_nextTaskId++;
     }
 
     @TestOnly
@@ -452,4 +806,36 @@ public final class Zemeckis {
         @OmitSymbol(unless = "zemeckis.enable_names")
         private static int c_nextTaskId = 1;
     }
+
+    /**
+     * The {@link Cancelable} returned for a timer when spies are enabled, that reports to the spy when the timer
+     * is canceled.
+     */
+    @OmitType(unless = "zemeckis.enable_spies")
+    private static final class SpiedTimer implements Cancelable {
+        @Nullable
+        private final String _name;
+
+        private final boolean _periodic;
+        private final Cancelable _cancelable;
+
+        SpiedTimer(@Nullable final String name, final boolean periodic, final Cancelable cancelable) {
+            _name = name;
+            _periodic = periodic;
+            _cancelable = Objects.requireNonNull(cancelable);
+        }
+
+        @Override
+        public void cancel() {
+            if (getSpy().willPropagateSpyEvents()) {
+                getSpy().reportSpyEvent(new ZemeckisSpy.TimerCanceledEvent(_name, _periodic, now()));
+            }
+            _cancelable.cancel();
+        }
+
+        @Override
+        public String toString() {
+            return _cancelable.toString();
+        }
+    }
 }
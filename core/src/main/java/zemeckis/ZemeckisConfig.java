@@ -11,11 +11,16 @@ final class ZemeckisConfig {
     private static final ConfigProvider PROVIDER = new ConfigProvider();
     private static final boolean PRODUCTION_MODE = PROVIDER.isProductionMode();
     private static boolean ENABLE_NAMES = PROVIDER.areNamesEnabled();
+    private static boolean ENABLE_METRICS = PROVIDER.areMetricsEnabled();
+    private static boolean ENABLE_SPIES = PROVIDER.areSpiesEnabled();
     private static boolean PURGE_ON_RUNAWAY = PROVIDER.purgeTasksWhenRunawayDetected();
     private static boolean UNCAUGHT_ERROR_HANDLERS = PROVIDER.areUncaughtErrorHandlersEnabled();
+    private static boolean LONG_TASK_HANDLERS = PROVIDER.areLongTaskHandlersEnabled();
+    private static boolean USER_TIMING = PROVIDER.isUserTimingEnabled();
     private static final boolean USE_TEST_SCHEDULER = PROVIDER.useTestScheduler();
     private static final boolean USE_MESSAGE_CHANNEL_TO_SCHEDULE_TASKS = PROVIDER.useMessageChannelToScheduleTasks();
     private static final boolean USE_WORKER_TO_SCHEDULE_DELAYED_TASKS = PROVIDER.useWorkerToScheduleDelayedTasks();
+    private static final boolean USE_ADAPTIVE_SCHEDULING_BACKENDS = PROVIDER.useAdaptiveSchedulingBackends();
     private static final boolean LOG_WORKER_INTERACTIONS = PROVIDER.shouldLogWorkerInteractions();
     private static final String LOGGER_TYPE = PROVIDER.loggerType();
 
@@ -49,6 +54,22 @@ final class ZemeckisConfig {
         ENABLE_NAMES = enableNames;
     }
 
+    static boolean areMetricsEnabled() {
+        return ENABLE_METRICS;
+    }
+
+    static void setEnableMetrics(final boolean enableMetrics) {
+        ENABLE_METRICS = enableMetrics;
+    }
+
+    static boolean areSpiesEnabled() {
+        return ENABLE_SPIES;
+    }
+
+    static void setEnableSpies(final boolean enableSpies) {
+        ENABLE_SPIES = enableSpies;
+    }
+
     static boolean areUncaughtErrorHandlersEnabled() {
         return UNCAUGHT_ERROR_HANDLERS;
     }
@@ -57,6 +78,22 @@ final class ZemeckisConfig {
         UNCAUGHT_ERROR_HANDLERS = enableUncaughtErrorHandlers;
     }
 
+    static boolean areLongTaskHandlersEnabled() {
+        return LONG_TASK_HANDLERS;
+    }
+
+    static void setEnableLongTaskHandlers(final boolean enableLongTaskHandlers) {
+        LONG_TASK_HANDLERS = enableLongTaskHandlers;
+    }
+
+    static boolean isUserTimingEnabled() {
+        return USER_TIMING;
+    }
+
+    static void setEnableUserTiming(final boolean enableUserTiming) {
+        USER_TIMING = enableUserTiming;
+    }
+
     static boolean useMessageChannelToScheduleTasks() {
         return USE_MESSAGE_CHANNEL_TO_SCHEDULE_TASKS;
     }
@@ -65,6 +102,10 @@ final class ZemeckisConfig {
         return USE_WORKER_TO_SCHEDULE_DELAYED_TASKS;
     }
 
+    static boolean useAdaptiveSchedulingBackends() {
+        return USE_ADAPTIVE_SCHEDULING_BACKENDS;
+    }
+
     static boolean shouldLogWorkerInteractions() {
         return LOG_WORKER_INTERACTIONS;
     }
@@ -86,6 +127,18 @@ final class ZemeckisConfig {
             return "true".equals(System.getProperty("zemeckis.enable_names", isProductionMode() ? "false" : "true"));
         }
 
+        @GwtIncompatible
+        @Override
+        boolean areMetricsEnabled() {
+            return "true".equals(System.getProperty("zemeckis.enable_metrics", isProductionMode() ? "false" : "true"));
+        }
+
+        @GwtIncompatible
+        @Override
+        boolean areSpiesEnabled() {
+            return "true".equals(System.getProperty("zemeckis.enable_spies", isProductionMode() ? "false" : "true"));
+        }
+
         @GwtIncompatible
         @Override
         boolean purgeTasksWhenRunawayDetected() {
@@ -100,6 +153,20 @@ final class ZemeckisConfig {
                             "zemeckis.enable_uncaught_error_handlers", PRODUCTION_MODE ? "false" : "true"));
         }
 
+        @GwtIncompatible
+        @Override
+        boolean areLongTaskHandlersEnabled() {
+            return "true"
+                    .equals(System.getProperty(
+                            "zemeckis.enable_long_task_handlers", PRODUCTION_MODE ? "false" : "true"));
+        }
+
+        @GwtIncompatible
+        @Override
+        boolean isUserTimingEnabled() {
+            return "true".equals(System.getProperty("zemeckis.enable_user_timing", "false"));
+        }
+
         @GwtIncompatible
         @Override
         boolean useTestScheduler() {
@@ -118,6 +185,12 @@ final class ZemeckisConfig {
             return "true".equals(System.getProperty("zemeckis.use_worker_to_schedule_delayed_tasks", "true"));
         }
 
+        @GwtIncompatible
+        @Override
+        boolean useAdaptiveSchedulingBackends() {
+            return "true".equals(System.getProperty("zemeckis.use_adaptive_scheduling_backends", "false"));
+        }
+
         @Override
         boolean shouldLogWorkerInteractions() {
             return "true".equals(System.getProperty("zemeckis.log_worker_interactions", "false"));
@@ -140,6 +213,14 @@ final class ZemeckisConfig {
             return "true" == System.getProperty("zemeckis.enable_names");
         }
 
+        boolean areMetricsEnabled() {
+            return "true" == System.getProperty("zemeckis.enable_metrics");
+        }
+
+        boolean areSpiesEnabled() {
+            return "true" == System.getProperty("zemeckis.enable_spies");
+        }
+
         boolean purgeTasksWhenRunawayDetected() {
             return "true" == System.getProperty("zemeckis.purge_tasks_when_runaway_detected");
         }
@@ -148,6 +229,14 @@ final class ZemeckisConfig {
             return "true" == System.getProperty("zemeckis.enable_uncaught_error_handlers");
         }
 
+        boolean areLongTaskHandlersEnabled() {
+            return "true" == System.getProperty("zemeckis.enable_long_task_handlers");
+        }
+
+        boolean isUserTimingEnabled() {
+            return "true" == System.getProperty("zemeckis.enable_user_timing");
+        }
+
         boolean useTestScheduler() {
             return "true" == System.getProperty("zemeckis.use_test_scheduler");
         }
@@ -160,6 +249,10 @@ final class ZemeckisConfig {
             return "true" == System.getProperty("zemeckis.use_worker_to_schedule_delayed_tasks");
         }
 
+        boolean useAdaptiveSchedulingBackends() {
+            return "true" == System.getProperty("zemeckis.use_adaptive_scheduling_backends");
+        }
+
         boolean shouldLogWorkerInteractions() {
             return "true" == System.getProperty("zemeckis.log_worker_interactions");
         }
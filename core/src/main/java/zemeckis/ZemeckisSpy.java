@@ -0,0 +1,447 @@
+package zemeckis;
+
+import static org.realityforge.braincheck.Guards.*;
+
+import grim.annotations.OmitType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import org.jetbrains.annotations.TestOnly;
+import org.jspecify.annotations.Nullable;
+import org.realityforge.braincheck.BrainCheckConfig;
+
+/**
+ * The spy propagates events that describe the activity of the scheduler to the registered handlers.
+ * Tooling, such as a devtools panel, can use the event stream to observe when tasks are queued, run and
+ * canceled, when VirtualProcessorUnits are activated and when timers fire. The spy and the event types are
+ * only present if {@link Zemeckis#areSpiesEnabled()} returns true.
+ *
+ * <p>Events are reported on the thread that performs the activity, which may be the thread of an
+ * {@link EventLoopGroup} shard or the carrier of a VirtualProcessorUnit created by
+ * {@link VirtualProcessorUnit#createVirtualThreadVpu(String)}, so a handler may be invoked concurrently from
+ * several threads. Handlers may be added and removed from any thread, including from within a handler. An
+ * event that is being reported when a handler is added or removed may or may not be reported to that
+ * handler.</p>
+ *
+ * @see Zemeckis#getSpy()
+ */
+@OmitType(unless = "zemeckis.enable_spies")
+public final class ZemeckisSpy {
+    private static ZemeckisSpy c_instance = new ZemeckisSpy();
+    /**
+     * The list of handlers to call when an event is reported.
+     * The list is never modified. It is replaced when a handler is added or removed so that the handlers can be
+     * invoked from any thread, and a handler can add or remove handlers, without the iteration being disturbed.
+     */
+    private volatile List<SpyEventHandler> _spyEventHandlers = Collections.emptyList();
+
+    static ZemeckisSpy get() {
+        if (Zemeckis.shouldCheckApiInvariants()) {
+            apiInvariant(
+                    Zemeckis::areSpiesEnabled,
+                    () -> "Zemeckis-0022: Zemeckis.getSpy() invoked when Zemeckis.areSpiesEnabled() returns false");
+        }
+        return c_instance;
+    }
+
+    @TestOnly
+    static void reset() {
+        c_instance = new ZemeckisSpy();
+    }
+
+    private ZemeckisSpy() {}
+
+    /**
+     * Add a spy event handler to the list of handlers.
+     * The handler should not already be in the list.
+     *
+     * @param handler the spy event handler.
+     */
+    public synchronized void addSpyEventHandler(final SpyEventHandler handler) {
+        if (Zemeckis.shouldCheckApiInvariants()) {
+            apiInvariant(
+                    () -> !_spyEventHandlers.contains(handler),
+                    () -> "Zemeckis-0023: Attempting to add handler " + handler + " that is already in "
+                            + "the list of spy handlers.");
+        }
+        final List<SpyEventHandler> handlers = new ArrayList<>(_spyEventHandlers);
+        handlers.add(Objects.requireNonNull(handler));
+        _spyEventHandlers = handlers;
+    }
+
+    /**
+     * Remove a spy event handler from the list of handlers.
+     * The handler should already be in the list.
+     *
+     * @param handler the spy event handler.
+     */
+    public synchronized void removeSpyEventHandler(final SpyEventHandler handler) {
+        if (Zemeckis.shouldCheckApiInvariants()) {
+            apiInvariant(
+                    () -> _spyEventHandlers.contains(handler),
+                    () -> "Zemeckis-0024: Attempting to remove handler " + handler + " that is not in "
+                            + "the list of spy handlers.");
+        }
+        final List<SpyEventHandler> handlers = new ArrayList<>(_spyEventHandlers);
+        handlers.remove(Objects.requireNonNull(handler));
+        _spyEventHandlers = handlers;
+    }
+
+    /**
+     * Return true if spy events will be propagated.
+     * This means spies are enabled and there is at least one spy event handler present.
+     *
+     * @return true if spy events will be propagated, false otherwise.
+     */
+    public boolean willPropagateSpyEvents() {
+        return Zemeckis.areSpiesEnabled() && !_spyEventHandlers.isEmpty();
+    }
+
+    /**
+     * Report an event to the spy event handlers.
+     * Errors thrown by a handler are logged and do not prevent the event from being propagated to other handlers.
+     * The event is reported to the handlers registered when the report started.
+     *
+     * @param event the event that occurred.
+     */
+    void reportSpyEvent(final Object event) {
+        Objects.requireNonNull(event);
+        for (final SpyEventHandler handler : _spyEventHandlers) {
+            try {
+                handler.onSpyEvent(event);
+            } catch (final Throwable error) {
+                if (Zemeckis.areNamesEnabled() && BrainCheckConfig.verboseErrorMessages()) {
+                    final String message = ZemeckisUtil.safeGetString(
+                            () -> "Exception when notifying spy handler '" + handler + "' of '" + event + "' event.");
+                    ZemeckisLogger.log(message, error);
+                } else {
+                    ZemeckisLogger.log("Error triggered when invoking SpyEventHandler.onSpyEvent()", error);
+                }
+            }
+        }
+    }
+
+    /**
+     * Base class for events that relate to a VirtualProcessorUnit.
+     */
+    @OmitType(unless = "zemeckis.enable_spies")
+    public abstract static class VpuEvent {
+        private final VirtualProcessorUnit _virtualProcessorUnit;
+
+        VpuEvent(final VirtualProcessorUnit virtualProcessorUnit) {
+            _virtualProcessorUnit = Objects.requireNonNull(virtualProcessorUnit);
+        }
+
+        /**
+         * Return the VirtualProcessorUnit that the event relates to.
+         *
+         * @return the VirtualProcessorUnit.
+         */
+        public VirtualProcessorUnit getVirtualProcessorUnit() {
+            return _virtualProcessorUnit;
+        }
+    }
+
+    /**
+     * Base class for events that relate to a task queued on a VirtualProcessorUnit.
+     */
+    @OmitType(unless = "zemeckis.enable_spies")
+    public abstract static class TaskEvent extends VpuEvent {
+        @Nullable
+        private final String _taskName;
+
+        TaskEvent(final VirtualProcessorUnit virtualProcessorUnit, @Nullable final String taskName) {
+            super(virtualProcessorUnit);
+            _taskName = taskName;
+        }
+
+        /**
+         * Return the name of the task.
+         *
+         * @return the name of the task or null if {@link Zemeckis#areNamesEnabled()} returns false.
+         */
+        @Nullable
+        public String getTaskName() {
+            return _taskName;
+        }
+    }
+
+    /**
+     * Event emitted when a task is added to the task queue of a VirtualProcessorUnit.
+     */
+    @OmitType(unless = "zemeckis.enable_spies")
+    public static final class TaskQueuedEvent extends TaskEvent {
+        private final int _queueSize;
+
+        TaskQueuedEvent(
+                final VirtualProcessorUnit virtualProcessorUnit, @Nullable final String taskName, final int queueSize) {
+            super(virtualProcessorUnit, taskName);
+            _queueSize = queueSize;
+        }
+
+        /**
+         * Return the number of tasks in the task queue after the task was added.
+         *
+         * @return the number of tasks in the task queue.
+         */
+        public int getQueueSize() {
+            return _queueSize;
+        }
+    }
+
+    /**
+     * Event emitted when a task starts to run.
+     */
+    @OmitType(unless = "zemeckis.enable_spies")
+    public static final class TaskStartedEvent extends TaskEvent {
+        TaskStartedEvent(final VirtualProcessorUnit virtualProcessorUnit, @Nullable final String taskName) {
+            super(virtualProcessorUnit, taskName);
+        }
+    }
+
+    /**
+     * Event emitted when a task completes, whether or not it threw an exception.
+     */
+    @OmitType(unless = "zemeckis.enable_spies")
+    public static final class TaskCompletedEvent extends TaskEvent {
+        private final double _duration;
+
+        @Nullable
+        private final Throwable _error;
+
+        TaskCompletedEvent(
+                final VirtualProcessorUnit virtualProcessorUnit,
+                @Nullable final String taskName,
+                final double duration,
+                @Nullable final Throwable error) {
+            super(virtualProcessorUnit, taskName);
+            _duration = duration;
+            _error = error;
+        }
+
+        /**
+         * Return the time that the task took to run in milliseconds.
+         *
+         * @return the time that the task took to run in milliseconds.
+         */
+        public double getDuration() {
+            return _duration;
+        }
+
+        /**
+         * Return the exception thrown by the task.
+         *
+         * @return the exception thrown by the task or null if the task completed normally.
+         */
+        @Nullable
+        public Throwable getError() {
+            return _error;
+        }
+    }
+
+    /**
+     * Event emitted when a task queued on a VirtualProcessorUnit is canceled before it runs.
+     */
+    @OmitType(unless = "zemeckis.enable_spies")
+    public static final class TaskCanceledEvent extends TaskEvent {
+        TaskCanceledEvent(final VirtualProcessorUnit virtualProcessorUnit, @Nullable final String taskName) {
+            super(virtualProcessorUnit, taskName);
+        }
+    }
+
+    /**
+     * Event emitted when a task queued with a deadline starts to run after the deadline.
+     *
+     * @see VirtualProcessorUnit#queueWithDeadline(String, Runnable, double)
+     */
+    @OmitType(unless = "zemeckis.enable_spies")
+    public static final class DeadlineMissedEvent extends TaskEvent {
+        private final double _deadline;
+        private final double _lateness;
+
+        DeadlineMissedEvent(
+                final VirtualProcessorUnit virtualProcessorUnit,
+                @Nullable final String taskName,
+                final double deadline,
+                final double lateness) {
+            super(virtualProcessorUnit, taskName);
+            _deadline = deadline;
+            _lateness = lateness;
+        }
+
+        /**
+         * Return the time by which the task should have started.
+         *
+         * @return the deadline in milliseconds.
+         */
+        public double getDeadline() {
+            return _deadline;
+        }
+
+        /**
+         * Return the time between the deadline and the task starting to run.
+         *
+         * @return the lateness in milliseconds.
+         */
+        public double getLateness() {
+            return _lateness;
+        }
+    }
+
+    /**
+     * Event emitted when a VirtualProcessorUnit is activated.
+     */
+    @OmitType(unless = "zemeckis.enable_spies")
+    public static final class VpuActivatedEvent extends VpuEvent {
+        VpuActivatedEvent(final VirtualProcessorUnit virtualProcessorUnit) {
+            super(virtualProcessorUnit);
+        }
+    }
+
+    /**
+     * Event emitted when the activation of a VirtualProcessorUnit completes.
+     */
+    @OmitType(unless = "zemeckis.enable_spies")
+    public static final class VpuDeactivatedEvent extends VpuEvent {
+        private final double _duration;
+
+        VpuDeactivatedEvent(final VirtualProcessorUnit virtualProcessorUnit, final double duration) {
+            super(virtualProcessorUnit);
+            _duration = duration;
+        }
+
+        /**
+         * Return the duration of the activation in milliseconds.
+         *
+         * @return the duration of the activation in milliseconds.
+         */
+        public double getDuration() {
+            return _duration;
+        }
+    }
+
+    /**
+     * Event emitted when a VirtualProcessorUnit detects runaway tasks.
+     * Runaway tasks are detected when tasks are still queued after the maximum number of rounds.
+     */
+    @OmitType(unless = "zemeckis.enable_spies")
+    public static final class RunawayDetectedEvent extends VpuEvent {
+        private final int _maxRounds;
+        private final int _queueSize;
+
+        RunawayDetectedEvent(
+                final VirtualProcessorUnit virtualProcessorUnit, final int maxRounds, final int queueSize) {
+            super(virtualProcessorUnit);
+            _maxRounds = maxRounds;
+            _queueSize = queueSize;
+        }
+
+        /**
+         * Return the maximum number of rounds that the VirtualProcessorUnit runs in one activation.
+         *
+         * @return the maximum number of rounds.
+         */
+        public int getMaxRounds() {
+            return _maxRounds;
+        }
+
+        /**
+         * Return the number of tasks in the task queue when the runaway tasks were detected.
+         *
+         * @return the number of tasks in the task queue.
+         */
+        public int getQueueSize() {
+            return _queueSize;
+        }
+    }
+
+    /**
+     * Base class for events that relate to a timer scheduled via {@link Zemeckis#delayedTask(String, Runnable, int)}
+     * or {@link Zemeckis#periodicTask(String, Runnable, int)}.
+     */
+    @OmitType(unless = "zemeckis.enable_spies")
+    public abstract static class TimerEvent {
+        @Nullable
+        private final String _name;
+
+        private final boolean _periodic;
+        private final int _time;
+
+        TimerEvent(@Nullable final String name, final boolean periodic, final int time) {
+            _name = name;
+            _periodic = periodic;
+            _time = time;
+        }
+
+        /**
+         * Return the name of the timer.
+         *
+         * @return the name of the timer or null if {@link Zemeckis#areNamesEnabled()} returns false.
+         */
+        @Nullable
+        public String getName() {
+            return _name;
+        }
+
+        /**
+         * Return true if the timer was scheduled via {@link Zemeckis#periodicTask(String, Runnable, int)}.
+         *
+         * @return true if the timer is periodic, false otherwise.
+         */
+        public boolean isPeriodic() {
+            return _periodic;
+        }
+
+        /**
+         * Return the time at which the event occurred as returned by {@link Zemeckis#now()}.
+         *
+         * @return the time at which the event occurred.
+         */
+        public int getTime() {
+            return _time;
+        }
+    }
+
+    /**
+     * Event emitted when a timer is scheduled.
+     */
+    @OmitType(unless = "zemeckis.enable_spies")
+    public static final class TimerScheduledEvent extends TimerEvent {
+        private final int _delay;
+
+        TimerScheduledEvent(@Nullable final String name, final boolean periodic, final int time, final int delay) {
+            super(name, periodic, time);
+            _delay = delay;
+        }
+
+        /**
+         * Return the delay before the timer first fires, which is also the period of a periodic timer.
+         *
+         * @return the delay in milliseconds.
+         */
+        public int getDelay() {
+            return _delay;
+        }
+    }
+
+    /**
+     * Event emitted when a timer fires.
+     */
+    @OmitType(unless = "zemeckis.enable_spies")
+    public static final class TimerFiredEvent extends TimerEvent {
+        TimerFiredEvent(@Nullable final String name, final boolean periodic, final int time) {
+            super(name, periodic, time);
+        }
+    }
+
+    /**
+     * Event emitted when the {@link Cancelable} returned when a timer was scheduled is canceled.
+     */
+    @OmitType(unless = "zemeckis.enable_spies")
+    public static final class TimerCanceledEvent extends TimerEvent {
+        TimerCanceledEvent(@Nullable final String name, final boolean periodic, final int time) {
+            super(name, periodic, time);
+        }
+    }
+}
@@ -43,10 +43,18 @@ public final class ZemeckisTestUtil {
 
         if (productionMode) {
             disableNames();
+            disableMetrics();
+            disableSpies();
             disableUncaughtErrorHandlers();
+            disableLongTaskHandlers();
+            disableUserTiming();
         } else {
             enableNames();
+            enableMetrics();
+            enableSpies();
             enableUncaughtErrorHandlers();
+            enableLongTaskHandlers();
+            enableUserTiming();
         }
         purgeTasksWhenRunawayDetected();
         resetState();
@@ -61,6 +69,10 @@ public final class ZemeckisTestUtil {
         setLogger(null);
         Zemeckis.reset();
         UncaughtErrorHandlerSupport.reset();
+        LongTaskHandlerSupport.reset();
+        ZemeckisSpy.reset();
+        TimerLatencyMonitor.reset();
+        PageVisibility.reset();
         VirtualProcessorUnitsHolder.reset();
     }
 
@@ -94,6 +106,34 @@ public final class ZemeckisTestUtil {
         ZemeckisConfig.setEnableNames(false);
     }
 
+    /**
+     * Set `zemeckis.enable_metrics` setting to true.
+     */
+    public static void enableMetrics() {
+        ZemeckisConfig.setEnableMetrics(true);
+    }
+
+    /**
+     * Set `zemeckis.enable_metrics` setting to false.
+     */
+    public static void disableMetrics() {
+        ZemeckisConfig.setEnableMetrics(false);
+    }
+
+    /**
+     * Set `zemeckis.enable_spies` setting to true.
+     */
+    public static void enableSpies() {
+        ZemeckisConfig.setEnableSpies(true);
+    }
+
+    /**
+     * Set `zemeckis.enable_spies` setting to false.
+     */
+    public static void disableSpies() {
+        ZemeckisConfig.setEnableSpies(false);
+    }
+
     /**
      * Set `zemeckis.purge_tasks_when_runaway_detected` setting to true.
      */
@@ -122,6 +162,63 @@ public final class ZemeckisTestUtil {
         ZemeckisConfig.setEnableUncaughtErrorHandlers(false);
     }
 
+    /**
+     * Set `zemeckis.enable_long_task_handlers` setting to true.
+     */
+    public static void enableLongTaskHandlers() {
+        ZemeckisConfig.setEnableLongTaskHandlers(true);
+    }
+
+    /**
+     * Set `zemeckis.enable_long_task_handlers` setting to false.
+     */
+    public static void disableLongTaskHandlers() {
+        ZemeckisConfig.setEnableLongTaskHandlers(false);
+    }
+
+    /**
+     * Set `zemeckis.enable_user_timing` setting to true.
+     */
+    public static void enableUserTiming() {
+        ZemeckisConfig.setEnableUserTiming(true);
+    }
+
+    /**
+     * Set `zemeckis.enable_user_timing` setting to false.
+     */
+    public static void disableUserTiming() {
+        ZemeckisConfig.setEnableUserTiming(false);
+    }
+
+    /**
+     * Bind a new isolated scheduler context to the current thread.
+     * The context has its own deterministic test scheduler, its own VirtualProcessorUnits and its own task id
+     * sequence, so tasks scheduled and pumped on the current thread do not interact with tasks scheduled on
+     * other threads. This allows test suites to run tests in parallel. Configuration settings such as
+     * {@link #enableNames()} remain global. Each test should bind a new context before it runs and invoke
+     * {@link #unbindIsolatedContext()} when it completes.
+     */
+    @GwtIncompatible
+    @OmitSymbol(unless = "zemeckis.use_test_scheduler")
+    public static void bindIsolatedContext() {
+        unbindIsolatedContext();
+        SchedulerContext.bind(SchedulerContext.createIsolated());
+    }
+
+    /**
+     * Discard the scheduler context bound to the current thread by {@link #bindIsolatedContext()}, if any.
+     * Tasks scheduled within the context that have not run are discarded.
+     */
+    @GwtIncompatible
+    @OmitSymbol(unless = "zemeckis.use_test_scheduler")
+    public static void unbindIsolatedContext() {
+        final SchedulerContext context = SchedulerContext.current();
+        if (null != context) {
+            context.getScheduler().shutdown();
+            SchedulerContext.bind(null);
+        }
+    }
+
     /**
      * Execute the next task scheduled by the deterministic test scheduler, advancing its clock to the task's due time.
      *
@@ -144,4 +241,113 @@ public final class ZemeckisTestUtil {
     public static int pumpAll() {
         return TemporalScheduler.pumpAll();
     }
+
+    /**
+     * Advance the clock of the deterministic test scheduler by the specified duration.
+     * Tasks that are due within the window run in the order that they are due, with the clock set to the due time
+     * of each task as it runs. Periodic tasks run once per period that falls within the window.
+     *
+     * @param duration the duration to advance the clock by. Must not be negative.
+     * @return the number of tasks executed.
+     * @throws IllegalStateException if the deterministic test scheduler is not enabled.
+     */
+    @OmitSymbol(unless = "zemeckis.use_test_scheduler")
+    public static int advanceBy(final int duration) {
+        return TemporalScheduler.advanceBy(duration);
+    }
+
+    /**
+     * Advance the clock of the deterministic test scheduler to the specified time.
+     * Tasks that are due at or before the specified time run in the order that they are due, with the clock set to
+     * the due time of each task as it runs. Periodic tasks run once per period that falls within the window.
+     *
+     * @param time the time to advance the clock to. Must not be before {@link Zemeckis#now()}.
+     * @return the number of tasks executed.
+     * @throws IllegalStateException if the deterministic test scheduler is not enabled.
+     */
+    @OmitSymbol(unless = "zemeckis.use_test_scheduler")
+    public static int advanceTo(final int time) {
+        return TemporalScheduler.advanceTo(time);
+    }
+
+    /**
+     * Enable immediate mode in the deterministic test scheduler.
+     * In immediate mode the "macro" and "micro" task VirtualProcessorUnits are activated synchronously rather
+     * than in a scheduled task, so tests that do not care about time need not pump the scheduler. A task queued
+     * while no VirtualProcessorUnit is activated runs before the queue method returns, while a task queued from
+     * within an activation runs when the outermost activation completes. The "animationFrame", "afterFrame" and
+     * "onIdle" VirtualProcessorUnits are still activated by the simulated frame and idle phases. Immediate mode
+     * is disabled when the configuration is reset.
+     *
+     * @throws IllegalStateException if the deterministic test scheduler is not enabled.
+     */
+    @OmitSymbol(unless = "zemeckis.use_test_scheduler")
+    public static void enableImmediateMode() {
+        TemporalScheduler.setImmediateMode(true);
+    }
+
+    /**
+     * Disable immediate mode in the deterministic test scheduler.
+     *
+     * @throws IllegalStateException if the deterministic test scheduler is not enabled.
+     * @see #enableImmediateMode()
+     */
+    @OmitSymbol(unless = "zemeckis.use_test_scheduler")
+    public static void disableImmediateMode() {
+        TemporalScheduler.setImmediateMode(false);
+    }
+
+    /**
+     * Advance the clock of the deterministic test scheduler without running any tasks.
+     * This is typically invoked from within a task to model the time that the task takes to run so that
+     * tests can exercise time-slicing and frame budget logic. Tasks that become due while the work is
+     * simulated run late, in the order that they are due.
+     *
+     * @param duration the duration of the simulated work. Must not be negative.
+     * @throws IllegalStateException if the deterministic test scheduler is not enabled.
+     */
+    @OmitSymbol(unless = "zemeckis.use_test_scheduler")
+    public static void simulateWork(final int duration) {
+        TemporalScheduler.simulateWork(duration);
+    }
+
+    /**
+     * Specify the interval between frames simulated by the deterministic test scheduler.
+     * The "animationFrame" VirtualProcessorUnit is activated at the start of each frame and the "afterFrame"
+     * VirtualProcessorUnit is activated in a task that follows the frame. The interval defaults to 16 and is
+     * restored when the configuration is reset.
+     *
+     * @param frameInterval the interval between frames. Must be greater than 0.
+     * @throws IllegalStateException if the deterministic test scheduler is not enabled.
+     */
+    @OmitSymbol(unless = "zemeckis.use_test_scheduler")
+    public static void setFrameInterval(final int frameInterval) {
+        TemporalScheduler.setFrameInterval(frameInterval);
+    }
+
+    /**
+     * Specify whether the page is hidden and notify the tasks that observe the visibility of the page if it changed.
+     * The page is visible when the configuration is reset.
+     *
+     * @param hidden true if the page is hidden, false if it is visible.
+     * @see Zemeckis#isPageHidden()
+     */
+    public static void setPageHidden(final boolean hidden) {
+        PageVisibility.setHidden(hidden);
+    }
+
+    /**
+     * Execute scheduled JVM tasks in the order that they are due until the deterministic test scheduler is idle.
+     * If periodic tasks are excluded then the scheduler is considered idle once only periodic tasks remain, although
+     * periodic tasks that are due before the last non-periodic task still run.
+     *
+     * @param excludePeriodic true to stop when only periodic tasks remain, false to stop when no tasks remain.
+     * @return the number of tasks executed.
+     * @throws IllegalStateException if the deterministic test scheduler is not enabled or does not become idle after
+     *     executing 10,000 tasks.
+     */
+    @OmitSymbol(unless = "zemeckis.use_test_scheduler")
+    public static int runUntilIdle(final boolean excludePeriodic) {
+        return TemporalScheduler.runUntilIdle(excludePeriodic);
+    }
 }
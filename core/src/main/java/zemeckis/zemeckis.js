@@ -15,6 +15,14 @@ addSystemPropertyFromGoogDefine('zemeckis.environment', environment);
 const enableNames = goog.define('zemeckis.enable_names', 'false');
 addSystemPropertyFromGoogDefine('zemeckis.enable_names', enableNames);
 
+/** @define {string} */
+const enableMetrics = goog.define('zemeckis.enable_metrics', 'false');
+addSystemPropertyFromGoogDefine('zemeckis.enable_metrics', enableMetrics);
+
+/** @define {string} */
+const enableSpies = goog.define('zemeckis.enable_spies', 'false');
+addSystemPropertyFromGoogDefine('zemeckis.enable_spies', enableSpies);
+
 /** @define {string} */
 const purgeTasksWhenRunawayDetected =
     goog.define('zemeckis.purge_tasks_when_runaway_detected', 'true');
@@ -27,6 +35,16 @@ const enableUncaughtErrorHandlers =
 addSystemPropertyFromGoogDefine(
     'zemeckis.enable_uncaught_error_handlers', enableUncaughtErrorHandlers);
 
+/** @define {string} */
+const enableLongTaskHandlers =
+    goog.define('zemeckis.enable_long_task_handlers', 'false');
+addSystemPropertyFromGoogDefine(
+    'zemeckis.enable_long_task_handlers', enableLongTaskHandlers);
+
+/** @define {string} */
+const enableUserTiming = goog.define('zemeckis.enable_user_timing', 'false');
+addSystemPropertyFromGoogDefine('zemeckis.enable_user_timing', enableUserTiming);
+
 /** @define {string} */
 const useTestScheduler =
     goog.define('zemeckis.use_test_scheduler', 'false');
@@ -47,6 +65,13 @@ addSystemPropertyFromGoogDefine(
     'zemeckis.use_worker_to_schedule_delayed_tasks',
     useWorkerToScheduleDelayedTasks);
 
+/** @define {string} */
+const useAdaptiveSchedulingBackends =
+    goog.define('zemeckis.use_adaptive_scheduling_backends', 'false');
+addSystemPropertyFromGoogDefine(
+    'zemeckis.use_adaptive_scheduling_backends',
+    useAdaptiveSchedulingBackends);
+
 /** @define {string} */
 const logWorkerInteractions =
     goog.define('zemeckis.log_worker_interactions', 'false');
@@ -58,12 +83,17 @@ const logger = goog.define('zemeckis.logger', 'none');
 addSystemPropertyFromGoogDefine('zemeckis.logger', logger);
 
 exports = {
+  enable_long_task_handlers: enableLongTaskHandlers,
+  enable_metrics: enableMetrics,
   enable_names: enableNames,
+  enable_spies: enableSpies,
   enable_uncaught_error_handlers: enableUncaughtErrorHandlers,
+  enable_user_timing: enableUserTiming,
   environment,
   log_worker_interactions: logWorkerInteractions,
   logger,
   purge_tasks_when_runaway_detected: purgeTasksWhenRunawayDetected,
+  use_adaptive_scheduling_backends: useAdaptiveSchedulingBackends,
   use_message_channel_to_schedule_tasks: useMessageChannelToScheduleTasks,
   use_test_scheduler: useTestScheduler,
   use_worker_to_schedule_delayed_tasks: useWorkerToScheduleDelayedTasks,
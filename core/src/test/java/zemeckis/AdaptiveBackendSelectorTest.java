@@ -0,0 +1,52 @@
+package zemeckis;
+
+import static org.testng.Assert.*;
+
+import org.testng.annotations.Test;
+
+public final class AdaptiveBackendSelectorTest extends AbstractTest {
+    @Test
+    public void selectsInitialBackendBeforeMeasurements() {
+        final var selector = new AdaptiveBackendSelector(AdaptiveBackendSelector.SECONDARY);
+
+        assertEquals(selector.getCurrent(), AdaptiveBackendSelector.SECONDARY);
+        assertEquals(selector.select(), AdaptiveBackendSelector.SECONDARY);
+        assertEquals(selector.getAverageLatency(AdaptiveBackendSelector.PRIMARY), -1D);
+        assertEquals(selector.getAverageLatency(AdaptiveBackendSelector.SECONDARY), -1D);
+    }
+
+    @Test
+    public void probesAlternativeBackend() {
+        final var selector = new AdaptiveBackendSelector(AdaptiveBackendSelector.PRIMARY);
+
+        for (int i = 1; i < AdaptiveBackendSelector.PROBE_INTERVAL; i++) {
+            assertEquals(selector.select(), AdaptiveBackendSelector.PRIMARY);
+        }
+        assertEquals(selector.select(), AdaptiveBackendSelector.SECONDARY);
+        assertEquals(selector.select(), AdaptiveBackendSelector.PRIMARY);
+        assertEquals(selector.getCurrent(), AdaptiveBackendSelector.PRIMARY);
+    }
+
+    @Test
+    public void switchesToFasterBackend() {
+        final var selector = new AdaptiveBackendSelector(AdaptiveBackendSelector.PRIMARY);
+
+        selector.record(AdaptiveBackendSelector.PRIMARY, 10);
+        assertEquals(selector.getAverageLatency(AdaptiveBackendSelector.PRIMARY), 10D);
+
+        // Not enough faster to switch
+        selector.record(AdaptiveBackendSelector.SECONDARY, 9);
+        assertEquals(selector.getCurrent(), AdaptiveBackendSelector.PRIMARY);
+
+        // The primary backend is throttled
+        selector.record(AdaptiveBackendSelector.PRIMARY, 1010);
+        assertEquals(selector.getAverageLatency(AdaptiveBackendSelector.PRIMARY), 260D);
+        assertEquals(selector.getCurrent(), AdaptiveBackendSelector.SECONDARY);
+        assertEquals(selector.select(), AdaptiveBackendSelector.SECONDARY);
+
+        // Negative latencies are recorded as 0
+        selector.record(AdaptiveBackendSelector.PRIMARY, -5);
+        assertEquals(selector.getAverageLatency(AdaptiveBackendSelector.PRIMARY), 195D);
+        assertEquals(selector.getCurrent(), AdaptiveBackendSelector.SECONDARY);
+    }
+}
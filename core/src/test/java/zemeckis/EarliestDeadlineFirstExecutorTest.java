@@ -0,0 +1,174 @@
+package zemeckis;
+
+import static org.testng.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.testng.annotations.Test;
+
+public final class EarliestDeadlineFirstExecutorTest extends AbstractTest {
+    @Test
+    public void tasksRunInDeadlineOrder() {
+        final var vpu = VirtualProcessorUnit.createEarliestDeadlineFirstVpu(randomString());
+        final var runs = new ArrayList<String>();
+        vpu.queueWithDeadline(randomString(), () -> runs.add("C"), 30);
+        vpu.queue(randomString(), () -> runs.add("E"));
+        vpu.queueWithDeadline(randomString(), () -> runs.add("A"), 10);
+        vpu.queueWithDeadline(randomString(), () -> runs.add("B"), 20);
+        // Tasks with the same deadline run in the order queued
+        vpu.queueWithDeadline(randomString(), () -> runs.add("D"), 30);
+        vpu.queueWithDeadline(randomString(), () -> runs.add("X"), 15).cancel();
+        vpu.queueWithDeadline(
+                randomString(),
+                () -> {
+                    assertEquals(Zemeckis.currentVpu(), vpu);
+                    runs.add("F");
+                },
+                Double.POSITIVE_INFINITY);
+
+        ZemeckisTestUtil.pumpAll();
+
+        assertEquals(runs, List.of("A", "B", "C", "D", "E", "F"));
+        final var metrics = vpu.getMetrics();
+        assertEquals(metrics.getActivations(), 1);
+        assertEquals(metrics.getTasksExecuted(), 6);
+        assertEquals(metrics.getTasksCanceled(), 1);
+        assertEquals(metrics.getDeadlinesMissed(), 0);
+    }
+
+    @Test
+    public void tasksQueuedDuringActivation() {
+        final var vpu = VirtualProcessorUnit.createEarliestDeadlineFirstVpu(randomString());
+        final var runs = new ArrayList<String>();
+        vpu.queueWithDeadline(
+                randomString(),
+                () -> {
+                    runs.add("A");
+                    vpu.queueWithDeadline(randomString(), () -> runs.add("C"), 5);
+                },
+                10);
+        vpu.queueWithDeadline(randomString(), () -> runs.add("B"), 20);
+
+        ZemeckisTestUtil.pumpAll();
+
+        // The task with the earlier deadline runs first but the activation only runs as many tasks as were
+        // queued when it started
+        assertEquals(runs, List.of("A", "C", "B"));
+        assertEquals(vpu.getMetrics().getActivations(), 2);
+    }
+
+    @Test
+    public void missedDeadline() {
+        final var vpu = VirtualProcessorUnit.createEarliestDeadlineFirstVpu("EDF");
+        final var events = new ArrayList<ZemeckisSpy.DeadlineMissedEvent>();
+        Zemeckis.getSpy().addSpyEventHandler(e -> {
+            if (e instanceof ZemeckisSpy.DeadlineMissedEvent) {
+                events.add((ZemeckisSpy.DeadlineMissedEvent) e);
+            }
+        });
+
+        ZemeckisTestUtil.advanceBy(10);
+        vpu.queueWithDeadline("A", () -> ZemeckisTestUtil.simulateWork(4), 12);
+        vpu.queueWithDeadline("B", new NoopTask(), 12);
+        vpu.queueWithDeadline("C", new NoopTask(), 100);
+        vpu.queueWithDeadline("D", new NoopTask(), 4);
+
+        ZemeckisTestUtil.pumpAll();
+
+        assertEquals(vpu.getMetrics().getDeadlinesMissed(), 2);
+        assertEquals(events.size(), 2);
+        final var event1 = events.get(0);
+        assertEquals(event1.getVirtualProcessorUnit(), vpu);
+        assertEquals(event1.getTaskName(), "D");
+        assertEquals(event1.getDeadline(), 4D);
+        assertEquals(event1.getLateness(), 6D);
+        final var event2 = events.get(1);
+        assertEquals(event2.getTaskName(), "B");
+        assertEquals(event2.getLateness(), 2D);
+    }
+
+    @Test
+    public void activatedWhenIdle() {
+        final var vpu = VirtualProcessorUnit.createIdleEarliestDeadlineFirstVpu(randomString());
+        final var runs = new ArrayList<String>();
+        vpu.queueWithDeadline(randomString(), () -> runs.add("B"), 20);
+        vpu.queueWithDeadline(
+                randomString(),
+                () -> {
+                    assertEquals(Zemeckis.currentVpu(), vpu);
+                    runs.add("A");
+                },
+                10);
+        Zemeckis.macroTask(randomString(), () -> runs.add("Macro"));
+
+        ZemeckisTestUtil.pumpAll();
+
+        // The idle activation waits until the macro task has run
+        assertEquals(runs, List.of("Macro", "A", "B"));
+    }
+
+    @Test
+    public void queueCapacityNotSupported() {
+        final var vpu = VirtualProcessorUnit.createEarliestDeadlineFirstVpu(randomString());
+        assertInvariantFailure(
+                () -> vpu.setQueueCapacity(10, QueueOverflowPolicy.REJECT),
+                "Zemeckis-0034: VirtualProcessorUnit " + vpu + " was created by "
+                        + "VirtualProcessorUnit.createEarliestDeadlineFirstVpu(...) and does not support a bounded "
+                        + "task queue.");
+    }
+
+    @Test
+    public void activateWhenActivationScheduled() {
+        final var vpu = VirtualProcessorUnit.createEarliestDeadlineFirstVpu(randomString());
+        final var runs = new ArrayList<String>();
+        vpu.queueWithDeadline(randomString(), () -> runs.add("A"), 10);
+
+        // The task runs in the activation that has already been scheduled
+        vpu.getExecutor().activate();
+        assertEquals(runs, List.of());
+
+        ZemeckisTestUtil.pumpAll();
+
+        assertEquals(runs, List.of("A"));
+        assertEquals(vpu.getMetrics().getActivations(), 1);
+
+        // An activation is scheduled for tasks queued after an explicit activation
+        vpu.getExecutor().activate();
+        vpu.queueWithDeadline(randomString(), () -> runs.add("B"), 10);
+
+        ZemeckisTestUtil.pumpAll();
+
+        assertEquals(runs, List.of("A", "B"));
+        assertEquals(vpu.getMetrics().getActivations(), 3);
+    }
+
+    @Test
+    public void queueHighWaterMark() {
+        final var vpu = VirtualProcessorUnit.createEarliestDeadlineFirstVpu(randomString());
+        final var events = new ArrayList<Integer>();
+        vpu.setQueueHighWaterMark(4, (v, queueSize) -> {
+            assertEquals(v, vpu);
+            events.add(queueSize);
+        });
+
+        for (int i = 0; i < 6; i++) {
+            vpu.queueWithDeadline(randomString(), new NoopTask(), i);
+        }
+        // Invoked once when the high-water mark is reached
+        assertEquals(events, List.of(4));
+
+        // Re-armed once the queue drains to half the high-water mark
+        ZemeckisTestUtil.pumpAll();
+        for (int i = 0; i < 4; i++) {
+            vpu.queue(randomString(), new NoopTask());
+        }
+        assertEquals(events, List.of(4, 4));
+
+        vpu.setQueueHighWaterMark(0, null);
+        ZemeckisTestUtil.pumpAll();
+        for (int i = 0; i < 4; i++) {
+            vpu.queue(randomString(), new NoopTask());
+        }
+        assertEquals(events, List.of(4, 4));
+    }
+}
@@ -0,0 +1,365 @@
+package zemeckis;
+
+import static org.testng.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.testng.annotations.Test;
+
+public final class EventLoopGroupTest extends AbstractTest {
+    @Test
+    public void tasksWithSameAffinityKeyRunInOrderOnOneShard() throws InterruptedException {
+        final var group = new EventLoopGroup(4);
+        assertEquals(group.getShardCount(), 4);
+
+        final List<String> trace = Collections.synchronizedList(new ArrayList<>());
+        final List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+        final var latch = new CountDownLatch(100);
+        for (int i = 0; i < 100; i++) {
+            final int id = i;
+            group.submit("Task" + i, "key", () -> {
+                trace.add(String.valueOf(id));
+                threads.add(Thread.currentThread());
+                latch.countDown();
+            });
+        }
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        group.shutdown();
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(trace.get(i), String.valueOf(i));
+        }
+        final Thread shardThread = group.getShard(group.shardIndex("key")).getThread();
+        assertTrue(threads.stream().allMatch(thread -> thread == shardThread));
+    }
+
+    @Test
+    public void shardsRunIndependently() throws InterruptedException {
+        final var group = new EventLoopGroup(2);
+        assertNotEquals(group.shardIndex(0), group.shardIndex(1));
+
+        final var unblocked = new CountDownLatch(1);
+        final var completed = new CountDownLatch(1);
+        // A task blocked in one shard does not stop tasks running in other shards
+        group.submit(0, () -> {
+            try {
+                assertTrue(unblocked.await(5, TimeUnit.SECONDS));
+            } catch (final InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            completed.countDown();
+        });
+        group.submit(1, unblocked::countDown);
+
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        group.shutdown();
+    }
+
+    @Test
+    public void zemeckisApiSchedulesOnCurrentShard() throws InterruptedException {
+        final var group = new EventLoopGroup(2);
+        final var shard = group.getShard(group.shardIndex(1));
+        final var context = shard.getContext();
+        final var globalMacroTaskVpu = Zemeckis.macroTaskVpu();
+        final List<String> trace = Collections.synchronizedList(new ArrayList<>());
+        final var latch = new CountDownLatch(1);
+
+        group.submit(1, () -> {
+            assertEquals(Zemeckis.currentVpu(), context.macroTaskVpu());
+            assertEquals(Zemeckis.macroTaskVpu(), context.macroTaskVpu());
+            assertNotEquals(Zemeckis.macroTaskVpu(), globalMacroTaskVpu);
+            Zemeckis.onIdle(() -> {
+                assertEquals(Zemeckis.currentVpu(), context.onIdleVpu());
+                trace.add("OnIdle");
+                latch.countDown();
+            });
+            Zemeckis.delayedTask(() -> trace.add("Delayed"), 60_000);
+            Zemeckis.microTask(() -> {
+                assertEquals(Zemeckis.currentVpu(), context.microTaskVpu());
+                trace.add("Micro");
+            });
+            trace.add("Macro");
+        });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        group.shutdown();
+
+        // The onIdle task runs once no other task is ready and before the timer is due
+        assertEquals(trace, List.of("Macro", "Micro", "OnIdle"));
+        assertFalse(Zemeckis.isVpuActivated());
+    }
+
+    @Test
+    public void timersFireOnShard() throws InterruptedException {
+        final var group = new EventLoopGroup(1);
+        final var shard = group.getShard(0);
+        final List<String> trace = Collections.synchronizedList(new ArrayList<>());
+        final var latch = new CountDownLatch(3);
+
+        group.submit(1, () -> {
+            final int start = Zemeckis.now();
+            Zemeckis.delayedTask(
+                    () -> {
+                        assertTrue(Zemeckis.now() - start >= 10);
+                        assertEquals(Thread.currentThread(), shard.getThread());
+                        trace.add("Delayed");
+                        Zemeckis.microTask(() -> {
+                            trace.add("Micro");
+                            latch.countDown();
+                        });
+                        latch.countDown();
+                    },
+                    10);
+            final Cancelable cancelable = Zemeckis.delayedTask(() -> trace.add("Canceled"), 5);
+            cancelable.cancel();
+            latch.countDown();
+        });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        group.shutdown();
+
+        assertEquals(trace, List.of("Delayed", "Micro"));
+    }
+
+    @Test
+    public void onIdleTasksDoNotDelayTimers() throws InterruptedException {
+        final var group = new EventLoopGroup(1);
+        final var shard = group.getShard(0);
+        final List<String> trace = Collections.synchronizedList(new ArrayList<>());
+        final var latch = new CountDownLatch(21);
+
+        group.submit(1, () -> {
+            assertEquals(shard.idleTimeRemaining(), EventLoopShard.MAX_IDLE_PERIOD);
+            Zemeckis.delayedTask(
+                    () -> {
+                        trace.add("Timer");
+                        latch.countDown();
+                    },
+                    100);
+            for (int i = 0; i < 20; i++) {
+                Zemeckis.onIdle(() -> {
+                    sleep(10);
+                    trace.add("Idle");
+                    latch.countDown();
+                });
+            }
+        });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        group.shutdown();
+
+        // The idle period ends before the timer is due so the timer interrupts the idle tasks
+        final int timerIndex = trace.indexOf("Timer");
+        assertTrue(timerIndex > 0 && timerIndex < 20, "Timer fired at index " + timerIndex);
+    }
+
+    @Test
+    public void onIdleYieldsToSubmittedTasks() throws InterruptedException {
+        final var group = new EventLoopGroup(1);
+        final List<String> trace = Collections.synchronizedList(new ArrayList<>());
+        final var latch = new CountDownLatch(2);
+
+        group.submit(1, () -> {
+            Zemeckis.onIdle(() -> {
+                trace.add("Idle1");
+                // A task submitted from another thread ends the idle period
+                group.submit(1, () -> {
+                    trace.add("Submitted");
+                    latch.countDown();
+                });
+            });
+            Zemeckis.onIdle(() -> {
+                trace.add("Idle2");
+                latch.countDown();
+            });
+        });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        group.shutdown();
+
+        assertEquals(trace, List.of("Idle1", "Submitted", "Idle2"));
+    }
+
+    @Test
+    public void waitStrategies() throws InterruptedException {
+        for (final EventLoopGroup.WaitStrategy waitStrategy : EventLoopGroup.WaitStrategy.values()) {
+            final var group = new EventLoopGroup(2, waitStrategy);
+            assertEquals(group.getShard(0).getWaitStrategy(), waitStrategy);
+            final var latch = new CountDownLatch(101);
+            for (int i = 0; i < 100; i++) {
+                group.submit(i, latch::countDown);
+            }
+            group.submit(1, () -> Zemeckis.delayedTask(latch::countDown, 5));
+
+            assertTrue(latch.await(5, TimeUnit.SECONDS), "Tasks did not complete using " + waitStrategy);
+            group.shutdown();
+        }
+    }
+
+    @Test
+    public void submitOnlyUnparksParkedLoop() throws InterruptedException {
+        final var group = new EventLoopGroup(1, EventLoopGroup.WaitStrategy.BLOCKING);
+        final var shard = group.getShard(0);
+        awaitParked(shard);
+        assertEquals(shard.getWakeUpCount(), 0);
+
+        final var started = new CountDownLatch(1);
+        final var unblocked = new CountDownLatch(1);
+        final var latch = new CountDownLatch(11);
+        group.submit(1, () -> {
+            started.countDown();
+            try {
+                assertTrue(unblocked.await(5, TimeUnit.SECONDS));
+            } catch (final InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            latch.countDown();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        // The loop is busy running the first task so these submissions do not unpark the loop
+        for (int i = 0; i < 10; i++) {
+            group.submit(1, latch::countDown);
+        }
+        unblocked.countDown();
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(shard.getWakeUpCount(), 1);
+
+        awaitParked(shard);
+        group.submit(1, () -> {});
+        assertEquals(shard.getWakeUpCount(), 2);
+        group.shutdown();
+    }
+
+    @Test
+    public void busySpinLoopIsNeverUnparked() throws InterruptedException {
+        final var group = new EventLoopGroup(1, EventLoopGroup.WaitStrategy.BUSY_SPIN);
+        final var shard = group.getShard(0);
+        final var latch = new CountDownLatch(10);
+        for (int i = 0; i < 10; i++) {
+            Thread.sleep(1);
+            group.submit(1, latch::countDown);
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertFalse(shard.isParked());
+        assertEquals(shard.getWakeUpCount(), 0);
+        group.shutdown();
+    }
+
+    @Test
+    public void submitFromAnyThreadRunsOnShard() throws InterruptedException {
+        final var group = new EventLoopGroup(1);
+        final var shard = group.getShard(0);
+        final var context = shard.getContext();
+        final var producerCount = 4;
+        final var taskCount = 1_000;
+        final List<List<Integer>> values = new ArrayList<>();
+        final var latch = new CountDownLatch(producerCount * taskCount + 1);
+        final List<Thread> producers = new ArrayList<>();
+        for (int i = 0; i < producerCount; i++) {
+            final List<Integer> producerValues = new ArrayList<>();
+            values.add(producerValues);
+            producers.add(new Thread(() -> {
+                for (int j = 0; j < taskCount; j++) {
+                    final int value = j;
+                    Zemeckis.submitFromAnyThread(context.macroTaskVpu(), () -> {
+                        assertEquals(Thread.currentThread(), shard.getThread());
+                        assertEquals(Zemeckis.currentVpu(), context.macroTaskVpu());
+                        producerValues.add(value);
+                        latch.countDown();
+                    });
+                }
+            }));
+        }
+        Zemeckis.submitFromAnyThread(context.onIdleVpu(), () -> {
+            assertEquals(Zemeckis.currentVpu(), context.onIdleVpu());
+            latch.countDown();
+        });
+        producers.forEach(Thread::start);
+        for (final var producer : producers) {
+            producer.join();
+        }
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        group.shutdown();
+        // Tasks from a single producer run in the order that they were submitted
+        for (final var producerValues : values) {
+            assertEquals(producerValues.size(), taskCount);
+            for (int j = 0; j < taskCount; j++) {
+                assertEquals((int) producerValues.get(j), j);
+            }
+        }
+    }
+
+    @Test
+    public void submissionsWhileLoopIsBusyAreDrainedInOneBatch() throws InterruptedException {
+        final var group = new EventLoopGroup(1);
+        final var shard = group.getShard(0);
+        final var executor =
+                (AbstractExecutor) shard.getContext().macroTaskVpu().getExecutor();
+        awaitParked(shard);
+
+        final var started = new CountDownLatch(1);
+        final var unblocked = new CountDownLatch(1);
+        final var latch = new CountDownLatch(11);
+        group.submit(1, () -> {
+            started.countDown();
+            try {
+                assertTrue(unblocked.await(5, TimeUnit.SECONDS));
+            } catch (final InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            latch.countDown();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 10; i++) {
+            group.submit(1, latch::countDown);
+        }
+        // The submissions accumulate in the inbox until the loop is free to drain it
+        assertEquals(executor.getInboxSize(), 10);
+        unblocked.countDown();
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(executor.getInboxSize(), 0);
+        assertEquals(shard.getWakeUpCount(), 1);
+        group.shutdown();
+    }
+
+    @Test
+    public void invalidShardCount() {
+        assertInvariantFailure(
+                () -> new EventLoopGroup(0),
+                "Zemeckis-0014: EventLoopGroup created with a non-positive shard count. Actual value passed is 0");
+    }
+
+    @Test
+    public void submitAfterShutdown() throws InterruptedException {
+        final var group = new EventLoopGroup(1);
+        group.shutdown();
+
+        assertInvariantFailure(
+                () -> group.submit("MyTask", 1, () -> {}),
+                "Zemeckis-0015: EventLoopGroup.submit(...) invoked for the task named 'MyTask' after the "
+                        + "EventLoopGroup was shut down");
+    }
+
+    private static void awaitParked(final EventLoopShard shard) throws InterruptedException {
+        final long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!shard.isParked()) {
+            assertTrue(System.nanoTime() < end, "Shard did not park");
+            Thread.sleep(1);
+        }
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -177,6 +177,77 @@ public final class ExecutorTest extends AbstractTest {
         assertEquals(errorCount.get(), 1);
     }
 
+    @Test
+    public void submitFromAnyThread() {
+        final var drainCount = new AtomicInteger();
+        final var executor = new RoundBasedExecutor() {
+            int _scheduleCount;
+
+            @Override
+            void scheduleForActivation() {
+                _scheduleCount++;
+            }
+
+            @Override
+            void scheduleInboxDrain() {
+                drainCount.incrementAndGet();
+            }
+        };
+        final CircularBuffer<TaskEntry> taskQueue = executor.getTaskQueue();
+
+        final Runnable task1 = new NoopTask();
+        final Runnable task2 = new NoopTask();
+        final Runnable task3 = new NoopTask();
+
+        // Only the first submission since the inbox was last drained schedules a drain
+        executor.submitFromAnyThread(randomString(), task1);
+        executor.submitFromAnyThread(randomString(), task2);
+        assertEquals(drainCount.get(), 1);
+        assertEquals(executor.getInboxSize(), 2);
+        assertEquals(executor.getQueueSize(), 0);
+        assertEquals(executor._scheduleCount, 0);
+
+        assertEquals(executor.drainInbox(), 2);
+        assertEquals(executor.getInboxSize(), 0);
+        assertEquals(executor.getQueueSize(), 2);
+        assertTaskAt(taskQueue, 0, task1);
+        assertTaskAt(taskQueue, 1, task2);
+        assertEquals(executor._scheduleCount, 1);
+
+        executor.submitFromAnyThread(randomString(), task3);
+        assertEquals(drainCount.get(), 2);
+
+        // The executor is not scheduled again as the task queue was not empty
+        assertEquals(executor.drainInbox(), 1);
+        assertEquals(executor.getQueueSize(), 3);
+        assertTaskAt(taskQueue, 2, task3);
+        assertEquals(executor._scheduleCount, 1);
+
+        // A drain with an empty inbox is harmless
+        assertEquals(executor.drainInbox(), 0);
+        assertEquals(executor.getQueueSize(), 3);
+
+        executor.submitFromAnyThread(randomString(), new NoopTask());
+        assertEquals(drainCount.get(), 3);
+        executor.reset();
+        assertEquals(executor.getInboxSize(), 0);
+        executor.submitFromAnyThread(randomString(), new NoopTask());
+        assertEquals(drainCount.get(), 4);
+    }
+
+    @Test
+    public void submitFromAnyThread_executorNotOwnedByLoop() {
+        final var executor = new TestExecutor();
+        final var vpu = new VirtualProcessorUnit(randomString(), executor);
+
+        assertInvariantFailure(
+                () -> Zemeckis.submitFromAnyThread(vpu, new NoopTask()),
+                "Zemeckis-0035: Attempting to submit a task to VirtualProcessorUnit " + vpu + " from any thread but"
+                        + " the VirtualProcessorUnit is not owned by a thread that can drain the submitted tasks.");
+        assertEquals(executor.getQueueSize(), 0);
+        assertEquals(executor.getScheduleCount(), 0);
+    }
+
     private void assertTaskAt(final CircularBuffer<TaskEntry> taskQueue, final int index, final Runnable task) {
         final TaskEntry entry = Objects.requireNonNull(taskQueue.get(index));
         assertEquals(entry.getTask(), task);
@@ -0,0 +1,94 @@
+package zemeckis;
+
+import static org.testng.Assert.*;
+
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.testng.annotations.Test;
+
+public final class JfrEventsTest extends AbstractTest {
+    @Test
+    public void taskExecutionAndActivationEvents() throws Exception {
+        final var events = record(() -> {
+            Zemeckis.macroTask("A", new NoopTask());
+            Zemeckis.macroTask("B", () -> Zemeckis.macroTask("C", new NoopTask()));
+            ZemeckisTestUtil.pumpAll();
+        });
+
+        final var tasks = eventsNamed(events, "zemeckis.TaskExecution");
+        assertEquals(tasks.stream().map(e -> e.getString("task")).collect(Collectors.toList()), List.of("A", "B", "C"));
+        assertEquals(
+                tasks.get(0).getString("virtualProcessorUnit"),
+                Zemeckis.macroTaskVpu().getName());
+
+        final var activations = eventsNamed(events, "zemeckis.VpuActivation");
+        // The activation scheduled when the first task was queued runs after the tasks have been drained
+        assertFalse(activations.isEmpty());
+        final var activation = activations.get(0);
+        assertEquals(
+                activation.getString("virtualProcessorUnit"),
+                Zemeckis.macroTaskVpu().getName());
+        assertEquals(activation.getInt("rounds"), 2);
+        assertEquals(activation.getInt("tasksRun"), 3);
+    }
+
+    @Test
+    public void timerEvents() throws Exception {
+        final var events = record(() -> {
+            Zemeckis.delayedTask("Delayed", new NoopTask(), 20);
+            final var periodicTask = Zemeckis.periodicTask("Periodic", new NoopTask(), 15);
+            ZemeckisTestUtil.advanceBy(35);
+            periodicTask.cancel();
+        });
+
+        final var timers = eventsNamed(events, "zemeckis.Timer");
+        assertEquals(
+                timers.stream().map(e -> e.getString("timer")).collect(Collectors.toList()),
+                List.of("Periodic", "Delayed", "Periodic"));
+        final var delayed = timers.get(1);
+        assertFalse(delayed.getBoolean("periodic"));
+        assertEquals(delayed.getDuration("requestedDelay"), Duration.ofMillis(20));
+        assertEquals(delayed.getDuration("actualDelay"), Duration.ofMillis(20));
+        final var periodic = timers.get(2);
+        assertTrue(periodic.getBoolean("periodic"));
+        assertEquals(periodic.getDuration("requestedDelay"), Duration.ofMillis(15));
+        // The actual delay of a periodic timer is measured from the previous firing
+        assertEquals(periodic.getDuration("actualDelay"), Duration.ofMillis(15));
+    }
+
+    @Test
+    public void noEventsWhenNotRecording() {
+        assertNull(JfrEvents.taskExecutionStarted());
+        assertNull(JfrEvents.vpuActivationStarted());
+        final Runnable task = new NoopTask();
+        assertSame(JfrEvents.timerTask("Timer", 10, false, task), task);
+    }
+
+    private List<RecordedEvent> record(final Runnable action) throws Exception {
+        final var file = Files.createTempFile("zemeckis", ".jfr");
+        try (var recording = new Recording()) {
+            recording.enable("zemeckis.TaskExecution");
+            recording.enable("zemeckis.VpuActivation");
+            recording.enable("zemeckis.Timer");
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private List<RecordedEvent> eventsNamed(final List<RecordedEvent> events, final String name) {
+        return events.stream()
+                .filter(e -> e.getEventType().getName().equals(name))
+                .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,72 @@
+package zemeckis;
+
+import static org.testng.Assert.*;
+
+import org.testng.annotations.Test;
+
+public final class LatencyHistogramTest extends AbstractTest {
+    @Test
+    public void bucketIndex() {
+        assertEquals(LatencyHistogram.bucketIndex(0), 0);
+        assertEquals(LatencyHistogram.bucketIndex(31), 31);
+        assertEquals(LatencyHistogram.bucketIndex(32), 32);
+        assertEquals(LatencyHistogram.bucketIndex(33), 32);
+        assertEquals(LatencyHistogram.bucketIndex(34), 33);
+        assertEquals(LatencyHistogram.bucketIndex(63), 47);
+        assertEquals(LatencyHistogram.bucketIndex(64), 48);
+        assertEquals(LatencyHistogram.bucketIndex(Integer.MAX_VALUE), LatencyHistogram.BUCKET_COUNT - 1);
+
+        assertEquals(LatencyHistogram.highestEquivalentValue(31), 31);
+        assertEquals(LatencyHistogram.highestEquivalentValue(32), 33);
+        assertEquals(LatencyHistogram.highestEquivalentValue(48), 67);
+        assertEquals(LatencyHistogram.highestEquivalentValue(LatencyHistogram.BUCKET_COUNT - 1), Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void bucketsAreContiguous() {
+        int previous = -1;
+        for (int i = 0; i < LatencyHistogram.BUCKET_COUNT; i++) {
+            final int highest = LatencyHistogram.highestEquivalentValue(i);
+            assertEquals(LatencyHistogram.bucketIndex(previous + 1), i);
+            assertEquals(LatencyHistogram.bucketIndex(highest), i);
+            // The width of a bucket never exceeds 1/16 of the values in the bucket
+            assertTrue(highest - previous - 1 <= (previous + 1) / LatencyHistogram.SUB_BUCKET_COUNT);
+            previous = highest;
+        }
+    }
+
+    @Test
+    public void percentiles() {
+        final var histogram = new LatencyHistogram();
+        assertEquals(histogram.getTotalCount(), 0);
+        assertEquals(histogram.getValueAtPercentile(50), 0);
+
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        histogram.record(-5);
+
+        assertEquals(histogram.getTotalCount(), 1001);
+        assertEquals(histogram.getMaxValue(), 1000);
+        assertEquals(histogram.getValueAtPercentile(0), 0);
+        assertEquals(histogram.getValueAtPercentile(100), 1000);
+        // 500 is recorded in the bucket [496, 511]
+        assertEquals(histogram.getValueAtPercentile(50), 511);
+        // 990 is recorded in the bucket [960, 991]
+        assertEquals(histogram.getValueAtPercentile(99), 991);
+        // 1000 is recorded in the bucket [992, 1023] and the value is capped at the maximum recorded
+        assertEquals(histogram.getValueAtPercentile(99.99), 1000);
+
+        final var statistics = histogram.snapshot();
+        assertEquals(statistics.getCount(), 1001);
+        assertEquals(statistics.getP50(), 511);
+        assertEquals(statistics.getP99(), 991);
+        assertEquals(statistics.getMax(), 1000);
+        assertEquals(statistics.toString(), "LatencyStatistics[count=1001, p50=511us, p99=991us, max=1000us]");
+
+        histogram.reset();
+        assertEquals(histogram.getTotalCount(), 0);
+        assertEquals(histogram.getMaxValue(), 0);
+        assertEquals(histogram.getValueAtPercentile(99), 0);
+    }
+}
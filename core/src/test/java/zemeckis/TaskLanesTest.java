@@ -0,0 +1,115 @@
+package zemeckis;
+
+import static org.testng.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import org.testng.annotations.Test;
+
+public final class TaskLanesTest extends AbstractTest {
+    @Test
+    public void normalLaneOnly() {
+        final var lanes = new TaskLanes(10);
+        lanes.add(entry("A"), TaskPriority.NORMAL);
+        lanes.add(entry("B"), TaskPriority.NORMAL);
+        assertEquals(lanes.size(), 2);
+        assertEquals(lanes.normal().size(), 2);
+
+        assertEquals(popNames(lanes), List.of("A", "B"));
+        assertNull(lanes.pop());
+    }
+
+    @Test
+    public void weightedRoundRobin() {
+        final var lanes = new TaskLanes(10);
+        for (int i = 0; i < 20; i++) {
+            lanes.add(entry("U" + i), TaskPriority.USER_BLOCKING);
+            lanes.add(entry("N" + i), TaskPriority.NORMAL);
+            lanes.add(entry("B" + i), TaskPriority.BACKGROUND);
+        }
+        assertEquals(lanes.size(), 60);
+
+        // Each lane is selected in proportion to its weight while all lanes contain tasks
+        final var firstTen = popNames(lanes).subList(0, 10);
+        assertEquals(firstTen.stream().filter(n -> n.startsWith("U")).count(), 6);
+        assertEquals(firstTen.stream().filter(n -> n.startsWith("N")).count(), 3);
+        assertEquals(firstTen.stream().filter(n -> n.startsWith("B")).count(), 1);
+        assertEquals(firstTen.get(0), "U0");
+    }
+
+    @Test
+    public void backgroundNotStarved() {
+        final var lanes = new TaskLanes(10);
+        lanes.add(entry("B0"), TaskPriority.BACKGROUND);
+        final var names = new ArrayList<String>();
+        for (int i = 0; i < 20; i++) {
+            // A steady stream of higher priority tasks
+            lanes.add(entry("U" + i), TaskPriority.USER_BLOCKING);
+            lanes.add(entry("N" + i), TaskPriority.NORMAL);
+            names.add(Objects.requireNonNull(lanes.pop()).getName());
+        }
+        assertTrue(names.contains("B0"));
+    }
+
+    @Test
+    public void addFirst() {
+        final var lanes = new TaskLanes(10);
+        lanes.add(entry("U0"), TaskPriority.USER_BLOCKING);
+        lanes.add(entry("N0"), TaskPriority.NORMAL);
+        lanes.addFirst(entry("F0"));
+        lanes.addFirst(entry("F1"));
+
+        assertEquals(popNames(lanes), List.of("F1", "F0", "U0", "N0"));
+    }
+
+    @Test
+    public void popOldest() {
+        final var lanes = new TaskLanes(10);
+        lanes.add(entry("U0"), TaskPriority.USER_BLOCKING);
+        lanes.add(entry("N0"), TaskPriority.NORMAL);
+        lanes.addFirst(entry("F0"));
+        lanes.add(entry("B0"), TaskPriority.BACKGROUND);
+        lanes.add(entry("B1"), TaskPriority.BACKGROUND);
+
+        assertEquals(
+                lanes.stream().map(TaskEntry::getName).collect(Collectors.toList()),
+                List.of("U0", "F0", "N0", "B0", "B1"));
+
+        // Lower priority tasks are removed first
+        assertEquals(Objects.requireNonNull(lanes.popOldest()).getName(), "B0");
+        assertEquals(Objects.requireNonNull(lanes.popOldest()).getName(), "B1");
+        assertEquals(Objects.requireNonNull(lanes.popOldest()).getName(), "F0");
+        assertEquals(popNames(lanes), List.of("U0", "N0"));
+        assertNull(lanes.popOldest());
+    }
+
+    @Test
+    public void clearAndReset() {
+        final var lanes = new TaskLanes(10);
+        lanes.add(entry("U0"), TaskPriority.USER_BLOCKING);
+        lanes.addFirst(entry("F0"));
+        lanes.clear();
+        assertEquals(lanes.size(), 0);
+
+        lanes.add(entry("N0"), TaskPriority.NORMAL);
+        lanes.add(entry("B0"), TaskPriority.BACKGROUND);
+        lanes.reset();
+        assertEquals(lanes.size(), 0);
+        assertNull(lanes.pop());
+    }
+
+    private static TaskEntry entry(final String name) {
+        return new TaskEntry(name, new NoopTask(), null);
+    }
+
+    private static List<String> popNames(final TaskLanes lanes) {
+        final var names = new ArrayList<String>();
+        TaskEntry entry;
+        while (null != (entry = lanes.pop())) {
+            names.add(entry.getName());
+        }
+        return names;
+    }
+}
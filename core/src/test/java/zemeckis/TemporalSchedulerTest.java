@@ -2,9 +2,13 @@ package zemeckis;
 
 import static org.testng.Assert.*;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import org.realityforge.braincheck.BrainCheckTestUtil;
 import org.testng.annotations.Test;
 
 public final class TemporalSchedulerTest extends AbstractTest {
@@ -36,6 +40,34 @@ public final class TemporalSchedulerTest extends AbstractTest {
         assertEquals(TemporalScheduler.now(), 40);
     }
 
+    @Test
+    public void nanoTime() {
+        assertEquals(TemporalScheduler.nanoTime(), 0L);
+        ZemeckisTestUtil.advanceBy(25);
+        assertEquals(TemporalScheduler.nanoTime(), 25_000_000L);
+        assertEquals(Zemeckis.nanoTime(), 25_000_000L);
+        assertEquals(TemporalScheduler.now(), 25);
+        assertEquals(TemporalScheduler.highResolutionTime(), 25D);
+    }
+
+    @Test
+    public void toWrappedMillis() {
+        assertEquals(TemporalScheduler.toWrappedMillis(0), 0);
+        assertEquals(TemporalScheduler.toWrappedMillis(1234.9), 1234);
+        assertEquals(TemporalScheduler.toWrappedMillis(2_147_483_647.5), Integer.MAX_VALUE);
+        // Values above 2^31 milliseconds wrap rather than saturate at Integer.MAX_VALUE
+        assertEquals(TemporalScheduler.toWrappedMillis(2_147_483_648D + 5.7), Integer.MIN_VALUE + 5);
+        assertEquals(TemporalScheduler.toWrappedMillis(4_294_967_296D + 3), 3);
+        assertEquals(TemporalScheduler.toWrappedMillis(-2_147_483_649D), Integer.MAX_VALUE);
+        for (final var millis : new double[] {7_000_000_000.25, 3_000_000_000D, -3_000_000_000.75, 1e15 + 0.5}) {
+            assertEquals(TemporalScheduler.toWrappedMillis(millis), (int) (long) millis);
+        }
+        // The clock keeps advancing across the wrap
+        final int before = TemporalScheduler.toWrappedMillis(2_147_483_647D);
+        final int after = TemporalScheduler.toWrappedMillis(2_147_483_657D);
+        assertEquals(after - before, 10);
+    }
+
     @Test
     public void delayedTask_canceled() {
         final var trace = new StringBuilder();
@@ -94,4 +126,167 @@ public final class TemporalSchedulerTest extends AbstractTest {
         final IllegalStateException exception = expectThrows(IllegalStateException.class, TemporalScheduler::pumpAll);
         assertEquals(exception.getMessage(), "Unable to pump all tasks as more than 10000 tasks were executed");
     }
+
+    @Test
+    public void advanceBy() {
+        final var trace = new StringBuilder();
+        TemporalScheduler.delayedTask(randomString(), () -> trace.append("A" + TemporalScheduler.now()), 10);
+        TemporalScheduler.delayedTask(randomString(), () -> trace.append("B" + TemporalScheduler.now()), 30);
+        TemporalScheduler.periodicTask(randomString(), () -> trace.append("P" + TemporalScheduler.now()), 20);
+
+        assertEquals(TemporalScheduler.advanceBy(5), 0);
+        assertEquals(TemporalScheduler.now(), 5);
+
+        assertEquals(TemporalScheduler.advanceBy(35), 4);
+        assertEquals(trace.toString(), "A10P20B30P40");
+        assertEquals(TemporalScheduler.now(), 40);
+
+        assertEquals(TemporalScheduler.advanceBy(0), 0);
+
+        assertInvariantFailure(
+                () -> TemporalScheduler.advanceBy(-1),
+                "Zemeckis-0016: ZemeckisTestUtil.advanceBy(...) passed a negative duration. Actual value passed is -1");
+    }
+
+    @Test
+    public void advanceTo() {
+        final var trace = new StringBuilder();
+        TemporalScheduler.delayedTask(
+                randomString(),
+                () -> {
+                    trace.append("A" + TemporalScheduler.now());
+                    // Tasks scheduled within the window also run if due within the window
+                    TemporalScheduler.delayedTask(randomString(), () -> trace.append("C" + TemporalScheduler.now()), 5);
+                },
+                10);
+        TemporalScheduler.delayedTask(randomString(), () -> trace.append("B" + TemporalScheduler.now()), 50);
+
+        assertEquals(TemporalScheduler.advanceTo(20), 2);
+        assertEquals(trace.toString(), "A10C15");
+        assertEquals(TemporalScheduler.now(), 20);
+
+        assertInvariantFailure(
+                () -> TemporalScheduler.advanceTo(19),
+                "Zemeckis-0017: ZemeckisTestUtil.advanceTo(...) passed a time that is before the current time. "
+                        + "Actual value passed is 19 while the current time is 20");
+
+        assertEquals(TemporalScheduler.advanceTo(50), 1);
+        assertEquals(trace.toString(), "A10C15B50");
+    }
+
+    @Test
+    public void advanceByLongTimeline() {
+        // The guard listener installed by the test harness records every invariant check so disable
+        // invariant checks to measure the cost of the scheduler alone
+        BrainCheckTestUtil.resetConfig(true);
+        final var pollCount = new AtomicInteger();
+        // Simulate a 24 hour session that polls every second
+        Zemeckis.periodicTask(pollCount::incrementAndGet, 1000);
+
+        final long start = System.nanoTime();
+        ZemeckisTestUtil.advanceBy(24 * 60 * 60 * 1000);
+
+        assertEquals(pollCount.get(), 24 * 60 * 60);
+        assertEquals(Zemeckis.now(), 24 * 60 * 60 * 1000);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+    }
+
+    @Test
+    public void runUntilIdle() {
+        final var trace = new StringBuilder();
+        final Cancelable canceled = TemporalScheduler.delayedTask(randomString(), () -> trace.append("X"), 100);
+        TemporalScheduler.periodicTask(randomString(), () -> trace.append("P" + TemporalScheduler.now()), 20);
+        TemporalScheduler.delayedTask(
+                randomString(),
+                () -> {
+                    trace.append("A" + TemporalScheduler.now());
+                    TemporalScheduler.delayedTask(
+                            randomString(), () -> trace.append("B" + TemporalScheduler.now()), 10);
+                },
+                30);
+        canceled.cancel();
+
+        // Periodic tasks run until the last non-periodic task has run
+        assertEquals(TemporalScheduler.runUntilIdle(true), 4);
+        assertEquals(trace.toString(), "P20A30P40B40");
+        assertEquals(TemporalScheduler.now(), 40);
+
+        assertEquals(TemporalScheduler.runUntilIdle(true), 0);
+
+        final IllegalStateException exception =
+                expectThrows(IllegalStateException.class, () -> TemporalScheduler.runUntilIdle(false));
+        assertEquals(exception.getMessage(), "Unable to run until idle as more than 10000 tasks were executed");
+    }
+
+    @Test
+    public void runUntilIdleWithoutPeriodicTasks() {
+        final var trace = new StringBuilder();
+        TemporalScheduler.delayedTask(randomString(), () -> trace.append("A"), 20);
+        TemporalScheduler.delayedTask(randomString(), () -> trace.append("B"), 10);
+
+        assertEquals(TemporalScheduler.runUntilIdle(false), 2);
+        assertEquals(trace.toString(), "BA");
+        assertEquals(TemporalScheduler.now(), 20);
+    }
+
+    @Test
+    public void frames() {
+        ZemeckisTestUtil.setFrameInterval(10);
+        final List<String> trace = new ArrayList<>();
+        ZemeckisTestUtil.advanceTo(3);
+
+        Zemeckis.afterFrame(() -> {
+            trace.add("afterFrame@" + Zemeckis.now());
+            // Animation frames requested after the frame has rendered run in the next frame
+            Zemeckis.animationFrame(() -> trace.add("nextAnimationFrame@" + Zemeckis.now()));
+        });
+        Zemeckis.animationFrame(() -> trace.add("animationFrame@" + Zemeckis.now()));
+        Zemeckis.macroTask(() -> trace.add("macroTask@" + Zemeckis.now()));
+
+        assertEquals(ZemeckisTestUtil.runUntilIdle(false), 4);
+        assertEquals(trace, List.of("macroTask@3", "animationFrame@10", "afterFrame@10", "nextAnimationFrame@20"));
+
+        assertInvariantFailure(
+                () -> ZemeckisTestUtil.setFrameInterval(0),
+                "Zemeckis-0019: ZemeckisTestUtil.setFrameInterval(...) passed a non-positive frame interval. "
+                        + "Actual value passed is 0");
+    }
+
+    @Test
+    public void idleDeadlineEndsWhenNextTaskIsDue() {
+        final List<String> trace = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Zemeckis.onIdle(() -> {
+                trace.add("idle@" + Zemeckis.now());
+                ZemeckisTestUtil.simulateWork(10);
+            });
+        }
+        Zemeckis.delayedTask(() -> trace.add("delayed@" + Zemeckis.now()), 35);
+
+        ZemeckisTestUtil.runUntilIdle(false);
+
+        // The first idle period ends when the delayed task is due, which runs late as the last idle task overran
+        assertEquals(trace, List.of("idle@0", "idle@10", "idle@20", "idle@30", "delayed@40", "idle@40", "idle@50"));
+        assertEquals(Zemeckis.now(), 60);
+    }
+
+    @Test
+    public void idleDeadlineEndsAtNextFrame() {
+        final List<String> trace = new ArrayList<>();
+        Zemeckis.animationFrame(() -> trace.add("animationFrame@" + Zemeckis.now()));
+        for (int i = 0; i < 4; i++) {
+            Zemeckis.onIdle(() -> {
+                trace.add("idle@" + Zemeckis.now());
+                ZemeckisTestUtil.simulateWork(6);
+            });
+        }
+
+        ZemeckisTestUtil.runUntilIdle(false);
+
+        assertEquals(trace, List.of("idle@0", "idle@6", "idle@12", "animationFrame@18", "idle@18"));
+        assertInvariantFailure(
+                () -> ZemeckisTestUtil.simulateWork(-1),
+                "Zemeckis-0018: ZemeckisTestUtil.simulateWork(...) passed a negative duration. Actual value passed is"
+                        + " -1");
+    }
 }
@@ -0,0 +1,153 @@
+package zemeckis;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Compare the cost of timer heavy workloads across the scheduler implementations.
+ *
+ * <p>The workload models request timeouts: a large number of timers are scheduled with random delays
+ * and most of them are canceled before they fire. The benchmark reports the cost of scheduling and
+ * canceling timers for the {@link TemporalScheduler.TimingWheelSchedulerImpl}, the
+ * {@link java.util.PriorityQueue} backed {@link TemporalScheduler.TestSchedulerImpl} and a
+ * {@link ScheduledThreadPoolExecutor}. The cost of firing the surviving timers is also reported for the
+ * schedulers that can be advanced without waiting on the wall clock.</p>
+ *
+ * <p>Run with {@code bazel run //core/src/test/java/zemeckis:timer_benchmark}.</p>
+ */
+public final class TimerBenchmark {
+    private static final int TIMER_COUNT = 200_000;
+    private static final int MAX_DELAY = 60_000;
+    private static final int CANCEL_PERCENT = 90;
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURED_ITERATIONS = 10;
+
+    private final int[] _delays = new int[TIMER_COUNT];
+    private final boolean[] _canceled = new boolean[TIMER_COUNT];
+    private final Cancelable[] _cancelables = new Cancelable[TIMER_COUNT];
+    private int _fired;
+
+    private TimerBenchmark() {
+        final var random = new Random(42);
+        for (int i = 0; i < TIMER_COUNT; i++) {
+            _delays[i] = 1 + random.nextInt(MAX_DELAY);
+            _canceled[i] = random.nextInt(100) < CANCEL_PERCENT;
+        }
+    }
+
+    public static void main(final String[] args) {
+        final var benchmark = new TimerBenchmark();
+        System.out.printf("%d timers with delays up to %dms, %d%% canceled%n", TIMER_COUNT, MAX_DELAY, CANCEL_PERCENT);
+        System.out.printf("%-34s %20s %20s%n", "Implementation", "schedule+cancel ns/op", "fire ns/op");
+        benchmark.run("TimingWheel (1ms tick)", () -> benchmark.timingWheel(1));
+        benchmark.run("TimingWheel (10ms tick)", () -> benchmark.timingWheel(10));
+        benchmark.run("PriorityQueue (test scheduler)", benchmark::priorityQueue);
+        benchmark.run("ScheduledThreadPoolExecutor", benchmark::scheduledThreadPoolExecutor);
+    }
+
+    private void run(final String label, final Workload workload) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            workload.run();
+        }
+        long scheduleTime = 0;
+        long fireTime = 0;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            final long[] result = workload.run();
+            scheduleTime += result[0];
+            fireTime += result[1];
+        }
+        final long operations = (long) MEASURED_ITERATIONS * TIMER_COUNT;
+        System.out.printf(
+                "%-34s %20.1f %20s%n",
+                label,
+                (double) scheduleTime / operations,
+                fireTime < 0 ? "n/a" : String.format(Locale.ROOT, "%.1f", (double) fireTime / operations));
+    }
+
+    private long[] timingWheel(final int tickResolution) {
+        final var scheduler = new TemporalScheduler.TimingWheelSchedulerImpl(
+                tickResolution, TemporalScheduler.TimingWheelSchedulerImpl.DEFAULT_WHEEL_SIZE);
+        final long start = System.nanoTime();
+        for (int i = 0; i < TIMER_COUNT; i++) {
+            _cancelables[i] = scheduler.delayedTask(name(), this::onFire, _delays[i]);
+        }
+        cancelTimers();
+        final long scheduled = System.nanoTime();
+        _fired = 0;
+        // Advance past the last timer without waiting on the wall clock
+        scheduler.advanceTo(scheduler.now() + MAX_DELAY + tickResolution);
+        final long end = System.nanoTime();
+        checkFired();
+        return new long[] {scheduled - start, end - scheduled};
+    }
+
+    private long[] priorityQueue() {
+        final var scheduler = new TemporalScheduler.TestSchedulerImpl();
+        final long start = System.nanoTime();
+        for (int i = 0; i < TIMER_COUNT; i++) {
+            _cancelables[i] = scheduler.delayedTask(name(), this::onFire, _delays[i]);
+        }
+        cancelTimers();
+        final long scheduled = System.nanoTime();
+        _fired = 0;
+        while (scheduler.pumpNext()) {
+            // Keep pumping until all tasks have fired
+        }
+        final long end = System.nanoTime();
+        checkFired();
+        return new long[] {scheduled - start, end - scheduled};
+    }
+
+    @SuppressWarnings("FutureReturnValueIgnored")
+    private long[] scheduledThreadPoolExecutor() {
+        final var executor = new ScheduledThreadPoolExecutor(1);
+        executor.setRemoveOnCancelPolicy(true);
+        final long start = System.nanoTime();
+        for (int i = 0; i < TIMER_COUNT; i++) {
+            final ScheduledFuture<?> future = executor.schedule(this::onFire, _delays[i], TimeUnit.MILLISECONDS);
+            _cancelables[i] = () -> future.cancel(false);
+        }
+        cancelTimers();
+        final long end = System.nanoTime();
+        executor.shutdownNow();
+        return new long[] {end - start, -1};
+    }
+
+    private void cancelTimers() {
+        for (int i = 0; i < TIMER_COUNT; i++) {
+            if (_canceled[i]) {
+                _cancelables[i].cancel();
+            }
+        }
+    }
+
+    @Nullable
+    private static String name() {
+        return Zemeckis.areNamesEnabled() ? "Timer" : null;
+    }
+
+    private void onFire() {
+        _fired++;
+    }
+
+    private void checkFired() {
+        int expected = 0;
+        for (final boolean canceled : _canceled) {
+            if (!canceled) {
+                expected++;
+            }
+        }
+        if (expected != _fired) {
+            throw new IllegalStateException("Expected " + expected + " timers to fire but " + _fired + " fired");
+        }
+    }
+
+    @FunctionalInterface
+    private interface Workload {
+        long[] run();
+    }
+}
@@ -0,0 +1,57 @@
+package zemeckis;
+
+import static org.testng.Assert.*;
+
+import org.testng.annotations.Test;
+
+public final class TimerLatencyMonitorTest extends AbstractTest {
+    @Test
+    public void timerLateness() {
+        Zemeckis.delayedTask("A", () -> ZemeckisTestUtil.simulateWork(7), 10);
+        Zemeckis.delayedTask("B", new NoopTask(), 12);
+        final var periodicTask = Zemeckis.periodicTask("C", new NoopTask(), 30);
+
+        ZemeckisTestUtil.advanceBy(65);
+        periodicTask.cancel();
+
+        final var metrics = Zemeckis.timerMetrics();
+        assertEquals(metrics.size(), 1);
+        final var virtual = metrics.get(0);
+        assertEquals(virtual.getBackend(), TimerLatencyMonitor.VIRTUAL);
+        final var lateness = virtual.getLateness();
+        // A fires on time, B fires 5ms late as A is still running and C fires on time twice
+        assertEquals(lateness.getCount(), 4);
+        assertEquals(lateness.getP50(), 0);
+        assertEquals(lateness.getMax(), 5000);
+        assertEquals(virtual.getDispatchLatency().getCount(), 0);
+    }
+
+    @Test
+    public void dispatchLatency() {
+        TimerLatencyMonitor.dispatched(TimerLatencyMonitor.MESSAGE_CHANNEL, 0.25);
+        TimerLatencyMonitor.dispatched(TimerLatencyMonitor.SET_TIMEOUT, 4);
+        TimerLatencyMonitor.dispatched(TimerLatencyMonitor.MESSAGE_CHANNEL, 1.5);
+
+        final var metrics = Zemeckis.timerMetrics();
+        assertEquals(metrics.size(), 2);
+        final var messageChannel = metrics.get(0);
+        assertEquals(messageChannel.getBackend(), TimerLatencyMonitor.MESSAGE_CHANNEL);
+        assertEquals(messageChannel.getDispatchLatency().getCount(), 2);
+        assertEquals(messageChannel.getDispatchLatency().getMax(), 1500);
+        assertEquals(messageChannel.getLateness().getCount(), 0);
+        final var setTimeout = metrics.get(1);
+        assertEquals(setTimeout.getBackend(), TimerLatencyMonitor.SET_TIMEOUT);
+        assertEquals(setTimeout.getDispatchLatency().getMax(), 4000);
+        assertTrue(setTimeout.toString().startsWith("TimerBackendMetrics[setTimeout: lateness="));
+    }
+
+    @Test
+    public void timerTaskNotMonitoredWhenMetricsDisabled() {
+        ZemeckisTestUtil.disableMetrics();
+        final Runnable task = new NoopTask();
+        assertSame(TimerLatencyMonitor.timerTask(TimerLatencyMonitor.VIRTUAL, 10, false, task), task);
+        assertInvariantFailure(
+                Zemeckis::timerMetrics,
+                "Zemeckis-0029: Zemeckis.timerMetrics() invoked when Zemeckis.areMetricsEnabled() is false");
+    }
+}
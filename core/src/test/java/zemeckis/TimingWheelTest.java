@@ -0,0 +1,229 @@
+package zemeckis;
+
+import static org.testng.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.testng.annotations.Test;
+
+public final class TimingWheelTest extends AbstractTest {
+    @Test
+    public void basicOperation() {
+        final var wheel = new TimingWheel(1, 8);
+        final var trace = new StringBuilder();
+
+        wheel.schedule(3, () -> trace.append("B"));
+        wheel.schedule(1, () -> trace.append("A"));
+        wheel.schedule(5, () -> trace.append("C"));
+
+        assertEquals(wheel.size(), 3);
+        assertEquals(wheel.getWheelCount(), 1);
+        assertEquals(wheel.nextExpirationTime(), 1);
+
+        assertEquals(wheel.advanceTo(0), 0);
+        assertEquals(trace.toString(), "");
+
+        assertEquals(wheel.advanceTo(3), 2);
+        assertEquals(trace.toString(), "AB");
+        assertEquals(wheel.size(), 1);
+        assertEquals(wheel.nextExpirationTime(), 5);
+
+        assertEquals(wheel.advanceTo(10), 1);
+        assertEquals(trace.toString(), "ABC");
+        assertEquals(wheel.size(), 0);
+        assertEquals(wheel.nextExpirationTime(), Long.MAX_VALUE);
+    }
+
+    @Test
+    public void cancel() {
+        final var wheel = new TimingWheel(1, 8);
+        final var trace = new StringBuilder();
+
+        final TimingWheel.Timer timer1 = wheel.schedule(2, () -> trace.append("A"));
+        final TimingWheel.Timer timer2 = wheel.schedule(200, () -> trace.append("B"));
+        wheel.schedule(2, () -> trace.append("C"));
+
+        assertTrue(timer1.isScheduled());
+        timer1.cancel();
+        timer2.cancel();
+        // Cancel is idempotent
+        timer2.cancel();
+
+        assertFalse(timer1.isScheduled());
+        assertFalse(timer2.isScheduled());
+        assertEquals(wheel.size(), 1);
+
+        assertEquals(wheel.advanceTo(1_000), 1);
+        assertEquals(trace.toString(), "C");
+    }
+
+    @Test
+    public void timersOverflowIntoCoarserWheelsAndCascade() {
+        final var wheel = new TimingWheel(1, 4);
+        final List<Long> fired = new ArrayList<>();
+        final long[] times = {3, 4, 15, 16, 17, 63, 64, 65, 1_000, 4_097, 1_000_000};
+        for (final long time : times) {
+            wheel.schedule(time, () -> fired.add(time));
+        }
+
+        assertEquals(wheel.size(), times.length);
+        assertTrue(wheel.getWheelCount() > 4);
+
+        // Advance in irregular steps to exercise both visiting ticks and skipping over empty wheels
+        long now = 0;
+        while (wheel.size() > 0) {
+            now += 1 + (now % 7) * 13;
+            wheel.advanceTo(now);
+            for (final long time : fired) {
+                assertTrue(time <= now, "Timer due at " + time + " fired at " + now);
+            }
+        }
+
+        assertEquals(fired.size(), times.length);
+        for (int i = 0; i < times.length; i++) {
+            assertEquals((long) fired.get(i), times[i]);
+        }
+    }
+
+    @Test
+    public void timersFireInTheTickTheyAreDue() {
+        final var wheel = new TimingWheel(1, 16);
+        final var random = getRandom();
+        final var count = new AtomicInteger();
+        for (int i = 0; i < 1_000; i++) {
+            final long time = random.nextInt(100_000);
+            wheel.schedule(time, count::incrementAndGet);
+        }
+
+        for (long now = 0; now <= 100_000; now++) {
+            final long next = wheel.nextExpirationTime();
+            final int before = count.get();
+            wheel.advanceTo(now);
+            if (count.get() != before) {
+                assertTrue(next <= now, "nextExpirationTime " + next + " is after " + now);
+            }
+        }
+        assertEquals(count.get(), 1_000);
+        assertEquals(wheel.size(), 0);
+    }
+
+    @Test
+    public void tickResolution() {
+        final var wheel = new TimingWheel(10, 8);
+        final var trace = new StringBuilder();
+
+        assertEquals(wheel.getTickResolution(), 10);
+
+        wheel.schedule(15, () -> trace.append("A"));
+        assertEquals(wheel.nextExpirationTime(), 20);
+
+        // Timers never fire before they are due
+        assertEquals(wheel.advanceTo(19), 0);
+        assertEquals(trace.toString(), "");
+
+        assertEquals(wheel.advanceTo(20), 1);
+        assertEquals(trace.toString(), "A");
+    }
+
+    @Test
+    public void timerScheduledWhenAlreadyDueFiresOnNextTick() {
+        final var wheel = new TimingWheel(1, 8);
+        final var trace = new StringBuilder();
+
+        wheel.schedule(5, () -> {
+            trace.append("A");
+            wheel.schedule(0, () -> trace.append("B"));
+        });
+
+        assertEquals(wheel.advanceTo(5), 1);
+        assertEquals(trace.toString(), "A");
+        assertEquals(wheel.nextExpirationTime(), 6);
+
+        assertEquals(wheel.advanceTo(6), 1);
+        assertEquals(trace.toString(), "AB");
+    }
+
+    @Test
+    public void periodicTimer() {
+        final var wheel = new TimingWheel(1, 8);
+        final var count = new AtomicInteger();
+        final AtomicReference<TimingWheel.Timer> timer = new AtomicReference<>();
+        timer.set(wheel.schedule(10, 10, () -> {
+            if (count.incrementAndGet() >= 3) {
+                Objects.requireNonNull(timer.get()).cancel();
+            }
+        }));
+
+        assertEquals(wheel.advanceTo(25), 2);
+        assertEquals(count.get(), 2);
+        assertEquals(Objects.requireNonNull(timer.get()).getTime(), 30);
+        assertEquals(wheel.size(), 1);
+
+        assertEquals(wheel.advanceTo(100), 1);
+        assertEquals(count.get(), 3);
+        assertEquals(wheel.size(), 0);
+    }
+
+    @Test
+    public void errorInTimerIsReported() {
+        allowUncaughtExceptions();
+        final var wheel = new TimingWheel(1, 8);
+        final var trace = new StringBuilder();
+        final List<Throwable> errors = new ArrayList<>();
+        Zemeckis.addUncaughtErrorHandler(errors::add);
+
+        wheel.schedule(1, () -> {
+            throw new IllegalStateException("X");
+        });
+        wheel.schedule(1, () -> trace.append("A"));
+
+        assertEquals(wheel.advanceTo(1), 2);
+        assertEquals(trace.toString(), "A");
+        assertEquals(errors.size(), 1);
+        assertEquals(errors.get(0).getMessage(), "X");
+    }
+
+    @Test
+    public void clear() {
+        final var wheel = new TimingWheel(1, 8);
+        final TimingWheel.Timer timer = wheel.schedule(2, () -> fail("Cleared timer fired"));
+        wheel.schedule(2_000, () -> fail("Cleared timer fired"));
+
+        wheel.clear();
+
+        assertEquals(wheel.size(), 0);
+        assertFalse(timer.isScheduled());
+        assertEquals(wheel.advanceTo(10_000), 0);
+    }
+
+    @Test
+    public void timingWheelScheduler() {
+        final var scheduler = new TemporalScheduler.TimingWheelSchedulerImpl();
+        final var trace = new StringBuilder();
+
+        scheduler.delayedTask(randomString(), () -> trace.append("A"), 0);
+        final Cancelable cancelable = scheduler.delayedTask(randomString(), () -> trace.append("X"), 0);
+        scheduler.periodicTask(randomString(), () -> trace.append("P"), 60_000);
+        cancelable.cancel();
+
+        assertEquals(scheduler.size(), 2);
+        assertTrue(scheduler.nextDueTime() <= scheduler.now() + 1);
+
+        final long start = scheduler.nanoTime();
+        assertTrue(scheduler.nanoTime() >= start);
+        assertEquals(scheduler.now(), (int) (scheduler.nanoTime() / 1_000_000L), 1);
+
+        while (0 == scheduler.advance()) {
+            Thread.onSpinWait();
+        }
+
+        assertEquals(trace.toString(), "A");
+        assertEquals(scheduler.size(), 1);
+
+        scheduler.shutdown();
+        assertEquals(scheduler.size(), 0);
+    }
+}
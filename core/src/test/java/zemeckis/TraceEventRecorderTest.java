@@ -0,0 +1,99 @@
+package zemeckis;
+
+import static org.testng.Assert.*;
+
+import org.testng.annotations.Test;
+
+public final class TraceEventRecorderTest extends AbstractTest {
+    @Test
+    public void recordTasks() {
+        final var recorder = new TraceEventRecorder();
+        Zemeckis.getSpy().addSpyEventHandler(recorder);
+
+        Zemeckis.macroTask("A", () -> ZemeckisTestUtil.simulateWork(2));
+        Zemeckis.macroTask("B", new NoopTask()).cancel();
+        ZemeckisTestUtil.pumpAll();
+
+        assertEquals(recorder.getEventCount(), 9);
+        assertEquals(recorder.getDroppedEventCount(), 0);
+        assertEquals(
+                recorder.toJson(),
+                "{\"traceEvents\":[\n"
+                    + "{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":1,\"args\":{\"name\":\"timers\"}},\n"
+                    + "{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":2,\"args\":{\"name\":\"Macro\"}},\n"
+                    + "{\"name\":\"queue:Macro\",\"cat\":\"queue\",\"ph\":\"C\",\"ts\":0.000,\"pid\":1,\"tid\":2,\"args\":{\"size\":1}},\n"
+                    + "{\"name\":\"queue:Macro\",\"cat\":\"queue\",\"ph\":\"C\",\"ts\":0.000,\"pid\":1,\"tid\":2,\"args\":{\"size\":2}},\n"
+                    + "{\"name\":\"cancel:B\",\"cat\":\"task\",\"ph\":\"i\",\"ts\":0.000,\"pid\":1,\"tid\":2,\"s\":\"t\"},\n"
+                    + "{\"name\":\"queue:Macro\",\"cat\":\"queue\",\"ph\":\"C\",\"ts\":0.000,\"pid\":1,\"tid\":2,\"args\":{\"size\":1}},\n"
+                    + "{\"name\":\"Macro\",\"cat\":\"activation\",\"ph\":\"B\",\"ts\":0.000,\"pid\":1,\"tid\":2},\n"
+                    + "{\"name\":\"queue:Macro\",\"cat\":\"queue\",\"ph\":\"C\",\"ts\":0.000,\"pid\":1,\"tid\":2,\"args\":{\"size\":0}},\n"
+                    + "{\"name\":\"A\",\"cat\":\"task\",\"ph\":\"B\",\"ts\":0.000,\"pid\":1,\"tid\":2},\n"
+                    + "{\"name\":\"A\",\"cat\":\"task\",\"ph\":\"E\",\"ts\":2000.000,\"pid\":1,\"tid\":2},\n"
+                    + "{\"name\":\"Macro\",\"cat\":\"activation\",\"ph\":\"E\",\"ts\":2000.000,\"pid\":1,\"tid\":2}"
+                    + "],\"displayTimeUnit\":\"ms\"}");
+    }
+
+    @Test
+    public void recordTimers() {
+        final var recorder = new TraceEventRecorder();
+        Zemeckis.getSpy().addSpyEventHandler(recorder);
+
+        Zemeckis.delayedTask("Delayed", new NoopTask(), 5);
+        final var periodicTask = Zemeckis.periodicTask("Periodic", new NoopTask(), 30);
+        ZemeckisTestUtil.advanceBy(10);
+        periodicTask.cancel();
+
+        final var json = recorder.toJson();
+        assertTrue(json.contains("{\"name\":\"schedule:Delayed\",\"cat\":\"timer\",\"ph\":\"i\",\"ts\":0.000,"
+                + "\"pid\":1,\"tid\":1,\"s\":\"t\",\"args\":{\"delay\":5}}"));
+        assertTrue(json.contains("{\"name\":\"schedule:Periodic\",\"cat\":\"timer\",\"ph\":\"i\",\"ts\":0.000,"
+                + "\"pid\":1,\"tid\":1,\"s\":\"t\",\"args\":{\"delay\":30}}"));
+        assertTrue(json.contains(
+                "{\"name\":\"fire:Delayed\",\"cat\":\"timer\",\"ph\":\"i\",\"ts\":5000.000,\"pid\":1,\"tid\":1,"
+                        + "\"s\":\"t\"}"));
+        assertTrue(json.contains(
+                "{\"name\":\"cancel:Periodic\",\"cat\":\"timer\",\"ph\":\"i\",\"ts\":10000.000,\"pid\":1,\"tid\":1,"
+                        + "\"s\":\"t\"}"));
+    }
+
+    @Test
+    public void ringBufferOverwritesOldestEvents() {
+        final var recorder = new TraceEventRecorder(4);
+        Zemeckis.getSpy().addSpyEventHandler(recorder);
+
+        Zemeckis.macroTask("A", new NoopTask());
+        Zemeckis.macroTask("B", new NoopTask());
+        ZemeckisTestUtil.pumpAll();
+
+        // 2 queued, 1 activated, 2 x (queued counter, started, completed), 1 deactivated
+        assertEquals(recorder.getEventCount(), 4);
+        assertEquals(recorder.getDroppedEventCount(), 6);
+        final var json = recorder.toJson();
+        assertFalse(json.contains("\"name\":\"A\""));
+        assertTrue(json.contains("{\"name\":\"B\",\"cat\":\"task\",\"ph\":\"B\""));
+        assertTrue(json.endsWith(
+                "{\"name\":\"Macro\",\"cat\":\"activation\",\"ph\":\"E\",\"ts\":0.000,\"pid\":1,\"tid\":2}"
+                        + "],\"displayTimeUnit\":\"ms\"}"));
+
+        recorder.clear();
+
+        assertEquals(recorder.getEventCount(), 0);
+        assertEquals(recorder.getDroppedEventCount(), 0);
+    }
+
+    @Test
+    public void escapeNames() {
+        final var recorder = new TraceEventRecorder();
+        Zemeckis.getSpy().addSpyEventHandler(recorder);
+
+        Zemeckis.macroTask("Say \"Hi\"\n", new NoopTask());
+        ZemeckisTestUtil.pumpAll();
+
+        assertTrue(recorder.toJson().contains("{\"name\":\"Say \\\"Hi\\\"\\u000a\",\"cat\":\"task\""));
+    }
+
+    @Test
+    public void invalidCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new TraceEventRecorder(0));
+    }
+}
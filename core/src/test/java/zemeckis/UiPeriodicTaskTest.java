@@ -0,0 +1,135 @@
+package zemeckis;
+
+import static org.testng.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.testng.annotations.Test;
+
+public final class UiPeriodicTaskTest extends AbstractTest {
+    @Test
+    public void suspendedWhilePageHidden() {
+        final var runs = new ArrayList<Integer>();
+        final var cancelable = Zemeckis.uiPeriodicTask("Ui", () -> runs.add(Zemeckis.now()), 10);
+        assertEquals(cancelable.toString(), "Ui");
+
+        ZemeckisTestUtil.advanceBy(25);
+        assertEquals(runs, List.of(10, 20));
+
+        ZemeckisTestUtil.setPageHidden(true);
+        assertTrue(Zemeckis.isPageHidden());
+        ZemeckisTestUtil.advanceBy(100);
+        assertEquals(runs, List.of(10, 20));
+
+        // Runs once to catch up rather than once for each missed period
+        ZemeckisTestUtil.setPageHidden(false);
+        ZemeckisTestUtil.advanceBy(5);
+        assertEquals(runs, List.of(10, 20, 125));
+
+        ZemeckisTestUtil.advanceBy(10);
+        assertEquals(runs, List.of(10, 20, 125, 135));
+
+        cancelable.cancel();
+        ZemeckisTestUtil.setPageHidden(true);
+        ZemeckisTestUtil.setPageHidden(false);
+        ZemeckisTestUtil.advanceBy(50);
+        assertEquals(runs, List.of(10, 20, 125, 135));
+    }
+
+    @Test
+    public void noCatchUpIfPeriodHasNotElapsed() {
+        final var runs = new ArrayList<Integer>();
+        Zemeckis.uiPeriodicTask("Ui", () -> runs.add(Zemeckis.now()), 10);
+
+        ZemeckisTestUtil.advanceBy(12);
+        ZemeckisTestUtil.setPageHidden(true);
+        ZemeckisTestUtil.advanceBy(3);
+        ZemeckisTestUtil.setPageHidden(false);
+        ZemeckisTestUtil.advanceBy(12);
+
+        // The period restarts when the page becomes visible
+        assertEquals(runs, List.of(10, 25));
+    }
+
+    @Test
+    public void scheduledWhilePageHidden() {
+        final var runs = new ArrayList<Integer>();
+        ZemeckisTestUtil.setPageHidden(true);
+        final var cancelable = Zemeckis.uiPeriodicTask("Ui", () -> runs.add(Zemeckis.now()), 10);
+
+        ZemeckisTestUtil.advanceBy(30);
+        assertEquals(runs, List.of());
+
+        ZemeckisTestUtil.setPageHidden(false);
+        ZemeckisTestUtil.advanceBy(0);
+        assertEquals(runs, List.of(30));
+
+        // Canceling while the catch up run is pending cancels the run
+        ZemeckisTestUtil.setPageHidden(true);
+        ZemeckisTestUtil.advanceBy(30);
+        ZemeckisTestUtil.setPageHidden(false);
+        cancelable.cancel();
+        ZemeckisTestUtil.advanceBy(30);
+        assertEquals(runs, List.of(30));
+    }
+
+    @Test
+    public void timerFiringBeforeCatchUpCancelsCatchUp() {
+        final var scheduler = new TemporalScheduler.TestSchedulerImpl();
+        // A "macro" task VirtualProcessorUnit that is slow to activate, so that the timer fires while the catch up
+        // run is still queued, as can happen in the browser
+        final var macroTaskExecutor = new RoundBasedExecutor() {
+            @Override
+            void scheduleForActivation() {
+                scheduler.delayedTask(Zemeckis.areNamesEnabled() ? "SlowActivation" : null, this::activate, 15);
+            }
+        };
+        SchedulerContext.bind(new SchedulerContext(
+                scheduler,
+                new VirtualProcessorUnit("Macro", macroTaskExecutor),
+                new VirtualProcessorUnit("Micro", new VirtualProcessorUnitsHolder.TestTaskExecutor(scheduler)),
+                new VirtualProcessorUnit(
+                        "AnimationFrame", new VirtualProcessorUnitsHolder.TestAnimationFrameExecutor(scheduler)),
+                new VirtualProcessorUnit(
+                        "AfterFrame", new VirtualProcessorUnitsHolder.TestAfterFrameExecutor(scheduler)),
+                new VirtualProcessorUnit("OnIdle", new VirtualProcessorUnitsHolder.TestOnIdleExecutor(scheduler))));
+        try {
+            final var runs = new ArrayList<Integer>();
+            Zemeckis.uiPeriodicTask("Ui", () -> runs.add(Zemeckis.now()), 10);
+            ZemeckisTestUtil.setPageHidden(true);
+            ZemeckisTestUtil.advanceBy(30);
+
+            ZemeckisTestUtil.setPageHidden(false);
+            ZemeckisTestUtil.advanceBy(10);
+            assertEquals(runs, List.of(40));
+
+            ZemeckisTestUtil.advanceBy(10);
+            assertEquals(runs, List.of(40, 50));
+        } finally {
+            ZemeckisTestUtil.unbindIsolatedContext();
+        }
+    }
+
+    @Test
+    public void animationFrameQueueBoundedWhilePageHidden() {
+        final var runs = new ArrayList<Integer>();
+        final var executor = (AbstractExecutor) Zemeckis.animationFrameVpu().getExecutor();
+        ZemeckisTestUtil.setPageHidden(true);
+        final int taskCount = VirtualProcessorUnitsHolder.ANIMATION_FRAME_HIDDEN_QUEUE_CAPACITY + 20;
+        for (int i = 0; i < taskCount; i++) {
+            final int id = i;
+            Zemeckis.animationFrame(() -> runs.add(id));
+            Zemeckis.macroTask(new NoopTask());
+        }
+
+        assertEquals(executor.getQueueSize(), VirtualProcessorUnitsHolder.ANIMATION_FRAME_HIDDEN_QUEUE_CAPACITY);
+        assertEquals(((AbstractExecutor) Zemeckis.macroTaskVpu().getExecutor()).getQueueSize(), taskCount);
+
+        ZemeckisTestUtil.setPageHidden(false);
+        ZemeckisTestUtil.advanceBy(20);
+
+        assertEquals(runs.size(), VirtualProcessorUnitsHolder.ANIMATION_FRAME_HIDDEN_QUEUE_CAPACITY);
+        assertEquals(runs.get(0).intValue(), 20);
+        assertEquals(Zemeckis.animationFrameVpu().getMetrics().getTasksCanceled(), 20);
+    }
+}
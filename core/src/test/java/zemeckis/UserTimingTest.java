@@ -0,0 +1,35 @@
+package zemeckis;
+
+import static org.testng.Assert.*;
+
+import org.testng.annotations.Test;
+
+public final class UserTimingTest extends AbstractTest {
+    @Test
+    public void measureNames() {
+        final var vpu = new VirtualProcessorUnit("MyVPU", new TestExecutor());
+
+        assertEquals(UserTiming.activationMeasureName(vpu), "zemeckis:MyVPU");
+        assertEquals(UserTiming.taskMeasureName(vpu, "MyTask"), "zemeckis:MyVPU:MyTask");
+    }
+
+    @Test
+    public void measureNames_namesDisabled() {
+        ZemeckisTestUtil.disableNames();
+        final var vpu = new VirtualProcessorUnit(null, new TestExecutor());
+
+        assertEquals(UserTiming.activationMeasureName(vpu), "zemeckis:activation");
+        assertEquals(UserTiming.taskMeasureName(vpu, null), "zemeckis:task");
+    }
+
+    @Test
+    public void tasksRunWhenUserTimingEnabled() {
+        final var trace = new StringBuilder();
+        Zemeckis.macroTask("A", () -> trace.append("A"));
+        Zemeckis.macroTask("B", () -> trace.append("B"));
+
+        ZemeckisTestUtil.pumpAll();
+
+        assertEquals(trace.toString(), "AB");
+    }
+}
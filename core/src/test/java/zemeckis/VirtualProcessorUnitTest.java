@@ -2,7 +2,11 @@ package zemeckis;
 
 import static org.testng.Assert.*;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import org.realityforge.braincheck.BrainCheckTestUtil;
 import org.testng.annotations.Test;
 
 public final class VirtualProcessorUnitTest extends AbstractTest {
@@ -44,4 +48,259 @@ public final class VirtualProcessorUnitTest extends AbstractTest {
                 "Zemeckis-0002: VirtualProcessorUnit passed a name '" + name
                         + "' but Zemeckis.areNamesEnabled() is false");
     }
+
+    @Test
+    public void metrics() {
+        allowUncaughtExceptions();
+        final var executor = new TestExecutor();
+        final var vpu = new VirtualProcessorUnit(randomString(), executor);
+
+        vpu.queue(randomString(), new NoopTask());
+        final Cancelable cancelable = vpu.queue(randomString(), new NoopTask());
+        vpu.queue(randomString(), () -> {
+            throw new IllegalStateException();
+        });
+        vpu.queue(randomString(), () -> vpu.queue(randomString(), new NoopTask()));
+        cancelable.cancel();
+        // Canceling a task multiple times only counts once
+        cancelable.cancel();
+
+        executor.activate();
+
+        final var metrics = vpu.getMetrics();
+        assertEquals(metrics.getVirtualProcessorUnit(), vpu);
+        assertEquals(metrics.getTasksQueued(), 5);
+        assertEquals(metrics.getTasksExecuted(), 3);
+        assertEquals(metrics.getTasksCanceled(), 1);
+        assertEquals(metrics.getTasksFailed(), 1);
+        assertEquals(metrics.getQueueHighWaterMark(), 4);
+        assertEquals(metrics.getActivations(), 1);
+        assertEquals(metrics.getRounds(), 2);
+        assertEquals(metrics.getMaxRoundsPerActivation(), 2);
+        assertEquals(metrics.getAverageRoundsPerActivation(), 2D);
+        assertEquals(metrics.getRunawayEvents(), 0);
+
+        // The snapshot is not updated as further tasks run
+        vpu.queue(randomString(), new NoopTask());
+        executor.activate();
+        assertEquals(metrics.getTasksExecuted(), 3);
+
+        final var next = vpu.getMetrics();
+        assertEquals(next.getTasksExecuted(), 4);
+        assertEquals(next.getActivations(), 2);
+        assertEquals(next.getRounds(), 3);
+        assertEquals(next.getMaxRoundsPerActivation(), 2);
+        assertEquals(next.getAverageRoundsPerActivation(), 1.5D);
+    }
+
+    @Test
+    public void metrics_runaway() {
+        BrainCheckTestUtil.resetConfig(true);
+        final var executor = new TestExecutor(2);
+        final var vpu = new VirtualProcessorUnit(randomString(), executor);
+
+        final AtomicReference<Runnable> taskRef = new AtomicReference<>();
+        final Runnable task = () -> vpu.queue(randomString(), Objects.requireNonNull(taskRef.get()));
+        taskRef.set(task);
+        vpu.queue(randomString(), task);
+
+        executor.activate();
+
+        final var metrics = vpu.getMetrics();
+        assertEquals(metrics.getTasksExecuted(), 2);
+        assertEquals(metrics.getRounds(), 2);
+        assertEquals(metrics.getRunawayEvents(), 1);
+    }
+
+    @Test
+    public void metrics_disabled() {
+        ZemeckisTestUtil.disableMetrics();
+        final var executor = new TestExecutor();
+        final var vpu = new VirtualProcessorUnit(randomString(), executor);
+        vpu.queue(randomString(), new NoopTask());
+        executor.activate();
+
+        assertNull(vpu.metrics());
+        assertInvariantFailure(
+                vpu::getMetrics,
+                "Zemeckis-0020: VirtualProcessorUnit.getMetrics() invoked when Zemeckis.areMetricsEnabled() is false");
+    }
+
+    @Test
+    public void queueCapacity_reject() {
+        final var executor = new TestExecutor();
+        final var vpu = new VirtualProcessorUnit(randomString(), executor);
+        vpu.setQueueCapacity(2, QueueOverflowPolicy.REJECT);
+
+        vpu.queue(randomString(), new NoopTask());
+        vpu.queue(randomString(), new NoopTask());
+        final String taskName = randomString();
+        final var exception = expectThrows(IllegalStateException.class, () -> vpu.queue(taskName, new NoopTask()));
+        assertEquals(
+                exception.getMessage(),
+                "Unable to queue task named '" + taskName + "' as the task queue of VirtualProcessorUnit " + vpu
+                        + " is at capacity");
+        assertEquals(executor.getQueueSize(), 2);
+        assertEquals(vpu.getMetrics().getQueueOverflows(), 1);
+
+        // Removing the capacity allows the queue to grow again
+        vpu.setQueueCapacity(0, QueueOverflowPolicy.REJECT);
+        vpu.queue(randomString(), new NoopTask());
+        assertEquals(executor.getQueueSize(), 3);
+    }
+
+    @Test
+    public void queueCapacity_dropOldest() {
+        final var executor = new TestExecutor();
+        final var vpu = new VirtualProcessorUnit(randomString(), executor);
+        vpu.setQueueCapacity(2, QueueOverflowPolicy.DROP_OLDEST);
+
+        final var runs = new ArrayList<String>();
+        vpu.queue(randomString(), () -> runs.add("A"));
+        vpu.queue(randomString(), () -> runs.add("B"));
+        vpu.queue(randomString(), () -> runs.add("C"));
+        assertEquals(executor.getQueueSize(), 2);
+        // The task queue was not empty so no further activation is scheduled
+        assertEquals(executor.getScheduleCount(), 1);
+
+        executor.activate();
+        assertEquals(runs, List.of("B", "C"));
+        final var metrics = vpu.getMetrics();
+        assertEquals(metrics.getQueueOverflows(), 1);
+        assertEquals(metrics.getTasksCanceled(), 1);
+    }
+
+    @Test
+    public void queueCapacity_dropNewest() {
+        final var executor = new TestExecutor();
+        final var vpu = new VirtualProcessorUnit(randomString(), executor);
+        vpu.setQueueCapacity(2, QueueOverflowPolicy.DROP_NEWEST);
+
+        final var runs = new ArrayList<String>();
+        vpu.queue(randomString(), () -> runs.add("A"));
+        vpu.queue(randomString(), () -> runs.add("B"));
+        final var cancelable = vpu.queue(randomString(), () -> runs.add("C"));
+        assertEquals(executor.getQueueSize(), 2);
+        cancelable.cancel();
+
+        executor.activate();
+        assertEquals(runs, List.of("A", "B"));
+        final var metrics = vpu.getMetrics();
+        assertEquals(metrics.getQueueOverflows(), 1);
+        assertEquals(metrics.getTasksCanceled(), 1);
+    }
+
+    @Test
+    public void queueCapacity_callerRuns() {
+        final var executor = new TestExecutor();
+        final var vpu = new VirtualProcessorUnit(randomString(), executor);
+        vpu.setQueueCapacity(1, QueueOverflowPolicy.CALLER_RUNS);
+
+        final var runs = new ArrayList<String>();
+        vpu.queue(randomString(), () -> runs.add("A"));
+        vpu.queue(randomString(), () -> runs.add("B"));
+        assertEquals(runs, List.of("B"));
+        assertEquals(executor.getQueueSize(), 1);
+
+        executor.activate();
+        assertEquals(runs, List.of("B", "A"));
+        assertEquals(vpu.getMetrics().getQueueOverflows(), 1);
+    }
+
+    @Test
+    public void queueCapacity_callerRunsTaskThatThrows() {
+        allowUncaughtExceptions();
+        final List<Throwable> errors = new ArrayList<>();
+        Zemeckis.addUncaughtErrorHandler(errors::add);
+        final var executor = new TestExecutor();
+        final var vpu = new VirtualProcessorUnit(randomString(), executor);
+        vpu.setQueueCapacity(1, QueueOverflowPolicy.CALLER_RUNS);
+        vpu.queue(randomString(), new NoopTask());
+
+        final var error = new IllegalStateException();
+        vpu.queue(randomString(), () -> {
+            assertEquals(Zemeckis.currentVpu(), vpu);
+            throw error;
+        });
+        assertFalse(Zemeckis.isVpuActivated());
+        assertEquals(errors, List.of(error));
+        assertEquals(vpu.getMetrics().getTasksFailed(), 1);
+
+        // A task of another VirtualProcessorUnit that overflows the queue runs the task within an activation
+        final var other = new VirtualProcessorUnit(randomString(), new TestExecutor());
+        other.queue(randomString(), () -> {
+            vpu.queue(randomString(), () -> {
+                assertEquals(Zemeckis.currentVpu(), vpu);
+                throw error;
+            });
+            assertEquals(Zemeckis.currentVpu(), other);
+        });
+        other.getExecutor().activate();
+        assertEquals(errors, List.of(error, error));
+        assertEquals(vpu.getMetrics().getTasksFailed(), 2);
+        assertEquals(executor.getQueueSize(), 1);
+    }
+
+    @Test
+    public void queueCapacity_rejectWithoutNames() {
+        ZemeckisTestUtil.disableNames();
+        final var vpu = new VirtualProcessorUnit(null, new TestExecutor());
+        vpu.setQueueCapacity(1, QueueOverflowPolicy.REJECT);
+
+        vpu.queue(null, new NoopTask());
+        final var exception = expectThrows(IllegalStateException.class, () -> vpu.queue(null, new NoopTask()));
+        assertEquals(
+                exception.getMessage(),
+                "Unable to queue task as the task queue of the VirtualProcessorUnit is at capacity");
+    }
+
+    @Test
+    public void queueHighWaterMark() {
+        final var executor = new TestExecutor();
+        final var vpu = new VirtualProcessorUnit(randomString(), executor);
+        final var events = new ArrayList<Integer>();
+        vpu.setQueueHighWaterMark(4, (v, queueSize) -> {
+            assertEquals(v, vpu);
+            events.add(queueSize);
+        });
+
+        for (int i = 0; i < 6; i++) {
+            vpu.queue(randomString(), new NoopTask());
+        }
+        // Invoked once when the high-water mark is reached
+        assertEquals(events, List.of(4));
+
+        // Draining the queue below the high-water mark is not enough to re-arm the handler
+        executor.getTaskQueue().pop();
+        executor.getTaskQueue().pop();
+        vpu.queue(randomString(), new NoopTask());
+        assertEquals(events, List.of(4));
+
+        // Re-armed once the queue drains to half the high-water mark
+        executor.activate();
+        for (int i = 0; i < 4; i++) {
+            vpu.queue(randomString(), new NoopTask());
+        }
+        assertEquals(events, List.of(4, 4));
+
+        vpu.setQueueHighWaterMark(0, null);
+        executor.activate();
+        for (int i = 0; i < 4; i++) {
+            vpu.queue(randomString(), new NoopTask());
+        }
+        assertEquals(events, List.of(4, 4));
+    }
+
+    @Test
+    public void queueCapacity_invalid() {
+        final var vpu = new VirtualProcessorUnit(randomString(), new TestExecutor());
+        assertInvariantFailure(
+                () -> vpu.setQueueCapacity(-1, QueueOverflowPolicy.REJECT),
+                "Zemeckis-0031: Attempting to set the queue capacity of VirtualProcessorUnit " + vpu
+                        + " to -1 but the capacity must not be negative.");
+        assertInvariantFailure(
+                () -> vpu.setQueueHighWaterMark(-1, null),
+                "Zemeckis-0032: Attempting to set the queue high-water mark of VirtualProcessorUnit " + vpu
+                        + " to -1 but the high-water mark must not be negative.");
+    }
 }
@@ -0,0 +1,131 @@
+package zemeckis;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.jspecify.annotations.Nullable;
+
+/**
+ * Compare draining VirtualProcessorUnits on virtual threads with draining them on platform threads.
+ *
+ * <p>The workload queues a mix of blocking tasks, that sleep to model a JDBC call, and CPU bound tasks across
+ * a number of VirtualProcessorUnits. The benchmark reports the time taken to complete the workload when all of
+ * the VirtualProcessorUnits are drained on a single platform thread (the equivalent of a platform thread event
+ * loop), on a fixed pool of platform threads and on the default carrier which uses virtual threads when the
+ * JVM supports them.</p>
+ *
+ * <p>Run with {@code bazel run //core/src/test/java/zemeckis:virtual_thread_benchmark}.</p>
+ */
+public final class VirtualThreadBenchmark {
+    private static final int VPU_COUNT = 64;
+    private static final int TASKS_PER_VPU = 50;
+    private static final int BLOCKING_PERCENT = 20;
+    private static final int BLOCKING_MILLIS = 2;
+    private static final long CPU_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final int WARMUP_ITERATIONS = 2;
+    private static final int MEASURED_ITERATIONS = 5;
+
+    private final boolean[][] _blocking = new boolean[VPU_COUNT][TASKS_PER_VPU];
+
+    @SuppressWarnings("unused")
+    private volatile long _sink;
+
+    private VirtualThreadBenchmark() {
+        final var random = new Random(42);
+        for (int i = 0; i < VPU_COUNT; i++) {
+            for (int j = 0; j < TASKS_PER_VPU; j++) {
+                _blocking[i][j] = random.nextInt(100) < BLOCKING_PERCENT;
+            }
+        }
+    }
+
+    public static void main(final String[] args) throws InterruptedException {
+        final var benchmark = new VirtualThreadBenchmark();
+        final int processors = Runtime.getRuntime().availableProcessors();
+        System.out.printf(
+                "%d VPUs x %d tasks, %d%% blocking for %dms, remainder CPU bound for %dus%n",
+                VPU_COUNT, TASKS_PER_VPU, BLOCKING_PERCENT, BLOCKING_MILLIS, TimeUnit.NANOSECONDS.toMicros(CPU_NANOS));
+        System.out.printf("%-40s %12s%n", "Carrier", "ms/workload");
+
+        final ExecutorService loop = Executors.newSingleThreadExecutor();
+        benchmark.run("Platform thread loop", loop);
+        loop.shutdownNow();
+
+        final ExecutorService pool = Executors.newFixedThreadPool(processors);
+        benchmark.run("Platform thread pool (" + processors + " threads)", pool);
+        pool.shutdownNow();
+
+        final java.util.concurrent.Executor carrier = VirtualThreadExecutor.defaultCarrier();
+        benchmark.run(
+                carrier.getClass().getName().contains("ThreadPerTask")
+                        ? "Virtual threads"
+                        : "Default carrier (no virtual threads)",
+                carrier);
+    }
+
+    private void run(final String label, final java.util.concurrent.Executor carrier) throws InterruptedException {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            runWorkload(carrier);
+        }
+        long total = 0;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            total += runWorkload(carrier);
+        }
+        System.out.printf(
+                Locale.ROOT,
+                "%-40s %12.1f%n",
+                label,
+                TimeUnit.NANOSECONDS.toMicros(total / MEASURED_ITERATIONS) / 1000D);
+    }
+
+    private long runWorkload(final java.util.concurrent.Executor carrier) throws InterruptedException {
+        final var latch = new CountDownLatch(VPU_COUNT * TASKS_PER_VPU);
+        final var vpus = new VirtualProcessorUnit[VPU_COUNT];
+        for (int i = 0; i < VPU_COUNT; i++) {
+            vpus[i] = VirtualProcessorUnit.createVirtualThreadVpu(name("Vpu"), carrier);
+        }
+        final long start = System.nanoTime();
+        for (int j = 0; j < TASKS_PER_VPU; j++) {
+            for (int i = 0; i < VPU_COUNT; i++) {
+                final boolean blocking = _blocking[i][j];
+                vpus[i].queue(name("Task"), () -> {
+                    if (blocking) {
+                        block();
+                    } else {
+                        spin();
+                    }
+                    latch.countDown();
+                });
+            }
+        }
+        if (!latch.await(5, TimeUnit.MINUTES)) {
+            throw new IllegalStateException("Workload did not complete");
+        }
+        return System.nanoTime() - start;
+    }
+
+    private static void block() {
+        try {
+            Thread.sleep(BLOCKING_MILLIS);
+        } catch (final InterruptedException ie) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void spin() {
+        final long end = System.nanoTime() + CPU_NANOS;
+        long value = 0;
+        while (System.nanoTime() < end) {
+            value++;
+        }
+        _sink = value;
+    }
+
+    @Nullable
+    private static String name(final String prefix) {
+        return Zemeckis.areNamesEnabled() ? prefix : null;
+    }
+}
@@ -0,0 +1,216 @@
+package zemeckis;
+
+import static org.testng.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.testng.annotations.Test;
+
+public final class VirtualThreadExecutorTest extends AbstractTest {
+    @Test
+    public void activationsRunOnCarrier() {
+        final List<Runnable> activations = new ArrayList<>();
+        final var vpu = VirtualProcessorUnit.createVirtualThreadVpu(randomString(), activations::add);
+        final var executor = (VirtualThreadExecutor) vpu.getExecutor();
+        final var trace = new StringBuilder();
+
+        vpu.queue(randomString(), () -> {
+            assertEquals(Zemeckis.currentVpu(), vpu);
+            trace.append("A");
+            // Tasks queued during an activation run in a subsequent activation
+            vpu.queue(randomString(), () -> trace.append("C"));
+        });
+        vpu.queue(randomString(), () -> trace.append("B"));
+
+        // Only a single activation is in flight at a time
+        assertEquals(activations.size(), 1);
+        assertEquals(executor.getQueueSize(), 2);
+
+        activations.remove(0).run();
+
+        assertEquals(trace.toString(), "AB");
+        assertFalse(Zemeckis.isVpuActivated());
+        assertEquals(activations.size(), 1);
+
+        activations.remove(0).run();
+
+        assertEquals(trace.toString(), "ABC");
+        assertEquals(activations.size(), 0);
+        assertEquals(executor.getQueueSize(), 0);
+    }
+
+    @Test
+    public void canceledTaskIsSkipped() {
+        final List<Runnable> activations = new ArrayList<>();
+        final var vpu = VirtualProcessorUnit.createVirtualThreadVpu(randomString(), activations::add);
+        final var trace = new StringBuilder();
+
+        vpu.queue(randomString(), () -> trace.append("A"));
+        vpu.queue(randomString(), () -> trace.append("X")).cancel();
+        vpu.queue(randomString(), () -> trace.append("B"));
+
+        activations.remove(0).run();
+
+        assertEquals(trace.toString(), "AB");
+    }
+
+    @Test
+    public void queueCapacityNotSupported() {
+        final var vpu = VirtualProcessorUnit.createVirtualThreadVpu(randomString(), Runnable::run);
+        assertInvariantFailure(
+                () -> vpu.setQueueCapacity(10, QueueOverflowPolicy.REJECT),
+                "Zemeckis-0033: VirtualProcessorUnit " + vpu + " was created by"
+                        + " VirtualProcessorUnit.createVirtualThreadVpu(...) and"
+                        + " does not support a bounded task queue.");
+    }
+
+    @Test
+    public void queueHighWaterMark() {
+        final List<Runnable> activations = new ArrayList<>();
+        final var vpu = VirtualProcessorUnit.createVirtualThreadVpu(randomString(), activations::add);
+        final var events = new ArrayList<Integer>();
+        vpu.setQueueHighWaterMark(4, (v, queueSize) -> {
+            assertEquals(v, vpu);
+            events.add(queueSize);
+        });
+
+        for (int i = 0; i < 6; i++) {
+            vpu.queue(randomString(), new NoopTask());
+        }
+        // Invoked once when the high-water mark is reached
+        assertEquals(events, List.of(4));
+
+        // Re-armed once the queue drains to half the high-water mark
+        activations.remove(0).run();
+        for (int i = 0; i < 4; i++) {
+            vpu.queue(randomString(), new NoopTask());
+        }
+        assertEquals(events, List.of(4, 4));
+    }
+
+    @Test
+    public void errorInTaskIsReported() {
+        allowUncaughtExceptions();
+        final List<Throwable> errors = new ArrayList<>();
+        Zemeckis.addUncaughtErrorHandler(errors::add);
+        final List<Runnable> activations = new ArrayList<>();
+        final var vpu = VirtualProcessorUnit.createVirtualThreadVpu(randomString(), activations::add);
+        final var trace = new StringBuilder();
+
+        vpu.queue(randomString(), () -> {
+            throw new IllegalStateException("X");
+        });
+        vpu.queue(randomString(), () -> trace.append("A"));
+
+        activations.remove(0).run();
+
+        assertEquals(trace.toString(), "A");
+        assertEquals(errors.size(), 1);
+        assertEquals(errors.get(0).getMessage(), "X");
+    }
+
+    @Test
+    public void blockedTaskDoesNotBlockOtherVpus() throws InterruptedException {
+        final var vpu1 = VirtualProcessorUnit.createVirtualThreadVpu("Blocking");
+        final var vpu2 = VirtualProcessorUnit.createVirtualThreadVpu("Other");
+        final var unblocked = new CountDownLatch(1);
+        final var completed = new CountDownLatch(1);
+        final List<String> trace = Collections.synchronizedList(new ArrayList<>());
+
+        vpu1.queue("Blocked", () -> {
+            assertEquals(Zemeckis.currentVpu(), vpu1);
+            try {
+                assertTrue(unblocked.await(5, TimeUnit.SECONDS));
+            } catch (final InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+            trace.add("Blocked");
+        });
+        vpu1.queue("AfterBlocked", () -> {
+            trace.add("AfterBlocked");
+            completed.countDown();
+        });
+        vpu2.queue("Other", () -> {
+            assertEquals(Zemeckis.currentVpu(), vpu2);
+            trace.add("Other");
+            unblocked.countDown();
+        });
+
+        assertTrue(completed.await(5, TimeUnit.SECONDS));
+        assertEquals(trace, List.of("Other", "Blocked", "AfterBlocked"));
+    }
+
+    @Test
+    public void timerScheduledByTaskRunsOnOwningShard() throws InterruptedException {
+        final var group = new EventLoopGroup(1);
+        final var shard = group.getShard(0);
+        final var created = new CountDownLatch(1);
+        final List<VirtualProcessorUnit> vpus = Collections.synchronizedList(new ArrayList<>());
+        group.submit(1, () -> {
+            vpus.add(VirtualProcessorUnit.createVirtualThreadVpu(randomString()));
+            created.countDown();
+        });
+        assertTrue(created.await(5, TimeUnit.SECONDS));
+        final var vpu = vpus.get(0);
+
+        final var started = new CountDownLatch(1);
+        final var unblocked = new CountDownLatch(1);
+        group.submit(1, () -> {
+            started.countDown();
+            try {
+                assertTrue(unblocked.await(5, TimeUnit.SECONDS));
+            } catch (final InterruptedException ie) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // The shard is busy so the timer is handed to the shard rather than scheduled on the virtual thread
+        final var scheduled = new CountDownLatch(1);
+        final var fired = new CountDownLatch(1);
+        final List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+        vpu.queue(randomString(), () -> {
+            Zemeckis.delayedTask(
+                    () -> {
+                        threads.add(Thread.currentThread());
+                        fired.countDown();
+                    },
+                    1);
+            Zemeckis.delayedTask(() -> threads.add(Thread.currentThread()), 1).cancel();
+            scheduled.countDown();
+        });
+        assertTrue(scheduled.await(5, TimeUnit.SECONDS));
+        final var scheduler =
+                (TemporalScheduler.TimingWheelSchedulerImpl) shard.getContext().getScheduler();
+        assertEquals(scheduler.size(), 0);
+        assertEquals(fired.getCount(), 1);
+
+        unblocked.countDown();
+        assertTrue(fired.await(5, TimeUnit.SECONDS));
+        group.shutdown();
+        // The canceled timer never fires
+        assertEquals(threads, List.of(shard.getThread()));
+    }
+
+    @Test
+    public void tasksRunInOrder() throws InterruptedException {
+        final var vpu = VirtualProcessorUnit.createVirtualThreadVpu(randomString());
+        final var latch = new CountDownLatch(1_000);
+        final List<Integer> values = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 1_000; i++) {
+            final int value = i;
+            vpu.queue("Task" + i, () -> {
+                values.add(value);
+                latch.countDown();
+            });
+        }
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals((int) Objects.requireNonNull(values.get(i)), i);
+        }
+    }
+}
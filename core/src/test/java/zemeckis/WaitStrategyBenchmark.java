@@ -0,0 +1,80 @@
+package zemeckis;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measure the latency between submitting a task to an {@link EventLoopGroup} from another thread and the
+ * task starting to run, for each {@link EventLoopGroup.WaitStrategy}.
+ *
+ * <p>The producer submits one task at a time and pauses for a random period between submissions so that the
+ * shard is regularly idle when a task is submitted. The benchmark reports latency percentiles in microseconds.
+ * The spinning strategies assume that the loop thread has a core to itself, so the results are only meaningful
+ * on a machine with at least two available processors.</p>
+ *
+ * <p>Run with {@code bazel run //core/src/test/java/zemeckis:wait_strategy_benchmark}.</p>
+ */
+public final class WaitStrategyBenchmark {
+    private static final int WARMUP_SAMPLES = 2_000;
+    private static final int SAMPLES = 20_000;
+    private static final int MAX_PAUSE_MICROS = 200;
+
+    private volatile long _startedAt;
+
+    private WaitStrategyBenchmark() {}
+
+    public static void main(final String[] args) throws InterruptedException {
+        final var benchmark = new WaitStrategyBenchmark();
+        System.out.printf(
+                "%d samples per strategy, pausing up to %dus between submissions%n", SAMPLES, MAX_PAUSE_MICROS);
+        System.out.printf(
+                "%-18s %10s %10s %10s %10s %10s %10s%n", "Strategy", "p50", "p90", "p99", "p99.9", "p99.99", "max");
+        for (final EventLoopGroup.WaitStrategy waitStrategy : EventLoopGroup.WaitStrategy.values()) {
+            benchmark.run(waitStrategy);
+        }
+    }
+
+    private void run(final EventLoopGroup.WaitStrategy waitStrategy) throws InterruptedException {
+        final var group = new EventLoopGroup(1, waitStrategy);
+        final var random = new Random(42);
+        measure(group, random, new long[WARMUP_SAMPLES]);
+        final long[] latencies = new long[SAMPLES];
+        measure(group, random, latencies);
+        group.shutdown();
+
+        Arrays.sort(latencies);
+        System.out.printf(
+                Locale.ROOT,
+                "%-18s %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                waitStrategy,
+                percentile(latencies, 50),
+                percentile(latencies, 90),
+                percentile(latencies, 99),
+                percentile(latencies, 99.9),
+                percentile(latencies, 99.99),
+                latencies[latencies.length - 1] / 1000D);
+    }
+
+    private void measure(final EventLoopGroup group, final Random random, final long[] latencies) {
+        final Runnable task = () -> _startedAt = System.nanoTime();
+        for (int i = 0; i < latencies.length; i++) {
+            _startedAt = 0;
+            final long submittedAt = System.nanoTime();
+            group.submit(1, task);
+            long startedAt;
+            while (0 == (startedAt = _startedAt)) {
+                Thread.onSpinWait();
+            }
+            latencies[i] = startedAt - submittedAt;
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(random.nextInt(MAX_PAUSE_MICROS)));
+        }
+    }
+
+    private static double percentile(final long[] sortedLatencies, final double percentile) {
+        final int index = (int) Math.ceil(percentile / 100D * sortedLatencies.length) - 1;
+        return sortedLatencies[Math.max(0, index)] / 1000D;
+    }
+}
@@ -0,0 +1,191 @@
+package zemeckis;
+
+import static org.testng.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
+import org.realityforge.braincheck.BrainCheckTestUtil;
+import org.testng.annotations.Test;
+
+public final class ZemeckisSpyTest extends AbstractTest {
+    @Test
+    public void addAndRemoveSpyEventHandler() {
+        final var spy = Zemeckis.getSpy();
+        final SpyEventHandler handler = e -> {};
+
+        assertFalse(spy.willPropagateSpyEvents());
+
+        spy.addSpyEventHandler(handler);
+
+        assertTrue(spy.willPropagateSpyEvents());
+
+        assertInvariantFailure(
+                () -> spy.addSpyEventHandler(handler),
+                "Zemeckis-0023: Attempting to add handler " + handler + " that is already in "
+                        + "the list of spy handlers.");
+
+        spy.removeSpyEventHandler(handler);
+
+        assertFalse(spy.willPropagateSpyEvents());
+
+        assertInvariantFailure(
+                () -> spy.removeSpyEventHandler(handler),
+                "Zemeckis-0024: Attempting to remove handler " + handler + " that is not in "
+                        + "the list of spy handlers.");
+    }
+
+    @Test
+    public void handlerRemovedWhileReporting() {
+        final var spy = Zemeckis.getSpy();
+        final var events = new ArrayList<Object>();
+        final var handlers = new ArrayList<SpyEventHandler>();
+        final SpyEventHandler handler = e -> {
+            events.add(e);
+            spy.removeSpyEventHandler(handlers.get(0));
+        };
+        handlers.add(handler);
+        spy.addSpyEventHandler(handler);
+        spy.addSpyEventHandler(events::add);
+
+        Zemeckis.macroTask(randomString(), new NoopTask());
+
+        // The event is reported to both handlers and later events are not reported to the removed handler
+        assertEquals(events.size(), 2);
+        assertEquals(events.get(0), events.get(1));
+
+        Zemeckis.macroTask(randomString(), new NoopTask());
+
+        assertEquals(events.size(), 3);
+    }
+
+    @Test
+    public void getSpy_whenSpiesDisabled() {
+        ZemeckisTestUtil.disableSpies();
+
+        assertInvariantFailure(
+                Zemeckis::getSpy,
+                "Zemeckis-0022: Zemeckis.getSpy() invoked when Zemeckis.areSpiesEnabled() returns false");
+    }
+
+    @Test
+    public void taskEvents() {
+        final var events = new ArrayList<Object>();
+        Zemeckis.getSpy().addSpyEventHandler(events::add);
+
+        Zemeckis.macroTask("A", () -> ZemeckisTestUtil.simulateWork(3));
+        Zemeckis.macroTask("B", new NoopTask()).cancel();
+
+        assertEquals(events.size(), 3);
+        final var queuedEvent = (ZemeckisSpy.TaskQueuedEvent) events.get(0);
+        assertEquals(queuedEvent.getVirtualProcessorUnit(), Zemeckis.macroTaskVpu());
+        assertEquals(queuedEvent.getTaskName(), "A");
+        assertEquals(queuedEvent.getQueueSize(), 1);
+        assertEquals(((ZemeckisSpy.TaskQueuedEvent) events.get(1)).getQueueSize(), 2);
+        final var canceledEvent = (ZemeckisSpy.TaskCanceledEvent) events.get(2);
+        assertEquals(canceledEvent.getTaskName(), "B");
+
+        events.clear();
+        ZemeckisTestUtil.pumpAll();
+
+        assertEquals(events.size(), 4);
+        assertEquals(
+                ((ZemeckisSpy.VpuActivatedEvent) events.get(0)).getVirtualProcessorUnit(), Zemeckis.macroTaskVpu());
+        assertEquals(((ZemeckisSpy.TaskStartedEvent) events.get(1)).getTaskName(), "A");
+        final var completedEvent = (ZemeckisSpy.TaskCompletedEvent) events.get(2);
+        assertEquals(completedEvent.getTaskName(), "A");
+        assertEquals(completedEvent.getDuration(), 3D);
+        assertNull(completedEvent.getError());
+        final var deactivatedEvent = (ZemeckisSpy.VpuDeactivatedEvent) events.get(3);
+        assertEquals(deactivatedEvent.getVirtualProcessorUnit(), Zemeckis.macroTaskVpu());
+        assertEquals(deactivatedEvent.getDuration(), 3D);
+    }
+
+    @Test
+    public void taskEvents_error() {
+        allowUncaughtExceptions();
+        final var error = new IllegalStateException();
+        final var events = new ArrayList<Object>();
+        Zemeckis.getSpy().addSpyEventHandler(events::add);
+
+        Zemeckis.macroTask("A", () -> {
+            throw error;
+        });
+        ZemeckisTestUtil.pumpAll();
+
+        final var completedEvent = (ZemeckisSpy.TaskCompletedEvent) events.get(3);
+        assertEquals(completedEvent.getTaskName(), "A");
+        assertEquals(completedEvent.getError(), error);
+    }
+
+    @Test
+    public void timerFiredEvents() {
+        final var events = new ArrayList<Object>();
+        Zemeckis.getSpy().addSpyEventHandler(e -> {
+            if (e instanceof ZemeckisSpy.TimerFiredEvent) {
+                events.add(e);
+            }
+        });
+
+        Zemeckis.delayedTask("Delayed", new NoopTask(), 20);
+        final var periodicTask = Zemeckis.periodicTask("Periodic", new NoopTask(), 30);
+
+        ZemeckisTestUtil.advanceBy(40);
+        periodicTask.cancel();
+
+        assertEquals(events.size(), 2);
+        final var delayedEvent = (ZemeckisSpy.TimerFiredEvent) events.get(0);
+        assertEquals(delayedEvent.getName(), "Delayed");
+        assertFalse(delayedEvent.isPeriodic());
+        assertEquals(delayedEvent.getTime(), 20);
+        final var periodicEvent = (ZemeckisSpy.TimerFiredEvent) events.get(1);
+        assertEquals(periodicEvent.getName(), "Periodic");
+        assertTrue(periodicEvent.isPeriodic());
+        assertEquals(periodicEvent.getTime(), 30);
+    }
+
+    @Test
+    public void runawayDetectedEvent() {
+        BrainCheckTestUtil.resetConfig(true);
+        final var executor = new TestExecutor(2);
+        final var vpu = new VirtualProcessorUnit(randomString(), executor);
+        final var events = new ArrayList<Object>();
+        Zemeckis.getSpy().addSpyEventHandler(e -> {
+            if (e instanceof ZemeckisSpy.RunawayDetectedEvent) {
+                events.add(e);
+            }
+        });
+
+        final AtomicReference<Runnable> taskRef = new AtomicReference<>();
+        final Runnable task = () -> vpu.queue(randomString(), Objects.requireNonNull(taskRef.get()));
+        taskRef.set(task);
+        vpu.queue(randomString(), task);
+
+        executor.activate();
+
+        assertEquals(events.size(), 1);
+        final var event = (ZemeckisSpy.RunawayDetectedEvent) events.get(0);
+        assertEquals(event.getVirtualProcessorUnit(), vpu);
+        assertEquals(event.getMaxRounds(), 2);
+        assertEquals(event.getQueueSize(), 1);
+    }
+
+    @Test
+    public void handlerErrorIsLogged() {
+        final var error = new IllegalStateException();
+        final var events = new ArrayList<Object>();
+        final SpyEventHandler handler = e -> {
+            throw error;
+        };
+        Zemeckis.getSpy().addSpyEventHandler(handler);
+        Zemeckis.getSpy().addSpyEventHandler(events::add);
+
+        Zemeckis.macroTask("A", new NoopTask());
+
+        assertEquals(events.size(), 1);
+        final var entries = getTestLogger().getEntries();
+        assertEquals(entries.size(), 1);
+        assertTrue(entries.get(0).getMessage().startsWith("Exception when notifying spy handler '" + handler + "'"));
+        assertEquals(entries.get(0).getThrowable(), error);
+    }
+}
@@ -20,6 +20,106 @@ public final class ZemeckisTest extends AbstractTest {
         Zemeckis.now();
     }
 
+    @Test
+    public void activationTime() {
+        final var times = new ArrayList<Double>();
+        ZemeckisTestUtil.advanceBy(5);
+        Zemeckis.macroTask("A", () -> {
+            times.add(Zemeckis.activationTime());
+            ZemeckisTestUtil.simulateWork(4);
+            times.add(Zemeckis.activationTime());
+        });
+        Zemeckis.macroTask("B", () -> times.add(Zemeckis.activationTime()));
+        ZemeckisTestUtil.pumpAll();
+        Zemeckis.macroTask("C", () -> times.add(Zemeckis.activationTime()));
+        ZemeckisTestUtil.pumpAll();
+
+        assertEquals(times, List.of(5D, 5D, 5D, 9D));
+        // Outside an activation the clock is read
+        assertEquals(Zemeckis.activationTime(), 9D);
+    }
+
+    @Test
+    public void frameTime() {
+        final var times = new ArrayList<Double>();
+        ZemeckisTestUtil.advanceBy(5);
+        Zemeckis.animationFrame("A", () -> {
+            ZemeckisTestUtil.simulateWork(3);
+            times.add(Zemeckis.frameTime());
+            times.add(Zemeckis.activationTime());
+        });
+        Zemeckis.animationFrame("B", () -> times.add(Zemeckis.frameTime()));
+        ZemeckisTestUtil.advanceBy(20);
+
+        assertEquals(times, List.of(16D, 16D, 16D));
+
+        assertInvariantFailure(
+                Zemeckis::frameTime,
+                "Zemeckis-0030: Zemeckis.frameTime() invoked outside of an activation of the animationFrame "
+                        + "VirtualProcessorUnit");
+    }
+
+    @Test
+    public void metrics() {
+        Zemeckis.macroTask(new NoopTask());
+        Zemeckis.macroTask(new NoopTask()).cancel();
+        Zemeckis.onIdle(new NoopTask());
+
+        ZemeckisTestUtil.pumpAll();
+
+        final var metrics = Zemeckis.metrics();
+        assertEquals(metrics.size(), 5);
+        assertEquals(metrics.get(0).getVirtualProcessorUnit(), Zemeckis.macroTaskVpu());
+        assertEquals(metrics.get(1).getVirtualProcessorUnit(), Zemeckis.microTaskVpu());
+        assertEquals(metrics.get(2).getVirtualProcessorUnit(), Zemeckis.animationFrameVpu());
+        assertEquals(metrics.get(3).getVirtualProcessorUnit(), Zemeckis.afterFrameVpu());
+        assertEquals(metrics.get(4).getVirtualProcessorUnit(), Zemeckis.onIdleVpu());
+
+        final var macroTaskMetrics = metrics.get(0);
+        assertEquals(macroTaskMetrics.getTasksQueued(), 2);
+        assertEquals(macroTaskMetrics.getTasksExecuted(), 1);
+        assertEquals(macroTaskMetrics.getTasksCanceled(), 1);
+        assertEquals(macroTaskMetrics.getQueueHighWaterMark(), 2);
+        assertEquals(macroTaskMetrics.getActivations(), 1);
+        assertEquals(metrics.get(1).getTasksQueued(), 0);
+        assertEquals(metrics.get(4).getTasksExecuted(), 1);
+        assertEquals(metrics.get(4).getActivations(), 1);
+
+        ZemeckisTestUtil.disableMetrics();
+        assertInvariantFailure(
+                Zemeckis::metrics,
+                "Zemeckis-0021: Zemeckis.metrics() invoked when Zemeckis.areMetricsEnabled() is false");
+    }
+
+    @Test
+    public void metrics_latency() {
+        Zemeckis.macroTask(() -> ZemeckisTestUtil.simulateWork(5));
+        Zemeckis.macroTask(() -> ZemeckisTestUtil.simulateWork(2));
+        Zemeckis.macroTask(() -> {
+            ZemeckisTestUtil.simulateWork(1);
+            throw new IllegalStateException();
+        });
+        allowUncaughtExceptions();
+
+        ZemeckisTestUtil.pumpAll();
+
+        final var metrics = Zemeckis.macroTaskVpu().getMetrics();
+        final var queueWaitTime = metrics.getQueueWaitTime();
+        assertEquals(queueWaitTime.getCount(), 3);
+        // Percentiles report the largest value in the bucket, and 5000us is recorded in the bucket [4864, 5119]
+        assertEquals(queueWaitTime.getP50(), 5119);
+        assertEquals(queueWaitTime.getMax(), 7000);
+        final var executionTime = metrics.getExecutionTime();
+        assertEquals(executionTime.getCount(), 3);
+        // 2000us is recorded in the bucket [1984, 2047]
+        assertEquals(executionTime.getP50(), 2047);
+        // Percentiles are capped at the largest value recorded
+        assertEquals(executionTime.getP99(), 5000);
+        assertEquals(executionTime.getMax(), 5000);
+        assertEquals(metrics.getTasksExecuted(), 2);
+        assertEquals(metrics.getTasksFailed(), 1);
+    }
+
     @Test
     public void delayedTask() {
         final var trace = new StringBuilder();
@@ -151,7 +251,8 @@ public final class ZemeckisTest extends AbstractTest {
         assertNull(Zemeckis.currentVpu());
 
         assertEquals(ZemeckisTestUtil.pumpAll(), 5);
-        assertEquals(trace.toString(), "ABCDEFGHIJ");
+        // The idle period precedes the next frame as the test scheduler is idle until the frame starts
+        assertEquals(trace.toString(), "ABCDIJEFGH");
         assertEquals(cancelable1.toString(), "MacroTask@0");
         assertEquals(cancelable2.toString(), name1);
         assertEquals(cancelable3.toString(), "MicroTask@1");
@@ -164,6 +265,21 @@ public final class ZemeckisTest extends AbstractTest {
         assertEquals(cancelable10.toString(), name5);
     }
 
+    @Test
+    public void macroTask_priority() {
+        final var trace = new StringBuilder();
+        for (int i = 0; i < 5; i++) {
+            Zemeckis.macroTask(randomString(), () -> trace.append("B"), TaskPriority.BACKGROUND);
+        }
+        Zemeckis.macroTask(randomString(), () -> trace.append("N"), TaskPriority.NORMAL);
+        Zemeckis.macroTask(randomString(), () -> trace.append("U"), TaskPriority.USER_BLOCKING);
+
+        ZemeckisTestUtil.pumpAll();
+
+        // The user-blocking and normal tasks run ahead of the backlog of background tasks
+        assertEquals(trace.toString(), "UNBBBBB");
+    }
+
     @Test
     public void canceledTaskNoRun() {
         assertFalse(Zemeckis.isVpuActivated());
@@ -208,6 +324,128 @@ public final class ZemeckisTest extends AbstractTest {
         assertEquals(trace.toString(), "");
     }
 
+    @Test
+    public void submitFromAnyThread() throws InterruptedException {
+        final List<String> trace = new ArrayList<>();
+        final var thread = new Thread(() -> {
+            Zemeckis.submitFromAnyThread(Zemeckis.macroTaskVpu(), () -> trace.add("A"));
+            Zemeckis.submitFromAnyThread(Zemeckis.macroTaskVpu(), "B", () -> trace.add("B"));
+        });
+        thread.start();
+        thread.join();
+
+        assertEquals(trace, List.of());
+        // A single activation runs both of the submitted tasks
+        assertEquals(ZemeckisTestUtil.pumpAll(), 1);
+        assertEquals(trace, List.of("A", "B"));
+    }
+
+    @Test
+    public void isolatedContext() {
+        Zemeckis.macroTask(() -> {});
+        final var globalMacroTaskVpu = Zemeckis.macroTaskVpu();
+
+        ZemeckisTestUtil.bindIsolatedContext();
+        try {
+            assertNotEquals(Zemeckis.macroTaskVpu(), globalMacroTaskVpu);
+            assertEquals(Zemeckis.now(), 0);
+
+            final List<String> trace = new ArrayList<>();
+            // The isolated context has its own task id sequence
+            assertEquals(Zemeckis.macroTask(() -> trace.add("A")).toString(), "MacroTask@0");
+            Zemeckis.delayedTask(() -> trace.add("B"), 100);
+
+            // Only the tasks scheduled within the isolated context are pumped
+            assertEquals(ZemeckisTestUtil.pumpAll(), 2);
+            assertEquals(trace, List.of("A", "B"));
+            assertEquals(Zemeckis.now(), 100);
+        } finally {
+            ZemeckisTestUtil.unbindIsolatedContext();
+        }
+
+        assertEquals(Zemeckis.macroTaskVpu(), globalMacroTaskVpu);
+        assertEquals(Zemeckis.now(), 0);
+        assertEquals(ZemeckisTestUtil.pumpAll(), 1);
+    }
+
+    @Test
+    public void isolatedContextsRunInParallel() throws InterruptedException {
+        final var threadCount = 8;
+        final List<List<String>> traces = new ArrayList<>();
+        final List<Thread> threads = new ArrayList<>();
+        final var errors = new AtomicInteger();
+        for (int i = 0; i < threadCount; i++) {
+            final List<String> trace = new ArrayList<>();
+            traces.add(trace);
+            threads.add(new Thread(() -> {
+                ZemeckisTestUtil.bindIsolatedContext();
+                try {
+                    for (int j = 0; j < 100; j++) {
+                        final int id = j;
+                        Zemeckis.delayedTask(
+                                () -> {
+                                    trace.add(Zemeckis.now() + ":" + id);
+                                    Zemeckis.microTask(() -> trace.add("micro"));
+                                },
+                                100 - j);
+                    }
+                    ZemeckisTestUtil.pumpAll();
+                } catch (final Throwable t) {
+                    errors.incrementAndGet();
+                } finally {
+                    ZemeckisTestUtil.unbindIsolatedContext();
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (final var thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(errors.get(), 0);
+        for (final var trace : traces) {
+            assertEquals(trace, traces.get(0));
+            assertEquals(trace.size(), 200);
+            assertEquals(trace.get(0), "1:99");
+            assertEquals(trace.get(1), "micro");
+        }
+    }
+
+    @Test
+    public void immediateMode() {
+        ZemeckisTestUtil.enableImmediateMode();
+        final List<String> trace = new ArrayList<>();
+
+        Zemeckis.macroTask(() -> {
+            assertEquals(Zemeckis.currentVpu(), Zemeckis.macroTaskVpu());
+            trace.add("A");
+            // Other VirtualProcessorUnits are activated once the outermost activation completes
+            Zemeckis.microTask(() -> {
+                assertEquals(Zemeckis.currentVpu(), Zemeckis.microTaskVpu());
+                trace.add("C");
+            });
+            // Tasks queued on the current VirtualProcessorUnit run in the current activation
+            Zemeckis.macroTask(() -> trace.add("B"));
+            trace.add("A-end");
+        });
+        trace.add("returned");
+
+        assertEquals(trace, List.of("A", "A-end", "B", "C", "returned"));
+        assertFalse(Zemeckis.isVpuActivated());
+        assertEquals(ZemeckisTestUtil.pumpAll(), 0);
+
+        // Timers still fire when pumped and tasks they queue run when the timer completes
+        Zemeckis.delayedTask(() -> Zemeckis.microTask(() -> trace.add("D")), 10);
+        assertEquals(ZemeckisTestUtil.pumpAll(), 1);
+        assertEquals(trace.get(trace.size() - 1), "D");
+
+        ZemeckisTestUtil.disableImmediateMode();
+        Zemeckis.macroTask(() -> trace.add("E"));
+        assertEquals(trace.get(trace.size() - 1), "D");
+        assertEquals(ZemeckisTestUtil.pumpAll(), 1);
+        assertEquals(trace.get(trace.size() - 1), "E");
+    }
+
     @Test
     public void becomeMacroTask() {
         final List<String> trace = new ArrayList<>();
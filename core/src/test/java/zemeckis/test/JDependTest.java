@@ -25,10 +25,12 @@ public class JDependTest {
         final var jsinterop = constraint.addPackage("jsinterop.annotations");
         final var jsinteropBase = constraint.addPackage("jsinterop.base");
         final var jspecify = constraint.addPackage("org.jspecify.annotations");
+        final var jfr = constraint.addPackage("jdk.jfr");
         zemeckis.dependsUpon(jsinterop);
         zemeckis.dependsUpon(jsinteropBase);
         zemeckis.dependsUpon(jspecify);
         zemeckis.dependsUpon(braincheck);
+        zemeckis.dependsUpon(jfr);
         final var result = jdepend.analyzeDependencies(constraint);
 
         final var undefinedPackages = result.getUndefinedPackages();
@@ -0,0 +1,205 @@
+package zemeckis.test;
+
+import static org.testng.Assert.*;
+
+import java.util.ArrayList;
+import org.jspecify.annotations.Nullable;
+import org.testng.annotations.Test;
+import zemeckis.AbstractTest;
+import zemeckis.LongTaskHandler;
+import zemeckis.VirtualProcessorUnit;
+import zemeckis.Zemeckis;
+import zemeckis.ZemeckisTestUtil;
+
+public class LongTaskHandlerTest extends AbstractTest {
+    private static final class LongTask {
+        @Nullable
+        private final String _taskName;
+
+        private final VirtualProcessorUnit _virtualProcessorUnit;
+        private final double _duration;
+        private final boolean _activation;
+
+        LongTask(
+                @Nullable final String taskName,
+                final VirtualProcessorUnit virtualProcessorUnit,
+                final double duration,
+                final boolean activation) {
+            _taskName = taskName;
+            _virtualProcessorUnit = virtualProcessorUnit;
+            _duration = duration;
+            _activation = activation;
+        }
+    }
+
+    @Test
+    public void basicOperation() {
+        final var longTasks = new ArrayList<LongTask>();
+        final LongTaskHandler handler = (taskName, vpu, duration, activation) ->
+                longTasks.add(new LongTask(taskName, vpu, duration, activation));
+        Zemeckis.addLongTaskHandler(handler);
+
+        assertEquals(Zemeckis.getLongTaskThreshold(), LongTaskHandler.DEFAULT_THRESHOLD);
+
+        Zemeckis.macroTask("A", () -> ZemeckisTestUtil.simulateWork(10));
+        Zemeckis.macroTask("B", () -> ZemeckisTestUtil.simulateWork(60));
+        ZemeckisTestUtil.pumpAll();
+
+        assertEquals(longTasks.size(), 2);
+        final var task = longTasks.get(0);
+        assertEquals(task._taskName, "B");
+        assertEquals(task._virtualProcessorUnit, Zemeckis.macroTaskVpu());
+        assertEquals(task._duration, 60D);
+        assertFalse(task._activation);
+        final var activation = longTasks.get(1);
+        assertNull(activation._taskName);
+        assertEquals(activation._virtualProcessorUnit, Zemeckis.macroTaskVpu());
+        assertEquals(activation._duration, 70D);
+        assertTrue(activation._activation);
+
+        Zemeckis.removeLongTaskHandler(handler);
+        Zemeckis.macroTask("C", () -> ZemeckisTestUtil.simulateWork(60));
+        ZemeckisTestUtil.pumpAll();
+
+        // Not called again
+        assertEquals(longTasks.size(), 2);
+    }
+
+    @Test
+    public void handlerRemovedWhileReporting() {
+        final var longTasks = new ArrayList<LongTask>();
+        final var handlers = new ArrayList<LongTaskHandler>();
+        final LongTaskHandler handler = (taskName, vpu, duration, activation) -> {
+            longTasks.add(new LongTask(taskName, vpu, duration, activation));
+            Zemeckis.removeLongTaskHandler(handlers.get(0));
+        };
+        handlers.add(handler);
+        Zemeckis.addLongTaskHandler(handler);
+        Zemeckis.addLongTaskHandler((taskName, vpu, duration, activation) ->
+                longTasks.add(new LongTask(taskName, vpu, duration, activation)));
+
+        Zemeckis.macroTask("A", () -> ZemeckisTestUtil.simulateWork(60));
+        ZemeckisTestUtil.pumpAll();
+
+        // The long task is reported to both handlers, and the removed handler is not called for the activation
+        assertEquals(longTasks.size(), 3);
+        assertEquals(longTasks.get(0)._taskName, "A");
+        assertEquals(longTasks.get(1)._taskName, "A");
+        assertTrue(longTasks.get(2)._activation);
+    }
+
+    @Test
+    public void longActivationOfShortTasks() {
+        final var longTasks = new ArrayList<LongTask>();
+        Zemeckis.addLongTaskHandler((taskName, vpu, duration, activation) ->
+                longTasks.add(new LongTask(taskName, vpu, duration, activation)));
+        Zemeckis.setLongTaskThreshold(10);
+
+        assertEquals(Zemeckis.getLongTaskThreshold(), 10);
+
+        Zemeckis.onIdle("A", () -> ZemeckisTestUtil.simulateWork(6));
+        Zemeckis.onIdle("B", () -> ZemeckisTestUtil.simulateWork(6));
+        ZemeckisTestUtil.pumpAll();
+
+        assertEquals(longTasks.size(), 1);
+        final var activation = longTasks.get(0);
+        assertEquals(activation._virtualProcessorUnit, Zemeckis.onIdleVpu());
+        assertEquals(activation._duration, 12D);
+        assertTrue(activation._activation);
+    }
+
+    @Test
+    public void longTaskThatThrows() {
+        allowUncaughtExceptions();
+        final var longTasks = new ArrayList<LongTask>();
+        Zemeckis.addLongTaskHandler((taskName, vpu, duration, activation) ->
+                longTasks.add(new LongTask(taskName, vpu, duration, activation)));
+
+        Zemeckis.macroTask("A", () -> {
+            ZemeckisTestUtil.simulateWork(50);
+            throw new IllegalStateException();
+        });
+        ZemeckisTestUtil.pumpAll();
+
+        assertEquals(longTasks.size(), 2);
+        assertEquals(longTasks.get(0)._taskName, "A");
+        assertEquals(longTasks.get(0)._duration, 50D);
+    }
+
+    @Test
+    public void namesDisabled() {
+        ZemeckisTestUtil.disableNames();
+        final var longTasks = new ArrayList<LongTask>();
+        Zemeckis.addLongTaskHandler((taskName, vpu, duration, activation) ->
+                longTasks.add(new LongTask(taskName, vpu, duration, activation)));
+
+        Zemeckis.macroTask(() -> ZemeckisTestUtil.simulateWork(50));
+        ZemeckisTestUtil.pumpAll();
+
+        assertEquals(longTasks.size(), 2);
+        assertNull(longTasks.get(0)._taskName);
+        assertFalse(longTasks.get(0)._activation);
+    }
+
+    @Test
+    public void handlerThrowsException() {
+        final var longTasks = new ArrayList<LongTask>();
+        final LongTaskHandler handler = (taskName, vpu, duration, activation) -> {
+            throw new IllegalStateException();
+        };
+        Zemeckis.addLongTaskHandler(handler);
+        Zemeckis.addLongTaskHandler((taskName, vpu, duration, activation) ->
+                longTasks.add(new LongTask(taskName, vpu, duration, activation)));
+
+        Zemeckis.macroTask("A", () -> ZemeckisTestUtil.simulateWork(50));
+        ZemeckisTestUtil.pumpAll();
+
+        // The second handler is still called
+        assertEquals(longTasks.size(), 2);
+        final var entries = getTestLogger().getEntries();
+        assertEquals(entries.size(), 2);
+        assertEquals(
+                entries.get(0).getMessage(),
+                "Exception when notifying long task handler '" + handler + "' of long task in "
+                        + Zemeckis.macroTaskVpu() + ".");
+    }
+
+    @Test
+    public void addLongTaskHandler_alreadyExists() {
+        final LongTaskHandler handler = (taskName, vpu, duration, activation) -> {};
+        Zemeckis.addLongTaskHandler(handler);
+
+        assertInvariantFailure(
+                () -> Zemeckis.addLongTaskHandler(handler),
+                "Zemeckis-0026: Attempting to add handler " + handler + " that is already in "
+                        + "the list of long task handlers.");
+    }
+
+    @Test
+    public void removeLongTaskHandler_noExists() {
+        final LongTaskHandler handler = (taskName, vpu, duration, activation) -> {};
+
+        assertInvariantFailure(
+                () -> Zemeckis.removeLongTaskHandler(handler),
+                "Zemeckis-0027: Attempting to remove handler " + handler + " that is not in "
+                        + "the list of long task handlers.");
+    }
+
+    @Test
+    public void setLongTaskThreshold_notPositive() {
+        assertInvariantFailure(
+                () -> Zemeckis.setLongTaskThreshold(0),
+                "Zemeckis-0028: Attempting to set the long task threshold to 0 but the threshold must be "
+                        + "greater than 0.");
+    }
+
+    @Test
+    public void longTaskHandlersDisabled() {
+        ZemeckisTestUtil.disableLongTaskHandlers();
+
+        assertInvariantFailure(
+                () -> Zemeckis.addLongTaskHandler((taskName, vpu, duration, activation) -> {}),
+                "Zemeckis-0025: LongTaskHandlerSupport.get() invoked when Zemeckis.areLongTaskHandlersEnabled() "
+                        + "returns false.");
+    }
+}
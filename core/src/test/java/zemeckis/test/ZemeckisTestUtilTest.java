@@ -17,6 +17,22 @@ public class ZemeckisTestUtilTest extends AbstractTest {
         assertTrue(Zemeckis.areNamesEnabled());
     }
 
+    @Test
+    public void areMetricsEnabled() {
+        ZemeckisTestUtil.disableMetrics();
+        assertFalse(Zemeckis.areMetricsEnabled());
+        ZemeckisTestUtil.enableMetrics();
+        assertTrue(Zemeckis.areMetricsEnabled());
+    }
+
+    @Test
+    public void isUserTimingEnabled() {
+        ZemeckisTestUtil.disableUserTiming();
+        assertFalse(Zemeckis.isUserTimingEnabled());
+        ZemeckisTestUtil.enableUserTiming();
+        assertTrue(Zemeckis.isUserTimingEnabled());
+    }
+
     @Test
     public void purgeTasksWhenRunawayDetected() {
         ZemeckisTestUtil.noPurgeTasksWhenRunawayDetected();